@@ -266,6 +266,8 @@ public class AccumuloConnectionFactoryImpl implements AccumuloConnectionFactory
             buf.append("NORMAL: ").append(entry.getValue().get(Priority.NORMAL)).append("\n");
             buf.append("LOW: ").append(entry.getValue().get(Priority.LOW)).append("\n");
         }
+        buf.append("**** ").append(ScanAdmissionController.POOL_NAME).append(" ****\n");
+        buf.append(ScanAdmissionController.getInstance()).append("\n");
 
         return buf.toString();
     }
@@ -341,6 +343,8 @@ public class AccumuloConnectionFactoryImpl implements AccumuloConnectionFactory
                 connectionPools.add(poolInfo);
             }
         }
+        // the scanners in flight for queries, see ScanAdmissionController
+        connectionPools.addAll(ScanAdmissionController.getInstance().getConnectionPools());
         return connectionPools;
     }
 
@@ -0,0 +1,361 @@
+package datawave.core.common.connection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.lang.mutable.MutableInt;
+import org.apache.log4j.Logger;
+
+import datawave.core.common.connection.AccumuloConnectionFactory.Priority;
+import datawave.core.common.result.Connection;
+import datawave.core.common.result.ConnectionPool;
+
+/**
+ * A webserver wide limit on the number of scanner batches in flight. Every query scanner asks for a permit before it fetches from the tablet servers and
+ * returns it whenever it has to wait for its results to be read, so a query whose results are not being read holds no permits. When all permits are taken,
+ * requests wait for a bounded time rather than fail right away, and a returned permit goes to the waiting request whose user holds the fewest permits relative
+ * to its weight. The weight of a request is the weight of its {@link Priority} multiplied by the weight of its user, so a user running many large queries can
+ * not starve everyone else, and higher priority queries get a larger share of the scanners.
+ * <p>
+ * A single instance is shared by all queries in the webserver, see {@link #getInstance()}. Its utilization is reported with the connection pools, see
+ * {@link #getConnectionPools()}.
+ */
+public class ScanAdmissionController {
+
+    private static final Logger log = Logger.getLogger(ScanAdmissionController.class);
+
+    public static final String POOL_NAME = "ScanAdmission";
+    public static final int DEFAULT_CAPACITY = 500;
+
+    private static final ScanAdmissionController INSTANCE = new ScanAdmissionController(DEFAULT_CAPACITY);
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LinkedList<Request> waiting = new LinkedList<>();
+
+    private final Map<Priority,Double> priorityWeights = new EnumMap<>(Priority.class);
+    private final Map<String,Double> userWeights = new HashMap<>();
+
+    // permits held by each user, and permits held and waited for by each priority and user for reporting
+    private final Map<String,MutableInt> userInFlight = new HashMap<>();
+    private final Map<Priority,Map<String,MutableInt>> inFlightByPriority = new EnumMap<>(Priority.class);
+    private final Map<Priority,Map<String,MutableInt>> waitingByPriority = new EnumMap<>(Priority.class);
+
+    private int capacity;
+    private int inFlight = 0;
+
+    public ScanAdmissionController(int capacity) {
+        setCapacity(capacity);
+        priorityWeights.put(Priority.LOW, 1.0d);
+        priorityWeights.put(Priority.NORMAL, 2.0d);
+        priorityWeights.put(Priority.HIGH, 4.0d);
+        priorityWeights.put(Priority.ADMIN, 8.0d);
+        for (Priority priority : Priority.values()) {
+            inFlightByPriority.put(priority, new TreeMap<>());
+            waitingByPriority.put(priority, new TreeMap<>());
+        }
+    }
+
+    /**
+     * @return the controller shared by all queries
+     */
+    public static ScanAdmissionController getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Wait for a permit to start a scanner batch
+     *
+     * @param user
+     *            the user running the query
+     * @param priority
+     *            the priority of the query
+     * @param maxWait
+     *            the longest time to wait for a permit
+     * @param unit
+     *            the unit of the wait
+     * @throws InterruptedException
+     *             if interrupted while waiting, in which case no permit is held
+     * @throws TimeoutException
+     *             if no permit was granted within the wait, in which case no permit is held
+     */
+    public void acquire(String user, Priority priority, long maxWait, TimeUnit unit) throws InterruptedException, TimeoutException {
+        String owner = user == null ? "" : user;
+        lock.lock();
+        try {
+            if (waiting.isEmpty() && inFlight < capacity) {
+                admit(owner, priority);
+                return;
+            }
+
+            Request request = new Request(owner, priority, lock.newCondition());
+            waiting.add(request);
+            increment(waitingByPriority.get(priority), owner);
+            if (log.isTraceEnabled()) {
+                log.trace("Queueing scan for " + owner + " at " + priority + ", " + waiting.size() + " waiting and " + inFlight + " in flight");
+            }
+            grant();
+
+            try {
+                long remaining = unit.toNanos(maxWait);
+                while (!request.granted) {
+                    if (remaining <= 0L) {
+                        waiting.remove(request);
+                        decrement(waitingByPriority.get(priority), owner);
+                        throw new TimeoutException("No scan permit was granted to " + owner + " at " + priority + " within " + unit.toMillis(maxWait) + " ms, "
+                                        + inFlight + " of " + capacity + " permits are in flight and " + waiting.size() + " requests are waiting");
+                    }
+                    remaining = request.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                if (request.granted) {
+                    release(owner, priority);
+                } else {
+                    waiting.remove(request);
+                    decrement(waitingByPriority.get(priority), owner);
+                }
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return a permit acquired with {@link #acquire(String, Priority)}
+     *
+     * @param user
+     *            the user running the query
+     * @param priority
+     *            the priority of the query
+     */
+    public void release(String user, Priority priority) {
+        String owner = user == null ? "" : user;
+        lock.lock();
+        try {
+            if (inFlight > 0) {
+                inFlight--;
+            }
+            decrement(userInFlight, owner);
+            decrement(inFlightByPriority.get(priority), owner);
+            grant();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void admit(String user, Priority priority) {
+        inFlight++;
+        increment(userInFlight, user);
+        increment(inFlightByPriority.get(priority), user);
+    }
+
+    /**
+     * Hand out free permits to the waiting requests with the smallest weighted share, in arrival order when shares are equal
+     */
+    private void grant() {
+        while (inFlight < capacity && !waiting.isEmpty()) {
+            Request next = null;
+            double nextShare = Double.MAX_VALUE;
+            for (Request request : waiting) {
+                double share = getShare(request);
+                if (next == null || share < nextShare) {
+                    next = request;
+                    nextShare = share;
+                }
+            }
+            waiting.remove(next);
+            decrement(waitingByPriority.get(next.priority), next.user);
+            admit(next.user, next.priority);
+            next.granted = true;
+            next.condition.signal();
+        }
+    }
+
+    private double getShare(Request request) {
+        MutableInt held = userInFlight.get(request.user);
+        double weight = priorityWeights.getOrDefault(request.priority, 1.0d) * userWeights.getOrDefault(request.user, 1.0d);
+        return (held == null ? 0 : held.intValue()) / Math.max(weight, Double.MIN_VALUE);
+    }
+
+    private static void increment(Map<String,MutableInt> counts, String user) {
+        counts.computeIfAbsent(user, k -> new MutableInt()).increment();
+    }
+
+    private static void decrement(Map<String,MutableInt> counts, String user) {
+        MutableInt count = counts.get(user);
+        if (count != null) {
+            count.decrement();
+            if (count.intValue() <= 0) {
+                counts.remove(user);
+            }
+        }
+    }
+
+    public int getCapacity() {
+        lock.lock();
+        try {
+            return capacity;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Change the number of permits. Lowering the capacity does not revoke permits already held.
+     *
+     * @param capacity
+     *            the number of scanner batches allowed in flight
+     */
+    public void setCapacity(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        lock.lock();
+        try {
+            this.capacity = capacity;
+            grant();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void setPriorityWeights(Map<Priority,Double> priorityWeights) {
+        lock.lock();
+        try {
+            this.priorityWeights.putAll(priorityWeights);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param userWeights
+     *            the weight of each user, users not listed have a weight of 1
+     */
+    public void setUserWeights(Map<String,Double> userWeights) {
+        lock.lock();
+        try {
+            this.userWeights.clear();
+            this.userWeights.putAll(userWeights);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the percentage of permits in flight
+     */
+    public int getUsagePercent() {
+        lock.lock();
+        try {
+            return (int) (100L * inFlight / capacity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Report the permits held and waited for by each priority, with the users holding or waiting for them as connection requests
+     *
+     * @return a pool entry for each priority
+     */
+    public List<ConnectionPool> getConnectionPools() {
+        List<ConnectionPool> pools = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Priority priority : Priority.values()) {
+                Map<String,MutableInt> held = inFlightByPriority.get(priority);
+                Map<String,MutableInt> queued = waitingByPriority.get(priority);
+
+                ConnectionPool pool = new ConnectionPool();
+                pool.setPoolName(POOL_NAME);
+                pool.setPriority(priority.name());
+                pool.setMaxActive(capacity);
+                pool.setNumActive(sum(held));
+                pool.setNumWaiting(sum(queued));
+
+                List<Connection> requests = new ArrayList<>();
+                Set<String> users = new TreeSet<>(held.keySet());
+                users.addAll(queued.keySet());
+                for (String user : users) {
+                    Connection request = new Connection();
+                    request.setState(queued.containsKey(user) ? AccumuloConnectionFactory.State.WAITING.name()
+                                    : AccumuloConnectionFactory.State.CONNECTED.name());
+                    request.addProperty("user", user);
+                    request.addProperty("inFlight", String.valueOf(held.containsKey(user) ? held.get(user).intValue() : 0));
+                    request.addProperty("waiting", String.valueOf(queued.containsKey(user) ? queued.get(user).intValue() : 0));
+                    request.addProperty("weight", String.valueOf(userWeights.getOrDefault(user, 1.0d)));
+                    requests.add(request);
+                }
+                Collections.sort(requests);
+                pool.setConnectionRequests(requests);
+                pools.add(pool);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return pools;
+    }
+
+    private static int sum(Map<String,MutableInt> counts) {
+        int sum = 0;
+        for (MutableInt count : counts.values()) {
+            sum += count.intValue();
+        }
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return "capacity=" + capacity + ", inFlight=" + inFlight + ", waiting=" + waiting.size() + ", users=" + userInFlight.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class Request {
+        private final String user;
+        private final Priority priority;
+        private final Condition condition;
+        private boolean granted = false;
+
+        Request(String user, Priority priority, Condition condition) {
+            this.user = user;
+            this.priority = priority;
+            this.condition = condition;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package datawave.core.common.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import datawave.core.common.connection.AccumuloConnectionFactory.Priority;
+import datawave.core.common.result.ConnectionPool;
+
+public class ScanAdmissionControllerTest {
+
+    @Test
+    public void testAdmitsUpToCapacity() throws Exception {
+        ScanAdmissionController controller = new ScanAdmissionController(2);
+        controller.acquire("alice", Priority.NORMAL, 5, TimeUnit.SECONDS);
+        controller.acquire("alice", Priority.NORMAL, 5, TimeUnit.SECONDS);
+        assertEquals(2, controller.getInFlight());
+        assertEquals(100, controller.getUsagePercent());
+
+        CountDownLatch admitted = acquireAsync(controller, "bob", Priority.NORMAL);
+        awaitWaiting(controller, 1);
+        assertFalse(admitted.await(100, TimeUnit.MILLISECONDS));
+
+        controller.release("alice", Priority.NORMAL);
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+        assertEquals(2, controller.getInFlight());
+        assertEquals(0, controller.getWaiting());
+    }
+
+    @Test
+    public void testUserWithFewestPermitsGoesFirst() throws Exception {
+        ScanAdmissionController controller = new ScanAdmissionController(4);
+        controller.acquire("alice", Priority.NORMAL, 5, TimeUnit.SECONDS);
+        controller.acquire("alice", Priority.NORMAL, 5, TimeUnit.SECONDS);
+        controller.acquire("alice", Priority.NORMAL, 5, TimeUnit.SECONDS);
+        controller.acquire("bob", Priority.NORMAL, 5, TimeUnit.SECONDS);
+
+        // alice asks first, but already holds more permits than bob
+        CountDownLatch alice = acquireAsync(controller, "alice", Priority.NORMAL);
+        awaitWaiting(controller, 1);
+        CountDownLatch bob = acquireAsync(controller, "bob", Priority.NORMAL);
+        awaitWaiting(controller, 2);
+
+        controller.release("alice", Priority.NORMAL);
+        assertTrue(bob.await(5, TimeUnit.SECONDS));
+        assertFalse(alice.await(100, TimeUnit.MILLISECONDS));
+
+        controller.release("bob", Priority.NORMAL);
+        assertTrue(alice.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testWeights() throws Exception {
+        ScanAdmissionController controller = new ScanAdmissionController(3);
+        controller.acquire("low", Priority.LOW, 5, TimeUnit.SECONDS);
+        controller.acquire("high", Priority.HIGH, 5, TimeUnit.SECONDS);
+        controller.acquire("other", Priority.NORMAL, 5, TimeUnit.SECONDS);
+
+        CountDownLatch low = acquireAsync(controller, "low", Priority.LOW);
+        awaitWaiting(controller, 1);
+        CountDownLatch high = acquireAsync(controller, "high", Priority.HIGH);
+        awaitWaiting(controller, 2);
+
+        controller.release("other", Priority.NORMAL);
+        assertTrue(high.await(5, TimeUnit.SECONDS));
+        assertFalse(low.await(100, TimeUnit.MILLISECONDS));
+
+        controller.release("high", Priority.HIGH);
+        assertTrue(low.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testUserWeights() throws Exception {
+        ScanAdmissionController controller = new ScanAdmissionController(5);
+        controller.setUserWeights(Collections.singletonMap("alice", 4.0d));
+        controller.acquire("alice", Priority.NORMAL, 5, TimeUnit.SECONDS);
+        controller.acquire("alice", Priority.NORMAL, 5, TimeUnit.SECONDS);
+        controller.acquire("alice", Priority.NORMAL, 5, TimeUnit.SECONDS);
+        controller.acquire("bob", Priority.NORMAL, 5, TimeUnit.SECONDS);
+        controller.acquire("other", Priority.NORMAL, 5, TimeUnit.SECONDS);
+
+        // alice holds more permits, but with four times the weight her share is still smaller
+        CountDownLatch bob = acquireAsync(controller, "bob", Priority.NORMAL);
+        awaitWaiting(controller, 1);
+        CountDownLatch alice = acquireAsync(controller, "alice", Priority.NORMAL);
+        awaitWaiting(controller, 2);
+
+        controller.release("other", Priority.NORMAL);
+        assertTrue(alice.await(5, TimeUnit.SECONDS));
+        assertFalse(bob.await(100, TimeUnit.MILLISECONDS));
+        controller.release("alice", Priority.NORMAL);
+        assertTrue(bob.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testWaitIsBounded() throws Exception {
+        ScanAdmissionController controller = new ScanAdmissionController(1);
+        controller.acquire("alice", Priority.NORMAL, 5, TimeUnit.SECONDS);
+        try {
+            controller.acquire("bob", Priority.NORMAL, 50, TimeUnit.MILLISECONDS);
+            fail("Expected the wait for a permit to time out");
+        } catch (TimeoutException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("bob"));
+        }
+        // the request that timed out no longer waits, and holds no permit
+        assertEquals(0, controller.getWaiting());
+        assertEquals(1, controller.getInFlight());
+
+        controller.release("alice", Priority.NORMAL);
+        controller.acquire("bob", Priority.NORMAL, 5, TimeUnit.SECONDS);
+        assertEquals(1, controller.getInFlight());
+    }
+
+    @Test
+    public void testConnectionPools() throws Exception {
+        ScanAdmissionController controller = new ScanAdmissionController(1);
+        controller.acquire("alice", Priority.HIGH, 5, TimeUnit.SECONDS);
+        acquireAsync(controller, "bob", Priority.LOW);
+        awaitWaiting(controller, 1);
+
+        List<ConnectionPool> pools = controller.getConnectionPools();
+        assertEquals(Priority.values().length, pools.size());
+        for (ConnectionPool pool : pools) {
+            assertEquals(ScanAdmissionController.POOL_NAME, pool.getPoolName());
+            assertEquals(Integer.valueOf(1), pool.getMaxActive());
+            if (pool.getPriority().equals(Priority.HIGH.name())) {
+                assertEquals(Integer.valueOf(1), pool.getNumActive());
+                assertEquals(1, pool.getConnectionRequests().size());
+            } else if (pool.getPriority().equals(Priority.LOW.name())) {
+                assertEquals(Integer.valueOf(1), pool.getNumWaiting());
+                assertEquals(1, pool.getConnectionRequests().size());
+            } else {
+                assertEquals(Integer.valueOf(0), pool.getNumActive());
+                assertEquals(0, pool.getConnectionRequests().size());
+            }
+        }
+        controller.release("alice", Priority.HIGH);
+    }
+
+    private static CountDownLatch acquireAsync(ScanAdmissionController controller, String user, Priority priority) {
+        CountDownLatch admitted = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            try {
+                controller.acquire(user, priority, 30, TimeUnit.SECONDS);
+                admitted.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (TimeoutException e) {
+                // the latch is left open
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return admitted;
+    }
+
+    private static void awaitWaiting(ScanAdmissionController controller, int waiting) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5000;
+        while (controller.getWaiting() < waiting && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(waiting, controller.getWaiting());
+    }
+}
@@ -79,6 +79,9 @@ public class GenericQueryConfiguration implements Serializable {
     private Map<String,ScannerBase.ConsistencyLevel> tableConsistencyLevels = new HashMap<>();
     private Map<String,Map<String,String>> tableHints = new HashMap<>();
 
+    // The estimates the planner based its decisions on, reported with the query metrics
+    private Map<String,Double> planEstimates = new HashMap<>();
+
     /**
      * Empty default constructor
      */
@@ -126,6 +129,7 @@ public class GenericQueryConfiguration implements Serializable {
         this.setReduceResults(other.isReduceResults());
         this.setTableConsistencyLevels(other.getTableConsistencyLevels());
         this.setTableHints(other.getTableHints());
+        this.setPlanEstimates(other.getPlanEstimates());
     }
 
     public Collection<QueryData> getQueries() {
@@ -316,6 +320,14 @@ public class GenericQueryConfiguration implements Serializable {
         this.tableHints = tableHints;
     }
 
+    public Map<String,Double> getPlanEstimates() {
+        return planEstimates;
+    }
+
+    public void setPlanEstimates(Map<String,Double> planEstimates) {
+        this.planEstimates = planEstimates;
+    }
+
     /**
      * Checks for non-null, sane values for the configured values
      *
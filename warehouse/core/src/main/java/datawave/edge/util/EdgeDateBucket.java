@@ -0,0 +1,217 @@
+package datawave.edge.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.hadoop.io.Text;
+
+/**
+ * The date granularity of an edge table. The daily edge table holds one entry per edge per day. The optional weekly and monthly rollup tables hold the same
+ * edges with the date in the column qualifier replaced by the first day of the containing ISO week (a Monday) or calendar month, so the edge combiner merges
+ * all of the daily counts, hour bitmasks and stats histograms for a bucket into a single entry.
+ * <p>
+ * Because the rollup keys keep the edge table key format, the existing date range and date type filters apply to the rollup tables unchanged.
+ */
+public enum EdgeDateBucket {
+    DAY, WEEK, MONTH;
+
+    private static final int DATE_LENGTH = 8;
+
+    /**
+     * Get the first day of the bucket containing a date
+     *
+     * @param yyyymmdd
+     *            a date in yyyyMMdd format
+     * @return the first day of the containing bucket in yyyyMMdd format
+     */
+    public String getBucketStart(String yyyymmdd) {
+        if (this == DAY) {
+            return yyyymmdd;
+        }
+        return format(getBucketStart(parse(yyyymmdd)));
+    }
+
+    /**
+     * Get the first day of the bucket containing a date
+     *
+     * @param date
+     *            the date
+     * @return the first day of the containing bucket
+     */
+    public LocalDate getBucketStart(LocalDate date) {
+        switch (this) {
+            case WEEK:
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH:
+                return date.withDayOfMonth(1);
+            default:
+                return date;
+        }
+    }
+
+    /**
+     * Get the last day of the bucket starting on a date
+     *
+     * @param bucketStart
+     *            the first day of the bucket
+     * @return the last day of the bucket
+     */
+    public LocalDate getBucketEnd(LocalDate bucketStart) {
+        switch (this) {
+            case WEEK:
+                return bucketStart.plusDays(6);
+            case MONTH:
+                return bucketStart.plusMonths(1).minusDays(1);
+            default:
+                return bucketStart;
+        }
+    }
+
+    /**
+     * Create the rollup key for a daily edge key by replacing the date at the start of the column qualifier with the start of this bucket. All other parts of
+     * the key, including the timestamp and delete flag, are preserved.
+     *
+     * @param key
+     *            a daily edge key
+     * @return the key for this bucket, or null if the column qualifier does not start with a valid yyyyMMdd date
+     */
+    public Key rollup(Key key) {
+        if (this == DAY) {
+            return key;
+        }
+        ByteSequence cq = key.getColumnQualifierData();
+        if (cq.length() < DATE_LENGTH || (cq.length() > DATE_LENGTH && cq.byteAt(DATE_LENGTH) != EdgeKey.COL_SEPARATOR_BYTE)) {
+            return null;
+        }
+        LocalDate date;
+        try {
+            date = LocalDate.parse(new String(cq.getBackingArray(), cq.offset(), DATE_LENGTH, StandardCharsets.UTF_8), DateTimeFormatter.BASIC_ISO_DATE);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+        byte[] bucketStart = format(getBucketStart(date)).getBytes(StandardCharsets.UTF_8);
+        byte[] qualifier = Arrays.copyOfRange(cq.getBackingArray(), cq.offset(), cq.offset() + cq.length());
+        System.arraycopy(bucketStart, 0, qualifier, 0, DATE_LENGTH);
+
+        Key rollup = new Key(key.getRow(), key.getColumnFamily(), new Text(qualifier), key.getColumnVisibility(), key.getTimestamp());
+        rollup.setDeleted(key.isDeleted());
+        return rollup;
+    }
+
+    /**
+     * Split an inclusive date range into the coarsest buckets that exactly cover it. Whole months are used where the monthly rollup is available, whole weeks
+     * where the weekly rollup is available and daily entries for whatever remains at the edges of the range. Consecutive buckets of the same granularity are
+     * merged into a single segment.
+     *
+     * @param begin
+     *            the first day of the range
+     * @param end
+     *            the last day of the range
+     * @param weekly
+     *            whether a weekly rollup is available
+     * @param monthly
+     *            whether a monthly rollup is available
+     * @return the segments covering the range in date order
+     */
+    public static List<Segment> plan(Date begin, Date end, boolean weekly, boolean monthly) {
+        return plan(toLocalDate(begin), toLocalDate(end), weekly, monthly);
+    }
+
+    public static List<Segment> plan(LocalDate begin, LocalDate end, boolean weekly, boolean monthly) {
+        List<Segment> segments = new ArrayList<>();
+        LocalDate day = begin;
+        while (!day.isAfter(end)) {
+            EdgeDateBucket bucket = DAY;
+            if (monthly && day.getDayOfMonth() == 1 && !MONTH.getBucketEnd(day).isAfter(end)) {
+                bucket = MONTH;
+            } else if (weekly && day.getDayOfWeek() == DayOfWeek.MONDAY && !WEEK.getBucketEnd(day).isAfter(end) && !isBetterAsMonth(day, end, monthly)) {
+                bucket = WEEK;
+            }
+            LocalDate bucketEnd = bucket.getBucketEnd(day);
+
+            Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (last != null && last.bucket == bucket) {
+                last.end = bucketEnd;
+            } else {
+                segments.add(new Segment(bucket, day, bucketEnd));
+            }
+            day = bucketEnd.plusDays(1);
+        }
+        return segments;
+    }
+
+    /**
+     * A week that crosses into a month which is fully covered by the range would prevent that month from being read as a single entry, so the days up to the
+     * start of the month are read individually instead.
+     */
+    private static boolean isBetterAsMonth(LocalDate monday, LocalDate end, boolean monthly) {
+        if (!monthly) {
+            return false;
+        }
+        LocalDate nextMonth = monday.with(TemporalAdjusters.firstDayOfNextMonth());
+        return !nextMonth.isAfter(WEEK.getBucketEnd(monday)) && !MONTH.getBucketEnd(nextMonth).isAfter(end);
+    }
+
+    public static String format(LocalDate date) {
+        return date.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+
+    public static LocalDate parse(String yyyymmdd) {
+        try {
+            return LocalDate.parse(yyyymmdd, DateTimeFormatter.BASIC_ISO_DATE);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid edge date: " + yyyymmdd, e);
+        }
+    }
+
+    public static LocalDate toLocalDate(Date date) {
+        return date.toInstant().atZone(ZoneOffset.UTC).toLocalDate();
+    }
+
+    public static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+
+    /**
+     * An inclusive range of days to be read at a single bucket granularity
+     */
+    public static class Segment {
+        private final EdgeDateBucket bucket;
+        private final LocalDate begin;
+        private LocalDate end;
+
+        public Segment(EdgeDateBucket bucket, LocalDate begin, LocalDate end) {
+            this.bucket = bucket;
+            this.begin = begin;
+            this.end = end;
+        }
+
+        public EdgeDateBucket getBucket() {
+            return bucket;
+        }
+
+        public LocalDate getBegin() {
+            return begin;
+        }
+
+        public LocalDate getEnd() {
+            return end;
+        }
+
+        @Override
+        public String toString() {
+            return bucket + "[" + format(begin) + "," + format(end) + "]";
+        }
+    }
+}
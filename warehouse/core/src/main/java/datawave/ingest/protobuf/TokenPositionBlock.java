@@ -0,0 +1,212 @@
+package datawave.ingest.protobuf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+
+/**
+ * A block of consecutive token positions of a single document field and the terms at each position. This is the forward counterpart of the term frequency
+ * entries: where a term frequency entry lists the positions of one term, a block lists the terms of a run of positions, so that an excerpt can be built by
+ * reading only the blocks that cover the requested offsets instead of every term frequency entry of the document.
+ * <p>
+ * The blocks of a field are keyed by the {@link #encodePosition(int) encoded} {@link #getKeyPosition(int) last position of their range}, so that seeking to
+ * the encoded start offset of an excerpt lands on the first range that covers it. The terms of a range may be split across blocks written under different
+ * visibilities, and these share the key position of the range. The serialized form is a dictionary of the distinct terms of the block followed by the
+ * dictionary indexes of the terms at each position, deflated.
+ */
+public class TokenPositionBlock {
+    public static final int DEFAULT_BLOCK_SIZE = 256;
+
+    private static final int VERSION = 1;
+
+    private final int firstPosition;
+    private final List<List<String>> terms;
+
+    /**
+     * @param firstPosition
+     *            the first position of the block
+     * @param terms
+     *            the terms at each position of the block, starting with the first position. An empty list is a position without terms.
+     */
+    public TokenPositionBlock(int firstPosition, List<List<String>> terms) {
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("A token position block must contain at least one position");
+        }
+        this.firstPosition = firstPosition;
+        this.terms = terms;
+    }
+
+    public int getFirstPosition() {
+        return firstPosition;
+    }
+
+    public int getLastPosition() {
+        return firstPosition + terms.size() - 1;
+    }
+
+    /**
+     * Get the position that this block is keyed by, which is the last position of the range of {@code blockSize} positions that contains it
+     *
+     * @param blockSize
+     *            the number of positions per block
+     * @return the key position
+     */
+    public int getKeyPosition(int blockSize) {
+        return (firstPosition / blockSize + 1) * blockSize - 1;
+    }
+
+    /**
+     * Get the terms at a position
+     *
+     * @param position
+     *            the position
+     * @return the terms at the position, empty if the position is outside of this block
+     */
+    public List<String> getTerms(int position) {
+        if (position < firstPosition || position > getLastPosition()) {
+            return Collections.emptyList();
+        }
+        return terms.get(position - firstPosition);
+    }
+
+    /**
+     * Split the terms of a field into blocks. Position {@code p} goes to block {@code p / blockSize}, and each block spans from its lowest to its highest
+     * position with terms.
+     *
+     * @param termsByPosition
+     *            the terms of a field by position
+     * @param blockSize
+     *            the number of positions per block
+     * @return the blocks in position order
+     */
+    public static List<TokenPositionBlock> split(SortedMap<Integer,? extends Collection<String>> termsByPosition, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("The block size must be positive: " + blockSize);
+        }
+        List<TokenPositionBlock> blocks = new ArrayList<>();
+        int blockFirst = -1;
+        List<List<String>> blockTerms = null;
+        for (Map.Entry<Integer,? extends Collection<String>> entry : termsByPosition.entrySet()) {
+            int position = entry.getKey();
+            if (blockTerms != null && position / blockSize != blockFirst / blockSize) {
+                blocks.add(new TokenPositionBlock(blockFirst, blockTerms));
+                blockTerms = null;
+            }
+            if (blockTerms == null) {
+                blockFirst = position;
+                blockTerms = new ArrayList<>();
+            }
+            // fill the positions without terms
+            while (blockFirst + blockTerms.size() < position) {
+                blockTerms.add(Collections.emptyList());
+            }
+            blockTerms.add(new ArrayList<>(entry.getValue()));
+        }
+        if (blockTerms != null) {
+            blocks.add(new TokenPositionBlock(blockFirst, blockTerms));
+        }
+        return blocks;
+    }
+
+    /**
+     * Encode a position such that encoded positions sort in numeric order
+     *
+     * @param position
+     *            a non-negative position
+     * @return the encoded position
+     */
+    public static String encodePosition(int position) {
+        return String.format("%010d", position);
+    }
+
+    /**
+     * Decode a position encoded by {@link #encodePosition(int)}
+     *
+     * @param encoded
+     *            the encoded position
+     * @return the position
+     * @throws NumberFormatException
+     *             if the position is not validly encoded
+     */
+    public static int decodePosition(String encoded) {
+        return Integer.parseInt(encoded);
+    }
+
+    public byte[] toByteArray() throws IOException {
+        Map<String,Integer> dictionary = new HashMap<>();
+        List<String> dictionaryTerms = new ArrayList<>();
+        for (List<String> positionTerms : terms) {
+            for (String term : positionTerms) {
+                if (!dictionary.containsKey(term)) {
+                    dictionary.put(term, dictionaryTerms.size());
+                    dictionaryTerms.add(term);
+                }
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(bytes)) {
+            CodedOutputStream out = CodedOutputStream.newInstance(deflater);
+            out.writeUInt32NoTag(VERSION);
+            out.writeUInt32NoTag(dictionaryTerms.size());
+            for (String term : dictionaryTerms) {
+                out.writeStringNoTag(term);
+            }
+            out.writeUInt32NoTag(firstPosition);
+            out.writeUInt32NoTag(terms.size());
+            for (List<String> positionTerms : terms) {
+                out.writeUInt32NoTag(positionTerms.size());
+                for (String term : positionTerms) {
+                    out.writeUInt32NoTag(dictionary.get(term));
+                }
+            }
+            out.flush();
+        }
+        return bytes.toByteArray();
+    }
+
+    public static TokenPositionBlock parseFrom(byte[] bytes) throws IOException {
+        try (InflaterInputStream inflater = new InflaterInputStream(new ByteArrayInputStream(bytes))) {
+            CodedInputStream in = CodedInputStream.newInstance(inflater);
+            int version = in.readUInt32();
+            if (version != VERSION) {
+                throw new IOException("Unsupported token position block version " + version);
+            }
+            String[] dictionary = new String[in.readUInt32()];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = in.readString();
+            }
+            int firstPosition = in.readUInt32();
+            int positionCount = in.readUInt32();
+            List<List<String>> terms = new ArrayList<>(positionCount);
+            for (int i = 0; i < positionCount; i++) {
+                int termCount = in.readUInt32();
+                List<String> positionTerms = termCount == 0 ? Collections.emptyList() : new ArrayList<>(termCount);
+                for (int j = 0; j < termCount; j++) {
+                    int index = in.readUInt32();
+                    if (index >= dictionary.length) {
+                        throw new IOException("Invalid token position block term index " + index);
+                    }
+                    positionTerms.add(dictionary[index]);
+                }
+                terms.add(positionTerms);
+            }
+            if (terms.isEmpty()) {
+                throw new IOException("Empty token position block");
+            }
+            return new TokenPositionBlock(firstPosition, terms);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package datawave.edge.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+public class EdgeDateBucketTest {
+
+    @Test
+    public void testBucketStart() {
+        // 2024-01-10 is a Wednesday
+        assertEquals("20240108", EdgeDateBucket.WEEK.getBucketStart("20240110"));
+        assertEquals("20240108", EdgeDateBucket.WEEK.getBucketStart("20240108"));
+        assertEquals("20240101", EdgeDateBucket.MONTH.getBucketStart("20240110"));
+        assertEquals("20240110", EdgeDateBucket.DAY.getBucketStart("20240110"));
+        // weeks cross month and year boundaries
+        assertEquals("20231225", EdgeDateBucket.WEEK.getBucketStart("20231231"));
+        assertEquals("20240101", EdgeDateBucket.WEEK.getBucketStart("20240107"));
+    }
+
+    @Test
+    public void testRollup() {
+        Key key = new Key(new Text("SOURCE\0SINK"), new Text("TYPE/REL1-REL2"), new Text("20240110/CAT1-CAT2/ATTR2/ATTR3/A"), new Text("ALL"), 1234L);
+        key.setDeleted(true);
+
+        Key weekly = EdgeDateBucket.WEEK.rollup(key);
+        assertEquals(new Text("20240108/CAT1-CAT2/ATTR2/ATTR3/A"), weekly.getColumnQualifier());
+        assertEquals(key.getRow(), weekly.getRow());
+        assertEquals(key.getColumnFamily(), weekly.getColumnFamily());
+        assertEquals(key.getColumnVisibility(), weekly.getColumnVisibility());
+        assertEquals(1234L, weekly.getTimestamp());
+        assertTrue(weekly.isDeleted());
+
+        Key monthly = EdgeDateBucket.MONTH.rollup(new Key("SOURCE", "STATS/ACTIVITY/TYPE/REL1", "20240110"));
+        assertEquals(new Text("20240101"), monthly.getColumnQualifier());
+
+        // the original key is unchanged
+        assertEquals(new Text("20240110/CAT1-CAT2/ATTR2/ATTR3/A"), key.getColumnQualifier());
+    }
+
+    @Test
+    public void testRollupWithoutDate() {
+        assertNull(EdgeDateBucket.WEEK.rollup(new Key("SOURCE\0SINK", "TYPE/REL1-REL2", "2024/CAT")));
+        assertNull(EdgeDateBucket.WEEK.rollup(new Key("SOURCE\0SINK", "TYPE/REL1-REL2", "")));
+        assertNull(EdgeDateBucket.MONTH.rollup(new Key("SOURCE\0SINK", "TYPE/REL1-REL2", "20241301/CAT")));
+        assertNull(EdgeDateBucket.MONTH.rollup(new Key("SOURCE\0SINK", "TYPE/REL1-REL2", "2024011X/CAT")));
+        assertNull(EdgeDateBucket.MONTH.rollup(new Key("SOURCE\0SINK", "TYPE/REL1-REL2", "202401101")));
+    }
+
+    @Test
+    public void testPlanShortRange() {
+        assertPlan(EdgeDateBucket.plan(date("20240110"), date("20240112"), true, true), "DAY[20240110,20240112]");
+    }
+
+    @Test
+    public void testPlanWeeks() {
+        // Wednesday 2024-01-10 through Thursday 2024-02-01
+        List<EdgeDateBucket.Segment> segments = EdgeDateBucket.plan(date("20240110"), date("20240201"), true, false);
+        assertPlan(segments, "DAY[20240110,20240114]", "WEEK[20240115,20240128]", "DAY[20240129,20240201]");
+    }
+
+    @Test
+    public void testPlanMonths() {
+        List<EdgeDateBucket.Segment> segments = EdgeDateBucket.plan(date("20231215"), date("20240415"), false, true);
+        assertPlan(segments, "DAY[20231215,20231231]", "MONTH[20240101,20240331]", "DAY[20240401,20240415]");
+    }
+
+    @Test
+    public void testPlanWeeksAndMonths() {
+        // Wednesday 2023-12-13 through Wednesday 2024-04-17
+        List<EdgeDateBucket.Segment> segments = EdgeDateBucket.plan(date("20231213"), date("20240417"), true, true);
+        assertPlan(segments, "DAY[20231213,20231217]", "WEEK[20231218,20231231]", "MONTH[20240101,20240331]", "WEEK[20240401,20240414]",
+                        "DAY[20240415,20240417]");
+
+        // the week of 2024-01-29 runs into February, which is read as a month instead
+        segments = EdgeDateBucket.plan(date("20240122"), date("20240331"), true, true);
+        assertPlan(segments, "WEEK[20240122,20240128]", "DAY[20240129,20240131]", "MONTH[20240201,20240331]");
+    }
+
+    @Test
+    public void testPlanCoversEveryDayOnce() {
+        LocalDate begin = LocalDate.of(2022, 11, 3);
+        LocalDate end = LocalDate.of(2024, 3, 9);
+        List<EdgeDateBucket.Segment> segments = EdgeDateBucket.plan(begin, end, true, true);
+        LocalDate next = begin;
+        for (EdgeDateBucket.Segment segment : segments) {
+            assertEquals(next, segment.getBegin());
+            assertEquals(segment.getBegin(), segment.getBucket().getBucketStart(segment.getBegin()));
+            next = segment.getEnd().plusDays(1);
+        }
+        assertEquals(end.plusDays(1), next);
+    }
+
+    private static LocalDate date(String yyyymmdd) {
+        return EdgeDateBucket.parse(yyyymmdd);
+    }
+
+    private static void assertPlan(List<EdgeDateBucket.Segment> segments, String... expected) {
+        assertEquals(expected.length, segments.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], segments.get(i).toString());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package datawave.ingest.protobuf;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TokenPositionBlockTest {
+
+    @Test
+    public void testSplit() {
+        SortedMap<Integer,List<String>> termsByPosition = new TreeMap<>();
+        termsByPosition.put(0, Collections.singletonList("the"));
+        termsByPosition.put(1, Arrays.asList("quick", "fast"));
+        termsByPosition.put(3, Collections.singletonList("fox"));
+        termsByPosition.put(9, Collections.singletonList("dog"));
+
+        List<TokenPositionBlock> blocks = TokenPositionBlock.split(termsByPosition, 4);
+        Assert.assertEquals(2, blocks.size());
+
+        TokenPositionBlock first = blocks.get(0);
+        Assert.assertEquals(0, first.getFirstPosition());
+        Assert.assertEquals(3, first.getLastPosition());
+        Assert.assertEquals(Arrays.asList("quick", "fast"), first.getTerms(1));
+        Assert.assertEquals(Collections.emptyList(), first.getTerms(2));
+        Assert.assertEquals(Collections.emptyList(), first.getTerms(9));
+
+        TokenPositionBlock second = blocks.get(1);
+        Assert.assertEquals(9, second.getFirstPosition());
+        Assert.assertEquals(9, second.getLastPosition());
+        Assert.assertEquals(Collections.singletonList("dog"), second.getTerms(9));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        TokenPositionBlock block = new TokenPositionBlock(256, Arrays.asList(Arrays.asList("the", "a"), Collections.emptyList(),
+                        Collections.singletonList("the"), Collections.singletonList("fox")));
+
+        TokenPositionBlock copy = TokenPositionBlock.parseFrom(block.toByteArray());
+        Assert.assertEquals(256, copy.getFirstPosition());
+        Assert.assertEquals(259, copy.getLastPosition());
+        for (int position = 256; position <= 259; position++) {
+            Assert.assertEquals(block.getTerms(position), copy.getTerms(position));
+        }
+    }
+
+    @Test
+    public void testEncodedPositionsSort() {
+        Assert.assertTrue(TokenPositionBlock.encodePosition(9).compareTo(TokenPositionBlock.encodePosition(10)) < 0);
+        Assert.assertTrue(TokenPositionBlock.encodePosition(255).compareTo(TokenPositionBlock.encodePosition(Integer.MAX_VALUE)) < 0);
+    }
+
+    @Test
+    public void testKeyPosition() {
+        // blocks of the same range share its last position as their key, wherever their terms start
+        Assert.assertEquals(255, new TokenPositionBlock(0, Collections.singletonList(Collections.singletonList("the"))).getKeyPosition(256));
+        Assert.assertEquals(255, new TokenPositionBlock(17, Collections.singletonList(Collections.singletonList("fox"))).getKeyPosition(256));
+        Assert.assertEquals(511, new TokenPositionBlock(256, Collections.singletonList(Collections.singletonList("dog"))).getKeyPosition(256));
+        Assert.assertEquals(511, TokenPositionBlock.decodePosition(TokenPositionBlock.encodePosition(511)));
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidBlock() throws IOException {
+        TokenPositionBlock.parseFrom(new byte[] {1, 2, 3});
+    }
+}
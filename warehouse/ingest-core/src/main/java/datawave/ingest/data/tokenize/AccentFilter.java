@@ -12,6 +12,9 @@ import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 public class AccentFilter extends TokenFilter {
     private CharTermAttribute termAtt;
 
+    // scratch space for rewritten tokens, reused across tokens and grown as needed
+    private char[] output = new char[0];
+
     public AccentFilter(TokenStream input) {
         super(input);
         termAtt = addAttribute(CharTermAttribute.class);
@@ -22,17 +25,20 @@ public class AccentFilter extends TokenFilter {
             final char[] buffer = termAtt.buffer();
             final int length = termAtt.length();
 
-            // If no characters actually require rewriting then we
-            // just return token as-is:
-            for (int i = 0; i < length; i++) {
-                final char c = buffer[i];
-                if (c >= '\u00c0' && c <= '\u0700') {
-                    char output[] = new char[buffer.length * 4]; // worst case
-                    int outputPos = removeAccents(buffer, output, length);
-                    if (outputPos > 0) {
-                        termAtt.copyBuffer(output, 0, outputPos);
-                        break;
-                    }
+            // Most tokens are plain ASCII, so find the first character that may
+            // need rewriting and return the token as-is if there is none.
+            int i = 0;
+            while (i < length && (buffer[i] < '\u00c0' || buffer[i] > '\u0700')) {
+                i++;
+            }
+
+            if (i < length) {
+                if (output.length < length * 4) {
+                    output = new char[length * 4]; // worst case
+                }
+                int outputPos = removeAccents(buffer, output, length);
+                if (outputPos > 0) {
+                    termAtt.copyBuffer(output, 0, outputPos);
                 }
             }
 
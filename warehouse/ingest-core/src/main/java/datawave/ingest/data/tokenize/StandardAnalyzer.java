@@ -88,6 +88,20 @@ public class StandardAnalyzer extends StopwordAnalyzerBase {
         tokenTruncateLength = length;
     }
 
+    public boolean isApplyAccentFilter() {
+        return applyAccentFilter;
+    }
+
+    /**
+     * Enable the {@link AccentFilter}. Like the other settings, this only takes effect for token streams created after it is called.
+     *
+     * @param applyAccentFilter
+     *            true to strip accents from tokens
+     */
+    public void setApplyAccentFilter(boolean applyAccentFilter) {
+        this.applyAccentFilter = applyAccentFilter;
+    }
+
     @Override
     protected TokenStreamComponents createComponents(final String fieldName) {
         final StandardTokenizer src = new StandardTokenizer();
@@ -8,6 +8,7 @@ import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.CharArraySet;
 
 import datawave.ingest.data.config.DataTypeHelper;
+import datawave.ingest.protobuf.TokenPositionBlock;
 import datawave.util.ObjectFactory;
 
 public class TokenizationHelper {
@@ -96,6 +97,24 @@ public class TokenizationHelper {
     public static final String TOKEN_OFFSET_CACHE_MAX_SIZE = ".token.offset.cache.max.size";
     private int tokenOffsetCacheMaxSize = 10000;
 
+    public static final String TOKEN_OFFSET_CACHE_SPILL_ENABLED = ".token.offset.cache.spill.enabled";
+    private boolean tokenOffsetCacheSpillEnabled = false;
+
+    public static final String TOKEN_OFFSET_CACHE_MAX_BYTES = ".token.offset.cache.max.bytes";
+    private long tokenOffsetCacheMaxBytes = 64L * 1024 * 1024;
+
+    public static final String TOKEN_OFFSET_CACHE_SPILL_DIR = ".token.offset.cache.spill.dir";
+    private String tokenOffsetCacheSpillDir = null;
+
+    public static final String TOKEN_POSITION_BLOCKS_ENABLED = ".token.position.blocks.enabled";
+    private boolean tokenPositionBlocksEnabled = false;
+
+    public static final String TOKEN_POSITION_BLOCK_SIZE = ".token.position.block.size";
+    private int tokenPositionBlockSize = TokenPositionBlock.DEFAULT_BLOCK_SIZE;
+
+    public static final String TOKEN_POSITION_BLOCK_WINDOW = ".token.position.block.window";
+    private int tokenPositionBlockWindow = 64 * 1024;
+
     public static final String TERM_LENGTH_MINIMUM = ".term.length.minimum";
     private int termLengthMinimum = 1;
 
@@ -145,6 +164,12 @@ public class TokenizationHelper {
         termLengthMinimum = conf.getInt(helper.getType().typeName() + TERM_LENGTH_MINIMUM, termLengthMinimum);
         termLengthWarningLimit = conf.getInt(helper.getType().typeName() + TERM_LENGTH_WARNING_LIMIT, termLengthWarningLimit);
         tokenOffsetCacheMaxSize = conf.getInt(helper.getType().typeName() + TOKEN_OFFSET_CACHE_MAX_SIZE, tokenOffsetCacheMaxSize);
+        tokenOffsetCacheSpillEnabled = conf.getBoolean(helper.getType().typeName() + TOKEN_OFFSET_CACHE_SPILL_ENABLED, tokenOffsetCacheSpillEnabled);
+        tokenOffsetCacheMaxBytes = conf.getLong(helper.getType().typeName() + TOKEN_OFFSET_CACHE_MAX_BYTES, tokenOffsetCacheMaxBytes);
+        tokenOffsetCacheSpillDir = conf.get(helper.getType().typeName() + TOKEN_OFFSET_CACHE_SPILL_DIR, tokenOffsetCacheSpillDir);
+        tokenPositionBlocksEnabled = conf.getBoolean(helper.getType().typeName() + TOKEN_POSITION_BLOCKS_ENABLED, tokenPositionBlocksEnabled);
+        tokenPositionBlockSize = conf.getInt(helper.getType().typeName() + TOKEN_POSITION_BLOCK_SIZE, tokenPositionBlockSize);
+        tokenPositionBlockWindow = conf.getInt(helper.getType().typeName() + TOKEN_POSITION_BLOCK_WINDOW, tokenPositionBlockWindow);
         synonymGenerationEnabled = conf.getBoolean(helper.getType().typeName() + SYNONYM_CREATE, synonymGenerationEnabled);
         termWordTokensEnabled = conf.getBoolean(helper.getType().typeName() + TERM_WORD_TOKENS, termWordTokensEnabled);
         dirtyWordTokensEnabled = conf.getBoolean(helper.getType().typeName() + DIRTY_WORD_TOKENS, dirtyWordTokensEnabled);
@@ -243,6 +268,30 @@ public class TokenizationHelper {
         return tokenOffsetCacheMaxSize;
     }
 
+    public boolean isTokenOffsetCacheSpillEnabled() {
+        return tokenOffsetCacheSpillEnabled;
+    }
+
+    public long getTokenOffsetCacheMaxBytes() {
+        return tokenOffsetCacheMaxBytes;
+    }
+
+    public String getTokenOffsetCacheSpillDir() {
+        return tokenOffsetCacheSpillDir;
+    }
+
+    public boolean isTokenPositionBlocksEnabled() {
+        return tokenPositionBlocksEnabled;
+    }
+
+    public int getTokenPositionBlockSize() {
+        return tokenPositionBlockSize;
+    }
+
+    public int getTokenPositionBlockWindow() {
+        return tokenPositionBlockWindow;
+    }
+
     public String[] getTermTypeDisallowlist() {
         return termTypeDisallowlist;
     }
@@ -49,6 +49,7 @@ import datawave.ingest.data.config.ingest.VirtualIngest;
 import datawave.ingest.input.reader.event.EventErrorSummary;
 import datawave.ingest.mapreduce.handler.DataTypeHandler;
 import datawave.ingest.mapreduce.handler.ExtendedDataTypeHandler;
+import datawave.ingest.mapreduce.handler.StreamingDataTypeHandler;
 import datawave.ingest.mapreduce.handler.error.ErrorDataTypeHandler;
 import datawave.ingest.mapreduce.job.BulkIngestKey;
 import datawave.ingest.mapreduce.job.ConstraintChecker;
@@ -60,8 +61,10 @@ import datawave.ingest.mapreduce.job.metrics.ReusableMetricsLabels;
 import datawave.ingest.mapreduce.job.statsd.StatsDEnabledMapper;
 import datawave.ingest.mapreduce.job.writer.BulkContextWriter;
 import datawave.ingest.mapreduce.job.writer.ContextWriter;
+import datawave.ingest.mapreduce.job.writer.ContextWriterKeyValueSink;
 import datawave.ingest.mapreduce.job.writer.LiveContextWriter;
 import datawave.ingest.mapreduce.partition.MultiTableRangePartitioner;
+import datawave.ingest.mapreduce.partition.SkewAwarePartitioner;
 import datawave.ingest.metric.IngestInput;
 import datawave.ingest.metric.IngestOutput;
 import datawave.ingest.metric.IngestProcess;
@@ -153,6 +156,9 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
 
     private ContextWriter<K2,V2> contextWriter = null;
 
+    // reused for every event processed by a StreamingDataTypeHandler
+    private ContextWriterKeyValueSink<K2,V2> keyValueSink = null;
+
     protected long offset = 0;
 
     protected String splitStart = null;
@@ -677,6 +683,9 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         // cleanup the context writer
         contextWriter.cleanup(context);
 
+        // save the row weights sampled by the partitioner for later jobs
+        SkewAwarePartitioner.flushSamples(context);
+
         for (List<DataTypeHandler<K1>> handlers : typeMap.values()) {
             for (DataTypeHandler<K1> h : handlers)
                 h.close(context);
@@ -868,7 +877,22 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         // method to call on the DataTypeHandler interface.
         Multimap<BulkIngestKey,Value> r;
 
-        if (!(handler instanceof ExtendedDataTypeHandler)) {
+        if (handler instanceof StreamingDataTypeHandler) {
+            StreamingDataTypeHandler<K1> streamingHandler = (StreamingDataTypeHandler<K1>) handler;
+            if (keyValueSink == null) {
+                keyValueSink = new ContextWriterKeyValueSink<>(contextWriter);
+            }
+            keyValueSink.reset(context, streamingHandler.isDeduplicationRequired());
+            count = streamingHandler.processBulk(key, event, fields, new ContextWrappedStatusReporter(getContext(context)), keyValueSink);
+            if (count == -1 && keyValueSink.getCount() > 0) {
+                // part of the event has been written, so fail it to have it rolled back rather than committed
+                throw new IllegalStateException(handler.getClass().getName() + " failed event " + event.getId() + " after writing " + keyValueSink.getCount()
+                                + " key/values");
+            } else if (count == -1) {
+                getCounter(context, IngestInput.EVENT_FATAL_ERROR).increment(1);
+                getCounter(context, IngestInput.EVENT_FATAL_ERROR.name(), "NegOneCount").increment(1);
+            }
+        } else if (!(handler instanceof ExtendedDataTypeHandler)) {
             r = handler.processBulk(key, event, fields, new ContextWrappedStatusReporter(getContext(context)));
             if (r == null) {
                 getCounter(context, IngestInput.EVENT_FATAL_ERROR).increment(1);
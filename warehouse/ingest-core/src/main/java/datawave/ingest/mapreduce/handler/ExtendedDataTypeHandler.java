@@ -29,6 +29,8 @@ public interface ExtendedDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> extends DataType
     /* TODO Make a clearer definition of full content indexers */
     String TERM_FREQUENCY_LOCALITY_NAME = "termfrequency";
     Text TERM_FREQUENCY_COLUMN_FAMILY = new Text("tf");
+    String TOKEN_POSITION_LOCALITY_NAME = "tokenposition";
+    Text TOKEN_POSITION_COLUMN_FAMILY = new Text("tp");
 
     long process(KEYIN key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields,
                     TaskInputOutputContext<KEYIN,? extends RawRecordContainer,KEYOUT,VALUEOUT> context, ContextWriter<KEYOUT,VALUEOUT> contextWriter)
@@ -0,0 +1,47 @@
+package datawave.ingest.mapreduce.handler;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.accumulo.core.data.Value;
+
+import com.google.common.collect.Multimap;
+
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+
+/**
+ * A destination for the key/values created by a {@link StreamingDataTypeHandler}. Handlers write each key/value as it is created instead of collecting all of
+ * the key/values for an event into a Multimap first.
+ */
+public interface KeyValueSink {
+
+    /**
+     * Write a key/value
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @throws IOException
+     *             if there is an issue writing the key/value
+     * @throws InterruptedException
+     *             if the process is interrupted
+     */
+    void put(BulkIngestKey key, Value value) throws IOException, InterruptedException;
+
+    /**
+     * Write a collection of key/values
+     *
+     * @param entries
+     *            the key/values
+     * @throws IOException
+     *             if there is an issue writing the key/values
+     * @throws InterruptedException
+     *             if the process is interrupted
+     */
+    default void putAll(Multimap<BulkIngestKey,Value> entries) throws IOException, InterruptedException {
+        for (Map.Entry<BulkIngestKey,Value> entry : entries.entries()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package datawave.ingest.mapreduce.handler;
+
+import org.apache.accumulo.core.data.Value;
+
+import com.google.common.collect.Multimap;
+
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+
+/**
+ * A {@link KeyValueSink} that collects the key/values into a Multimap. This adapts a {@link StreamingDataTypeHandler} to callers that expect the Multimap
+ * returned by {@link DataTypeHandler#processBulk}.
+ */
+public class MultimapKeyValueSink implements KeyValueSink {
+
+    private final Multimap<BulkIngestKey,Value> values;
+
+    public MultimapKeyValueSink(Multimap<BulkIngestKey,Value> values) {
+        this.values = values;
+    }
+
+    @Override
+    public void put(BulkIngestKey key, Value value) {
+        values.put(key, value);
+    }
+
+    @Override
+    public void putAll(Multimap<BulkIngestKey,Value> entries) {
+        values.putAll(entries);
+    }
+
+    public Multimap<BulkIngestKey,Value> getValues() {
+        return values;
+    }
+}
@@ -0,0 +1,80 @@
+package datawave.ingest.mapreduce.handler;
+
+import java.io.IOException;
+
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.mapreduce.StatusReporter;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+
+import datawave.ingest.data.RawRecordContainer;
+import datawave.ingest.data.config.NormalizedContentInterface;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+
+/**
+ * A {@link DataTypeHandler} that writes the key/values for an event directly to a {@link KeyValueSink}. The EventMapper supplies a sink that is reused across
+ * events and writes through to the context writer, which avoids building and hashing a Multimap of every key/value for each event. Handlers that only
+ * implement {@link DataTypeHandler} continue to be called through {@link DataTypeHandler#processBulk}.
+ *
+ * @param <KEYIN>
+ *            type of data type handler
+ */
+public interface StreamingDataTypeHandler<KEYIN> extends DataTypeHandler<KEYIN> {
+
+    /**
+     * This method is called by the EventMapper to process the current Event for Bulk ingest.
+     * <p>
+     * Key/values put to the sink are written through and cannot be taken back by the handler. A handler may only return -1 before it has written anything for
+     * the event. Once it has written to the sink it must report an error by throwing, in which case the EventMapper rolls back the uncommitted key/values of
+     * the event and hands the event to the error handlers. The EventMapper treats a -1 returned after a partial write as such an error.
+     *
+     * @param key
+     *            a key
+     * @param event
+     *            a event container
+     * @param fields
+     *            fields of event
+     * @param reporter
+     *            a status reporter
+     * @param sink
+     *            the destination for the key/values of the event
+     * @return the number of key/values written, or -1 if error before anything was written
+     * @throws IOException
+     *             if there is an issue writing to the sink
+     * @throws InterruptedException
+     *             if the process is interrupted
+     */
+    long processBulk(KEYIN key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields, StatusReporter reporter, KeyValueSink sink)
+                    throws IOException, InterruptedException;
+
+    /**
+     * Whether the sink must drop duplicate key/values. The Multimap returned by {@link DataTypeHandler#processBulk} is typically a HashMultimap which silently
+     * drops duplicates, so this is true unless the handler guarantees it does not write the same key/value twice for an event.
+     *
+     * @return true if duplicate key/values must be dropped
+     */
+    default boolean isDeduplicationRequired() {
+        return true;
+    }
+
+    /**
+     * Collects the key/values written to the sink into a Multimap for callers of the original contract.
+     */
+    @Override
+    default Multimap<BulkIngestKey,Value> processBulk(KEYIN key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields,
+                    StatusReporter reporter) {
+        Multimap<BulkIngestKey,Value> values = HashMultimap.create();
+        try {
+            if (processBulk(key, event, fields, reporter, new MultimapKeyValueSink(values)) < 0) {
+                return null;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to process event " + event.getId(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing event " + event.getId(), e);
+        }
+        return values;
+    }
+}
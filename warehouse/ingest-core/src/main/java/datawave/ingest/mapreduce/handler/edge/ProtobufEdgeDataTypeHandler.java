@@ -45,6 +45,7 @@ import com.google.common.hash.Hashing;
 import com.google.common.hash.PrimitiveSink;
 
 import datawave.data.normalizer.DateNormalizer;
+import datawave.edge.util.EdgeDateBucket;
 import datawave.edge.util.EdgeKey;
 import datawave.edge.util.EdgeKey.EDGE_FORMAT;
 import datawave.edge.util.EdgeKey.STATS_TYPE;
@@ -92,6 +93,19 @@ public class ProtobufEdgeDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> implements Exten
      */
     public static final String EDGE_TABLE_LOADER_PRIORITY = "protobufedge.table.loader.priority";
 
+    /**
+     * Parameters for specifying the names of the optional weekly and monthly edge rollup tables. When set, every edge key is also written to the rollup table
+     * with its date replaced by the start of the containing week or month, and the edge combiner on those tables aggregates the entries for each bucket.
+     */
+    public static final String EDGE_WEEKLY_ROLLUP_TABLE_NAME = "protobufedge.rollup.weekly.table.name";
+    public static final String EDGE_MONTHLY_ROLLUP_TABLE_NAME = "protobufedge.rollup.monthly.table.name";
+
+    /**
+     * Counts the edge keys that are written to the daily edge table but left out of the rollup tables because their column qualifier has no valid date
+     */
+    public static final String ROLLUP_COUNTER_GROUP = "EDGE_ROLLUP";
+    public static final String ROLLUP_INVALID_DATE_COUNTER = "InvalidDate";
+
     private static final String EDGE_DEFAULT_DATA_TYPE = "default";
 
     public static final String EDGE_TABLE_DISALLOWLIST_VALUES = ".protobufedge.table.disallowlist.values";
@@ -138,6 +152,8 @@ public class ProtobufEdgeDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> implements Exten
     private Map<String,JexlScript> scriptCache;
 
     protected String edgeTableName = null;
+    protected Text weeklyRollupTableName = null;
+    protected Text monthlyRollupTableName = null;
     protected String metadataTableName = null;
     protected boolean enableMetadata = false;
     protected MarkingFunctions markingFunctions;
@@ -180,6 +196,10 @@ public class ProtobufEdgeDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> implements Exten
 
         // Grab the edge table name
         this.edgeTableName = ConfigurationHelper.isNull(conf, EDGE_TABLE_NAME, String.class);
+        String weeklyRollupTable = conf.get(EDGE_WEEKLY_ROLLUP_TABLE_NAME);
+        this.weeklyRollupTableName = (weeklyRollupTable == null || weeklyRollupTable.isEmpty()) ? null : new Text(weeklyRollupTable);
+        String monthlyRollupTable = conf.get(EDGE_MONTHLY_ROLLUP_TABLE_NAME);
+        this.monthlyRollupTableName = (monthlyRollupTable == null || monthlyRollupTable.isEmpty()) ? null : new Text(monthlyRollupTable);
         this.useStatsLogBloomFilter = conf.getBoolean(EDGE_STATS_LOG_USE_BLOOM, false);
         this.metadataTableName = ConfigurationHelper.isNull(conf, METADATA_TABLE_NAME, String.class);
 
@@ -1244,9 +1264,28 @@ public class ProtobufEdgeDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> implements Exten
             return 0;
         BulkIngestKey bk = new BulkIngestKey(new Text(this.edgeTableName), key);
         contextWriter.write(bk, val, context);
+        if (weeklyRollupTableName != null) {
+            writeRollup(weeklyRollupTableName, EdgeDateBucket.WEEK, key, val, context, contextWriter);
+        }
+        if (monthlyRollupTableName != null) {
+            writeRollup(monthlyRollupTableName, EdgeDateBucket.MONTH, key, val, context, contextWriter);
+        }
         return 1;
     }
 
+    private void writeRollup(Text tableName, EdgeDateBucket bucket, Key key, Value val,
+                    TaskInputOutputContext<KEYIN,? extends RawRecordContainer,KEYOUT,VALUEOUT> context, ContextWriter<KEYOUT,VALUEOUT> contextWriter)
+                    throws IOException, InterruptedException {
+        Key rollup = bucket.rollup(key);
+        if (rollup == null) {
+            // a bad date on one edge should not fail the task, the daily entry is still written
+            context.getCounter(ROLLUP_COUNTER_GROUP, ROLLUP_INVALID_DATE_COUNTER).increment(1);
+            log.debug("Not writing {} rollup of edge key without a valid date: {}", bucket, key);
+            return;
+        }
+        contextWriter.write(new BulkIngestKey(tableName, rollup), val, context);
+    }
+
     private Map<String,String> findLookupMap(Map<String,Map<String,String>> lookup, String typeName) {
         if (lookup.containsKey(typeName)) {
             return lookup.get(typeName);
@@ -1370,6 +1409,9 @@ public class ProtobufEdgeDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> implements Exten
     public String[] getTableNames(Configuration conf) {
         List<String> tableNames = new ArrayList<>();
         tableNames.add(ConfigurationHelper.isNull(conf, EDGE_TABLE_NAME, String.class));
+        for (String rollupTableName : getRollupTableNames(conf)) {
+            tableNames.add(rollupTableName);
+        }
         if (conf.getBoolean(EDGE_TABLE_METADATA_ENABLE, this.enableMetadata)) {
             tableNames.add(ConfigurationHelper.isNull(conf, METADATA_TABLE_NAME, String.class));
             if (LoadDateTableConfigHelper.isLoadDatesEnabled(conf)) {
@@ -1381,9 +1423,14 @@ public class ProtobufEdgeDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> implements Exten
 
     @Override
     public int[] getTableLoaderPriorities(Configuration conf) {
-        int[] priorities = new int[3];
+        List<String> rollupTableNames = getRollupTableNames(conf);
+        int[] priorities = new int[3 + rollupTableNames.size()];
         int index = 0;
         priorities[index++] = ConfigurationHelper.isNull(conf, EDGE_TABLE_LOADER_PRIORITY, Integer.class);
+        // the rollup tables are loaded alongside the daily edge table
+        for (int i = 0; i < rollupTableNames.size(); i++) {
+            priorities[index++] = priorities[0];
+        }
         if (conf.getBoolean(EDGE_TABLE_METADATA_ENABLE, this.enableMetadata)) {
             priorities[index++] = ConfigurationHelper.isNull(conf, METADATA_TABLE_LOADER_PRIORITY, Integer.class);
             if (LoadDateTableConfigHelper.isLoadDatesEnabled(conf)) {
@@ -1397,6 +1444,24 @@ public class ProtobufEdgeDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> implements Exten
         }
     }
 
+    /**
+     * Get the configured edge rollup table names
+     *
+     * @param conf
+     *            the configuration
+     * @return the weekly and monthly rollup table names that are configured, possibly none
+     */
+    public static List<String> getRollupTableNames(Configuration conf) {
+        List<String> tableNames = new ArrayList<>(2);
+        for (String property : new String[] {EDGE_WEEKLY_ROLLUP_TABLE_NAME, EDGE_MONTHLY_ROLLUP_TABLE_NAME}) {
+            String tableName = conf.get(property);
+            if (tableName != null && !tableName.isEmpty()) {
+                tableNames.add(tableName);
+            }
+        }
+        return tableNames;
+    }
+
     /*
      * validates the activity date using the past and future delta configured variables both past and future deltas are expected to be positive numbers (in
      * milliseconds)
@@ -0,0 +1,353 @@
+package datawave.ingest.mapreduce.handler.shard.content;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.log4j.Logger;
+
+import datawave.ingest.mapreduce.handler.shard.content.BoundedOffsetQueue.OffsetList;
+
+/**
+ * An offset queue that never drops offsets. Each distinct term and zone of a document is interned in a dictionary, and its offsets are appended to a byte
+ * array as zig-zag encoded varint deltas, which takes one or two bytes for most offsets instead of a boxed Integer in a list. When the encoded offsets exceed
+ * the byte budget, they are spilled to a local temporary file and the in memory arrays are released. The spilled runs are merged back, term by term, when the
+ * offsets are iterated, so even very large documents produce complete term frequency entries while only the offsets of a single term are decoded at a time.
+ * <p>
+ * The budget covers the encoded offsets only, the dictionary of terms is always kept in memory. Spill files are deleted by {@link #clear()}.
+ */
+public class SpillableOffsetQueue implements OffsetQueue<Integer> {
+    private static final Logger log = Logger.getLogger(SpillableOffsetQueue.class);
+
+    private static final byte[] EMPTY = new byte[0];
+    private static final int INITIAL_BUFFER_SIZE = 8;
+
+    // the budget for encoded offsets held in memory
+    private final long maxBytes;
+
+    // where to write spill files, null for the default temporary directory
+    private final File spillDir;
+
+    // the terms of the current document, in order of first appearance
+    private final Map<TermAndZone,Postings> dictionary = new HashMap<>();
+    private final List<Postings> terms = new ArrayList<>();
+
+    // the spilled runs, oldest first
+    private final List<File> spills = new ArrayList<>();
+    private final List<Closeable> openRuns = new ArrayList<>();
+
+    private long bufferedBytes = 0;
+    private int numOffsets = 0;
+
+    /**
+     * @param maxBytes
+     *            the number of bytes of encoded offsets to hold in memory before spilling
+     * @param spillDir
+     *            the directory for spill files, or null to use the default temporary directory
+     */
+    public SpillableOffsetQueue(long maxBytes, File spillDir) {
+        this.maxBytes = maxBytes;
+        this.spillDir = spillDir;
+    }
+
+    /**
+     * Add an offset. Offsets are never dropped, so nothing is returned.
+     *
+     * @param termAndZone
+     *            the termAndZone
+     * @param offset
+     *            the offset to add
+     * @return null
+     */
+    @Override
+    public OffsetList<Integer> addOffset(TermAndZone termAndZone, Integer offset) {
+        Postings postings = dictionary.get(termAndZone);
+        if (postings == null) {
+            postings = new Postings(termAndZone, terms.size());
+            dictionary.put(termAndZone, postings);
+            terms.add(postings);
+        }
+        bufferedBytes += postings.add(offset);
+        numOffsets++;
+
+        if (bufferedBytes > maxBytes) {
+            spill();
+        }
+        return null;
+    }
+
+    private void spill() {
+        try {
+            File file = File.createTempFile("offsets", ".spill", spillDir);
+            spills.add(file);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                for (Postings postings : terms) {
+                    if (postings.count > 0) {
+                        out.writeInt(postings.id);
+                        out.writeInt(postings.length);
+                        out.write(postings.buffer, 0, postings.length);
+                        postings.spill();
+                    }
+                }
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Spilled " + bufferedBytes + " bytes of offsets for " + terms.size() + " terms to " + file);
+            }
+            bufferedBytes = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to spill term offsets", e);
+        }
+    }
+
+    @Override
+    public void clear() {
+        closeRuns();
+        for (File file : spills) {
+            if (!file.delete() && file.exists()) {
+                log.warn("Unable to delete offset spill file " + file);
+            }
+        }
+        spills.clear();
+        dictionary.clear();
+        terms.clear();
+        bufferedBytes = 0;
+        numOffsets = 0;
+    }
+
+    private void closeRuns() {
+        for (Closeable run : openRuns) {
+            try {
+                run.close();
+            } catch (IOException e) {
+                log.warn("Unable to close offset spill file", e);
+            }
+        }
+        openRuns.clear();
+    }
+
+    @Override
+    public boolean containsKey(TermAndZone termAndZone) {
+        return dictionary.containsKey(termAndZone);
+    }
+
+    @Override
+    public List<Integer> getOffsets(TermAndZone termAndZone) {
+        Postings postings = dictionary.get(termAndZone);
+        if (postings == null) {
+            return null;
+        }
+        List<Integer> offsets = new ArrayList<>(postings.spilled + postings.count);
+        for (File file : spills) {
+            try (SpillRun run = new SpillRun(file)) {
+                while (run.nextId >= 0 && run.nextId < postings.id) {
+                    run.skip();
+                }
+                if (run.nextId == postings.id) {
+                    run.read(offsets);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read term offsets from " + file, e);
+            }
+        }
+        postings.decode(offsets);
+        return offsets;
+    }
+
+    /**
+     * Iterate over the offsets of each term, merging any spilled runs. A new list is created for each term.
+     *
+     * @return the offsets of each term
+     */
+    @Override
+    public Iterable<OffsetList<Integer>> offsets() {
+        return () -> {
+            final List<SpillRun> runs = new ArrayList<>(spills.size());
+            try {
+                for (File file : spills) {
+                    SpillRun run = new SpillRun(file);
+                    runs.add(run);
+                    openRuns.add(run);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to open offset spill file", e);
+            }
+            final Iterator<Postings> postingsIterator = terms.iterator();
+            return new Iterator<OffsetList<Integer>>() {
+                @Override
+                public boolean hasNext() {
+                    return postingsIterator.hasNext();
+                }
+
+                @Override
+                public OffsetList<Integer> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Postings postings = postingsIterator.next();
+                    OffsetList<Integer> list = new OffsetList<>();
+                    list.termAndZone = postings.termAndZone;
+                    list.offsets = new ArrayList<>(postings.spilled + postings.count);
+                    try {
+                        // runs are written in dictionary order, so each run is either positioned at this term or at a later one
+                        for (SpillRun run : runs) {
+                            if (run.nextId == postings.id) {
+                                run.read(list.offsets);
+                            }
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Unable to read term offsets", e);
+                    }
+                    postings.decode(list.offsets);
+                    if (!postingsIterator.hasNext()) {
+                        closeRuns();
+                    }
+                    return list;
+                }
+            };
+        };
+    }
+
+    @Override
+    public int size() {
+        return numOffsets;
+    }
+
+    public int getNumTerms() {
+        return terms.size();
+    }
+
+    public int getNumSpills() {
+        return spills.size();
+    }
+
+    /**
+     * The in memory offsets of a single term
+     */
+    private static class Postings {
+        private final TermAndZone termAndZone;
+        private final int id;
+
+        private byte[] buffer = EMPTY;
+        private int length = 0;
+        private int last = 0;
+        // the number of offsets in the buffer and the number spilled
+        private int count = 0;
+        private int spilled = 0;
+
+        Postings(TermAndZone termAndZone, int id) {
+            this.termAndZone = termAndZone;
+            this.id = id;
+        }
+
+        /**
+         * @return the number of bytes the buffer grew by
+         */
+        int add(int offset) {
+            int grown = 0;
+            if (buffer.length - length < 5) {
+                byte[] larger = new byte[Math.max(INITIAL_BUFFER_SIZE, buffer.length * 2)];
+                System.arraycopy(buffer, 0, larger, 0, length);
+                grown = larger.length - buffer.length;
+                buffer = larger;
+            }
+            length = writeVarint(buffer, length, zigZag(offset - last));
+            last = offset;
+            count++;
+            return grown;
+        }
+
+        void spill() {
+            spilled += count;
+            count = 0;
+            length = 0;
+            last = 0;
+            buffer = EMPTY;
+        }
+
+        void decode(List<Integer> offsets) {
+            SpillableOffsetQueue.decode(buffer, length, offsets);
+        }
+    }
+
+    /**
+     * A reader over one spilled run, positioned at the id of the next term in the run
+     */
+    private static class SpillRun implements Closeable {
+        private final DataInputStream in;
+        private int nextId;
+
+        SpillRun(File file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            advance();
+        }
+
+        private void advance() throws IOException {
+            try {
+                nextId = in.readInt();
+            } catch (EOFException e) {
+                nextId = -1;
+            }
+        }
+
+        void read(List<Integer> offsets) throws IOException {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            decode(bytes, bytes.length, offsets);
+            advance();
+        }
+
+        void skip() throws IOException {
+            in.skipBytes(in.readInt());
+            advance();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int writeVarint(byte[] buffer, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static void decode(byte[] buffer, int length, List<Integer> offsets) {
+        int pos = 0;
+        int last = 0;
+        while (pos < length) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer[pos++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            last += (value >>> 1) ^ -(value & 1);
+            offsets.add(last);
+        }
+    }
+}
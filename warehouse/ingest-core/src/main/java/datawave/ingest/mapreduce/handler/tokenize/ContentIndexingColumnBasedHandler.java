@@ -1,12 +1,18 @@
 package datawave.ingest.mapreduce.handler.tokenize;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
@@ -39,15 +45,20 @@ import datawave.ingest.data.tokenize.TokenizationHelper.HeartBeatThread;
 import datawave.ingest.data.tokenize.TokenizationHelper.TokenizerTimeoutException;
 import datawave.ingest.data.tokenize.TruncateAttribute;
 import datawave.ingest.mapreduce.handler.ExtendedDataTypeHandler;
+import datawave.ingest.mapreduce.handler.KeyValueSink;
+import datawave.ingest.mapreduce.handler.MultimapKeyValueSink;
+import datawave.ingest.mapreduce.handler.StreamingDataTypeHandler;
 import datawave.ingest.mapreduce.handler.shard.AbstractColumnBasedHandler;
 import datawave.ingest.mapreduce.handler.shard.ShardedDataTypeHandler;
 import datawave.ingest.mapreduce.handler.shard.content.BoundedOffsetQueue;
 import datawave.ingest.mapreduce.handler.shard.content.BoundedOffsetQueue.OffsetList;
 import datawave.ingest.mapreduce.handler.shard.content.ContentIndexCounters;
 import datawave.ingest.mapreduce.handler.shard.content.OffsetQueue;
+import datawave.ingest.mapreduce.handler.shard.content.SpillableOffsetQueue;
 import datawave.ingest.mapreduce.handler.shard.content.TermAndZone;
 import datawave.ingest.mapreduce.job.BulkIngestKey;
 import datawave.ingest.protobuf.TermWeight;
+import datawave.ingest.protobuf.TokenPositionBlock;
 import datawave.ingest.util.BloomFilterUtil;
 import datawave.ingest.util.BloomFilterWrapper;
 import datawave.ingest.util.Identity;
@@ -56,11 +67,16 @@ import datawave.util.TextUtil;
 
 /**
  * Content indexing column based handler. will provide content tokenization, which will include storing offsets, and the TERM_COUNT for that event.
+ * <p>
+ * The term frequency entries, one per distinct token, are written directly to the {@link KeyValueSink} when the EventMapper processes the event as a
+ * {@link StreamingDataTypeHandler}. When {@link TokenizationHelper#TOKEN_POSITION_BLOCKS_ENABLED} is set, the tokens of each field are also written in position
+ * order as {@link TokenPositionBlock}s, from which excerpts are built without scanning the term frequency entries.
  *
  * @param <KEYIN>
  *            the parameter type of the handler
  */
-public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractColumnBasedHandler<KEYIN> implements TermFrequencyIngestHelperInterface {
+public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractColumnBasedHandler<KEYIN>
+                implements TermFrequencyIngestHelperInterface, StreamingDataTypeHandler<KEYIN> {
 
     private static final Logger log = Logger.getLogger(ContentIndexingColumnBasedHandler.class);
 
@@ -108,6 +124,9 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
 
     private int termPosition = 0;
 
+    // the analyzer is shared by all events handled by this instance, its token streams are reused by each thread
+    private Analyzer analyzer;
+
     @Override
     public void setup(TaskAttemptContext context) {
         super.setup(context);
@@ -125,6 +144,7 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
         helper = contentHelper;
 
         tokenHelper = new TokenizationHelper(helper, conf);
+        closeAnalyzer();
 
         // TODO: refactor explicit DefaultTokenSearch usage here and get class from config
         searchUtil = TokenSearch.Factory.newInstance(DefaultTokenSearch.class.getCanonicalName(), tokenHelper.getStopWords(), false);
@@ -134,7 +154,13 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
         searchUtilReverse = TokenSearch.Factory.newInstance(DefaultTokenSearch.class.getCanonicalName(), tokenHelper.getStopWords(), true);
         tokenHelper.configureSearchUtil(searchUtilReverse);
 
-        tokenOffsetCache = new BoundedOffsetQueue<>(tokenHelper.getTokenOffsetCacheMaxSize());
+        if (tokenHelper.isTokenOffsetCacheSpillEnabled()) {
+            // keep every offset of large documents, spilling to local disk rather than dropping them
+            String spillDir = tokenHelper.getTokenOffsetCacheSpillDir();
+            tokenOffsetCache = new SpillableOffsetQueue(tokenHelper.getTokenOffsetCacheMaxBytes(), spillDir == null ? null : new File(spillDir));
+        } else {
+            tokenOffsetCache = new BoundedOffsetQueue<>(tokenHelper.getTokenOffsetCacheMaxSize());
+        }
 
         // Conditionally create an NGrams factory
         if (this.getBloomFiltersEnabled()) {
@@ -142,35 +168,110 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
         }
     }
 
+    @Override
+    public void close(TaskAttemptContext context) {
+        super.close(context);
+        closeAnalyzer();
+        if (tokenOffsetCache != null) {
+            // removes any spill files
+            tokenOffsetCache.clear();
+        }
+    }
+
+    /**
+     * Get the analyzer used to tokenize content fields. Creating an analyzer and its token stream components is expensive relative to tokenizing a typical
+     * field, so a single analyzer is created lazily and reused for every event until this handler is closed.
+     *
+     * @return the analyzer
+     */
+    protected Analyzer getAnalyzer() {
+        if (analyzer == null) {
+            analyzer = tokenHelper.getAnalyzer();
+        }
+        return analyzer;
+    }
+
+    private void closeAnalyzer() {
+        if (analyzer != null) {
+            analyzer.close();
+            analyzer = null;
+        }
+    }
+
     @Override
     public Multimap<BulkIngestKey,Value> processBulk(KEYIN key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields,
                     StatusReporter reporter) {
+        return StreamingDataTypeHandler.super.processBulk(key, event, eventFields, reporter);
+    }
+
+    @Override
+    public long processBulk(KEYIN key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields, StatusReporter reporter,
+                    KeyValueSink sink) throws IOException, InterruptedException {
 
         if (event.fatalError()) {
-            return null;
+            return -1;
         }
 
         this.shardId = getShardId(event);
         this.eventDataTypeName = event.getDataType().outputName();
         this.eventUid = event.getId().toString();
 
-        Multimap<BulkIngestKey,Value> values = HashMultimap.create();
         // get the typical shard/index information
-        values.putAll(super.processBulk(key, event, eventFields, reporter));
+        Multimap<BulkIngestKey,Value> values = super.processBulk(key, event, eventFields, reporter);
+        if (values == null) {
+            return -1;
+        }
+        sink.putAll(values);
+        long count = values.size();
 
-        flushTokenOffsetCache(event, values);
+        count += flushTokenOffsetCache(event, sink);
 
         counters.flush(reporter);
 
-        return values;
+        return count;
+    }
+
+    /**
+     * The shard and index entries come from a single HashMultimap and each term frequency entry is for a distinct term and zone, so no duplicates are written.
+     */
+    @Override
+    public boolean isDeduplicationRequired() {
+        return false;
     }
 
     protected void flushTokenOffsetCache(RawRecordContainer event, Multimap<BulkIngestKey,Value> values) {
+        try {
+            flushTokenOffsetCache(event, new MultimapKeyValueSink(values));
+        } catch (IOException ex) {
+            log.fatal("IOException", ex);
+        } catch (InterruptedException ex) {
+            log.warn("Interrupted!", ex);
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * Write the term frequency entries and the TERM_COUNT for the tokens cached while processing the event, and clear the cache
+     *
+     * @param event
+     *            the event container
+     * @param sink
+     *            the destination for the key/values
+     * @return the number of key/values written
+     * @throws IOException
+     *             if there is an issue writing to the sink
+     * @throws InterruptedException
+     *             if the thread is interrupted
+     */
+    protected long flushTokenOffsetCache(RawRecordContainer event, KeyValueSink sink) throws IOException, InterruptedException {
+        long count = 0;
 
         // now flush out the offset queue
         if (tokenOffsetCache != null) {
-            int termCount = 0;
             try {
+                int termCount = 0;
+                // the highest position of any token, when writing the token position blocks
+                int maxPosition = -1;
                 for (OffsetList<Integer> offsets : tokenOffsetCache.offsets()) {
                     // no need to normalize as that was already done
                     // upon insertion into the token offset cache
@@ -178,8 +279,19 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
 
                     byte[] fieldVisibility = getVisibility(event, nfv);
 
-                    createTermFrequencyIndex(event, values, this.shardId, nfv, offsets.offsets, fieldVisibility);
+                    createTermFrequencyIndex(event, sink, this.shardId, nfv, offsets.offsets, fieldVisibility);
                     termCount++;
+
+                    if (tokenHelper.isTokenPositionBlocksEnabled()) {
+                        for (Integer offset : offsets.offsets) {
+                            maxPosition = Math.max(maxPosition, offset);
+                        }
+                    }
+                }
+                count += termCount;
+
+                if (maxPosition >= 0) {
+                    count += createTokenPositionIndexes(event, sink, this.shardId, maxPosition);
                 }
 
                 if (termCount > 0) {
@@ -189,18 +301,17 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
                     nfav.setEventFieldValue(Long.toString(termCount));
                     tokenMap.put(nfav.getEventFieldName(), nfav);
                     byte[] fieldVisibility = getVisibility(event, nfav);
-                    createEventColumn(event, tokenMap, values, this.shardId, fieldVisibility, nfav);
+                    Multimap<BulkIngestKey,Value> termCountValues = HashMultimap.create();
+                    createEventColumn(event, tokenMap, termCountValues, this.shardId, fieldVisibility, nfav);
+                    sink.putAll(termCountValues);
+                    count += termCountValues.size();
                 }
-            } catch (IOException ex) {
-                log.fatal("IOException", ex);
-            } catch (InterruptedException ex) {
-                log.warn("Interrupted!", ex);
-                Thread.interrupted();
+            } finally {
+                tokenOffsetCache.clear();
             }
-
-            tokenOffsetCache.clear();
         }
 
+        return count;
     }
 
     /**
@@ -253,70 +364,66 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
         index = HashMultimap.create();
         reverse = HashMultimap.create();
 
-        Analyzer analyzer = tokenHelper.getAnalyzer();
+        Analyzer analyzer = getAnalyzer();
 
-        try {
-            String lastFieldName = "";
+        String lastFieldName = "";
 
-            for (Entry<String,NormalizedContentInterface> e : eventFields.entries()) {
-                NormalizedContentInterface nci = e.getValue();
+        for (Entry<String,NormalizedContentInterface> e : eventFields.entries()) {
+            NormalizedContentInterface nci = e.getValue();
 
-                // Put the normalized field name and normalized value into the index
-                if (createGlobalIndexTerms) {
-                    if (helper.isIndexedField(nci.getIndexedFieldName())) {
-                        index.put(nci.getIndexedFieldName(), nci);
-                    }
+            // Put the normalized field name and normalized value into the index
+            if (createGlobalIndexTerms) {
+                if (helper.isIndexedField(nci.getIndexedFieldName())) {
+                    index.put(nci.getIndexedFieldName(), nci);
                 }
+            }
 
-                // Put the normalized field name and normalized value into the reverse
-                if (createGlobalReverseIndexTerms) {
-                    if (helper.isReverseIndexedField(nci.getIndexedFieldName())) {
-                        NormalizedContentInterface rField = (NormalizedContentInterface) (nci.clone());
-                        rField.setEventFieldValue(new StringBuilder(rField.getEventFieldValue()).reverse().toString());
-                        rField.setIndexedFieldValue(new StringBuilder(rField.getIndexedFieldValue()).reverse().toString());
-                        reverse.put(nci.getIndexedFieldName(), rField);
-                    }
+            // Put the normalized field name and normalized value into the reverse
+            if (createGlobalReverseIndexTerms) {
+                if (helper.isReverseIndexedField(nci.getIndexedFieldName())) {
+                    NormalizedContentInterface rField = (NormalizedContentInterface) (nci.clone());
+                    rField.setEventFieldValue(new StringBuilder(rField.getEventFieldValue()).reverse().toString());
+                    rField.setIndexedFieldValue(new StringBuilder(rField.getIndexedFieldValue()).reverse().toString());
+                    reverse.put(nci.getIndexedFieldName(), rField);
                 }
+            }
 
-                // Skip any fields that should not be included in the shard table.
-                if (helper.isShardExcluded(nci.getIndexedFieldName())) {
-                    continue;
-                }
+            // Skip any fields that should not be included in the shard table.
+            if (helper.isShardExcluded(nci.getIndexedFieldName())) {
+                continue;
+            }
 
-                // Put the event field name and original value into the fields
-                fields.put(nci.getIndexedFieldName(), nci);
+            // Put the event field name and original value into the fields
+            fields.put(nci.getIndexedFieldName(), nci);
 
-                String indexedFieldName = nci.getIndexedFieldName();
+            String indexedFieldName = nci.getIndexedFieldName();
 
-                // reset term position to zero if the indexed field name has changed, otherwise
-                // bump the offset based on the inter-field position increment.
-                if (!lastFieldName.equals(indexedFieldName)) {
-                    termPosition = 0;
-                    lastFieldName = indexedFieldName;
-                } else {
-                    termPosition = tokenHelper.getInterFieldPositionIncrement();
-                }
+            // reset term position to zero if the indexed field name has changed, otherwise
+            // bump the offset based on the inter-field position increment.
+            if (!lastFieldName.equals(indexedFieldName)) {
+                termPosition = 0;
+                lastFieldName = indexedFieldName;
+            } else {
+                termPosition = tokenHelper.getInterFieldPositionIncrement();
+            }
 
-                boolean indexField = createGlobalIndexTerms && contentHelper.isContentIndexField(indexedFieldName);
-                boolean reverseIndexField = createGlobalReverseIndexTerms && contentHelper.isReverseContentIndexField(indexedFieldName);
+            boolean indexField = createGlobalIndexTerms && contentHelper.isContentIndexField(indexedFieldName);
+            boolean reverseIndexField = createGlobalReverseIndexTerms && contentHelper.isReverseContentIndexField(indexedFieldName);
 
-                if (indexField || reverseIndexField) {
-                    try {
-                        tokenizeField(analyzer, nci, indexField, reverseIndexField, reporter);
-                    } catch (Exception ex) {
-                        throw new RuntimeException(ex);
-                    }
+            if (indexField || reverseIndexField) {
+                try {
+                    tokenizeField(analyzer, nci, indexField, reverseIndexField, reporter);
+                } catch (Exception ex) {
+                    throw new RuntimeException(ex);
                 }
+            }
 
-                boolean indexListField = createGlobalIndexTerms && contentHelper.isIndexListField(indexedFieldName);
-                boolean reverseIndexListField = createGlobalReverseIndexTerms && contentHelper.isReverseIndexListField(indexedFieldName);
+            boolean indexListField = createGlobalIndexTerms && contentHelper.isIndexListField(indexedFieldName);
+            boolean reverseIndexListField = createGlobalReverseIndexTerms && contentHelper.isReverseIndexListField(indexedFieldName);
 
-                if (indexListField || reverseIndexListField) {
-                    indexListEntries(nci, indexListField, reverseIndexListField, reporter);
-                }
+            if (indexListField || reverseIndexListField) {
+                indexListEntries(nci, indexListField, reverseIndexListField, reporter);
             }
-        } finally {
-            analyzer.close();
         }
 
         validateIndexedFields(createGlobalIndexTerms, createGlobalReverseIndexTerms, reporter);
@@ -358,9 +465,11 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
         String content = nci.getIndexedFieldValue();
 
         TokenStream tokenizer = a.tokenStream(indexedFieldName, new StringReader(content));
-        tokenizer.reset();
 
         try {
+            // reset within the try so that a reused stream is always closed, even if the reset fails
+            tokenizer.reset();
+
             final CharTermAttribute termAtt = tokenizer.getAttribute(CharTermAttribute.class);
             final TypeAttribute typeAtt = tokenizer.getAttribute(TypeAttribute.class);
             final PositionIncrementAttribute posIncrAtt = tokenizer.getAttribute(PositionIncrementAttribute.class);
@@ -584,6 +693,31 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
      */
     protected void createTermFrequencyIndex(RawRecordContainer event, Multimap<BulkIngestKey,Value> values, byte[] shardId, NormalizedFieldAndValue nfv,
                     List<Integer> offsets, byte[] visibility) throws IOException, InterruptedException {
+        createTermFrequencyIndex(event, new MultimapKeyValueSink(values), shardId, nfv, offsets, visibility);
+    }
+
+    /**
+     * Creates a Term Frequency index key in the "tf" column family and writes it to the sink.
+     *
+     * @param event
+     *            the event container
+     * @param sink
+     *            the destination for the key/value
+     * @param shardId
+     *            the shard id
+     * @param nfv
+     *            the normalized field value
+     * @param offsets
+     *            the input offsets
+     * @param visibility
+     *            the column visibility
+     * @throws IOException
+     *             if there is an issue writing to the sink
+     * @throws InterruptedException
+     *             if the thread is interrupted
+     */
+    protected void createTermFrequencyIndex(RawRecordContainer event, KeyValueSink sink, byte[] shardId, NormalizedFieldAndValue nfv, List<Integer> offsets,
+                    byte[] visibility) throws IOException, InterruptedException {
 
         TermWeight.Info.Builder builder = TermWeight.Info.newBuilder();
         for (Integer offset : offsets) {
@@ -599,7 +733,100 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
         BulkIngestKey bKey = new BulkIngestKey(new Text(this.getShardTableName()),
                         new Key(shardId, ExtendedDataTypeHandler.TERM_FREQUENCY_COLUMN_FAMILY.getBytes(), colq.toString().getBytes(), visibility,
                                         event.getDate(), helper.getDeleteMode()));
-        values.put(bKey, value);
+        sink.put(bKey, value);
+    }
+
+    /**
+     * Creates the token position blocks of every zone from the token offset cache and writes them to the sink. Rather than inverting the whole cache at once,
+     * the cache is read once per window of {@link TokenizationHelper#TOKEN_POSITION_BLOCK_WINDOW} positions, rounded to a whole number of blocks, so that only
+     * the terms of one window are held in memory at a time. The terms of a zone are grouped by their visibility, and each visibility gets its own blocks.
+     *
+     * @param event
+     *            the event container
+     * @param sink
+     *            the destination for the key/values
+     * @param shardId
+     *            the shard id
+     * @param maxPosition
+     *            the highest position of any token in the cache
+     * @return the number of key/values written
+     * @throws IOException
+     *             if there is an issue reading the cache or writing to the sink
+     * @throws InterruptedException
+     *             if the thread is interrupted
+     */
+    protected long createTokenPositionIndexes(RawRecordContainer event, KeyValueSink sink, byte[] shardId, int maxPosition)
+                    throws IOException, InterruptedException {
+        long count = 0;
+        int blockSize = tokenHelper.getTokenPositionBlockSize();
+        int window = Math.max(1, tokenHelper.getTokenPositionBlockWindow() / blockSize) * blockSize;
+        for (long windowStart = 0; windowStart <= maxPosition; windowStart += window) {
+            long windowEnd = windowStart + window;
+            // the terms of each zone and visibility by position, within the window
+            Map<String,Map<Text,SortedMap<Integer,List<String>>>> positions = new HashMap<>();
+            for (OffsetList<Integer> offsets : tokenOffsetCache.offsets()) {
+                SortedMap<Integer,List<String>> termsByPosition = null;
+                for (Integer offset : offsets.offsets) {
+                    if (offset < windowStart || offset >= windowEnd) {
+                        continue;
+                    }
+                    if (termsByPosition == null) {
+                        NormalizedFieldAndValue nfv = new NormalizedFieldAndValue(offsets.termAndZone.zone, offsets.termAndZone.term);
+                        Text visibility = new Text(getVisibility(event, nfv));
+                        termsByPosition = positions.computeIfAbsent(offsets.termAndZone.zone, k -> new HashMap<>()).computeIfAbsent(visibility,
+                                        k -> new TreeMap<>());
+                    }
+                    termsByPosition.computeIfAbsent(offset, k -> new ArrayList<>()).add(offsets.termAndZone.term);
+                }
+            }
+
+            for (Entry<String,Map<Text,SortedMap<Integer,List<String>>>> zonePositions : positions.entrySet()) {
+                for (Entry<Text,SortedMap<Integer,List<String>>> visibilityPositions : zonePositions.getValue().entrySet()) {
+                    count += createTokenPositionIndex(event, sink, shardId, zonePositions.getKey(), visibilityPositions.getValue(),
+                                    visibilityPositions.getKey().copyBytes());
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Creates the token position blocks of a zone in the "tp" column family and writes them to the sink. Each block holds the terms of a run of positions and
+     * is keyed by the last position of its range of {@link TokenizationHelper#TOKEN_POSITION_BLOCK_SIZE} positions, so that an excerpt can be built from the
+     * blocks covering its offsets rather than from every term frequency entry of the document. Blocks of the same range written under different visibilities
+     * share that key position.
+     *
+     * @param event
+     *            the event container
+     * @param sink
+     *            the destination for the key/values
+     * @param shardId
+     *            the shard id
+     * @param zone
+     *            the zone (field) of the terms
+     * @param termsByPosition
+     *            the terms of the zone by position
+     * @param visibility
+     *            the column visibility
+     * @return the number of key/values written
+     * @throws IOException
+     *             if there is an issue writing to the sink
+     * @throws InterruptedException
+     *             if the thread is interrupted
+     */
+    protected long createTokenPositionIndex(RawRecordContainer event, KeyValueSink sink, byte[] shardId, String zone,
+                    SortedMap<Integer,List<String>> termsByPosition, byte[] visibility) throws IOException, InterruptedException {
+        long count = 0;
+        String prefix = this.eventDataTypeName + '\u0000' + this.eventUid + '\u0000' + zone + '\u0000';
+        for (TokenPositionBlock block : TokenPositionBlock.split(termsByPosition, tokenHelper.getTokenPositionBlockSize())) {
+            String colq = prefix + TokenPositionBlock.encodePosition(block.getKeyPosition(tokenHelper.getTokenPositionBlockSize()));
+            BulkIngestKey bKey = new BulkIngestKey(new Text(this.getShardTableName()),
+                            new Key(shardId, ExtendedDataTypeHandler.TOKEN_POSITION_COLUMN_FAMILY.getBytes(), colq.getBytes(), visibility, event.getDate(),
+                                            helper.getDeleteMode()));
+            sink.put(bKey, new Value(block.toByteArray()));
+            count++;
+        }
+        return count;
     }
 
     /**
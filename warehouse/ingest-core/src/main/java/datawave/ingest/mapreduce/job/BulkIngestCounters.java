@@ -17,7 +17,10 @@ import datawave.ingest.mapreduce.handler.shard.ShardedDataTypeHandler;
  * {@link BulkIngestKey#getTableName()}).
  */
 public class BulkIngestCounters {
+    public static final String COMBINER_COUNTER_GROUP = "CB Combiner";
+
     private Map<Text,BulkIngestCounter> counters = new HashMap<>();
+    private Map<Text,CombinerCounter> combinerCounters = new HashMap<>();
     private String shardedTableName;
 
     public BulkIngestCounters(Configuration conf) {
@@ -41,6 +44,34 @@ public class BulkIngestCounters {
         }
     }
 
+    /**
+     * Creates a new map-side combiner counter for a table. Any {@link BulkIngestKey} passed to {@link #incrementCombinerCounter(BulkIngestKey, long, long)}
+     * later will use the counter created here if the table name in the key matches the table name.
+     *
+     * @param tableName
+     *            the table name
+     */
+    public void createCombinerCounter(String tableName) {
+        combinerCounters.put(new Text(tableName), new CombinerCounter(tableName));
+    }
+
+    /**
+     * Records a combined entry emitted by a map-side combiner for {@code key}. The number of output records approximates the reducer input records and the
+     * number of output bytes approximates the shuffle bytes for the table.
+     *
+     * @param key
+     *            the combined {@link BulkIngestKey}
+     * @param inputRecords
+     *            the number of entries that were combined into the emitted entry
+     * @param outputBytes
+     *            the serialized size of the emitted key and value
+     */
+    public void incrementCombinerCounter(BulkIngestKey key, long inputRecords, long outputBytes) {
+        CombinerCounter counter = combinerCounters.get(key.getTableName());
+        if (counter != null)
+            counter.increment(inputRecords, outputBytes);
+    }
+
     /**
      * Increments the appropriate counter for {@code key}.
      *
@@ -81,6 +112,39 @@ public class BulkIngestCounters {
         for (BulkIngestCounter counter : counters.values()) {
             counter.flush(context);
         }
+        for (CombinerCounter counter : combinerCounters.values()) {
+            counter.flush(context);
+        }
+    }
+
+    protected static class CombinerCounter {
+        private final String inputRecordsName;
+        private final String outputRecordsName;
+        private final String outputBytesName;
+        private long inputRecords = 0;
+        private long outputRecords = 0;
+        private long outputBytes = 0;
+
+        public CombinerCounter(String tableName) {
+            this.inputRecordsName = tableName + " Input Records";
+            this.outputRecordsName = tableName + " Output Records";
+            this.outputBytesName = tableName + " Output Bytes";
+        }
+
+        public void increment(long inputRecords, long outputBytes) {
+            this.inputRecords += inputRecords;
+            this.outputRecords++;
+            this.outputBytes += outputBytes;
+        }
+
+        public void flush(TaskAttemptContext context) {
+            context.getCounter(COMBINER_COUNTER_GROUP, inputRecordsName).increment(inputRecords);
+            context.getCounter(COMBINER_COUNTER_GROUP, outputRecordsName).increment(outputRecords);
+            context.getCounter(COMBINER_COUNTER_GROUP, outputBytesName).increment(outputBytes);
+            this.inputRecords = 0;
+            this.outputRecords = 0;
+            this.outputBytes = 0;
+        }
     }
 
     protected abstract static class BulkIngestCounter {
@@ -0,0 +1,88 @@
+package datawave.ingest.mapreduce.job.writer;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+
+import datawave.ingest.mapreduce.handler.KeyValueSink;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+
+/**
+ * A {@link KeyValueSink} that writes through to a {@link ContextWriter}. One instance is reused for every event processed by a mapper; {@link #reset} must be
+ * called before each event. When deduplication is enabled, key/values already written for the current event are dropped, matching the behavior of a handler
+ * that collects its output into a HashMultimap.
+ *
+ * @param <OK>
+ *            The output key
+ * @param <OV>
+ *            The output value
+ */
+public class ContextWriterKeyValueSink<OK,OV> implements KeyValueSink {
+
+    // above this many key/values, the dedup set is discarded rather than cleared so one very large event does not make clearing expensive for every event after
+    private static final int MAX_RETAINED_DEDUP_SIZE = 16384;
+
+    private final ContextWriter<OK,OV> contextWriter;
+    private Set<Map.Entry<BulkIngestKey,Value>> written = new HashSet<>();
+    private TaskInputOutputContext<?,?,OK,OV> context;
+    private boolean dedup = true;
+    private long count = 0;
+
+    public ContextWriterKeyValueSink(ContextWriter<OK,OV> contextWriter) {
+        this.contextWriter = contextWriter;
+    }
+
+    /**
+     * Prepare the sink for the next event
+     *
+     * @param context
+     *            the context to write to
+     * @param dedup
+     *            whether duplicate key/values within the event are dropped
+     */
+    public void reset(TaskInputOutputContext<?,?,OK,OV> context, boolean dedup) {
+        this.context = context;
+        this.dedup = dedup;
+        this.count = 0;
+        if (!written.isEmpty()) {
+            if (written.size() > MAX_RETAINED_DEDUP_SIZE) {
+                written = new HashSet<>();
+            } else {
+                written.clear();
+            }
+        }
+    }
+
+    @Override
+    public void put(BulkIngestKey key, Value value) throws IOException, InterruptedException {
+        if (dedup && !written.add(Maps.immutableEntry(key, value))) {
+            return;
+        }
+        contextWriter.write(key, value, context);
+        count++;
+    }
+
+    @Override
+    public void putAll(Multimap<BulkIngestKey,Value> entries) throws IOException, InterruptedException {
+        if (dedup) {
+            KeyValueSink.super.putAll(entries);
+        } else {
+            contextWriter.write(entries, context);
+            count += entries.size();
+        }
+    }
+
+    /**
+     * @return the number of key/values written since the last reset
+     */
+    public long getCount() {
+        return count;
+    }
+}
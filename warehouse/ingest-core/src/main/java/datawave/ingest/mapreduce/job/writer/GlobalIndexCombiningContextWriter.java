@@ -0,0 +1,248 @@
+package datawave.ingest.mapreduce.job.writer;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Multimap;
+
+import datawave.ingest.mapreduce.handler.shard.ShardedDataTypeHandler;
+import datawave.ingest.mapreduce.job.BulkIngestCounters;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.ingest.table.aggregator.GlobalIndexUidAggregator;
+
+/**
+ * This is an in-mapper combining context writer for the global index tables (shardIndex and shardReverseIndex). Entries for the configured tables are
+ * combined across events in a memory bounded, least recently used cache where identical keys (row, column family, column qualifier, visibility, timestamp and
+ * delete flag) have their {@link datawave.ingest.protobuf.Uid.List} values merged using the {@link GlobalIndexUidAggregator}. Because the aggregator is run in
+ * propagating mode, the UID cap and the REMOVEDUID semantics are identical to those applied later by the reducer and the table combiners. Keys that only differ
+ * by their delete flag are never merged.
+ * <p>
+ * When the estimated size of the cache exceeds the configured byte budget, the least recently used entries are handed to the chained context writer until the
+ * cache is back under budget. The remaining entries are flushed on cleanup. Entries for all other tables are passed straight through to the chained context
+ * writer. The number of combined input records, output records (reducer input records) and output bytes (shuffle bytes) are reported per table through the
+ * {@link BulkIngestCounters}.
+ */
+public class GlobalIndexCombiningContextWriter<OK,OV> extends AbstractContextWriter<OK,OV> implements ChainedContextWriter<OK,OV> {
+
+    private static final Logger log = Logger.getLogger(GlobalIndexCombiningContextWriter.class);
+
+    // The property used to configure the next writer in the chain
+    public static final String CONTEXT_WRITER_CLASS = "ingest.global.index.combining.context.writer.class";
+
+    // The property used to determine whether we are outputting mutations or keys such that a default chained context writer can be configured
+    public static final String MAPRED_OUTPUT_VALUE_CLASS = "mapreduce.job.output.value.class";
+
+    // The tables to combine. Defaults to the global index and global reverse index tables
+    public static final String COMBINING_TABLES = "ingest.global.index.combining.tables";
+
+    // The maximum estimated number of bytes held in the cache before the least recently used entries are flushed
+    public static final String COMBINING_MAX_BYTES = "ingest.global.index.combining.max.bytes";
+    public static final long DEFAULT_COMBINING_MAX_BYTES = 32L * 1024L * 1024L;
+
+    // The maximum number of UIDs kept in a combined Uid.List before it is converted to a count only list
+    public static final String COMBINING_MAX_UIDS = "ingest.global.index.combining.max.uids";
+
+    // a counter to keep track of how often the cache is flushed because it reached the byte budget
+    public static final String EVICTION_COUNTER = "GLOBAL_INDEX_COMBINER_EVICTIONS";
+
+    // approximate per-entry overhead of the cache (map entry, BulkIngestKey, Key and Value wrappers)
+    private static final int ENTRY_OVERHEAD = 128;
+
+    // The cache, in access order so that iteration begins with the least recently used entry
+    private final LinkedHashMap<BulkIngestKey,CombinedValue> cache = new LinkedHashMap<>(1024, 0.75f, true);
+
+    private final Set<Text> combiningTables = new HashSet<>();
+
+    private GlobalIndexUidAggregator aggregator;
+
+    private BulkIngestCounters combinerCounters;
+
+    private long maxBytes = DEFAULT_COMBINING_MAX_BYTES;
+
+    private long cacheBytes = 0;
+
+    private long evictions = 0;
+
+    // The chained context writer
+    private ContextWriter<OK,OV> contextWriter;
+
+    @Override
+    public void configureChainedContextWriter(Configuration conf, Class<? extends ContextWriter<OK,OV>> contextWriterClass) {
+        conf.setClass(CONTEXT_WRITER_CLASS, contextWriterClass, ContextWriter.class);
+    }
+
+    @Override
+    public void setup(Configuration conf, boolean outputTableCounters) throws IOException, InterruptedException {
+        super.setup(conf, false);
+
+        String[] tables = conf.getStrings(COMBINING_TABLES);
+        if (tables == null) {
+            tables = new String[] {conf.get(ShardedDataTypeHandler.SHARD_GIDX_TNAME), conf.get(ShardedDataTypeHandler.SHARD_GRIDX_TNAME)};
+        }
+        combinerCounters = new BulkIngestCounters(conf);
+        for (String table : tables) {
+            if (table != null && !table.isEmpty()) {
+                combiningTables.add(new Text(table));
+                combinerCounters.createCombinerCounter(table);
+            }
+        }
+
+        maxBytes = conf.getLong(COMBINING_MAX_BYTES, DEFAULT_COMBINING_MAX_BYTES);
+        aggregator = new GlobalIndexUidAggregator(conf.getInt(COMBINING_MAX_UIDS, GlobalIndexUidAggregator.MAX));
+        // the mapper only ever sees part of the values for a key, so removals must be propagated to the reducer
+        aggregator.setPropogate(true);
+
+        // create and setup the chained context writer
+        Class<ContextWriter<OK,OV>> contextWriterClass = null;
+        if (Mutation.class.equals(conf.getClass(MAPRED_OUTPUT_VALUE_CLASS, null))) {
+            contextWriterClass = (Class<ContextWriter<OK,OV>>) conf.getClass(CONTEXT_WRITER_CLASS, LiveContextWriter.class, ContextWriter.class);
+        } else {
+            contextWriterClass = (Class<ContextWriter<OK,OV>>) conf.getClass(CONTEXT_WRITER_CLASS, BulkContextWriter.class, ContextWriter.class);
+        }
+        try {
+            contextWriter = contextWriterClass.getDeclaredConstructor().newInstance();
+            contextWriter.setup(conf, outputTableCounters);
+        } catch (Exception e) {
+            throw new IOException("Failed to initialized " + contextWriterClass + " from property " + CONTEXT_WRITER_CLASS, e);
+        }
+    }
+
+    @Override
+    public void commit(TaskInputOutputContext<?,?,OK,OV> context) throws IOException, InterruptedException {
+        super.commit(context);
+        contextWriter.commit(context);
+    }
+
+    /**
+     * Only entries that have been committed are combined into the cache, so a rollback of the current event never has to undo a merge.
+     */
+    @Override
+    protected void flush(Multimap<BulkIngestKey,Value> entries, TaskInputOutputContext<?,?,OK,OV> context) throws IOException, InterruptedException {
+        Multimap<BulkIngestKey,Value> residual = ArrayListMultimap.create();
+        for (Map.Entry<BulkIngestKey,Value> entry : entries.entries()) {
+            if (combiningTables.contains(entry.getKey().getTableName())) {
+                combine(entry.getKey(), entry.getValue());
+            } else {
+                residual.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!residual.isEmpty()) {
+            contextWriter.write(residual, context);
+        }
+        if (cacheBytes > maxBytes) {
+            evict(context);
+        }
+    }
+
+    @Override
+    public void rollback() throws IOException, InterruptedException {
+        super.rollback();
+        contextWriter.rollback();
+    }
+
+    @Override
+    public void cleanup(TaskInputOutputContext<?,?,OK,OV> context) throws IOException, InterruptedException {
+        super.cleanup(context);
+        flushAll(context);
+        contextWriter.commit(context);
+        if (evictions > 0) {
+            getCounter(context, EVICTION_COUNTER, "evictions").increment(evictions);
+            evictions = 0;
+        }
+        combinerCounters.flush(getContext(context));
+        contextWriter.cleanup(context);
+    }
+
+    /**
+     * Merge a value into the cache
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the serialized Uid.List
+     */
+    private void combine(BulkIngestKey key, Value value) {
+        CombinedValue combined = cache.get(key);
+        if (combined == null) {
+            combined = new CombinedValue(value);
+            cache.put(key, combined);
+            cacheBytes += ENTRY_OVERHEAD + key.getKey().getSize() + combined.value.getSize();
+        } else {
+            long previousSize = combined.value.getSize();
+            aggregator.reset();
+            combined.value = aggregator.reduce(key.getKey(), Iterators.forArray(combined.value, value));
+            combined.inputRecords++;
+            cacheBytes += combined.value.getSize() - previousSize;
+        }
+    }
+
+    /**
+     * Write out the least recently used entries until the cache is back under its byte budget
+     *
+     * @param context
+     *            the context
+     * @throws IOException
+     *             if there is an issue with read or write
+     * @throws InterruptedException
+     *             if the thread is interrupted
+     */
+    private void evict(TaskInputOutputContext<?,?,OK,OV> context) throws IOException, InterruptedException {
+        // evict down to three quarters of the budget so that we are not evicting on every flush once the cache is full
+        long target = maxBytes - (maxBytes >> 2);
+        Multimap<BulkIngestKey,Value> evicted = ArrayListMultimap.create();
+        Iterator<Map.Entry<BulkIngestKey,CombinedValue>> it = cache.entrySet().iterator();
+        while (cacheBytes > target && it.hasNext()) {
+            Map.Entry<BulkIngestKey,CombinedValue> entry = it.next();
+            cacheBytes -= ENTRY_OVERHEAD + entry.getKey().getKey().getSize() + entry.getValue().value.getSize();
+            emit(entry.getKey(), entry.getValue(), evicted);
+            it.remove();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Evicted " + evicted.size() + " combined global index entries, " + cache.size() + " entries remain cached");
+        }
+        evictions++;
+        contextWriter.write(evicted, context);
+    }
+
+    private void flushAll(TaskInputOutputContext<?,?,OK,OV> context) throws IOException, InterruptedException {
+        if (!cache.isEmpty()) {
+            Multimap<BulkIngestKey,Value> remaining = ArrayListMultimap.create();
+            for (Map.Entry<BulkIngestKey,CombinedValue> entry : cache.entrySet()) {
+                emit(entry.getKey(), entry.getValue(), remaining);
+            }
+            cache.clear();
+            cacheBytes = 0;
+            contextWriter.write(remaining, context);
+        }
+    }
+
+    private void emit(BulkIngestKey key, CombinedValue combined, Multimap<BulkIngestKey,Value> output) {
+        combinerCounters.incrementCombinerCounter(key, combined.inputRecords, key.getKey().getSize() + combined.value.getSize());
+        output.put(key, combined.value);
+    }
+
+    /**
+     * The current combined value for a key along with the number of values merged into it
+     */
+    private static class CombinedValue {
+        private Value value;
+        private long inputRecords = 1;
+
+        private CombinedValue(Value value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package datawave.ingest.mapreduce.partition;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.log4j.Logger;
+
+/**
+ * Estimated bytes per row for each table, used by the {@link SkewAwarePartitioner} to balance reducers. Weights are written by the partitioner as it samples
+ * the keys of a job, one file per task, and read back by the next job as the sum over all of the files in a directory.
+ * <p>
+ * When sampling, only every n-th key is recorded and its size is scaled by n. When more rows than the capacity are recorded for a table, the lighter half of
+ * them is dropped, so that the heavy rows that matter for balancing are kept while memory stays bounded.
+ */
+public class RowWeights {
+    private static final Logger log = Logger.getLogger(RowWeights.class);
+
+    private final Map<String,Map<Text,Long>> weights = new HashMap<>();
+
+    private final int sampleRate;
+    private final int capacity;
+    private long seen = 0;
+
+    public RowWeights() {
+        this(1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param sampleRate
+     *            record one of every sampleRate keys
+     * @param capacity
+     *            the maximum number of rows to keep per table
+     */
+    public RowWeights(int sampleRate, int capacity) {
+        this.sampleRate = Math.max(1, sampleRate);
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Record a key of the given size, subject to sampling
+     *
+     * @param table
+     *            the table name
+     * @param row
+     *            the row of the key
+     * @param bytes
+     *            the size of the key and value
+     */
+    public void sample(String table, Text row, long bytes) {
+        if (seen++ % sampleRate == 0) {
+            add(table, row, bytes * sampleRate);
+        }
+    }
+
+    /**
+     * Add to the weight of a row
+     *
+     * @param table
+     *            the table name
+     * @param row
+     *            the row
+     * @param bytes
+     *            the number of bytes to add
+     */
+    public void add(String table, Text row, long bytes) {
+        Map<Text,Long> rows = weights.computeIfAbsent(table, k -> new HashMap<>());
+        Long weight = rows.get(row);
+        if (weight == null) {
+            rows.put(new Text(row), bytes);
+            if (rows.size() > capacity) {
+                prune(rows);
+            }
+        } else {
+            rows.put(row, weight + bytes);
+        }
+    }
+
+    /**
+     * Keep the heaviest half of the rows. Rows of equal weight are cut arbitrarily, so that rows are dropped even when all of the weights are the same.
+     */
+    private void prune(Map<Text,Long> rows) {
+        List<Map.Entry<Text,Long>> sorted = new ArrayList<>(rows.entrySet());
+        sorted.sort(Map.Entry.<Text,Long> comparingByValue().reversed());
+        for (Map.Entry<Text,Long> entry : sorted.subList((sorted.size() + 1) / 2, sorted.size())) {
+            rows.remove(entry.getKey());
+        }
+    }
+
+    /**
+     * @param table
+     *            the table name
+     * @return the weight of each row of the table, empty if none are known
+     */
+    public Map<Text,Long> getWeights(String table) {
+        Map<Text,Long> rows = weights.get(table);
+        return rows == null ? Collections.emptyMap() : rows;
+    }
+
+    public Set<String> getTables() {
+        return weights.keySet();
+    }
+
+    public boolean isEmpty() {
+        return weights.isEmpty();
+    }
+
+    public void clear() {
+        weights.clear();
+        seen = 0;
+    }
+
+    /**
+     * Write the weights to a file
+     *
+     * @param fs
+     *            the file system
+     * @param file
+     *            the file to write
+     * @throws IOException
+     *             if the file can not be written
+     */
+    public void write(FileSystem fs, Path file) throws IOException {
+        try (DataOutputStream out = fs.create(file, true)) {
+            for (Map.Entry<String,Map<Text,Long>> table : weights.entrySet()) {
+                for (Map.Entry<Text,Long> row : table.getValue().entrySet()) {
+                    out.writeUTF(table.getKey());
+                    row.getKey().write(out);
+                    out.writeLong(row.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the weights in a file, or the sum of the weights in all of the files of a directory
+     *
+     * @param fs
+     *            the file system
+     * @param path
+     *            a weights file or a directory of them
+     * @return the weights, empty if the path does not exist
+     * @throws IOException
+     *             if the weights can not be read
+     */
+    public static RowWeights read(FileSystem fs, Path path) throws IOException {
+        RowWeights rowWeights = new RowWeights();
+        if (!fs.exists(path)) {
+            log.warn("No row weights found at " + path);
+            return rowWeights;
+        }
+        for (FileStatus status : fs.listStatus(path)) {
+            if (status.isFile()) {
+                rowWeights.readFile(fs, status.getPath());
+            }
+        }
+        return rowWeights;
+    }
+
+    private void readFile(FileSystem fs, Path file) throws IOException {
+        try (DataInputStream in = fs.open(file)) {
+            while (true) {
+                String table;
+                try {
+                    table = in.readUTF();
+                } catch (EOFException e) {
+                    break;
+                }
+                Text row = new Text();
+                row.readFields(in);
+                add(table, row, in.readLong());
+            }
+        }
+    }
+}
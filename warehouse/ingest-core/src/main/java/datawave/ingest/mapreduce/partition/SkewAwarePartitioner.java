@@ -0,0 +1,344 @@
+package datawave.ingest.mapreduce.partition;
+
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.CounterGroup;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.Partitioner;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+import org.apache.log4j.Logger;
+
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+
+/**
+ * Balances reducers by the estimated number of bytes per row rather than by the number of rows. The estimates come from {@link RowWeights} written by an
+ * earlier job, typically the previous run of the same ingest, which samples the keys it partitions when {@link #SAMPLE_OUTPUT} is set.
+ * <p>
+ * Rows are assigned heaviest first to the least loaded reducer. A row that is heavier than the average reducer load, such as a hot day of a shard table or a
+ * hot term of the global index, is split across several reducers. Keys of a split row are distributed by their row, column family, column qualifier and
+ * visibility, so identical keys still meet in the same reducer and can be combined. Splitting relies on the output being bulk imported, where several files
+ * may hold the same row, and can be disabled with {@link #SPLIT_ROWS}. Rows without an estimate are hashed across all of the reducers.
+ * <p>
+ * The predicted skew, the largest reducer load over the mean, is logged when the job is initialized. If {@link #REPORT} is set, the bytes sent to each
+ * reducer are counted and {@link #reportSkew(Counters)} logs the actual skew once the job is done.
+ */
+public class SkewAwarePartitioner extends Partitioner<BulkIngestKey,Value> implements DelegatePartitioner {
+    private static final Logger log = Logger.getLogger(SkewAwarePartitioner.class);
+
+    /** A row weights file, or a directory of them, to balance with */
+    public static final String WEIGHTS = "datawave.partitioner.skew.weights";
+    /** A directory to write the row weights sampled by this job to, for use by later jobs */
+    public static final String SAMPLE_OUTPUT = "datawave.partitioner.skew.sample.output";
+    /** Sample one out of this many keys */
+    public static final String SAMPLE_RATE = "datawave.partitioner.skew.sample.rate";
+    /** The maximum number of rows per table to sample in each task */
+    public static final String SAMPLE_CAPACITY = "datawave.partitioner.skew.sample.capacity";
+    /** Rows heavier than this multiple of the average reducer load are split */
+    public static final String SPLIT_FACTOR = "datawave.partitioner.skew.split.factor";
+    /** Whether heavy rows may be split across reducers */
+    public static final String SPLIT_ROWS = "datawave.partitioner.skew.split.rows";
+    /** Whether to count the bytes sent to each reducer */
+    public static final String REPORT = "datawave.partitioner.skew.report";
+
+    public static final String COUNTER_GROUP_PREFIX = "Partition Bytes: ";
+
+    // the samplers of all of the partitioners in this task, written out and dropped by flushSamples
+    private static final List<Sampler> samplers = new ArrayList<>();
+    // bumped by flushSamples, so a partitioner that outlives the task in a reused JVM registers a new sampler for the next task
+    private static volatile int sampleGeneration = 0;
+
+    private Configuration conf;
+    private String weightsPath;
+    private String sampleOutput;
+    private int sampleRate = 100;
+    private int sampleCapacity = 10000;
+    private double splitFactor = 1.0d;
+    private boolean splitRows = true;
+    private boolean report = false;
+
+    private RowWeights weights;
+    private RowWeights sampler;
+    private int samplerGeneration;
+    private final Map<String,Assignment> assignments = new HashMap<>();
+
+    private final Text row = new Text();
+    private final DecimalFormat formatter = new DecimalFormat("000");
+
+    @Override
+    public synchronized int getPartition(BulkIngestKey bKey, Value value, int numPartitions) {
+        String tableName = bKey.getTableName().toString();
+        Key key = bKey.getKey();
+        key.getRow(row);
+        long bytes = key.getSize() + (value == null ? 0 : value.getSize());
+
+        if (sampleOutput != null) {
+            getSampler().sample(tableName, row, bytes);
+        }
+
+        int[] partitions = getAssignment(tableName, numPartitions).partitions.get(row);
+        int partition;
+        if (partitions == null) {
+            partition = (row.hashCode() & Integer.MAX_VALUE) % numPartitions;
+        } else if (partitions.length == 1) {
+            partition = partitions[0];
+        } else {
+            HashCodeBuilder hcb = new HashCodeBuilder(157, 41);
+            hcb.append(row).append(key.getColumnFamilyData()).append(key.getColumnQualifierData()).append(key.getColumnVisibilityData());
+            partition = partitions[(hcb.toHashCode() & Integer.MAX_VALUE) % partitions.length];
+        }
+
+        TaskInputOutputContext<?,?,?,?> c = MultiTableRangePartitioner.context;
+        if (report && c != null) {
+            c.getCounter(COUNTER_GROUP_PREFIX + tableName, "part." + formatter.format(partition)).increment(bytes);
+        }
+        return partition;
+    }
+
+    private Assignment getAssignment(String tableName, int numPartitions) {
+        Assignment assignment = assignments.get(tableName);
+        if (assignment == null || assignment.loads.length != numPartitions) {
+            assignment = assign(getWeights().getWeights(tableName), numPartitions, splitFactor, splitRows);
+            assignments.put(tableName, assignment);
+        }
+        return assignment;
+    }
+
+    private RowWeights getWeights() {
+        if (weights == null) {
+            weights = new RowWeights();
+            if (weightsPath != null) {
+                try {
+                    Path path = new Path(weightsPath);
+                    weights = RowWeights.read(path.getFileSystem(conf), path);
+                } catch (IOException e) {
+                    log.warn("Unable to read row weights from " + weightsPath + ", partitioning by row hash", e);
+                }
+            }
+        }
+        return weights;
+    }
+
+    private RowWeights getSampler() {
+        if (sampler == null || samplerGeneration != sampleGeneration) {
+            synchronized (samplers) {
+                sampler = new RowWeights(sampleRate, sampleCapacity);
+                samplers.add(new Sampler(sampler, new Path(sampleOutput)));
+                samplerGeneration = sampleGeneration;
+            }
+        }
+        return sampler;
+    }
+
+    /**
+     * Assign rows to partitions, heaviest first, each to the least loaded partitions. The result only depends on the weights, so every task computes the same
+     * assignment.
+     *
+     * @param weights
+     *            the estimated bytes per row
+     * @param numPartitions
+     *            the number of partitions
+     * @param splitFactor
+     *            rows heavier than this multiple of the mean partition load are split
+     * @param splitRows
+     *            whether rows may be split across partitions
+     * @return the partitions of each row and the predicted load of each partition
+     */
+    static Assignment assign(Map<Text,Long> weights, int numPartitions, double splitFactor, boolean splitRows) {
+        List<Map.Entry<Text,Long>> rows = new ArrayList<>(weights.entrySet());
+        rows.sort((a, b) -> {
+            int comparison = Long.compare(b.getValue(), a.getValue());
+            return comparison != 0 ? comparison : a.getKey().compareTo(b.getKey());
+        });
+
+        long total = 0;
+        for (Map.Entry<Text,Long> entry : rows) {
+            total += entry.getValue();
+        }
+        double limit = splitFactor * total / numPartitions;
+
+        Assignment assignment = new Assignment(numPartitions);
+        PriorityQueue<Integer> leastLoaded = new PriorityQueue<>(numPartitions,
+                        Comparator.<Integer> comparingLong(p -> assignment.loads[p]).thenComparingInt(p -> p));
+        for (int i = 0; i < numPartitions; i++) {
+            leastLoaded.add(i);
+        }
+
+        for (Map.Entry<Text,Long> entry : rows) {
+            long weight = entry.getValue();
+            int count = 1;
+            if (splitRows && limit > 0 && weight > limit) {
+                count = (int) Math.min(numPartitions, Math.ceil(weight / limit));
+            }
+            int[] partitions = new int[count];
+            for (int i = 0; i < count; i++) {
+                partitions[i] = leastLoaded.poll();
+            }
+            for (int partition : partitions) {
+                assignment.loads[partition] += weight / count;
+                leastLoaded.add(partition);
+            }
+            assignment.partitions.put(entry.getKey(), partitions);
+        }
+        return assignment;
+    }
+
+    /**
+     * Write the row weights sampled by the partitioners of this task, see {@link #SAMPLE_OUTPUT}. The samplers are dropped once written, so a JVM that is
+     * reused for another task starts over.
+     *
+     * @param context
+     *            the task context
+     * @throws IOException
+     *             if the weights can not be written
+     */
+    public static void flushSamples(TaskAttemptContext context) throws IOException {
+        synchronized (samplers) {
+            int i = 0;
+            for (Sampler s : samplers) {
+                if (!s.weights.isEmpty()) {
+                    // name the file after the task so that a retried attempt replaces the output of a failed one
+                    Path file = new Path(s.output, context.getTaskAttemptID().getTaskID() + "-" + i++);
+                    s.weights.write(file.getFileSystem(context.getConfiguration()), file);
+                }
+            }
+            samplers.clear();
+            sampleGeneration++;
+        }
+    }
+
+    /**
+     * @return the number of samplers waiting to be written by {@link #flushSamples}
+     */
+    static int getSamplerCount() {
+        synchronized (samplers) {
+            return samplers.size();
+        }
+    }
+
+    /**
+     * Log the actual skew of each table from the counters of a finished job, see {@link #REPORT}
+     *
+     * @param counters
+     *            the job counters
+     */
+    public static void reportSkew(Counters counters) {
+        for (CounterGroup group : counters) {
+            if (group.getName().startsWith(COUNTER_GROUP_PREFIX)) {
+                long total = 0;
+                long max = 0;
+                int partitions = 0;
+                for (Counter counter : group) {
+                    total += counter.getValue();
+                    max = Math.max(max, counter.getValue());
+                    partitions++;
+                }
+                if (total > 0) {
+                    String tableName = group.getName().substring(COUNTER_GROUP_PREFIX.length());
+                    log.info(tableName + ": actual reducer skew " + String.format("%.2f", skew(max, total, partitions)) + " (largest " + max + " bytes, total "
+                                    + total + " bytes over " + partitions + " partitions)");
+                }
+            }
+        }
+    }
+
+    private static double skew(long max, long total, int partitions) {
+        return total == 0 ? 1.0d : (double) max * partitions / total;
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+        configure("");
+    }
+
+    @Override
+    public void configureWithPrefix(String prefix) {
+        configure(prefix + '.');
+    }
+
+    private void configure(String prefix) {
+        weightsPath = conf.get(prefix + WEIGHTS, weightsPath);
+        sampleOutput = conf.get(prefix + SAMPLE_OUTPUT, sampleOutput);
+        sampleRate = conf.getInt(prefix + SAMPLE_RATE, sampleRate);
+        sampleCapacity = conf.getInt(prefix + SAMPLE_CAPACITY, sampleCapacity);
+        splitFactor = conf.getDouble(prefix + SPLIT_FACTOR, splitFactor);
+        splitRows = conf.getBoolean(prefix + SPLIT_ROWS, splitRows);
+        report = conf.getBoolean(prefix + REPORT, report);
+        weights = null;
+        assignments.clear();
+    }
+
+    @Override
+    public int getNumPartitions() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void initializeJob(Job job) {
+        if (weightsPath == null || job.getNumReduceTasks() <= 0) {
+            return;
+        }
+        RowWeights rowWeights = getWeights();
+        for (String tableName : rowWeights.getTables()) {
+            Assignment assignment = getAssignment(tableName, job.getNumReduceTasks());
+            long total = 0;
+            long max = 0;
+            for (long load : assignment.loads) {
+                total += load;
+                max = Math.max(max, load);
+            }
+            log.info(tableName + ": predicted reducer skew " + String.format("%.2f", skew(max, total, assignment.loads.length)) + " for "
+                            + assignment.partitions.size() + " weighted rows");
+        }
+    }
+
+    @Override
+    public boolean needSplits() {
+        return false;
+    }
+
+    @Override
+    public boolean needSplitLocations() {
+        return false;
+    }
+
+    static class Assignment {
+        final Map<Text,int[]> partitions = new HashMap<>();
+        final long[] loads;
+
+        Assignment(int numPartitions) {
+            this.loads = new long[numPartitions];
+        }
+    }
+
+    private static class Sampler {
+        private final RowWeights weights;
+        private final Path output;
+
+        Sampler(RowWeights weights, Path output) {
+            this.weights = weights;
+            this.output = output;
+        }
+    }
+}
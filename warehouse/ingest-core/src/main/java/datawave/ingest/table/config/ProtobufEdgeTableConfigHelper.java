@@ -63,12 +63,16 @@ public class ProtobufEdgeTableConfigHelper extends AbstractTableConfigHelper {
 
         this.log = log;
         this.conf = config;
-        this.tableName = conf.get(ProtobufEdgeDataTypeHandler.EDGE_TABLE_NAME, null);
+        String edgeTableName = conf.get(ProtobufEdgeDataTypeHandler.EDGE_TABLE_NAME, null);
         this.priority = conf.get(ProtobufEdgeDataTypeHandler.EDGE_TABLE_LOADER_PRIORITY, null);
 
-        if (this.tableName == null || !this.tableName.equals(tableName) || this.priority == null) {
+        // the weekly and monthly rollup tables are configured with the same edge combiner as the daily edge table
+        boolean isEdgeTable = edgeTableName != null
+                        && (edgeTableName.equals(tableName) || ProtobufEdgeDataTypeHandler.getRollupTableNames(conf).contains(tableName));
+        if (!isEdgeTable || this.priority == null) {
             throw new IllegalArgumentException("Edge Table Not Properly Defined: " + tableName);
         }
+        this.tableName = tableName;
 
     }
 
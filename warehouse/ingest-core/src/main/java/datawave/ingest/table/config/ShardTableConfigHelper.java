@@ -99,7 +99,8 @@ public class ShardTableConfigHelper extends AbstractTableConfigHelper {
             localityGroupsConf = conf.get(shardTableName + LOCALITY_GROUPS,
                             ExtendedDataTypeHandler.FULL_CONTENT_LOCALITY_NAME + ':' + ExtendedDataTypeHandler.FULL_CONTENT_COLUMN_FAMILY + ','
                                             + ExtendedDataTypeHandler.TERM_FREQUENCY_LOCALITY_NAME + ':'
-                                            + ExtendedDataTypeHandler.TERM_FREQUENCY_COLUMN_FAMILY);
+                                            + ExtendedDataTypeHandler.TERM_FREQUENCY_COLUMN_FAMILY + ',' + ExtendedDataTypeHandler.TOKEN_POSITION_LOCALITY_NAME
+                                            + ':' + ExtendedDataTypeHandler.TOKEN_POSITION_COLUMN_FAMILY);
             for (String localityGroupDefConf : StringUtils.split(localityGroupsConf)) {
                 String[] localityGroupDef = StringUtils.split(localityGroupDefConf, '\\', ':');
                 Set<Text> families = localityGroups.get(localityGroupDef[0]);
@@ -0,0 +1,100 @@
+package datawave.ingest.data.tokenize;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Compares the output of the {@link StandardAnalyzer} against a golden file, both with a fresh analyzer per input and with a single analyzer whose token
+ * streams are reused across inputs.
+ */
+public class StandardAnalyzerTest {
+
+    private static final String GOLDEN_FILE = "/datawave/ingest/data/tokenize/standard-analyzer-golden.txt";
+
+    private final List<String> inputs = new ArrayList<>();
+    private final List<String> expected = new ArrayList<>();
+
+    @Before
+    public void loadGoldenFile() throws IOException {
+        InputStream stream = getClass().getResourceAsStream(GOLDEN_FILE);
+        assertNotNull("Missing " + GOLDEN_FILE, stream);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#") || line.isEmpty()) {
+                    continue;
+                }
+                inputs.add(line);
+                expected.add(reader.readLine());
+            }
+        }
+        assertFalse(inputs.isEmpty());
+    }
+
+    @Test
+    public void testFreshAnalyzer() throws IOException {
+        for (int i = 0; i < inputs.size(); i++) {
+            try (Analyzer analyzer = newAnalyzer()) {
+                assertEquals(inputs.get(i), expected.get(i), tokenize(analyzer, inputs.get(i)));
+            }
+        }
+    }
+
+    @Test
+    public void testReusedAnalyzer() throws IOException {
+        try (Analyzer analyzer = newAnalyzer()) {
+            // run through the inputs more than once so that ascii and accented text share the same reused token stream
+            for (int pass = 0; pass < 3; pass++) {
+                for (int i = 0; i < inputs.size(); i++) {
+                    assertEquals(inputs.get(i), expected.get(i), tokenize(analyzer, inputs.get(i)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStrip() {
+        assertEquals("facade", AccentFilter.strip("façade"));
+        assertEquals("plain", AccentFilter.strip("plain"));
+    }
+
+    private static StandardAnalyzer newAnalyzer() {
+        StandardAnalyzer analyzer = new StandardAnalyzer();
+        analyzer.setApplyAccentFilter(true);
+        return analyzer;
+    }
+
+    private static String tokenize(Analyzer analyzer, String input) throws IOException {
+        StringBuilder tokens = new StringBuilder();
+        try (TokenStream stream = analyzer.tokenStream("FIELD", new StringReader(input))) {
+            CharTermAttribute termAtt = stream.getAttribute(CharTermAttribute.class);
+            PositionIncrementAttribute posIncrAtt = stream.getAttribute(PositionIncrementAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                if (tokens.length() > 0) {
+                    tokens.append(' ');
+                }
+                tokens.append(termAtt).append(':').append(posIncrAtt.getPositionIncrement());
+            }
+            stream.end();
+        }
+        return tokens.toString();
+    }
+}
@@ -37,6 +37,7 @@ public class EdgeHandlerTestUtil {
 
     public static ListMultimap<String,String[]> edgeKeyResults = ArrayListMultimap.create();
     public static ListMultimap<String,String> edgeValueResults = ArrayListMultimap.create();
+    public static ListMultimap<Text,Key> tableKeyResults = ArrayListMultimap.create();
 
     private static Logger log = Logger.getLogger(EdgeHandlerTestUtil.class);
 
@@ -67,6 +68,7 @@ public class EdgeHandlerTestUtil {
                 edgeHandler.process(null, event, eventFields, ctx, contextWriter);
                 contextWriter.commit(ctx);
                 for (Map.Entry<BulkIngestKey,Value> entry : contextWriter.getCache().entries()) {
+                    tableKeyResults.put(entry.getKey().getTableName(), entry.getKey().getKey());
                     if (entry.getKey().getTableName().equals(edgeTableName)) {
                         edgeKeys.add(entry.getKey().getKey());
                         edgeValueResults.put(entry.getKey().getKey().getRow().toString().replaceAll(NB, "%00;"), EdgeValue.decode(entry.getValue()).toString());
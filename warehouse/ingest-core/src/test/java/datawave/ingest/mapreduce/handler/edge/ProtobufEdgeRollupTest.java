@@ -0,0 +1,182 @@
+package datawave.ingest.mapreduce.handler.edge;
+
+import static datawave.ingest.mapreduce.handler.edge.EdgeKeyVersioningCache.KEY_VERSION_CACHE_DIR;
+import static datawave.ingest.mapreduce.handler.edge.EdgeKeyVersioningCache.KEY_VERSION_DIST_CACHE_DIR;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+
+import datawave.data.hash.UID;
+import datawave.ingest.config.RawRecordContainerImpl;
+import datawave.ingest.data.RawRecordContainer;
+import datawave.ingest.data.Type;
+import datawave.ingest.data.TypeRegistry;
+import datawave.ingest.data.config.BaseNormalizedContent;
+import datawave.ingest.data.config.NormalizedContentInterface;
+import datawave.ingest.data.config.NormalizedFieldAndValue;
+import datawave.ingest.data.config.ingest.FakeIngestHelper;
+import datawave.ingest.mapreduce.SimpleDataTypeHandler;
+import datawave.ingest.mapreduce.TestContextWriter;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.ingest.table.config.ProtobufEdgeTableConfigHelper;
+import datawave.ingest.test.StandaloneStatusReporter;
+import datawave.ingest.test.StandaloneTaskAttemptContext;
+
+public class ProtobufEdgeRollupTest {
+
+    private static final String WEEKLY_TABLE = "edgeWeekly";
+    private static final String MONTHLY_TABLE = "edgeMonthly";
+
+    private static Multimap<String,NormalizedContentInterface> fields = HashMultimap.create();
+    private static Type type = new Type("mycsv", FakeIngestHelper.class, null, new String[] {SimpleDataTypeHandler.class.getName()}, 10, null);
+    private Configuration conf;
+
+    @Before
+    public void setup() {
+        TypeRegistry.reset();
+        conf = new Configuration();
+        conf.addResource(ClassLoader.getSystemResource("config/all-config.xml"));
+        conf.addResource(ClassLoader.getSystemResource("config/edge-ingest-config.xml"));
+        conf.addResource(ClassLoader.getSystemResource("config/metadata-config.xml"));
+        conf.setBoolean(ProtobufEdgeDataTypeHandler.EVALUATE_PRECONDITIONS, true);
+        conf.set(ProtobufEdgeDataTypeHandler.EDGE_SPRING_CONFIG, "config/EdgeSpringConfigPrecon.xml");
+        conf.set(KEY_VERSION_CACHE_DIR, ClassLoader.getSystemResource("config").getPath());
+        conf.set(KEY_VERSION_DIST_CACHE_DIR, ClassLoader.getSystemResource("config").getPath());
+
+        TypeRegistry registry = TypeRegistry.getInstance(conf);
+        registry.put(type.typeName(), type);
+
+        fields.clear();
+        EdgeHandlerTestUtil.edgeKeyResults.clear();
+        EdgeHandlerTestUtil.edgeValueResults.clear();
+        EdgeHandlerTestUtil.tableKeyResults.clear();
+
+        // a wednesday
+        fields.put("EVENT_DATE", new BaseNormalizedContent("EVENT_DATE", "2022-10-26T01:31:53Z"));
+        fields.put("UUID", new BaseNormalizedContent("UUID", "0016dd72-0000-827d-dd4d-001b2163ba09"));
+        fields.put("FELINE", new NormalizedFieldAndValue("FELINE", "tabby", "PET", "0"));
+        fields.put("FELINE", new NormalizedFieldAndValue("FELINE", "siamese", "PET", "1"));
+        fields.put("FISH", new NormalizedFieldAndValue("FISH", "salmon", "PET", "0"));
+        fields.put("FISH", new NormalizedFieldAndValue("FISH", "guppy", "PET", "1"));
+        fields.put("ACTIVITY", new NormalizedFieldAndValue("ACTIVITY", "fetch", "THING", "0"));
+    }
+
+    private RawRecordContainer getEvent(Configuration conf) {
+        RawRecordContainerImpl myEvent = new RawRecordContainerImpl();
+        myEvent.addSecurityMarking("columnVisibility", "PRIVATE");
+        myEvent.setDataType(type);
+        myEvent.setId(UID.builder().newId());
+        myEvent.setAltIds(Collections.singleton("0016dd72-0000-827d-dd4d-001b2163ba09"));
+        myEvent.setConf(conf);
+
+        Instant i = Instant.from(DateTimeFormatter.ISO_INSTANT.parse("2022-10-26T01:31:53Z"));
+        myEvent.setDate(i.toEpochMilli());
+        return myEvent;
+    }
+
+    private void processEvent() {
+        ProtobufEdgeDataTypeHandler<Text,BulkIngestKey,Value> edgeHandler = new ProtobufEdgeDataTypeHandler<>();
+        TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+        edgeHandler.setup(context);
+        EdgeHandlerTestUtil.processEvent(fields, edgeHandler, getEvent(conf), 8, true, false);
+    }
+
+    @Test
+    public void testNoRollupTables() {
+        processEvent();
+        Assert.assertTrue(EdgeHandlerTestUtil.tableKeyResults.get(new Text(WEEKLY_TABLE)).isEmpty());
+        Assert.assertTrue(EdgeHandlerTestUtil.tableKeyResults.get(new Text(MONTHLY_TABLE)).isEmpty());
+        Assert.assertEquals(Collections.emptyList(), ProtobufEdgeDataTypeHandler.getRollupTableNames(conf));
+    }
+
+    @Test
+    public void testRollupWrites() {
+        conf.set(ProtobufEdgeDataTypeHandler.EDGE_WEEKLY_ROLLUP_TABLE_NAME, WEEKLY_TABLE);
+        conf.set(ProtobufEdgeDataTypeHandler.EDGE_MONTHLY_ROLLUP_TABLE_NAME, MONTHLY_TABLE);
+        processEvent();
+
+        List<Key> daily = EdgeHandlerTestUtil.tableKeyResults.get(EdgeHandlerTestUtil.edgeTableName);
+        List<Key> weekly = EdgeHandlerTestUtil.tableKeyResults.get(new Text(WEEKLY_TABLE));
+        List<Key> monthly = EdgeHandlerTestUtil.tableKeyResults.get(new Text(MONTHLY_TABLE));
+        Assert.assertFalse(daily.isEmpty());
+        Assert.assertEquals(daily.size(), weekly.size());
+        Assert.assertEquals(daily.size(), monthly.size());
+
+        for (Key key : daily) {
+            String qualifier = key.getColumnQualifier().toString();
+            Assert.assertTrue(qualifier.startsWith("20221026"));
+            // the first day of the iso week and of the month, with the rest of the key unchanged
+            assertRollup(key, "20221024" + qualifier.substring(8), weekly);
+            assertRollup(key, "20221001" + qualifier.substring(8), monthly);
+        }
+    }
+
+    @Test
+    public void testRollupWithoutDate() throws Exception {
+        conf.set(ProtobufEdgeDataTypeHandler.EDGE_WEEKLY_ROLLUP_TABLE_NAME, WEEKLY_TABLE);
+        conf.set(ProtobufEdgeDataTypeHandler.EDGE_MONTHLY_ROLLUP_TABLE_NAME, MONTHLY_TABLE);
+        ProtobufEdgeDataTypeHandler<Text,BulkIngestKey,Value> edgeHandler = new ProtobufEdgeDataTypeHandler<>();
+        edgeHandler.setup(new TaskAttemptContextImpl(conf, new TaskAttemptID()));
+
+        StandaloneTaskAttemptContext<Text,RawRecordContainerImpl,BulkIngestKey,Value> context = new StandaloneTaskAttemptContext<>(conf,
+                        new StandaloneStatusReporter());
+        TestContextWriter<BulkIngestKey,Value> contextWriter = new TestContextWriter<>();
+        Key key = new Key("SOURCE\0SINK", "TYPE/REL1-REL2", "2022/CAT1-CAT2");
+        Assert.assertEquals(1, edgeHandler.writeKey(key, new Value(), context, contextWriter));
+
+        // the daily entry is written, the rollups are skipped and counted
+        Multimap<BulkIngestKey,Value> written = TestContextWriter.getWritten();
+        Assert.assertEquals(1, written.size());
+        Assert.assertEquals(EdgeHandlerTestUtil.edgeTableName, written.keySet().iterator().next().getTableName());
+        Assert.assertEquals(2, context.getCounter(ProtobufEdgeDataTypeHandler.ROLLUP_COUNTER_GROUP, ProtobufEdgeDataTypeHandler.ROLLUP_INVALID_DATE_COUNTER)
+                        .getValue());
+    }
+
+    private void assertRollup(Key daily, String qualifier, List<Key> rollups) {
+        Key expected = new Key(daily.getRow(), daily.getColumnFamily(), new Text(qualifier), daily.getColumnVisibility(), daily.getTimestamp());
+        expected.setDeleted(daily.isDeleted());
+        Assert.assertTrue("missing rollup " + expected, rollups.contains(expected));
+    }
+
+    @Test
+    public void testRollupTableNamesAndPriorities() {
+        conf.set(ProtobufEdgeDataTypeHandler.EDGE_WEEKLY_ROLLUP_TABLE_NAME, WEEKLY_TABLE);
+        conf.set(ProtobufEdgeDataTypeHandler.EDGE_MONTHLY_ROLLUP_TABLE_NAME, MONTHLY_TABLE);
+        ProtobufEdgeDataTypeHandler<Text,BulkIngestKey,Value> edgeHandler = new ProtobufEdgeDataTypeHandler<>();
+
+        List<String> tableNames = Arrays.asList(edgeHandler.getTableNames(conf));
+        int[] priorities = edgeHandler.getTableLoaderPriorities(conf);
+        Assert.assertEquals(tableNames.size(), priorities.length);
+        Assert.assertEquals(priorities[tableNames.indexOf("edge")], priorities[tableNames.indexOf(WEEKLY_TABLE)]);
+        Assert.assertEquals(priorities[tableNames.indexOf("edge")], priorities[tableNames.indexOf(MONTHLY_TABLE)]);
+    }
+
+    @Test
+    public void testRollupTableConfigHelper() {
+        conf.set(ProtobufEdgeDataTypeHandler.EDGE_WEEKLY_ROLLUP_TABLE_NAME, WEEKLY_TABLE);
+        new ProtobufEdgeTableConfigHelper().setup(WEEKLY_TABLE, conf, null);
+        new ProtobufEdgeTableConfigHelper().setup("edge", conf, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownTableConfigHelper() {
+        new ProtobufEdgeTableConfigHelper().setup(MONTHLY_TABLE, conf, null);
+    }
+}
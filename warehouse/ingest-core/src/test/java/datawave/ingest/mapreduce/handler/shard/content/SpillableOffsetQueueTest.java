@@ -0,0 +1,81 @@
+package datawave.ingest.mapreduce.handler.shard.content;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import datawave.ingest.mapreduce.handler.shard.content.BoundedOffsetQueue.OffsetList;
+
+public class SpillableOffsetQueueTest {
+
+    @Test
+    public void testOffsetsInMemory() {
+        SpillableOffsetQueue queue = new SpillableOffsetQueue(1024 * 1024, null);
+        TermAndZone foo = new TermAndZone("foo", "BODY");
+        TermAndZone bar = new TermAndZone("bar", "BODY");
+
+        Assert.assertNull(queue.addOffset(foo, 0));
+        Assert.assertNull(queue.addOffset(bar, 1));
+        Assert.assertNull(queue.addOffset(new TermAndZone("foo", "BODY"), 300));
+        // offsets may go backwards when a field has multiple values
+        Assert.assertNull(queue.addOffset(foo, 10));
+        Assert.assertNull(queue.addOffset(foo, Integer.MAX_VALUE));
+
+        Assert.assertEquals(5, queue.size());
+        Assert.assertEquals(2, queue.getNumTerms());
+        Assert.assertEquals(0, queue.getNumSpills());
+        Assert.assertTrue(queue.containsKey(foo));
+        Assert.assertFalse(queue.containsKey(new TermAndZone("foo", "TITLE")));
+        Assert.assertEquals(Arrays.asList(0, 300, 10, Integer.MAX_VALUE), queue.getOffsets(foo));
+        Assert.assertEquals(Arrays.asList(1), queue.getOffsets(bar));
+        Assert.assertNull(queue.getOffsets(new TermAndZone("baz", "BODY")));
+
+        Map<TermAndZone,List<Integer>> offsets = toMap(queue);
+        Assert.assertEquals(2, offsets.size());
+        Assert.assertEquals(Arrays.asList(0, 300, 10, Integer.MAX_VALUE), offsets.get(foo));
+
+        queue.clear();
+        Assert.assertEquals(0, queue.size());
+        Assert.assertFalse(queue.containsKey(foo));
+        Assert.assertFalse(queue.offsets().iterator().hasNext());
+    }
+
+    @Test
+    public void testSpilledOffsetsAreMerged() {
+        SpillableOffsetQueue queue = new SpillableOffsetQueue(64, null);
+        Map<TermAndZone,List<Integer>> expected = new HashMap<>();
+        for (int position = 0; position < 5000; position++) {
+            TermAndZone termAndZone = new TermAndZone("term" + (position % 37), (position % 2 == 0) ? "BODY" : "TITLE");
+            queue.addOffset(termAndZone, position);
+            expected.computeIfAbsent(termAndZone, k -> new ArrayList<>()).add(position);
+        }
+
+        Assert.assertTrue(queue.getNumSpills() > 1);
+        Assert.assertEquals(5000, queue.size());
+        Assert.assertEquals(expected.size(), queue.getNumTerms());
+        Assert.assertEquals(expected, toMap(queue));
+
+        TermAndZone term = new TermAndZone("term3", "TITLE");
+        Assert.assertEquals(expected.get(term), queue.getOffsets(term));
+
+        // the offsets can be iterated more than once
+        Assert.assertEquals(expected, toMap(queue));
+
+        queue.clear();
+        Assert.assertEquals(0, queue.getNumSpills());
+        Assert.assertEquals(0, queue.size());
+    }
+
+    private static Map<TermAndZone,List<Integer>> toMap(SpillableOffsetQueue queue) {
+        Map<TermAndZone,List<Integer>> offsets = new HashMap<>();
+        for (OffsetList<Integer> list : queue.offsets()) {
+            Assert.assertNull(offsets.put(list.termAndZone, list.offsets));
+        }
+        return offsets;
+    }
+}
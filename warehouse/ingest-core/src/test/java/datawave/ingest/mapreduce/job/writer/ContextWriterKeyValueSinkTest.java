@@ -0,0 +1,116 @@
+package datawave.ingest.mapreduce.job.writer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.ingest.test.StandaloneStatusReporter;
+import datawave.ingest.test.StandaloneTaskAttemptContext;
+
+public class ContextWriterKeyValueSinkTest {
+
+    private static final Text SHARD_TABLE = new Text("shard");
+
+    private StandaloneTaskAttemptContext<?,?,BulkIngestKey,Value> context;
+    private RecordingContextWriter writer;
+    private ContextWriterKeyValueSink<BulkIngestKey,Value> sink;
+
+    @Before
+    public void setup() {
+        context = new StandaloneTaskAttemptContext<>(new Configuration(), new StandaloneStatusReporter());
+        writer = new RecordingContextWriter();
+        sink = new ContextWriterKeyValueSink<>(writer);
+    }
+
+    @Test
+    public void testDedupWithinEvent() throws Exception {
+        sink.reset(context, true);
+        sink.put(tfKey("uid1", "a"), new Value("1"));
+        sink.put(tfKey("uid1", "a"), new Value("1"));
+        // same key, different value
+        sink.put(tfKey("uid1", "a"), new Value("2"));
+        assertEquals(2, sink.getCount());
+        assertEquals(2, writer.written.size());
+
+        // duplicates are only tracked within an event
+        sink.reset(context, true);
+        sink.put(tfKey("uid1", "a"), new Value("1"));
+        assertEquals(1, sink.getCount());
+        assertEquals(3, writer.written.size());
+    }
+
+    @Test
+    public void testNoDedup() throws Exception {
+        sink.reset(context, false);
+        sink.put(tfKey("uid1", "a"), new Value("1"));
+        sink.put(tfKey("uid1", "a"), new Value("1"));
+
+        Multimap<BulkIngestKey,Value> entries = ArrayListMultimap.create();
+        entries.put(tfKey("uid1", "b"), new Value("1"));
+        entries.put(tfKey("uid1", "c"), new Value("1"));
+        sink.putAll(entries);
+
+        assertEquals(4, sink.getCount());
+        assertEquals(4, writer.written.size());
+    }
+
+    @Test
+    public void testPutAllDedup() throws Exception {
+        sink.reset(context, true);
+        sink.put(tfKey("uid1", "a"), new Value("1"));
+
+        Multimap<BulkIngestKey,Value> entries = ArrayListMultimap.create();
+        entries.put(tfKey("uid1", "a"), new Value("1"));
+        entries.put(tfKey("uid1", "b"), new Value("1"));
+        sink.putAll(entries);
+
+        assertEquals(2, sink.getCount());
+        assertEquals(2, writer.written.size());
+    }
+
+    private static BulkIngestKey tfKey(String uid, String token) {
+        return new BulkIngestKey(SHARD_TABLE, new Key("20240101_1", "tf", "datatype\0" + uid + "\0" + token + "\0FIELD", "PUBLIC", 1704067200000L));
+    }
+
+    /**
+     * A context writer that records everything written to it
+     */
+    private static class RecordingContextWriter implements ContextWriter<BulkIngestKey,Value> {
+        private final Multimap<BulkIngestKey,Value> written = ArrayListMultimap.create();
+
+        @Override
+        public void setup(Configuration conf, boolean outputTableCounters) throws IOException, InterruptedException {}
+
+        @Override
+        public void write(BulkIngestKey key, Value value, TaskInputOutputContext<?,?,BulkIngestKey,Value> context) throws IOException, InterruptedException {
+            written.put(key, value);
+        }
+
+        @Override
+        public void write(Multimap<BulkIngestKey,Value> entries, TaskInputOutputContext<?,?,BulkIngestKey,Value> context)
+                        throws IOException, InterruptedException {
+            written.putAll(entries);
+        }
+
+        @Override
+        public void commit(TaskInputOutputContext<?,?,BulkIngestKey,Value> context) throws IOException, InterruptedException {}
+
+        @Override
+        public void rollback() throws IOException, InterruptedException {}
+
+        @Override
+        public void cleanup(TaskInputOutputContext<?,?,BulkIngestKey,Value> context) throws IOException, InterruptedException {}
+    }
+}
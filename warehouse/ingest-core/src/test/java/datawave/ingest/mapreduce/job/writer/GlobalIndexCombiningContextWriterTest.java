@@ -0,0 +1,196 @@
+package datawave.ingest.mapreduce.job.writer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Collection;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+
+import datawave.ingest.mapreduce.job.BulkIngestCounters;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.ingest.protobuf.Uid;
+import datawave.ingest.test.StandaloneStatusReporter;
+import datawave.ingest.test.StandaloneTaskAttemptContext;
+
+public class GlobalIndexCombiningContextWriterTest {
+
+    private static final Text INDEX_TABLE = new Text("shardIndex");
+    private static final Text SHARD_TABLE = new Text("shard");
+
+    private static final Multimap<BulkIngestKey,Value> written = ArrayListMultimap.create();
+
+    private Configuration conf;
+    private StandaloneStatusReporter reporter;
+    private StandaloneTaskAttemptContext<?,?,BulkIngestKey,Value> context;
+    private GlobalIndexCombiningContextWriter<BulkIngestKey,Value> writer;
+
+    @Before
+    public void setup() throws Exception {
+        written.clear();
+        conf = new Configuration();
+        conf.set(GlobalIndexCombiningContextWriter.COMBINING_TABLES, INDEX_TABLE.toString());
+        conf.setClass(GlobalIndexCombiningContextWriter.CONTEXT_WRITER_CLASS, CapturingContextWriter.class, ContextWriter.class);
+        reporter = new StandaloneStatusReporter();
+        context = new StandaloneTaskAttemptContext<>(conf, reporter);
+        writer = new GlobalIndexCombiningContextWriter<>();
+    }
+
+    @Test
+    public void testCombinesUidsAcrossEvents() throws Exception {
+        writer.setup(conf, false);
+        for (int i = 0; i < 5; i++) {
+            writer.write(indexKey("value", false), uids(false, "uid" + i), context);
+            writer.write(shardKey("uid" + i), new Value(), context);
+            writer.commit(context);
+        }
+        // the shard table entries pass straight through
+        assertEquals(5, written.size());
+
+        writer.cleanup(context);
+        assertEquals(6, written.size());
+
+        Collection<Value> values = written.get(indexKey("value", false));
+        assertEquals(1, values.size());
+        Uid.List list = Uid.List.parseFrom(values.iterator().next().get());
+        assertFalse(list.getIGNORE());
+        assertEquals(5, list.getCOUNT());
+        assertEquals(5, list.getUIDCount());
+
+        assertEquals(5, reporter.getCounter(BulkIngestCounters.COMBINER_COUNTER_GROUP, "shardIndex Input Records").getValue());
+        assertEquals(1, reporter.getCounter(BulkIngestCounters.COMBINER_COUNTER_GROUP, "shardIndex Output Records").getValue());
+        assertTrue(reporter.getCounter(BulkIngestCounters.COMBINER_COUNTER_GROUP, "shardIndex Output Bytes").getValue() > 0);
+    }
+
+    @Test
+    public void testRespectsUidCap() throws Exception {
+        conf.setInt(GlobalIndexCombiningContextWriter.COMBINING_MAX_UIDS, 3);
+        writer.setup(conf, false);
+        for (int i = 0; i < 5; i++) {
+            writer.write(indexKey("value", false), uids(false, "uid" + i), context);
+            writer.commit(context);
+        }
+        writer.cleanup(context);
+
+        Collection<Value> values = written.get(indexKey("value", false));
+        assertEquals(1, values.size());
+        Uid.List list = Uid.List.parseFrom(values.iterator().next().get());
+        assertTrue(list.getIGNORE());
+        assertEquals(5, list.getCOUNT());
+        assertEquals(0, list.getUIDCount());
+    }
+
+    @Test
+    public void testDeletesAreNotMergedWithInserts() throws Exception {
+        writer.setup(conf, false);
+        writer.write(indexKey("value", false), uids(false, "uid1"), context);
+        writer.commit(context);
+        writer.write(indexKey("value", true), uids(true, "uid2"), context);
+        writer.commit(context);
+        writer.write(indexKey("value", true), uids(true, "uid3"), context);
+        writer.commit(context);
+        writer.cleanup(context);
+
+        assertEquals(2, written.size());
+        Uid.List inserts = Uid.List.parseFrom(written.get(indexKey("value", false)).iterator().next().get());
+        assertEquals(1, inserts.getUIDCount());
+        Uid.List deletes = Uid.List.parseFrom(written.get(indexKey("value", true)).iterator().next().get());
+        assertEquals(0, deletes.getUIDCount());
+        assertEquals(2, deletes.getREMOVEDUIDCount());
+    }
+
+    @Test
+    public void testRollbackDiscardsUncommittedEntries() throws Exception {
+        writer.setup(conf, false);
+        writer.write(indexKey("value", false), uids(false, "uid1"), context);
+        writer.commit(context);
+        writer.write(indexKey("value", false), uids(false, "uid2"), context);
+        writer.rollback();
+        writer.cleanup(context);
+
+        Uid.List list = Uid.List.parseFrom(written.get(indexKey("value", false)).iterator().next().get());
+        assertEquals(1, list.getUIDCount());
+        assertEquals("uid1", list.getUID(0));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedWhenOverBudget() throws Exception {
+        conf.setLong(GlobalIndexCombiningContextWriter.COMBINING_MAX_BYTES, 1024);
+        writer.setup(conf, false);
+        for (int i = 0; i < 100; i++) {
+            writer.write(indexKey("value" + i, false), uids(false, "uid" + i), context);
+            writer.commit(context);
+        }
+        // some entries must have been evicted before cleanup
+        assertTrue(written.size() > 0);
+        assertTrue(written.size() < 100);
+        // the least recently used entry is the first one to go
+        assertTrue(written.containsKey(indexKey("value0", false)));
+
+        writer.cleanup(context);
+        assertEquals(100, written.size());
+    }
+
+    private static BulkIngestKey indexKey(String row, boolean delete) {
+        Key key = new Key(row, "FIELD", "20240101_1\0datatype", "PUBLIC", 1704067200000L);
+        key.setDeleted(delete);
+        return new BulkIngestKey(INDEX_TABLE, key);
+    }
+
+    private static BulkIngestKey shardKey(String uid) {
+        return new BulkIngestKey(SHARD_TABLE, new Key("20240101_1", "datatype\0" + uid, "FIELD\0value", "PUBLIC", 1704067200000L));
+    }
+
+    private static Value uids(boolean delete, String uid) {
+        Uid.List.Builder builder = Uid.List.newBuilder();
+        builder.setIGNORE(false);
+        if (delete) {
+            builder.setCOUNT(-1);
+            builder.addREMOVEDUID(uid);
+        } else {
+            builder.setCOUNT(1);
+            builder.addUID(uid);
+        }
+        return new Value(builder.build().toByteArray());
+    }
+
+    /**
+     * A context writer that records everything written to it
+     */
+    public static class CapturingContextWriter implements ContextWriter<BulkIngestKey,Value> {
+
+        @Override
+        public void setup(Configuration conf, boolean outputTableCounters) throws IOException, InterruptedException {}
+
+        @Override
+        public void write(BulkIngestKey key, Value value, TaskInputOutputContext<?,?,BulkIngestKey,Value> context) throws IOException, InterruptedException {
+            written.put(key, value);
+        }
+
+        @Override
+        public void write(Multimap<BulkIngestKey,Value> entries, TaskInputOutputContext<?,?,BulkIngestKey,Value> context)
+                        throws IOException, InterruptedException {
+            written.putAll(entries);
+        }
+
+        @Override
+        public void commit(TaskInputOutputContext<?,?,BulkIngestKey,Value> context) throws IOException, InterruptedException {}
+
+        @Override
+        public void rollback() throws IOException, InterruptedException {}
+
+        @Override
+        public void cleanup(TaskInputOutputContext<?,?,BulkIngestKey,Value> context) throws IOException, InterruptedException {}
+    }
+}
@@ -0,0 +1,148 @@
+package datawave.ingest.mapreduce.partition;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.TaskType;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+
+public class SkewAwarePartitionerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testAssignBalancesByWeight() {
+        Map<Text,Long> weights = new HashMap<>();
+        weights.put(new Text("a"), 50L);
+        weights.put(new Text("b"), 30L);
+        weights.put(new Text("c"), 20L);
+        weights.put(new Text("d"), 20L);
+        weights.put(new Text("e"), 10L);
+
+        SkewAwarePartitioner.Assignment assignment = SkewAwarePartitioner.assign(weights, 3, 1.0d, false);
+        // without splitting, heaviest first to the least loaded partition: a->0, b->1, c->2, d->2, e->1
+        Assert.assertArrayEquals(new int[] {0}, assignment.partitions.get(new Text("a")));
+        Assert.assertArrayEquals(new int[] {1}, assignment.partitions.get(new Text("b")));
+        Assert.assertArrayEquals(new int[] {2}, assignment.partitions.get(new Text("c")));
+        Assert.assertArrayEquals(new int[] {2}, assignment.partitions.get(new Text("d")));
+        Assert.assertArrayEquals(new int[] {1}, assignment.partitions.get(new Text("e")));
+        Assert.assertArrayEquals(new long[] {50L, 40L, 40L}, assignment.loads);
+    }
+
+    @Test
+    public void testAssignSplitsHeavyRows() {
+        Map<Text,Long> weights = new HashMap<>();
+        weights.put(new Text("20240101_0"), 900L);
+        weights.put(new Text("20240101_1"), 50L);
+        weights.put(new Text("20240101_2"), 50L);
+
+        // the mean load is 250, so the hot shard is spread over four partitions
+        SkewAwarePartitioner.Assignment assignment = SkewAwarePartitioner.assign(weights, 4, 1.0d, true);
+        Assert.assertEquals(4, assignment.partitions.get(new Text("20240101_0")).length);
+
+        assignment = SkewAwarePartitioner.assign(weights, 4, 1.0d, false);
+        Assert.assertEquals(1, assignment.partitions.get(new Text("20240101_0")).length);
+    }
+
+    @Test
+    public void testPruneKeepsHeaviestRows() {
+        RowWeights weights = new RowWeights(1, 4);
+        for (int i = 0; i < 4; i++) {
+            weights.add("shard", new Text("row" + i), 10L);
+        }
+        weights.add("shard", new Text("heavy"), 100L);
+        // equal weights are still pruned, keeping the heavy row
+        Assert.assertEquals(3, weights.getWeights("shard").size());
+        Assert.assertEquals(Long.valueOf(100L), weights.getWeights("shard").get(new Text("heavy")));
+
+        RowWeights equal = new RowWeights(1, 4);
+        for (int i = 0; i < 5; i++) {
+            equal.add("shard", new Text("row" + i), 10L);
+        }
+        Assert.assertEquals(3, equal.getWeights("shard").size());
+    }
+
+    @Test
+    public void testPartitionWithWeightsFile() throws IOException {
+        Configuration conf = new Configuration();
+        FileSystem fs = FileSystem.getLocal(conf);
+        Path weightsFile = new Path(new File(temporaryFolder.getRoot(), "weights").toURI());
+
+        RowWeights weights = new RowWeights();
+        weights.add("shard", new Text("20240101_0"), 1000L);
+        weights.add("shard", new Text("20240101_1"), 10L);
+        weights.write(fs, weightsFile);
+
+        RowWeights read = RowWeights.read(fs, weightsFile);
+        Assert.assertEquals(Long.valueOf(1000L), read.getWeights("shard").get(new Text("20240101_0")));
+        Assert.assertTrue(read.getWeights("other").isEmpty());
+
+        conf.set(SkewAwarePartitioner.WEIGHTS, weightsFile.toString());
+        SkewAwarePartitioner partitioner = new SkewAwarePartitioner();
+        partitioner.setConf(conf);
+
+        Text table = new Text("shard");
+        Set<Integer> hotPartitions = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            Key key = new Key(new Text("20240101_0"), new Text("fi\0FIELD"), new Text("value" + i + "\0datatype\0uid"));
+            int partition = partitioner.getPartition(new BulkIngestKey(table, key), new Value(new byte[0]), 10);
+            hotPartitions.add(partition);
+            // identical keys always go to the same partition
+            Assert.assertEquals(partition, partitioner.getPartition(new BulkIngestKey(table, new Key(key)), new Value(new byte[0]), 10));
+        }
+        Assert.assertTrue(hotPartitions.size() > 1);
+
+        // an unknown row still gets a valid partition
+        int partition = partitioner.getPartition(new BulkIngestKey(table, new Key("20240102_0")), null, 10);
+        Assert.assertTrue(partition >= 0 && partition < 10);
+    }
+
+    @Test
+    public void testFlushSamplesPerTask() throws IOException {
+        Configuration conf = new Configuration();
+        FileSystem fs = FileSystem.getLocal(conf);
+        Path firstOutput = new Path(new File(temporaryFolder.getRoot(), "first").toURI());
+        Path secondOutput = new Path(new File(temporaryFolder.getRoot(), "second").toURI());
+
+        conf.set(SkewAwarePartitioner.SAMPLE_OUTPUT, firstOutput.toString());
+        conf.setInt(SkewAwarePartitioner.SAMPLE_RATE, 1);
+        SkewAwarePartitioner partitioner = new SkewAwarePartitioner();
+        partitioner.setConf(conf);
+
+        Text table = new Text("shard");
+        partitioner.getPartition(new BulkIngestKey(table, new Key("20240101_0")), null, 10);
+        Assert.assertEquals(1, SkewAwarePartitioner.getSamplerCount());
+        SkewAwarePartitioner.flushSamples(new TaskAttemptContextImpl(conf, new TaskAttemptID("job", 1, TaskType.MAP, 0, 0)));
+        Assert.assertEquals(0, SkewAwarePartitioner.getSamplerCount());
+
+        // the same partitioner used by the next task in a reused jvm only writes what it samples for that task
+        conf.set(SkewAwarePartitioner.SAMPLE_OUTPUT, secondOutput.toString());
+        partitioner.setConf(conf);
+        partitioner.getPartition(new BulkIngestKey(table, new Key("20240101_1")), null, 10);
+        Assert.assertEquals(1, SkewAwarePartitioner.getSamplerCount());
+        SkewAwarePartitioner.flushSamples(new TaskAttemptContextImpl(conf, new TaskAttemptID("job", 1, TaskType.MAP, 1, 0)));
+        Assert.assertEquals(0, SkewAwarePartitioner.getSamplerCount());
+
+        Assert.assertEquals(Collections.singleton(new Text("20240101_0")), RowWeights.read(fs, firstOutput).getWeights("shard").keySet());
+        Assert.assertEquals(Collections.singleton(new Text("20240101_1")), RowWeights.read(fs, secondOutput).getWeights("shard").keySet());
+    }
+}
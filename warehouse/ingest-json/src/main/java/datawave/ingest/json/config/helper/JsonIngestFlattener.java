@@ -161,6 +161,11 @@ public class JsonIngestFlattener extends JsonObjectFlattenerImpl {
         public String normalizeMapValue(String value, String key) throws IllegalStateException {
             return this.jsonDataTypeHelper.clean(key, value);
         }
+
+        @Override
+        public boolean isPrefixPreserving() {
+            return true;
+        }
     }
 
     public static final class DefaultJsonElementNameNormalizer implements JsonElementNameNormalizer {
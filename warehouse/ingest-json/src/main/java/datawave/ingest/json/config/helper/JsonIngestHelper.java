@@ -1,5 +1,7 @@
 package datawave.ingest.json.config.helper;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Map;
 
 import org.apache.hadoop.conf.Configuration;
@@ -7,8 +9,10 @@ import org.apache.log4j.Logger;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonParser;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.MalformedJsonException;
 
 import datawave.ingest.data.RawRecordContainer;
 import datawave.ingest.data.config.NormalizedContentInterface;
@@ -47,9 +51,16 @@ public class JsonIngestHelper extends ContentBaseIngestHelper {
         HashMultimap<String,String> fields = HashMultimap.create();
         String jsonString = new String(event.getRawData());
 
-        JsonParser parser = new JsonParser();
-        JsonElement jsonElement = parser.parse(jsonString);
-        flattener.flatten(jsonElement.getAsJsonObject(), fields);
+        // Flatten straight from the token stream rather than building a JsonObject tree first
+        JsonReader reader = new JsonReader(new StringReader(jsonString));
+        reader.setLenient(true);
+        try {
+            flattener.flatten(reader, fields);
+        } catch (MalformedJsonException e) {
+            throw new JsonSyntaxException(e);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
 
         return normalizeMap(getGroupNormalizedMap(fields));
     }
@@ -1,9 +1,11 @@
 package datawave.ingest.json.util;
 
+import java.io.IOException;
 import java.util.Set;
 
 import com.google.common.collect.Multimap;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 
 /**
  * <p>
@@ -96,6 +98,25 @@ public interface JsonObjectFlattener {
      */
     void flatten(JsonObject object, Multimap<String,String> map) throws IllegalStateException, NullPointerException;
 
+    /**
+     * Flattens the next json object from the reader directly into the map, without first building a {@link JsonObject} tree. The result is the same as that
+     * of {@link #flatten(JsonObject, Multimap)} for the same json, provided that no object repeats a member name. Values and subtrees that cannot produce an
+     * allowed key may be skipped without being parsed.
+     *
+     * @param reader
+     *            {@link JsonReader} positioned at the start of a json object. On return, the reader is positioned after the end of the object
+     * @param map
+     *            {@link com.google.common.collect.Multimap} instance to receive the flattened keys and associated values
+     * @throws IOException
+     *             if the json cannot be read
+     * @throws IllegalStateException
+     *             if the reader is not positioned at a json object, or if {@link FlattenMode#GROUPED} is used and {@link Builder#pathDelimiter} is found to
+     *             exist already within a json property name
+     * @throws NullPointerException
+     *             if map is null
+     */
+    void flatten(JsonReader reader, Multimap<String,String> map) throws IOException, IllegalStateException, NullPointerException;
+
     /**
      * <p>
      * Allows clients to specify custom normalization behavior per their needs to affect the final presentation of flattened keys and their values to the
@@ -133,6 +154,16 @@ public interface JsonObjectFlattener {
          */
         String normalizeMapValue(String value, String key) throws IllegalStateException;
 
+        /**
+         * Whether {@link #normalizeMapKey(String, String)} ignores the value and maps a prefix of a key to a prefix of the normalized key. If so, a streaming
+         * flattener can compare a key, or the path to a subtree, against the disallowlist and allowlist before parsing the value
+         *
+         * @return true if keys can be normalized without their values, one path segment at a time
+         */
+        default boolean isPrefixPreserving() {
+            return false;
+        }
+
         /**
          * No op impl for convenience
          */
@@ -149,6 +180,11 @@ public interface JsonObjectFlattener {
                 // No op
                 return value;
             }
+
+            @Override
+            public boolean isPrefixPreserving() {
+                return true;
+            }
         }
     }
 
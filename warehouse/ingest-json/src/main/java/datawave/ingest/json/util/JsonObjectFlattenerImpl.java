@@ -1,10 +1,13 @@
 package datawave.ingest.json.util;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Set;
+import java.util.TreeSet;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.HashMultimap;
@@ -13,6 +16,8 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 /**
  * <p>
@@ -40,6 +45,10 @@ public class JsonObjectFlattenerImpl implements JsonObjectFlattener {
     protected final String occurrenceDelimiter;
     protected final boolean addArrayIndexToFieldName;
 
+    // When the key normalizer allows it, the streaming flattener checks keys and subtree paths against the lists before parsing the values
+    protected final boolean skipIgnoredKeys;
+    protected final NavigableSet<String> sortedMapKeyAllowlist;
+
     protected JsonObjectFlattenerImpl(Builder builder) {
         this.pathDelimiter = builder.pathDelimiter;
         this.mapKeyAllowlist = builder.fieldNameAllowlist != null ? new HashSet<>(builder.fieldNameAllowlist) : null;
@@ -76,11 +85,21 @@ public class JsonObjectFlattenerImpl implements JsonObjectFlattener {
                 public String normalizeMapValue(String value, String key) throws IllegalStateException {
                     return defaultNormalizeMapValue(value, key);
                 }
+
+                @Override
+                public boolean isPrefixPreserving() {
+                    return true;
+                }
             };
         } else {
             this.keyValueNormalizer = builder.keyValueNormalizer;
         }
 
+        boolean hasDisallowlist = this.mapKeyDisallowlist != null && !this.mapKeyDisallowlist.isEmpty();
+        boolean hasAllowlist = this.mapKeyAllowlist != null && !this.mapKeyAllowlist.isEmpty();
+        this.skipIgnoredKeys = (hasDisallowlist || hasAllowlist) && this.keyValueNormalizer.isPrefixPreserving();
+        this.sortedMapKeyAllowlist = (this.skipIgnoredKeys && hasAllowlist) ? new TreeSet<>(this.mapKeyAllowlist) : null;
+
     }
 
     @Override
@@ -100,6 +119,19 @@ public class JsonObjectFlattenerImpl implements JsonObjectFlattener {
         addKeysToMap("", object, map, occurrenceCounts);
     }
 
+    @Override
+    public void flatten(JsonReader reader, Multimap<String,String> map) throws IOException, IllegalStateException, NullPointerException {
+        Preconditions.checkNotNull(map, "'map' argument cannot be null");
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            throw new IllegalStateException("Expected a json object but found " + reader.peek());
+        }
+        Map<String,Integer> occurrenceCounts = null;
+        if (this.flattenMode == FlattenMode.GROUPED || this.flattenMode == FlattenMode.GROUPED_AND_NORMAL) {
+            occurrenceCounts = new HashMap<>();
+        }
+        addKeysToMap("", reader, map, occurrenceCounts);
+    }
+
     @Override
     public FlattenMode getFlattenMode() {
         return this.flattenMode;
@@ -160,6 +192,117 @@ public class JsonObjectFlattenerImpl implements JsonObjectFlattener {
         }
     }
 
+    /**
+     * Streaming counterpart of {@link #addKeysToMap(String, JsonElement, Multimap, Map)}. Consumes the next json value from the reader, visiting elements in
+     * the same order and applying the same path, occurrence and list rules, so both produce the same keys and values for the same json
+     *
+     * @param currentPath
+     *            flattened path to the next value
+     * @param reader
+     *            reader positioned at the next value
+     * @param map
+     *            map to receive the flattened keys and values
+     * @param occurrenceCounts
+     *            occurrence counts, when a GROUPED mode is used
+     * @throws IOException
+     *             if the json cannot be read
+     */
+    protected void addKeysToMap(String currentPath, JsonReader reader, Multimap<String,String> map, Map<String,Integer> occurrenceCounts) throws IOException {
+
+        JsonToken token = reader.peek();
+        switch (token) {
+            case NULL:
+                // Don't add nulls
+                reader.nextNull();
+                break;
+
+            case BEGIN_OBJECT:
+                switch (this.flattenMode) {
+                    case SIMPLE:
+                        if (!currentPath.isEmpty()) {
+                            // No recursion in simple mode
+                            reader.skipValue();
+                            return;
+                        }
+                        break;
+                    case GROUPED:
+                    case GROUPED_AND_NORMAL:
+                        if (!currentPath.isEmpty()) {
+                            // Append occurrence delimiter + ordinal suffix
+                            currentPath = currentPath + this.occurrenceDelimiter + incrementCount(currentPath, occurrenceCounts);
+                        }
+                        break;
+                }
+
+                String pathPrefix = currentPath.isEmpty() ? currentPath : currentPath + this.pathDelimiter;
+                if (!currentPath.isEmpty() && isIgnoredPathPrefix(pathPrefix)) {
+                    reader.skipValue();
+                    return;
+                }
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    addKeysToMap(pathPrefix + this.nameNormalizer.normalizeElementName(name, currentPath), reader, map, occurrenceCounts);
+                }
+                reader.endObject();
+                break;
+
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                for (int i = 0; reader.hasNext(); i++) {
+                    if (isPrimitive(reader.peek())) {
+                        addPrimitive(currentPath, reader, map, occurrenceCounts);
+                    } else if (this.addArrayIndexToFieldName) {
+                        addKeysToMap(currentPath + this.pathDelimiter + i, reader, map, occurrenceCounts);
+                    } else {
+                        addKeysToMap(currentPath, reader, map, occurrenceCounts);
+                    }
+                }
+                reader.endArray();
+                break;
+
+            case STRING:
+            case NUMBER:
+            case BOOLEAN:
+                addPrimitive(currentPath, reader, map, occurrenceCounts);
+                break;
+
+            default:
+                throw new IllegalStateException("Unexpected json token " + token + " at " + reader.getPath());
+        }
+    }
+
+    private void addPrimitive(String currentPath, JsonReader reader, Multimap<String,String> map, Map<String,Integer> occurrenceCounts) throws IOException {
+        if (this.skipIgnoredKeys && ignoreKey(this.keyValueNormalizer.normalizeMapKey(currentPath, null))) {
+            reader.skipValue();
+            return;
+        }
+        String value = (reader.peek() == JsonToken.BOOLEAN) ? Boolean.toString(reader.nextBoolean()) : reader.nextString();
+        mapPut(currentPath, value, map, occurrenceCounts);
+    }
+
+    private static boolean isPrimitive(JsonToken token) {
+        return token == JsonToken.STRING || token == JsonToken.NUMBER || token == JsonToken.BOOLEAN;
+    }
+
+    /**
+     * A subtree can only be skipped when there is an allowlist and no allowlisted key starts with the normalized path to the subtree. The disallowlist holds
+     * complete keys, so it never rules out a whole subtree
+     *
+     * @param pathPrefix
+     *            path to the subtree, including the trailing path delimiter
+     * @return true if no key within the subtree can be allowed
+     */
+    protected boolean isIgnoredPathPrefix(String pathPrefix) {
+        if (this.sortedMapKeyAllowlist == null) {
+            return false;
+        }
+        String prefix = this.keyValueNormalizer.normalizeMapKey(pathPrefix, null);
+        String candidate = this.sortedMapKeyAllowlist.ceiling(prefix);
+        return candidate == null || !candidate.startsWith(prefix);
+    }
+
     protected String defaultNormalizeJsonElementName(String name) {
         switch (this.flattenMode) {
             case GROUPED:
@@ -247,6 +390,17 @@ public class JsonObjectFlattenerImpl implements JsonObjectFlattener {
         if (null == value || value.isEmpty()) {
             return true;
         }
+        return ignoreKey(key);
+    }
+
+    /**
+     * Uses disallowlist and allowlist to determine whether or not the key should be ignored, regardless of its value
+     *
+     * @param key
+     *            key to evaluate
+     * @return true, if the key should be ignored
+     */
+    protected boolean ignoreKey(String key) {
         if (null != mapKeyDisallowlist) {
             if (mapKeyDisallowlist.contains(key)) {
                 return true;
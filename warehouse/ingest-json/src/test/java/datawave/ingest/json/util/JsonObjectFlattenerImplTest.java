@@ -1,6 +1,7 @@
 package datawave.ingest.json.util;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Files;
@@ -8,16 +9,19 @@ import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Random;
 
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.TreeMultimap;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 
 import datawave.ingest.json.util.JsonObjectFlattener.FlattenMode;
 
@@ -267,6 +271,72 @@ public class JsonObjectFlattenerImplTest {
         }
     }
 
+    @Test
+    public void testStreamingMatchesTree() throws Exception {
+        for (FlattenMode mode : FlattenMode.values()) {
+            for (boolean addArrayIndex : new boolean[] {true, false}) {
+                assertStreamingMatchesTree(new JsonObjectFlattenerImpl.Builder().flattenMode(mode).addArrayIndexToFieldName(addArrayIndex)
+                                .mapKeyValueNormalizer(toUpperCaseNormalizer).build(), json);
+                assertStreamingMatchesTree(new JsonObjectFlattenerImpl.Builder().flattenMode(mode).addArrayIndexToFieldName(addArrayIndex).build(), json);
+            }
+        }
+    }
+
+    @Test
+    public void testStreamingMatchesTreeWithLists() throws Exception {
+        // subtrees without allowlisted keys are skipped, but must still be counted for the grouping context
+        HashSet<String> keys = new HashSet<>(Arrays.asList("ROOTOBJECT.NUMBER2", "ROOTOBJECT.STRING2"));
+        assertStreamingMatchesTree(new JsonObjectFlattenerImpl.Builder().mapKeyAllowlist(keys).pathDelimiter(".").build(), json);
+        assertStreamingMatchesTree(new JsonObjectFlattenerImpl.Builder().mapKeyDisallowlist(keys).pathDelimiter(".").build(), json);
+        assertStreamingMatchesTree(new JsonObjectFlattenerImpl.Builder().flattenMode(FlattenMode.GROUPED)
+                        .mapKeyAllowlist(new HashSet<>(Arrays.asList("ROOTOBJECT_0.PROPERTIES_0.ARRAY_1.NAME", "ROOTARRAY"))).build(), json);
+        assertStreamingMatchesTree(new JsonObjectFlattenerImpl.Builder().flattenMode(FlattenMode.GROUPED_AND_NORMAL)
+                        .mapKeyDisallowlist(new HashSet<>(Arrays.asList("ROOTOBJECT_0.DATE"))).build(), json);
+        // a normalizer that doesn't declare itself prefix preserving turns off skipping
+        assertStreamingMatchesTree(new JsonObjectFlattenerImpl.Builder().mapKeyAllowlist(new HashSet<>(Arrays.asList("rootobject.number2")))
+                        .mapKeyValueNormalizer(toLowerCaseNormalizer).build(), json);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStreamingRequiresObject() throws Exception {
+        new JsonObjectFlattenerImpl.Builder().build().flatten(new JsonReader(new StringReader("[1, 2]")), HashMultimap.create());
+    }
+
+    @Test
+    public void testStreamingLargeDocument() throws Exception {
+        String largeJson = createLargeJson(new Random(42), 500);
+        assertStreamingMatchesTree(new JsonObjectFlattenerImpl.Builder().flattenMode(FlattenMode.GROUPED).build(), largeJson);
+        assertStreamingMatchesTree(new JsonObjectFlattenerImpl.Builder().flattenMode(FlattenMode.GROUPED)
+                        .mapKeyAllowlist(new HashSet<>(Arrays.asList("ID", "HEADER_0.SOURCE"))).build(), largeJson);
+    }
+
+    private static String createLargeJson(Random random, int numRecords) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("{\"id\": \"doc1\", \"header\": {\"source\": \"test\", \"size\": ").append(numRecords).append("}, \"records\": [");
+        for (int i = 0; i < numRecords; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"name\": \"name").append(random.nextInt(1000)).append("\", \"value\": ").append(random.nextDouble());
+            builder.append(", \"flag\": ").append(random.nextBoolean()).append(", \"tags\": [\"a").append(i % 10).append("\", \"b\"]");
+            builder.append(", \"nested\": {\"text\": \"lorem ipsum dolor sit amet ").append(i).append("\", \"missing\": null}}");
+        }
+        builder.append("]}");
+        return builder.toString();
+    }
+
+    private static void assertStreamingMatchesTree(JsonObjectFlattener flattener, String json) throws IOException {
+        Multimap<String,String> expected = HashMultimap.create();
+        flattener.flatten(new JsonParser().parse(json).getAsJsonObject(), expected);
+
+        Multimap<String,String> actual = HashMultimap.create();
+        JsonReader reader = new JsonReader(new StringReader(json));
+        reader.setLenient(true);
+        flattener.flatten(reader, actual);
+
+        Assert.assertEquals(flattener.getFlattenMode().name(), expected, actual);
+    }
+
     private void printMap(Multimap<String,String> fieldMap) {
         TreeMultimap<String,String> sorted = TreeMultimap.create(fieldMap);
         for (String key : sorted.keySet()) {
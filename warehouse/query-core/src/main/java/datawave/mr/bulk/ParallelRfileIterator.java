@@ -0,0 +1,164 @@
+package datawave.mr.bulk;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Drains a set of {@link RecordIterator}s, one per tablet split, concurrently. Each split is read on its own thread and the results are handed to the consumer
+ * through a bounded queue, so the consumer sees the union of all splits in no particular order (the same contract as a BatchScanner). Any failure reading a
+ * split is rethrown to the consumer.
+ */
+public class ParallelRfileIterator implements Iterator<Entry<Key,Value>>, Closeable {
+
+    private static final Logger log = Logger.getLogger(ParallelRfileIterator.class);
+
+    public static final int DEFAULT_QUEUE_SIZE = 1000;
+
+    private static final long POLL_INTERVAL_MS = 100;
+
+    // marker placed on the queue when a split has been fully read
+    private static final Entry<Key,Value> END_OF_SPLIT = Maps.immutableEntry(new Key(), new Value());
+
+    private final BlockingQueue<Entry<Key,Value>> queue;
+
+    private final ExecutorService executor;
+
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    private volatile Throwable failure = null;
+
+    private int remainingSplits;
+
+    private Entry<Key,Value> next = null;
+
+    private static class SplitReaderFactory implements ThreadFactory {
+
+        private final ThreadFactory dtf = Executors.defaultThreadFactory();
+        private final AtomicInteger threadNum = new AtomicInteger(1);
+
+        public Thread newThread(Runnable r) {
+            Thread thread = dtf.newThread(r);
+            thread.setName("Datawave Rfile Split Reader -" + threadNum.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    public ParallelRfileIterator(List<RecordIterator> iterators, int numThreads) {
+        this(iterators, numThreads, DEFAULT_QUEUE_SIZE);
+    }
+
+    public ParallelRfileIterator(List<RecordIterator> iterators, int numThreads, int queueSize) {
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.remainingSplits = iterators.size();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, Math.min(numThreads, iterators.size())), new SplitReaderFactory());
+        for (RecordIterator iterator : iterators) {
+            executor.submit(() -> drain(iterator));
+        }
+        executor.shutdown();
+    }
+
+    private void drain(RecordIterator iterator) {
+        try {
+            while (!closed.get() && iterator.hasTop()) {
+                // copy as the top key and value are not guaranteed to survive the next call
+                queue.put(Maps.immutableEntry(new Key(iterator.getTopKey()), new Value(iterator.getTopValue())));
+                iterator.next();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable t) {
+            if (!closed.get()) {
+                log.error("Failed to read rfile split", t);
+                failure = t;
+            }
+        } finally {
+            try {
+                while (!closed.get() && !queue.offer(END_OF_SPLIT, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                    // wait for the consumer to make room
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && remainingSplits > 0) {
+            if (failure != null) {
+                close();
+                throw new RuntimeException(failure);
+            }
+            if (closed.get()) {
+                return false;
+            }
+            try {
+                Entry<Key,Value> entry = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (entry == END_OF_SPLIT) {
+                    remainingSplits--;
+                } else if (entry != null) {
+                    next = entry;
+                }
+            } catch (InterruptedException e) {
+                close();
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        if (next == null && failure != null) {
+            close();
+            throw new RuntimeException(failure);
+        }
+        return next != null;
+    }
+
+    @Override
+    public Entry<Key,Value> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Entry<Key,Value> entry = next;
+        next = null;
+        return entry;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Can't remove from ParallelRfileIterator");
+    }
+
+    /**
+     * Stops the split readers and waits for them to finish. Once this returns no reader is using the {@link RecordIterator}s, so they may be repositioned or
+     * closed by the caller.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            executor.shutdownNow();
+        }
+        // a reader may be in the middle of reading a split, which is not interruptible, so wait for it to notice that we are closed. This is done on every
+        // call so that a concurrent caller cannot return while another is still waiting.
+        Uninterruptibles.awaitTerminationUninterruptibly(executor);
+        // anything the readers queued before stopping can be discarded now that nothing else will be added
+        queue.clear();
+    }
+}
@@ -62,11 +62,17 @@ public class RfileScanner extends SessionOptions implements BatchScanner, Closea
 
     protected AccumuloClient client;
 
+    // the number of tablet splits to read concurrently
+    protected int numQueryThreads;
+
+    protected volatile ParallelRfileIterator parallelIterator = null;
+
     public RfileScanner(AccumuloClient client, Configuration conf, String table, Set<Authorizations> auths, int numQueryThreads) {
         ArgumentChecker.notNull(client, conf, table, auths);
         this.table = table;
         this.auths = auths;
         this.client = client;
+        this.numQueryThreads = numQueryThreads;
         ranges = null;
         authIter = AuthorizationsUtil.minimize(auths).iterator();
         recordIterAuthString = authIter.next().toString();
@@ -106,6 +112,8 @@ public class RfileScanner extends SessionOptions implements BatchScanner, Closea
     }
 
     public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
+        // stop any concurrent readers before the split iterators are repositioned
+        stopParallelIterator();
         for (RecordIterator ri : iterators) {
             ri.seek(range, columnFamilies, inclusive);
         }
@@ -115,17 +123,25 @@ public class RfileScanner extends SessionOptions implements BatchScanner, Closea
     protected Iterator<Entry<Key,Value>> getIterator(List<InputSplit> splits, AccumuloConfiguration acuTableConf) {
         // optimization for single tablets
         Iterator<Entry<Key,Value>> kv = Collections.emptyIterator();
+        List<RecordIterator> splitIterators = Lists.newArrayList();
         for (InputSplit split : splits) {
             RecordIterator recordIter;
 
             recordIter = new RecordIterator((TabletSplitSplit) split, acuTableConf, conf);
 
             iterators.add(recordIter);
+            splitIterators.add(recordIter);
 
             kv = Iterators.concat(kv, new RfileIterator(recordIter));
 
         }
 
+        // read the tablet splits concurrently when we have been given more than one thread
+        if (numQueryThreads > 1 && splitIterators.size() > 1) {
+            parallelIterator = new ParallelRfileIterator(splitIterators, numQueryThreads);
+            return parallelIterator;
+        }
+
         return kv;
     }
 
@@ -237,6 +253,8 @@ public class RfileScanner extends SessionOptions implements BatchScanner, Closea
      * Clear out the current set of iterators
      */
     private void clearIterators() {
+        // stop any concurrent readers before the split iterators are closed
+        stopParallelIterator();
         for (RecordIterator iter : iterators) {
             try {
                 iter.close();
@@ -246,4 +264,15 @@ public class RfileScanner extends SessionOptions implements BatchScanner, Closea
         }
         iterators = Lists.newArrayList();
     }
+
+    /**
+     * Stop the concurrent split readers, if any, waiting for them to finish with the split iterators
+     */
+    private void stopParallelIterator() {
+        ParallelRfileIterator parallel = parallelIterator;
+        if (null != parallel) {
+            parallel.close();
+            parallelIterator = null;
+        }
+    }
 }
@@ -78,6 +78,7 @@ public class Constants {
 
     // From ingest
     public static final Text TERM_FREQUENCY_COLUMN_FAMILY = new Text("tf");
+    public static final Text TOKEN_POSITION_COLUMN_FAMILY = new Text("tp");
 
     // content functions
     public static final String TERM_OFFSET_MAP_JEXL_VARIABLE_NAME = ContentFunctions.TERM_OFFSET_MAP_JEXL_VARIABLE_NAME;
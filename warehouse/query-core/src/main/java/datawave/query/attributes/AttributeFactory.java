@@ -6,6 +6,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -41,6 +42,9 @@ public class AttributeFactory {
 
     private final TypeMetadata typeMetadata;
 
+    // the fields whose values are normalized when their attribute is created, null for all fields
+    private Set<String> eagerFields = null;
+
     private String defaultType = NoOpType.class.getName();
     private Class<?> mostGeneralType = LcNoDiacriticsType.class;
     private static final List<Class<?>> mostGeneralTypes = Collections
@@ -55,6 +59,19 @@ public class AttributeFactory {
         this.defaultType = defaultType;
     }
 
+    /**
+     * Only normalize the values of the given fields when their attributes are created. The values of any other field with a single type are normalized when
+     * first used, see {@link TypeAttribute#isLazy()}.
+     *
+     * @param eagerFields
+     *            the fields to normalize eagerly, or null to normalize all fields eagerly
+     * @return this factory
+     */
+    public AttributeFactory withEagerFields(Set<String> eagerFields) {
+        this.eagerFields = eagerFields;
+        return this;
+    }
+
     private String extractIngestDataTypeFromKey(Key key) {
         Text cf = new Text();
         key.getColumnFamily(cf);
@@ -90,11 +107,11 @@ public class AttributeFactory {
         try {
             if (null == dataTypes || dataTypes.isEmpty()) {
                 Class<?> dataTypeClass = clazzCache.get(this.defaultType);
-                return getAttribute(dataTypeClass, fieldName, data, key, toKeep);
+                return getAttribute(dataTypeClass, fieldName, data, key, toKeep, isComposite);
             } else if (1 == dataTypes.size()) {
                 String dataType = dataTypes.iterator().next();
                 Class<?> dataTypeClass = clazzCache.get(dataType);
-                return getAttribute(dataTypeClass, fieldName, data, key, toKeep);
+                return getAttribute(dataTypeClass, fieldName, data, key, toKeep, isComposite);
             } else {
 
                 Iterable<Class<?>> typeClasses = Iterables.transform(dataTypes, new Function<String,Class<?>>() {
@@ -132,6 +149,13 @@ public class AttributeFactory {
         }
     }
 
+    private Attribute<?> getAttribute(Class<?> dataTypeClass, String fieldName, String data, Key key, boolean toKeep, boolean isComposite) throws Exception {
+        if (eagerFields != null && !isComposite && !eagerFields.contains(fieldName)) {
+            return new TypeAttribute(dataTypeClass, fieldName, data, key, toKeep);
+        }
+        return getAttribute(dataTypeClass, fieldName, data, key, toKeep);
+    }
+
     protected Attribute<?> getAttribute(Class<?> dataTypeClass, String fieldName, String data, Key key, boolean toKeep) throws Exception {
         Type<?> type = (Type<?>) dataTypeClass.newInstance();
         try {
@@ -105,8 +105,14 @@ public class Document extends AttributeBag<Document> implements Serializable {
     public Document(Key key, Set<Key> docKeys, boolean fromIndex, Iterator<Entry<Key,Value>> iter, TypeMetadata typeMetadata,
                     CompositeMetadata compositeMetadata, boolean includeGroupingContext, boolean keepRecordId, EventDataQueryFilter attrFilter, boolean toKeep,
                     boolean trackSizes) {
+        this(key, docKeys, fromIndex, iter, typeMetadata, compositeMetadata, includeGroupingContext, keepRecordId, attrFilter, toKeep, trackSizes, null);
+    }
+
+    public Document(Key key, Set<Key> docKeys, boolean fromIndex, Iterator<Entry<Key,Value>> iter, TypeMetadata typeMetadata,
+                    CompositeMetadata compositeMetadata, boolean includeGroupingContext, boolean keepRecordId, EventDataQueryFilter attrFilter, boolean toKeep,
+                    boolean trackSizes, Set<String> eagerFields) {
         this(key, toKeep, trackSizes);
-        this.consumeRawData(key, docKeys, iter, typeMetadata, compositeMetadata, includeGroupingContext, keepRecordId, attrFilter, fromIndex);
+        this.consumeRawData(key, docKeys, iter, typeMetadata, compositeMetadata, includeGroupingContext, keepRecordId, attrFilter, fromIndex, eagerFields);
     }
 
     @Override
@@ -157,6 +163,38 @@ public class Document extends AttributeBag<Document> implements Serializable {
     public Document consumeRawData(Key docKey, Set<Key> docKeys, Iterator<Entry<Key,Value>> iter, TypeMetadata typeMetadata,
                     CompositeMetadata compositeMetadata, boolean includeGroupingContext, boolean keepRecordId, EventDataQueryFilter attrFilter,
                     boolean fromIndex) {
+        return consumeRawData(docKey, docKeys, iter, typeMetadata, compositeMetadata, includeGroupingContext, keepRecordId, attrFilter, fromIndex, null);
+    }
+
+    /**
+     * Merge the attributes scanned over by the supplied iterator into <code>this</code> Document, normalizing only the values of the eager fields as the
+     * attributes are created. The values of the other fields are normalized when evaluation, a transform or serialization first uses them.
+     *
+     * @param iter
+     *            iterator of entry map
+     * @param typeMetadata
+     *            the type metadata
+     * @param docKey
+     *            document key
+     * @param attrFilter
+     *            attribute filter
+     * @param compositeMetadata
+     *            the composite metadata
+     * @param docKeys
+     *            the document keys
+     * @param fromIndex
+     *            boolean flag for fromIndex
+     * @param includeGroupingContext
+     *            check for including the grouping context
+     * @param keepRecordId
+     *            check for keepRecordId
+     * @param eagerFields
+     *            the fields to normalize eagerly, or null to normalize all fields eagerly
+     * @return a Document object
+     */
+    public Document consumeRawData(Key docKey, Set<Key> docKeys, Iterator<Entry<Key,Value>> iter, TypeMetadata typeMetadata,
+                    CompositeMetadata compositeMetadata, boolean includeGroupingContext, boolean keepRecordId, EventDataQueryFilter attrFilter,
+                    boolean fromIndex, Set<String> eagerFields) {
         invalidateMetadata();
         // extract the sharded time from the dockey if possible
         try {
@@ -172,7 +210,8 @@ public class Document extends AttributeBag<Document> implements Serializable {
 
         // Transform the remaining entries back into Attributes
         Iterator<Iterable<Entry<String,Attribute<? extends Comparable<?>>>>> attributes = Iterators.transform(extractedFieldNames,
-                        new ValueToAttributes(compositeMetadata, typeMetadata, attrFilter, MarkingFunctions.Factory.createMarkingFunctions(), fromIndex));
+                        new ValueToAttributes(compositeMetadata, typeMetadata, attrFilter, MarkingFunctions.Factory.createMarkingFunctions(), fromIndex,
+                                        eagerFields));
 
         // Add all of the String=>Attribute pairs to this Document
         while (attributes.hasNext()) {
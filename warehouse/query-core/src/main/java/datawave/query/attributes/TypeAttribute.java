@@ -32,6 +32,11 @@ public class TypeAttribute<T extends Comparable<T>> extends Attribute<TypeAttrib
 
     private Type<T> datawaveType;
 
+    // the type and value of a lazy attribute, cleared once the value is normalized
+    private Class<?> lazyTypeClass;
+    private String lazyData;
+    private String lazyFieldName;
+
     protected TypeAttribute() {
         super(null, true);
     }
@@ -41,16 +46,71 @@ public class TypeAttribute<T extends Comparable<T>> extends Attribute<TypeAttrib
         this.datawaveType = datawaveType;
     }
 
+    /**
+     * Create an attribute whose value is only normalized by its type when it is first used. Fields that are returned but not evaluated are never normalized
+     * for documents that do not satisfy the query.
+     *
+     * @param typeClass
+     *            the class of the type
+     * @param fieldName
+     *            the field name, used when logging a value the type cannot parse
+     * @param data
+     *            the value
+     * @param docKey
+     *            the document key
+     * @param toKeep
+     *            the to keep flag
+     */
+    public TypeAttribute(Class<?> typeClass, String fieldName, String data, Key docKey, boolean toKeep) {
+        super(docKey, toKeep);
+        this.lazyTypeClass = typeClass;
+        this.lazyFieldName = fieldName;
+        this.lazyData = data;
+    }
+
     @Override
     public long sizeInBytes() {
+        if (isLazy()) {
+            return ObjectSizeOf.Sizer.getObjectSize(lazyData) + super.sizeInBytes(16);
+            // 16 for the datawaveType and lazy references
+        }
         return ObjectSizeOf.Sizer.getObjectSize(datawaveType) + super.sizeInBytes(4);
         // 4 for datawaveType reference
     }
 
+    /**
+     * @return whether the value has not been normalized yet
+     */
+    public boolean isLazy() {
+        return this.datawaveType == null && this.lazyData != null;
+    }
+
     public Type<T> getType() {
+        if (isLazy()) {
+            materialize();
+        }
         return this.datawaveType;
     }
 
+    private void materialize() {
+        Type<T> type;
+        try {
+            type = (Type<T>) lazyTypeClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalArgumentException("Could not create Attribute for " + lazyFieldName + " and " + lazyData, ex);
+        }
+        try {
+            type.setDelegateFromString(lazyData);
+        } catch (IllegalArgumentException ex) {
+            log.warn("Could not parse " + lazyFieldName + " = '" + lazyData + "', resorting to a NoOpType");
+            type = (Type) new NoOpType(lazyData);
+        }
+        this.datawaveType = type;
+        this.lazyTypeClass = null;
+        this.lazyFieldName = null;
+        this.lazyData = null;
+    }
+
     @Override
     public Object getData() {
         return getType();
@@ -63,7 +123,7 @@ public class TypeAttribute<T extends Comparable<T>> extends Attribute<TypeAttrib
 
     @Override
     public void write(DataOutput out, boolean reducedResponse) throws IOException {
-        WritableUtils.writeString(out, datawaveType.getClass().toString());
+        WritableUtils.writeString(out, getType().getClass().toString());
         writeMetadata(out, reducedResponse);
         WritableUtils.writeString(out, datawaveType.getDelegateAsString());
         WritableUtils.writeVInt(out, toKeep ? 1 : 0);
@@ -86,7 +146,7 @@ public class TypeAttribute<T extends Comparable<T>> extends Attribute<TypeAttrib
 
     @Override
     public int compareTo(TypeAttribute<T> other) {
-        int cmp = datawaveType.compareTo(other.getType());
+        int cmp = getType().compareTo(other.getType());
 
         if (0 == cmp) {
             // Compare the ColumnVisibility as well
@@ -113,12 +173,13 @@ public class TypeAttribute<T extends Comparable<T>> extends Attribute<TypeAttrib
     @Override
     public int hashCode() {
         HashCodeBuilder hcb = new HashCodeBuilder(2099, 2129);
-        hcb.append(datawaveType.getDelegateAsString()).append(super.hashCode());
+        hcb.append(getType().getDelegateAsString()).append(super.hashCode());
         return hcb.toHashCode();
     }
 
     @Override
     public Collection<ValueTuple> visit(Collection<String> fieldNames, DatawaveJexlContext context) {
+        getType();
         if (this.datawaveType instanceof OneToManyNormalizerType) {
             Set<ValueTuple> set = new FunctionalSet<>();
             for (String norm : ((OneToManyNormalizerType<?>) this.datawaveType).getNormalizedValues()) {
@@ -136,7 +197,7 @@ public class TypeAttribute<T extends Comparable<T>> extends Attribute<TypeAttrib
 
     @Override
     public void write(Kryo kryo, Output output, Boolean reducedResponse) {
-        output.writeString(datawaveType.getClass().getName());
+        output.writeString(getType().getClass().getName());
         super.writeMetadata(kryo, output, reducedResponse);
         output.writeString(this.datawaveType.getDelegateAsString());
         output.writeBoolean(this.toKeep);
@@ -177,12 +238,15 @@ public class TypeAttribute<T extends Comparable<T>> extends Attribute<TypeAttrib
      */
     @Override
     public TypeAttribute copy() {
+        if (isLazy()) {
+            return new TypeAttribute(lazyTypeClass, lazyFieldName, lazyData, this.getMetadata(), this.isToKeep());
+        }
         return new TypeAttribute(this.getType(), this.getMetadata(), this.isToKeep());
     }
 
     @Override
     public String toString() {
-        if (datawaveType.getDelegate() != null) {
+        if (getType().getDelegate() != null) {
             return datawaveType.getDelegateAsString();
         } else {
             return this.getClass() + " with null delegate";
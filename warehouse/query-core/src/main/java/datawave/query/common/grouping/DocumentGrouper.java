@@ -11,12 +11,9 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.apache.accumulo.core.data.Key;
 import org.javatuples.Pair;
@@ -289,14 +286,21 @@ public class DocumentGrouper {
      */
     private void indexDocumentEntries() {
         for (Map.Entry<String,Attribute<?>> entry : document.entrySet()) {
-            Field field = parseField(entry);
-            // The current field is a target for grouping.
-            if (groupFields.contains(field.getBase())) {
-                groupFieldsIndex.index(field);
-            }
-            // The current field is a target for aggregation.
-            if (fieldAggregatorFactory.isFieldToAggregate(field.getBase())) {
-                aggregateFieldsIndex.index(field);
+            // Only the name is needed to determine whether the entry is a target. Most entries of a document typically are not, so avoid parsing the grouping
+            // context and instance of those entries.
+            String name = getMappedFieldName(parseName(entry.getKey()));
+            boolean groupTarget = groupFields.contains(name);
+            boolean aggregateTarget = fieldAggregatorFactory.isFieldToAggregate(name);
+            if (groupTarget || aggregateTarget) {
+                Field field = parseField(entry.getKey(), name, entry.getValue());
+                // The current field is a target for grouping.
+                if (groupTarget) {
+                    groupFieldsIndex.index(field);
+                }
+                // The current field is a target for aggregation.
+                if (aggregateTarget) {
+                    aggregateFieldsIndex.index(field);
+                }
             }
         }
     }
@@ -351,7 +355,8 @@ public class DocumentGrouper {
         // at this time.
         if (fieldsWithGroupingContextAndInstance.size() == 1) {
             Collection<Field> fields = groupFieldsIndex.getFields(fieldsWithGroupingContextAndInstance.iterator().next());
-            fields.stream().map(Collections::singleton).forEach(groupings::add);
+            // These may be extended with fields without a direct match, so they must be modifiable.
+            fields.stream().map(Sets::newHashSet).forEach(groupings::add);
         } else {
             // If we have more than one target field with a grouping context and instance, determine the correct groupings based off matching the grouping
             // context and instance where possible with direct 1-to-1 matches, i.e. AGE.FOO.1 is a direct match to GENDER.FOO.1.
@@ -359,7 +364,7 @@ public class DocumentGrouper {
             for (String fieldName : fieldsWithGroupingContextAndInstance) {
                 Collection<Field> fields = groupFieldsIndex.getFields(fieldName);
                 for (Field field : fields) {
-                    groupingContextAndInstanceToField.put(Pair.with(field.getGroupingContext(), field.getInstance()), field);
+                    groupingContextAndInstanceToField.put(field.getGroupingContextAndInstance(), field);
                 }
             }
 
@@ -415,6 +420,10 @@ public class DocumentGrouper {
                 Collection<Set<Field>> currentGroupings = fieldsToGroupings.get(fields);
                 if (groupings.isEmpty()) {
                     groupings.addAll(currentGroupings);
+                } else if (currentGroupings.size() == 1) {
+                    // There is only one combination to append, so each existing combination can be extended in place rather than copied.
+                    Set<Field> currentGrouping = currentGroupings.iterator().next();
+                    groupings.forEach(grouping -> grouping.addAll(currentGrouping));
                 } else {
                     List<Set<Field>> newGroupings = new ArrayList<>();
                     for (Set<Field> oldGrouping : groupings) {
@@ -447,6 +456,10 @@ public class DocumentGrouper {
                 for (Field field : fields) {
                     groupings.add(Sets.newHashSet(field));
                 }
+            } else if (fields.size() == 1) {
+                // There is only one field event to append, so each existing combination can be extended in place rather than copied.
+                Field field = fields.iterator().next();
+                groupings.forEach(grouping -> grouping.add(field));
             } else {
                 // Effectively create cartesian products of each previously seen grouping combination and each field event for the current target event field.
                 // For instance, if we have the previous combination [{"20","MALE"},{"10","FEMALE"}] and the field events {"A","B","C"}, we want to generate
@@ -488,7 +501,7 @@ public class DocumentGrouper {
         for (Field field : groupedFields) {
             // Track the grouping context-instance pair. This is required for us to be able to find direct matches later when aggregating.
             if (field.hasGroupingContext() && field.hasInstance()) {
-                groupingContextAndInstances.add(Pair.with(field.getGroupingContext(), field.getInstance()));
+                groupingContextAndInstances.add(field.getGroupingContextAndInstance());
             }
             // If we have no grouping keys yet, create keys consisting of each value of the current field.
             if (groupings.isEmpty()) {
@@ -496,6 +509,12 @@ public class DocumentGrouper {
                     GroupingAttribute<?> copy = createCopyWithKey(attribute, field.getBase());
                     groupings.add(new Grouping(copy));
                 }
+            } else if (field.getAttributes().size() == 1) {
+                // A single value does not multiply the keys, so add it to each existing key in place rather than copying every key.
+                GroupingAttribute<?> copy = createCopyWithKey(field.getAttributes().iterator().next(), field.getBase());
+                for (Grouping grouping : groupings) {
+                    grouping.add(copy);
+                }
             } else {
                 // Otherwise, create the cartesian product between the current field's value and each existing key.
                 List<Grouping> newGroupings = new ArrayList<>();
@@ -617,17 +636,39 @@ public class DocumentGrouper {
      * @return the field entry.
      */
     private Field parseField(Map.Entry<String,Attribute<?>> entry) {
-        String field = entry.getKey();
-        String name = field;
+        return parseField(entry.getKey(), getMappedFieldName(parseName(entry.getKey())), entry.getValue());
+    }
+
+    /**
+     * Parses the field name from the given document entry key, which is everything before the first period.
+     *
+     * @param field
+     *            the document entry key
+     * @return the field name
+     */
+    private String parseName(String field) {
+        int firstPeriod = field.indexOf('.');
+        return firstPeriod == -1 ? field : field.substring(0, firstPeriod);
+    }
+
+    /**
+     * Parses the grouping context and instance from the given document entry key and returns a {@link Field} with the given, already parsed and mapped, name.
+     *
+     * @param field
+     *            the document entry key
+     * @param name
+     *            the mapped field name
+     * @param attribute
+     *            the attribute of the entry
+     * @return the field entry.
+     */
+    private Field parseField(String field, String name, Attribute<?> attribute) {
         String groupingContext = null;
         String instance = null;
 
         int firstPeriod = field.indexOf('.');
         // If the field name contains at least one period, the field's format is either <NAME>.<INSTANCE> or <NAME>.<GROUP>...<INSTANCE>
         if (firstPeriod != -1) {
-            // The field name is everything before the first period.
-            name = field.substring(0, firstPeriod);
-
             int secondPeriod = field.indexOf(".", firstPeriod + 1);
             // If a second period is present, we know that field's format is <NAME>.<GROUP>...<INSTANCE>
             if (secondPeriod != -1) {
@@ -641,15 +682,13 @@ public class DocumentGrouper {
             }
         }
 
-        // Map the field name to the root model name. This ensures that even if we're grouping fields that can be seen with different model names, e.g. AG, ETA,
-        // and AGE, that the same root name will be used across the board to ensure that they're treated as from the same target group/aggregation field.
-        name = getMappedFieldName(name);
-
-        return new Field(name, groupingContext, instance, entry.getValue());
+        return new Field(name, groupingContext, instance, attribute);
     }
 
     /**
-     * Get the corresponding model mapping for the field. If model mappings have not been provided, the original field will be returned.
+     * Get the corresponding model mapping for the field. If model mappings have not been provided, the original field will be returned. This ensures that even
+     * if we're grouping fields that can be seen with different model names, e.g. AG, ETA, and AGE, that the same root name will be used across the board to
+     * ensure that they're treated as from the same target group/aggregation field.
      *
      * @param field
      *            the field to map
@@ -725,8 +764,8 @@ public class DocumentGrouper {
          * grouping context, instance, and value.
          */
         private boolean isUnindexed(Field field) {
-            // Create the index id.
-            String id = getIndexId(field);
+            // Get the index id.
+            String id = field.getIndexId();
             Attribute<?> attribute = field.getAttribute();
             // Determine if we have already seen the given index id with the field's attribute (null or otherwise).
             if (attribute != null) {
@@ -750,7 +789,7 @@ public class DocumentGrouper {
                     groupingContextAndInstanceToField = HashMultimap.create();
                     fieldToFieldsByGroupingContextAndInstance.put(field.getBase(), groupingContextAndInstanceToField);
                 }
-                groupingContextAndInstanceToField.put(Pair.with(field.getGroupingContext(), field.getInstance()), field);
+                groupingContextAndInstanceToField.put(field.getGroupingContextAndInstance(), field);
             } else {
                 // Otherwise, the field will have no direct matches.
                 fieldsWithoutDirectMatch.add(field.getBase());
@@ -764,7 +803,7 @@ public class DocumentGrouper {
          * Mark the given field as indexed.
          */
         private void markIndexed(Field field) {
-            String id = getIndexId(field);
+            String id = field.getIndexId();
             Attribute<?> attribute = field.getAttribute();
             if (attribute != null) {
                 alreadyIndexed.put(id, attribute.getData());
@@ -773,13 +812,6 @@ public class DocumentGrouper {
             }
         }
 
-        /**
-         * Return the index id for the given field, which will consist of the field's base name, grouping context (if present), and instance (if present).
-         */
-        private String getIndexId(Field field) {
-            return Stream.of(field.getBase(), field.getGroupingContext(), field.getInstance()).filter(Objects::nonNull).collect(Collectors.joining(""));
-        }
-
         /**
          * Return a list of all {@link Field} instances indexed with the given base field name.
          */
@@ -1,10 +1,12 @@
 package datawave.query.common.grouping;
 
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
+import org.javatuples.Pair;
 
 import datawave.query.attributes.Attribute;
 import datawave.query.attributes.Attributes;
@@ -19,15 +21,21 @@ class Field {
     private final String instance;
     private final Attribute<?> attribute;
     private final Set<Attribute<?>> attributes;
+    // fields are hashed repeatedly when building grouping combinations, so the derived values are computed once
+    private final Pair<String,String> groupingContextAndInstance;
+    private String indexId;
+    private int hashCode;
 
     public Field(String base, String groupingContext, String instance, Attribute<?> attribute) {
         this.base = base;
         this.groupingContext = groupingContext;
         this.instance = instance;
         this.attribute = attribute;
+        this.groupingContextAndInstance = groupingContext != null && instance != null ? Pair.with(groupingContext, instance) : null;
 
         if (attribute instanceof Attributes) {
-            this.attributes = ((Attributes) attribute).getAttributes();
+            // Copy the values rather than keeping a view of the live set, so that the cached hash code cannot go stale if the document is modified.
+            this.attributes = Collections.unmodifiableSet(new LinkedHashSet<>(((Attributes) attribute).getAttributes()));
         } else {
             this.attributes = Collections.singleton(attribute);
         }
@@ -78,6 +86,35 @@ class Field {
         return instance != null;
     }
 
+    /**
+     * Return the field's grouping context and instance, or null if the field does not have both.
+     *
+     * @return the grouping context and instance
+     */
+    public Pair<String,String> getGroupingContextAndInstance() {
+        return groupingContextAndInstance;
+    }
+
+    /**
+     * Return the id used to identify equivalent fields when indexing, which consists of the field's base name, grouping context (if present), and instance
+     * (if present).
+     *
+     * @return the index id
+     */
+    public String getIndexId() {
+        if (indexId == null) {
+            StringBuilder sb = new StringBuilder(base);
+            if (groupingContext != null) {
+                sb.append(groupingContext);
+            }
+            if (instance != null) {
+                sb.append(instance);
+            }
+            indexId = sb.toString();
+        }
+        return indexId;
+    }
+
     /**
      * Return this field's attribute
      *
@@ -113,7 +150,10 @@ class Field {
 
     @Override
     public int hashCode() {
-        return Objects.hash(base, groupingContext, instance, attributes);
+        if (hashCode == 0) {
+            hashCode = Objects.hash(base, groupingContext, instance, attributes);
+        }
+        return hashCode;
     }
 
     @Override
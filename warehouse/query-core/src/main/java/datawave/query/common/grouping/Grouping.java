@@ -3,6 +3,7 @@ package datawave.query.common.grouping;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.function.Predicate;
 
 /**
@@ -52,7 +53,8 @@ public class Grouping extends HashSet<GroupingAttribute<?>> {
     public boolean add(GroupingAttribute<?> groupingAttribute) {
         boolean modified = super.add(groupingAttribute);
         if (modified) {
-            updateCachedHashcode();
+            // The hashcode of a set is the sum of the hashcodes of its elements, so it can be updated without iterating over the whole set.
+            cachedHashcode += Objects.hashCode(groupingAttribute);
         }
         return modified;
     }
@@ -70,7 +72,7 @@ public class Grouping extends HashSet<GroupingAttribute<?>> {
     public boolean remove(Object o) {
         boolean modified = super.remove(o);
         if (modified) {
-            updateCachedHashcode();
+            cachedHashcode -= Objects.hashCode(o);
         }
         return modified;
     }
@@ -72,7 +72,25 @@ public class GroupingUtils {
         Preconditions.checkState(!keys.isEmpty(), "No available keys for grouping results");
 
         // Use the last (most recent) key so a new iterator will know where to start.
-        Key key = keys.get(keys.size() - 1);
+        return createDocument(group, keys.get(keys.size() - 1), markingFunctions, averageWriteFormat);
+    }
+
+    /**
+     * Create and return a new {@link Document} with the given group information embedded into it.
+     *
+     * @param group
+     *            the group
+     * @param key
+     *            the most recent iterator key that has been read, used as the document key so a new iterator will know where to start
+     * @param markingFunctions
+     *            the marking functions to use when combining column visibilities
+     * @param averageWriteFormat
+     *            the format to use when writing aggregated averages to the document
+     * @return the new document
+     */
+    public static Document createDocument(Group group, Key key, MarkingFunctions markingFunctions, AverageAggregatorWriteFormat averageWriteFormat) {
+        Preconditions.checkState(key != null, "No available key for grouping results");
+
         Document document = new Document(key, true);
 
         // Set the visibility for the document to the combined visibility of each previous document in which this grouping was seen in.
@@ -68,6 +68,11 @@ public class EdgeQueryConfiguration extends GenericQueryConfiguration implements
 
     protected long dateFilterScanLimit = DEFAULT_SCAN_LIMIT;
 
+    // optional edge tables aggregated by week and by month, used to cover whole weeks and months of the query date range
+    protected String weeklyRollupTableName = null;
+
+    protected String monthlyRollupTableName = null;
+
     /**
      * Default constructor
      */
@@ -102,6 +107,8 @@ public class EdgeQueryConfiguration extends GenericQueryConfiguration implements
         setDateFilterScanLimit(other.getDateFilterScanLimit());
         setDateFilterSkipLimit(other.getDateFilterSkipLimit());
         setMaxQueryTerms(other.getMaxQueryTerms());
+        setWeeklyRollupTableName(other.getWeeklyRollupTableName());
+        setMonthlyRollupTableName(other.getMonthlyRollupTableName());
     }
 
     /**
@@ -356,6 +363,22 @@ public class EdgeQueryConfiguration extends GenericQueryConfiguration implements
         this.dateFilterScanLimit = dateFilterScanLimit;
     }
 
+    public String getWeeklyRollupTableName() {
+        return weeklyRollupTableName;
+    }
+
+    public void setWeeklyRollupTableName(String weeklyRollupTableName) {
+        this.weeklyRollupTableName = weeklyRollupTableName;
+    }
+
+    public String getMonthlyRollupTableName() {
+        return monthlyRollupTableName;
+    }
+
+    public void setMonthlyRollupTableName(String monthlyRollupTableName) {
+        this.monthlyRollupTableName = monthlyRollupTableName;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -370,12 +393,14 @@ public class EdgeQueryConfiguration extends GenericQueryConfiguration implements
                         && Objects.equals(modelName, that.modelName) && Objects.equals(modelTableName, that.modelTableName)
                         && Objects.equals(edgeQueryModel, that.edgeQueryModel) && Objects.equals(dataTypes, that.dataTypes)
                         && dateRangeType == that.dateRangeType && dateFilterScanLimit == that.dateFilterScanLimit
-                        && dateFilterSkipLimit == that.dateFilterSkipLimit;
+                        && dateFilterSkipLimit == that.dateFilterSkipLimit && Objects.equals(weeklyRollupTableName, that.weeklyRollupTableName)
+                        && Objects.equals(monthlyRollupTableName, that.monthlyRollupTableName);
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(super.hashCode(), modelName, modelTableName, edgeQueryModel, dataTypes, queryThreads, includeStats, maxQueryTerms,
-                        maxPrefilterValues, dateRangeType, aggregateResults, dateFilterScanLimit, dateFilterSkipLimit);
+                        maxPrefilterValues, dateRangeType, aggregateResults, dateFilterScanLimit, dateFilterSkipLimit, weeklyRollupTableName,
+                        monthlyRollupTableName);
     }
 }
@@ -115,6 +115,22 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
     private boolean reduceIngestTypesPerShard = false;
     // should this query attempt to prune terms via their ingest types
     private boolean pruneQueryByIngestTypes = false;
+    // should global index lookups for single terms be served from the shared webserver cache
+    private boolean useGlobalIndexCache = false;
+    // how long cached global index lookups that include the current or previous day may be reused
+    private long globalIndexCacheRecentTtlMillis = 60000L;
+    // should the range bundler group and split ranges by their estimated cost and the observed scan times
+    private boolean adaptiveRangeBundling = false;
+    // the desired duration of a single scan when bundling ranges adaptively
+    private long rangeBundleTargetMillis = 1000L;
+    // should the planner order conjuncts and delay expensive terms using the index stats and metadata counts
+    private boolean useCostBasedPlanning = false;
+    // terms estimated above this multiple of the cheapest term of their conjunction are delayed
+    private double costBasedPushdownFactor = 1000.0d;
+    // should scanner batches wait for a permit from the webserver wide scan admission controller
+    private boolean useScanAdmissionControl = false;
+    // how long a scanner batch waits for a permit before the scan fails
+    private long scanAdmissionMaxWaitMillis = 300000L;
     // should this query reduce the set of fields prior to serialization
     private boolean reduceQueryFields = false;
     private boolean reduceQueryFieldsPerShard = false;
@@ -149,6 +165,14 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
      * Used to enable the SourceThreadTrackingIterator on the tservers
      */
     private boolean debugMultithreadedSources = false;
+    /**
+     * Used to let concurrent queries on the tservers share the keys they read from a column family of a shard
+     */
+    private boolean sharedScan = false;
+    /**
+     * Used to defer the type normalization of document fields which are not referenced by the query until they are used
+     */
+    private boolean lazyAttributes = false;
     /**
      * Used to enable sorting query ranges from most to least granular for queries which contain geowave fields in ThreadedRangeBundler
      */
@@ -387,6 +411,10 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
      */
     private GroupFields groupFields = new GroupFields();
     private int groupFieldsBatchSize;
+    /**
+     * The number of distinct groups the tserver may hold before returning its partial groupings, regardless of the batch size.
+     */
+    private int groupFieldsMaxGroups = 10000;
     private boolean accrueStats = false;
     private UniqueFields uniqueFields = new UniqueFields();
     private boolean cacheModel = false;
@@ -448,6 +476,8 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
     private int eventNextSeek = -1;
     private int tfFieldSeek = -1;
     private int tfNextSeek = -1;
+    // the number of next calls made to reach the next document before a seek is issued. disabled by default.
+    private int documentNextSeek = -1;
 
     /**
      * Flag that enables a field-based seeking aggregation in the standard event query. Must be used in conjunction with {@link #eventFieldSeek}
@@ -556,6 +586,14 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.setReduceIngestTypes(other.getReduceIngestTypes());
         this.setReduceIngestTypesPerShard(other.getReduceIngestTypesPerShard());
         this.setPruneQueryByIngestTypes(other.getPruneQueryByIngestTypes());
+        this.setUseGlobalIndexCache(other.isUseGlobalIndexCache());
+        this.setGlobalIndexCacheRecentTtlMillis(other.getGlobalIndexCacheRecentTtlMillis());
+        this.setAdaptiveRangeBundling(other.isAdaptiveRangeBundling());
+        this.setRangeBundleTargetMillis(other.getRangeBundleTargetMillis());
+        this.setUseCostBasedPlanning(other.isUseCostBasedPlanning());
+        this.setCostBasedPushdownFactor(other.getCostBasedPushdownFactor());
+        this.setUseScanAdmissionControl(other.isUseScanAdmissionControl());
+        this.setScanAdmissionMaxWaitMillis(other.getScanAdmissionMaxWaitMillis());
         this.setReduceQueryFields(other.getReduceQueryFields());
         this.setReduceQueryFieldsPerShard(other.getReduceQueryFieldsPerShard());
         this.setReduceTypeMetadata(other.getReduceTypeMetadata());
@@ -576,6 +614,8 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.setUnsortedUIDsEnabled(other.getUnsortedUIDsEnabled());
         this.setSerializeQueryIterator(other.getSerializeQueryIterator());
         this.setDebugMultithreadedSources(other.isDebugMultithreadedSources());
+        this.setSharedScan(other.isSharedScan());
+        this.setLazyAttributes(other.isLazyAttributes());
         this.setSortGeoWaveQueryRanges(other.isSortGeoWaveQueryRanges());
         this.setNumRangesToBuffer(other.getNumRangesToBuffer());
         this.setRangeBufferTimeoutMillis(other.getRangeBufferTimeoutMillis());
@@ -710,6 +750,7 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.setIndexOnlyFilterFunctionsEnabled(other.isIndexOnlyFilterFunctionsEnabled());
         this.setCompositeFilterFunctionsEnabled(other.isCompositeFilterFunctionsEnabled());
         this.setGroupFieldsBatchSize(other.getGroupFieldsBatchSize());
+        this.setGroupFieldsMaxGroups(other.getGroupFieldsMaxGroups());
         this.setAccrueStats(other.getAccrueStats());
         this.setUniqueFields(UniqueFields.copyOf(other.getUniqueFields()));
         this.setCacheModel(other.getCacheModel());
@@ -735,6 +776,7 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.setEventNextSeek(other.getEventNextSeek());
         this.setTfFieldSeek(other.getTfFieldSeek());
         this.setTfNextSeek(other.getTfNextSeek());
+        this.setDocumentNextSeek(other.getDocumentNextSeek());
         this.setSeekingEventAggregation(other.isSeekingEventAggregation());
         this.setVisitorFunctionMaxWeight(other.getVisitorFunctionMaxWeight());
         this.setQueryExecutionForPageTimeout(other.getQueryExecutionForPageTimeout());
@@ -1110,6 +1152,22 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.debugMultithreadedSources = debugMultithreadedSources;
     }
 
+    public boolean isSharedScan() {
+        return sharedScan;
+    }
+
+    public void setSharedScan(boolean sharedScan) {
+        this.sharedScan = sharedScan;
+    }
+
+    public boolean isLazyAttributes() {
+        return lazyAttributes;
+    }
+
+    public void setLazyAttributes(boolean lazyAttributes) {
+        this.lazyAttributes = lazyAttributes;
+    }
+
     public boolean isSortGeoWaveQueryRanges() {
         return sortGeoWaveQueryRanges;
     }
@@ -1861,6 +1919,14 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         return "" + groupFieldsBatchSize;
     }
 
+    public int getGroupFieldsMaxGroups() {
+        return groupFieldsMaxGroups;
+    }
+
+    public void setGroupFieldsMaxGroups(int groupFieldsMaxGroups) {
+        this.groupFieldsMaxGroups = groupFieldsMaxGroups;
+    }
+
     public UniqueFields getUniqueFields() {
         return uniqueFields;
     }
@@ -2237,6 +2303,70 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.pruneQueryByIngestTypes = pruneQueryByIngestTypes;
     }
 
+    public boolean isUseGlobalIndexCache() {
+        return useGlobalIndexCache;
+    }
+
+    public void setUseGlobalIndexCache(boolean useGlobalIndexCache) {
+        this.useGlobalIndexCache = useGlobalIndexCache;
+    }
+
+    public long getGlobalIndexCacheRecentTtlMillis() {
+        return globalIndexCacheRecentTtlMillis;
+    }
+
+    public void setGlobalIndexCacheRecentTtlMillis(long globalIndexCacheRecentTtlMillis) {
+        this.globalIndexCacheRecentTtlMillis = globalIndexCacheRecentTtlMillis;
+    }
+
+    public boolean isAdaptiveRangeBundling() {
+        return adaptiveRangeBundling;
+    }
+
+    public void setAdaptiveRangeBundling(boolean adaptiveRangeBundling) {
+        this.adaptiveRangeBundling = adaptiveRangeBundling;
+    }
+
+    public long getRangeBundleTargetMillis() {
+        return rangeBundleTargetMillis;
+    }
+
+    public void setRangeBundleTargetMillis(long rangeBundleTargetMillis) {
+        this.rangeBundleTargetMillis = rangeBundleTargetMillis;
+    }
+
+    public boolean isUseCostBasedPlanning() {
+        return useCostBasedPlanning;
+    }
+
+    public void setUseCostBasedPlanning(boolean useCostBasedPlanning) {
+        this.useCostBasedPlanning = useCostBasedPlanning;
+    }
+
+    public double getCostBasedPushdownFactor() {
+        return costBasedPushdownFactor;
+    }
+
+    public void setCostBasedPushdownFactor(double costBasedPushdownFactor) {
+        this.costBasedPushdownFactor = costBasedPushdownFactor;
+    }
+
+    public boolean isUseScanAdmissionControl() {
+        return useScanAdmissionControl;
+    }
+
+    public void setUseScanAdmissionControl(boolean useScanAdmissionControl) {
+        this.useScanAdmissionControl = useScanAdmissionControl;
+    }
+
+    public long getScanAdmissionMaxWaitMillis() {
+        return scanAdmissionMaxWaitMillis;
+    }
+
+    public void setScanAdmissionMaxWaitMillis(long scanAdmissionMaxWaitMillis) {
+        this.scanAdmissionMaxWaitMillis = scanAdmissionMaxWaitMillis;
+    }
+
     public boolean getReduceQueryFields() {
         return reduceQueryFields;
     }
@@ -2654,6 +2784,14 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.tfNextSeek = tfNextSeek;
     }
 
+    public int getDocumentNextSeek() {
+        return documentNextSeek;
+    }
+
+    public void setDocumentNextSeek(int documentNextSeek) {
+        this.documentNextSeek = documentNextSeek;
+    }
+
     public boolean isSeekingEventAggregation() {
         return seekingEventAggregation;
     }
@@ -2817,6 +2955,14 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
                 getReduceIngestTypes() == that.getReduceIngestTypes() &&
                 getReduceIngestTypesPerShard() == that.getReduceIngestTypesPerShard() &&
                 getPruneQueryByIngestTypes() == that.getPruneQueryByIngestTypes() &&
+                isUseGlobalIndexCache() == that.isUseGlobalIndexCache() &&
+                getGlobalIndexCacheRecentTtlMillis() == that.getGlobalIndexCacheRecentTtlMillis() &&
+                isAdaptiveRangeBundling() == that.isAdaptiveRangeBundling() &&
+                getRangeBundleTargetMillis() == that.getRangeBundleTargetMillis() &&
+                isUseCostBasedPlanning() == that.isUseCostBasedPlanning() &&
+                Double.compare(that.getCostBasedPushdownFactor(), getCostBasedPushdownFactor()) == 0 &&
+                isUseScanAdmissionControl() == that.isUseScanAdmissionControl() &&
+                getScanAdmissionMaxWaitMillis() == that.getScanAdmissionMaxWaitMillis() &&
                 getReduceQueryFields() == that.getReduceQueryFields() &&
                 getReduceQueryFieldsPerShard() == that.getReduceQueryFieldsPerShard() &&
                 getReduceTypeMetadata() == that.getReduceTypeMetadata() &&
@@ -2836,6 +2982,8 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
                 getUnsortedUIDsEnabled() == that.getUnsortedUIDsEnabled() &&
                 getSerializeQueryIterator() == that.getSerializeQueryIterator() &&
                 isDebugMultithreadedSources() == that.isDebugMultithreadedSources() &&
+                isSharedScan() == that.isSharedScan() &&
+                isLazyAttributes() == that.isLazyAttributes() &&
                 isSortGeoWaveQueryRanges() == that.isSortGeoWaveQueryRanges() &&
                 getNumRangesToBuffer() == that.getNumRangesToBuffer() &&
                 getRangeBufferTimeoutMillis() == that.getRangeBufferTimeoutMillis() &&
@@ -2910,6 +3058,7 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
                 isIndexOnlyFilterFunctionsEnabled() == that.isIndexOnlyFilterFunctionsEnabled() &&
                 isCompositeFilterFunctionsEnabled() == that.isCompositeFilterFunctionsEnabled() &&
                 getGroupFieldsBatchSize() == that.getGroupFieldsBatchSize() &&
+                getGroupFieldsMaxGroups() == that.getGroupFieldsMaxGroups() &&
                 getAccrueStats() == that.getAccrueStats() &&
                 Objects.equals(getUniqueFields(), that.getUniqueFields()) &&
                 getCacheModel() == that.getCacheModel() &&
@@ -2991,6 +3140,7 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
                 getEventNextSeek() == that.getEventNextSeek() &&
                 getTfFieldSeek() == that.getTfFieldSeek() &&
                 getTfNextSeek() == that.getTfNextSeek() &&
+                getDocumentNextSeek() == that.getDocumentNextSeek() &&
                 isSeekingEventAggregation() == that.isSeekingEventAggregation() &&
                 getVisitorFunctionMaxWeight() == that.getVisitorFunctionMaxWeight() &&
                 getQueryExecutionForPageTimeout() == that.getQueryExecutionForPageTimeout() &&
@@ -3025,6 +3175,14 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
                 getReduceIngestTypes(),
                 getReduceIngestTypesPerShard(),
                 getPruneQueryByIngestTypes(),
+                isUseGlobalIndexCache(),
+                getGlobalIndexCacheRecentTtlMillis(),
+                isAdaptiveRangeBundling(),
+                getRangeBundleTargetMillis(),
+                isUseCostBasedPlanning(),
+                getCostBasedPushdownFactor(),
+                isUseScanAdmissionControl(),
+                getScanAdmissionMaxWaitMillis(),
                 getReduceQueryFields(),
                 getReduceQueryFieldsPerShard(),
                 getReduceTypeMetadata(),
@@ -3045,6 +3203,8 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
                 getUnsortedUIDsEnabled(),
                 getSerializeQueryIterator(),
                 isDebugMultithreadedSources(),
+                isSharedScan(),
+                isLazyAttributes(),
                 isSortGeoWaveQueryRanges(),
                 getNumRangesToBuffer(),
                 getRangeBufferTimeoutMillis(),
@@ -3176,6 +3336,7 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
                 isIndexOnlyFilterFunctionsEnabled(),
                 isCompositeFilterFunctionsEnabled(),
                 getGroupFieldsBatchSize(),
+                getGroupFieldsMaxGroups(),
                 getAccrueStats(),
                 getGroupFields(),
                 getUniqueFields(),
@@ -3196,6 +3357,7 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
                 getEventNextSeek(),
                 getTfFieldSeek(),
                 getTfNextSeek(),
+                getDocumentNextSeek(),
                 isSeekingEventAggregation(),
                 getVisitorFunctionMaxWeight(),
                 getQueryExecutionForPageTimeout(),
@@ -2,7 +2,6 @@ package datawave.query.edge;
 
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -149,8 +148,10 @@ public class DefaultExtendedEdgeQueryLogic extends EdgeQueryLogic {
         qData.setTableName(config.getTableName());
         qData.setRanges(ranges);
 
-        addIterators(qData, getDateBasedIterators(config.getBeginDate(), config.getEndDate(), currentIteratorPriority, config.getDateFilterSkipLimit(),
-                        config.getDateFilterScanLimit(), dateFilterType));
+        int dateIteratorPriority = currentIteratorPriority;
+        List<IteratorSetting> dateIterators = getDateBasedIterators(config.getBeginDate(), config.getEndDate(), currentIteratorPriority,
+                        config.getDateFilterSkipLimit(), config.getDateFilterScanLimit(), dateFilterType);
+        addIterators(qData, dateIterators);
 
         if (!normalizedQuery.equals("")) {
             if (log.isTraceEnabled()) {
@@ -186,7 +187,7 @@ public class DefaultExtendedEdgeQueryLogic extends EdgeQueryLogic {
 
         addCustomFilters(qData, currentIteratorPriority);
 
-        config.setQueries(Collections.singletonList(qData));
+        config.setQueries(planDateBuckets(config, qData, dateIterators.size(), dateIteratorPriority));
 
         return config;
     }
@@ -1,6 +1,7 @@
 package datawave.query.function;
 
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.apache.accumulo.core.data.Key;
 import org.apache.log4j.Logger;
@@ -35,6 +36,11 @@ public class Aggregation implements Function<Entry<DocumentData,Document>,Entry<
      */
     private boolean trackSizes = true;
 
+    /**
+     * the fields normalized when the document is aggregated, null for all fields
+     */
+    private Set<String> eagerFields = null;
+
     // Need to provide the mapping
     @SuppressWarnings("unused")
     private Aggregation() {}
@@ -58,6 +64,18 @@ public class Aggregation implements Function<Entry<DocumentData,Document>,Entry<
         this.trackSizes = trackSizes;
     }
 
+    /**
+     * Only normalize the values of the given fields when the document is aggregated, deferring the others until they are used
+     *
+     * @param eagerFields
+     *            the fields to normalize eagerly, or null to normalize all fields eagerly
+     * @return this aggregation
+     */
+    public Aggregation withEagerFields(Set<String> eagerFields) {
+        this.eagerFields = eagerFields;
+        return this;
+    }
+
     @Override
     public Entry<Key,Document> apply(Entry<DocumentData,Document> from) {
         DocumentData docData = from.getKey();
@@ -70,7 +88,7 @@ public class Aggregation implements Function<Entry<DocumentData,Document>,Entry<
         // Only load attributes for this document that fall within the expected date range
         Document d = new Document(docData.getKey(), docData.getDocKeys(), docData.isFromIndex(),
                         Iterators.filter(docData.getData().iterator(), timeFilter.getKeyValueTimeFilter()), this.typeMetadata, this.compositeMetadata,
-                        this.includeGroupingContext, this.includeRecordId, this.attrFilter, true, trackSizes);
+                        this.includeGroupingContext, this.includeRecordId, this.attrFilter, true, trackSizes, eagerFields);
 
         if (log.isTraceEnabled()) {
             log.trace("disable index only docs? " + disableIndexOnlyDocuments + " , size is " + d.size());
@@ -36,6 +36,9 @@ public class CardinalitySummation implements Function<Entry<Key,Document>,Entry<
 
     protected boolean merge = false;
 
+    // whether attributes have been added since the reference document was last rebuilt
+    private boolean summaryChanged = false;
+
     public CardinalitySummation(Key topKey, Document doc) {
         this(topKey, doc, false);
     }
@@ -58,85 +61,7 @@ public class CardinalitySummation implements Function<Entry<Key,Document>,Entry<
 
         for (Entry<?,?> attrE : currentAttr.entrySet()) {
             Entry<String,Attribute<?>> attr = (Entry<String,Attribute<?>>) attrE;
-
-            TreeMultimap<String,Attribute<?>> tmpMap = TreeMultimap.create();
-
-            if (attr.getValue() instanceof Attributes) {
-                Attributes attrs = (Attributes) attr.getValue();
-
-                NavigableSet<Attribute<? extends Comparable<?>>> attributes = newDocumentAttributes.get(attr.getKey());
-
-                for (Attribute<?> myAttribute : attrs.getAttributes()) {
-
-                    if (log.isTraceEnabled())
-                        log.trace("Attributes for " + attr.getKey() + " " + attributes.iterator().hasNext());
-
-                    if (!attributes.isEmpty()) {
-                        boolean foundAmongOthers = false;
-                        for (Attribute<?> thoseAttributes : attributes) {
-                            if (myAttribute instanceof Cardinality) {
-                                if (((Cardinality) myAttribute).equals(thoseAttributes)) {
-                                    Cardinality card = (Cardinality) thoseAttributes;
-                                    Cardinality otherCard = (Cardinality) myAttribute;
-
-                                    merge(card, otherCard, parser, merge);
-
-                                    if (log.isTraceEnabled())
-                                        log.trace("Offering to " + attr.getKey() + " value " + card.getContent().getFloorValue() + " "
-                                                        + card.getContent().getCeilingValue());
-                                    foundAmongOthers = true;
-                                    break;
-                                }
-                            } else
-                                throw new RuntimeException("Have " + myAttribute.getClass());
-                        }
-
-                        if (!foundAmongOthers) {
-                            if (log.isTraceEnabled())
-                                log.trace("put attributes " + attr.getKey() + " " + myAttribute.getData());
-                            tmpMap.put(attr.getKey(), myAttribute);
-                        }
-
-                        newDocumentAttributes.putAll(tmpMap);
-
-                    } else {
-                        if (log.isTraceEnabled())
-                            log.trace("adding attributes " + attr.getKey() + " " + myAttribute.getData());
-                        newDocumentAttributes.put(attr.getKey(), myAttribute);
-                    }
-
-                }
-            } else {
-                if (log.isTraceEnabled())
-                    log.trace("Testing " + attr.getKey() + " " + attr.getValue().getData());
-                NavigableSet<Attribute<? extends Comparable<?>>> attributes = newDocumentAttributes.get(attr.getKey());
-                Attribute<?> attribute = attributes.floor(attr.getValue());
-
-                boolean found = false;
-                for (Attribute<?> thoseAttributes : attributes) {
-                    if (thoseAttributes.equals(attr.getValue())) {
-                        if (log.isTraceEnabled())
-                            log.trace("found for " + attr.getKey() + " " + thoseAttributes.getData());
-                        Cardinality card = (Cardinality) thoseAttributes;
-                        Cardinality otherCard = (Cardinality) attr.getValue();
-
-                        merge(card, otherCard, parser, merge);
-
-                        found = true;
-                        break;
-                    } else {
-
-                    }
-                }
-
-                if (!found) {
-
-                    if (log.isTraceEnabled())
-                        log.trace("Don't have " + attr.getKey() + " " + attr.getValue().getData());
-                    newDocumentAttributes.put(attr.getKey(), attr.getValue());
-                }
-
-            }
+            add(attr.getKey(), attr.getValue(), parser);
         }
         referenceKey = topKey;
     }
@@ -147,12 +72,21 @@ public class CardinalitySummation implements Function<Entry<Key,Document>,Entry<
      * @see com.google.common.base.Function#apply(java.lang.Object)
      */
 
-    @SuppressWarnings("unchecked")
     @Override
     public Entry<Key,Document> apply(Entry<Key,Document> input) {
+        add(input);
+        return getTop();
+    }
 
-        Document currentDoc = new Document();
-
+    /**
+     * Merge the cardinalities of a document into the summary without rebuilding the summary document. Use this when only the final summary is needed, and
+     * retrieve it with {@link #getTop()}.
+     *
+     * @param input
+     *            the document to summarize
+     */
+    @SuppressWarnings("unchecked")
+    public void add(Entry<Key,Document> input) {
         Key topKey = input.getKey();
 
         // reduce the key to the document key pieces only and a max cq in order to ensure the top key
@@ -161,105 +95,70 @@ public class CardinalitySummation implements Function<Entry<Key,Document>,Entry<
 
         DatawaveKey parser = new DatawaveKey(topKey);
 
-        currentDoc = input.getValue();
-
-        Map<?,?> currentAttr = currentDoc.getDictionary();
+        Map<?,?> currentAttr = input.getValue().getDictionary();
 
         for (Entry<?,?> attrE : currentAttr.entrySet()) {
             Entry<String,Attribute<?>> attr = (Entry<String,Attribute<?>>) attrE;
-
-            TreeMultimap<String,Attribute<?>> tmpMap = TreeMultimap.create();
             if (!attr.getKey().equals(Document.DOCKEY_FIELD_NAME)) {
-                if (attr.getValue() instanceof Attributes) {
-                    Attributes attrs = (Attributes) attr.getValue();
-
-                    NavigableSet<Attribute<? extends Comparable<?>>> attributes = newDocumentAttributes.get(attr.getKey());
-
-                    for (Attribute<?> myAttribute : attrs.getAttributes()) {
-
-                        if (log.isTraceEnabled())
-                            log.trace("Attributes for " + attr.getKey() + " " + attributes.iterator().hasNext());
-
-                        if (!attributes.isEmpty()) {
-                            boolean foundAmongOthers = false;
-                            for (Attribute<?> thoseAttributes : attributes) {
-                                if (myAttribute instanceof Cardinality) {
-                                    if (((Cardinality) myAttribute).equals(thoseAttributes)) {
-                                        Cardinality card = (Cardinality) thoseAttributes;
-                                        Cardinality otherCard = (Cardinality) myAttribute;
-
-                                        merge(card, otherCard, parser, merge);
-
-                                        if (log.isTraceEnabled())
-                                            log.trace("Offering to " + attr.getKey() + " value " + card.getContent().getFloorValue() + " "
-                                                            + card.getContent().getCeilingValue());
-                                        foundAmongOthers = true;
-                                        break;
-                                    }
-                                } else
-                                    throw new RuntimeException("Have " + myAttribute.getClass());
-                            }
-
-                            if (!foundAmongOthers) {
-                                if (log.isTraceEnabled())
-                                    log.trace("put attributes " + attr.getKey() + " " + myAttribute.getData());
-                                tmpMap.put(attr.getKey(), myAttribute);
-                            }
-
-                            newDocumentAttributes.putAll(tmpMap);
-
-                        } else {
-                            if (log.isTraceEnabled())
-                                log.trace("adding attributes " + attr.getKey() + " " + myAttribute.getData());
-                            newDocumentAttributes.put(attr.getKey(), myAttribute);
-                        }
-
-                    }
-                } else {
-                    if (log.isTraceEnabled())
-                        log.trace("Testing " + attr.getKey() + " " + attr.getValue().getData());
-                    NavigableSet<Attribute<? extends Comparable<?>>> attributes = newDocumentAttributes.get(attr.getKey());
-                    Attribute<?> attribute = attributes.floor(attr.getValue());
-
-                    boolean found = false;
-                    for (Attribute<?> thoseAttributes : attributes) {
-                        if (thoseAttributes.equals(attr.getValue())) {
-                            if (log.isTraceEnabled())
-                                log.trace("found for " + attr.getKey() + " " + thoseAttributes.getData());
-                            Cardinality card = (Cardinality) thoseAttributes;
-                            Cardinality otherCard = (Cardinality) attr.getValue();
-
-                            merge(card, otherCard, parser, merge);
-
-                            found = true;
-                            break;
-                        } else {
-
-                        }
-                    }
-
-                    if (!found) {
-
-                        if (log.isTraceEnabled())
-                            log.trace("Don't have " + attr.getKey() + " " + attr.getValue().getData());
-                        newDocumentAttributes.put(attr.getKey(), attr.getValue());
-                    }
+                add(attr.getKey(), attr.getValue(), parser);
+            }
+        }
+
+        referenceKey = topKey;
+        summaryChanged = true;
+    }
 
+    private void add(String fieldName, Attribute<?> value, DatawaveKey parser) {
+        if (value instanceof Attributes) {
+            for (Attribute<?> myAttribute : ((Attributes) value).getAttributes()) {
+                NavigableSet<Attribute<? extends Comparable<?>>> attributes = newDocumentAttributes.get(fieldName);
+                if (!attributes.isEmpty() && !(myAttribute instanceof Cardinality)) {
+                    throw new RuntimeException("Have " + myAttribute.getClass());
                 }
+                addAttribute(fieldName, attributes, myAttribute, parser);
+            }
+        } else {
+            if (log.isTraceEnabled())
+                log.trace("Testing " + fieldName + " " + value.getData());
+            addAttribute(fieldName, newDocumentAttributes.get(fieldName), value, parser);
+        }
+    }
+
+    /**
+     * Merge an attribute into the matching cardinality for the field, or add it if there is none. The cardinalities for a field are held in a sorted set whose
+     * ordering is consistent with {@link Cardinality#equals(Object)}, so the match is found with a single ordered lookup rather than by comparing against every
+     * value already seen for the field.
+     */
+    @SuppressWarnings("unchecked")
+    private void addAttribute(String fieldName, NavigableSet<Attribute<? extends Comparable<?>>> attributes, Attribute<?> myAttribute, DatawaveKey parser) {
+        if (myAttribute instanceof Cardinality && !attributes.isEmpty()) {
+            Attribute<?> existing = attributes.ceiling((Attribute<? extends Comparable<?>>) myAttribute);
+            if (existing != null && existing.equals(myAttribute)) {
+                Cardinality card = (Cardinality) existing;
+
+                merge(card, (Cardinality) myAttribute, parser, merge);
+
+                if (log.isTraceEnabled())
+                    log.trace("Offering to " + fieldName + " value " + card.getContent().getFloorValue() + " " + card.getContent().getCeilingValue());
+                return;
             }
         }
 
-        referenceDocument = new Document();
-        if (log.isTraceEnabled())
-            log.trace("entries" + newDocumentAttributes.entries());
-        referenceDocument.putAll(newDocumentAttributes.entries().iterator(), false);
         if (log.isTraceEnabled())
-            log.trace("currentDoc" + referenceDocument);
-        referenceKey = topKey;
-        return Maps.immutableEntry(topKey, referenceDocument);
+            log.trace("adding attributes " + fieldName + " " + myAttribute.getData());
+        newDocumentAttributes.put(fieldName, (Attribute<? extends Comparable<?>>) myAttribute);
     }
 
     public Entry<Key,Document> getTop() {
+        if (summaryChanged) {
+            referenceDocument = new Document();
+            if (log.isTraceEnabled())
+                log.trace("entries" + newDocumentAttributes.entries());
+            referenceDocument.putAll(newDocumentAttributes.entries().iterator(), false);
+            if (log.isTraceEnabled())
+                log.trace("currentDoc" + referenceDocument);
+            summaryChanged = false;
+        }
         return Maps.immutableEntry(referenceKey, referenceDocument);
     }
 
@@ -12,6 +12,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 
 import org.apache.accumulo.core.data.ArrayByteSequence;
@@ -45,6 +46,12 @@ import datawave.webservice.query.exception.QueryException;
 
 /**
  * This class aggregates all event data for a given 'document key'.
+ * <p>
+ * By default the source is seeked to the range of each document. When a {@link #withDocumentNextSeek(int) document next seek} is set, the source is instead
+ * seeked through the rest of the shard and left just after the document, so that the following documents of the shard, which arrive in key order, are
+ * reached by calling next on the same sweep. A seek is only issued when the next document is further away than the configured number of next calls, or when
+ * the sweep was interrupted by a seek of the {@link EventDataQueryFilter} or of the descendant count function. Nothing else may move the source between
+ * documents when reading ahead.
  */
 public class KeyToDocumentData implements Function<Entry<Key,Document>,Entry<DocumentData,Document>> {
 
@@ -72,6 +79,15 @@ public class KeyToDocumentData implements Function<Entry<Key,Document>,Entry<Doc
     private long aggregationStop;
     private int aggregationThreshold;
 
+    // the number of next calls made to reach the next document before a seek is issued, disabled when not positive
+    private int documentNextSeek = -1;
+
+    // the range of the last document if the source was left by a sweep at the first key after it, null otherwise
+    private Range sweptRange = null;
+
+    // whether the source was seeked past the end of the current document
+    private boolean sweeping = false;
+
     public KeyToDocumentData(SortedKeyValueIterator<Key,Value> source) {
         this(source, new PrefixEquality(PartialKey.ROW_COLFAM), false, false);
     }
@@ -133,6 +149,18 @@ public class KeyToDocumentData implements Function<Entry<Key,Document>,Entry<Doc
         return this;
     }
 
+    /**
+     * Builder-style method for setting the number of next calls made to reach the next document before a seek is issued
+     *
+     * @param documentNextSeek
+     *            the number of next calls, read ahead is disabled when not positive
+     * @return this object
+     */
+    public KeyToDocumentData withDocumentNextSeek(int documentNextSeek) {
+        this.documentNextSeek = documentNextSeek;
+        return this;
+    }
+
     /**
      * Append hierarchy fields, including parent and descendant counts, based on the specified range and key
      *
@@ -161,7 +189,12 @@ public class KeyToDocumentData implements Function<Entry<Key,Document>,Entry<Doc
 
         try {
             logStart();
-            source.seek(keyRange, columnFamilies, false);
+            sweeping = readAhead(keyRange);
+            if (!sweeping) {
+                Range seekRange = getSweepRange(keyRange);
+                source.seek(seekRange, columnFamilies, false);
+                sweeping = seekRange != keyRange;
+            }
 
             if (log.isDebugEnabled())
                 log.debug(source.hasTop() + " Key range is " + keyRange);
@@ -169,12 +202,18 @@ public class KeyToDocumentData implements Function<Entry<Key,Document>,Entry<Doc
             final List<Entry<Key,Value>> attrs; // Assign only once for
             // efficiency
             final Set<Key> docKeys = new HashSet<>();
-            if (source.hasTop()) {
+            if (source.hasTop() && !keyRange.afterEndKey(source.getTopKey())) {
                 attrs = this.collectDocumentAttributes(from.getKey(), docKeys, keyRange);
                 this.appendHierarchyFields(attrs, keyRange, from.getKey());
+                if (countFunction != null) {
+                    // the descendant count function shares the source
+                    sweptRange = null;
+                }
             } else {
                 attrs = Collections.emptyList();
+                sweptRange = sweeping ? keyRange : null;
             }
+            sweeping = false;
 
             logStop(keyRange.getStartKey());
             return Maps.immutableEntry(new DocumentData(from.getKey(), docKeys, attrs, false), from.getValue());
@@ -205,6 +244,8 @@ public class KeyToDocumentData implements Function<Entry<Key,Document>,Entry<Doc
             filter.startNewDocument(documentStartKey);
         }
 
+        sweptRange = null;
+
         final List<Entry<Key,Value>> documentAttributes;
         if (null == documentStartKey) {
             documentAttributes = Collections.emptyList();
@@ -212,8 +253,9 @@ public class KeyToDocumentData implements Function<Entry<Key,Document>,Entry<Doc
             documentAttributes = new ArrayList<>(256);
             WeakReference<Key> docAttrKey = new WeakReference<>(source.getTopKey());
 
+            boolean seeked = false;
             while (docAttrKey != null) {
-                boolean seeked = false;
+                seeked = false;
                 if (equality.partOf(documentStartKey, docAttrKey.get())) {
                     if (filter == null || filter.keep(docAttrKey.get())) {
                         docKeys.add(getDocKey(docAttrKey.get()));
@@ -229,6 +271,14 @@ public class KeyToDocumentData implements Function<Entry<Key,Document>,Entry<Doc
                         // request a seek range from the filter
                         Range seekRange = filter.getSeekRange(docAttrKey.get(), keyRange.getEndKey(), keyRange.isEndKeyInclusive());
                         if (seekRange != null) {
+                            // keep sweeping past the document if the filter seeks to its end, otherwise the sweep is over
+                            if (sweeping) {
+                                if (Objects.equals(seekRange.getEndKey(), keyRange.getEndKey())) {
+                                    seekRange = getSweepRange(seekRange);
+                                } else {
+                                    sweeping = false;
+                                }
+                            }
                             source.seek(seekRange, columnFamilies, false);
                             seeked = true;
                         }
@@ -240,13 +290,18 @@ public class KeyToDocumentData implements Function<Entry<Key,Document>,Entry<Doc
                     source.next();
                 }
 
-                if (source.hasTop()) {
+                if (source.hasTop() && !keyRange.afterEndKey(source.getTopKey())) {
                     docAttrKey = new WeakReference<>(source.getTopKey());
                 } else {
                     docAttrKey = null;
                 }
 
             }
+
+            // a seek may have skipped keys after the document, so only a sweep ended by next is left in place for the following document
+            if (sweeping && !seeked) {
+                sweptRange = keyRange;
+            }
         }
         if (log.isTraceEnabled()) {
             log.trace("Document attributes: " + documentAttributes);
@@ -254,6 +309,56 @@ public class KeyToDocumentData implements Function<Entry<Key,Document>,Entry<Doc
         return documentAttributes;
     }
 
+    /**
+     * Get the range to seek for a document. When reading ahead, this extends the document range to the end of its shard so that the source can be left after
+     * the document for the following one.
+     *
+     * @param keyRange
+     *            the document range
+     * @return the range to seek
+     */
+    private Range getSweepRange(Range keyRange) {
+        if (documentNextSeek <= 0 || keyRange.getStartKey() == null) {
+            return keyRange;
+        }
+        Key rowEnd = keyRange.getStartKey().followingKey(PartialKey.ROW);
+        if (keyRange.getEndKey() == null || keyRange.getEndKey().compareTo(rowEnd) > 0) {
+            return keyRange;
+        }
+        return new Range(keyRange.getStartKey(), keyRange.isStartKeyInclusive(), rowEnd, false);
+    }
+
+    /**
+     * Move the source to a document by calling next from where the previous document left it, if that is in the same shard before the document and within the
+     * configured number of next calls.
+     *
+     * @param keyRange
+     *            the document range
+     * @return true if the source is positioned at the document, false if a seek is required
+     * @throws IOException
+     *             for issues with read/write
+     */
+    private boolean readAhead(Range keyRange) throws IOException {
+        Range lastRange = sweptRange;
+        sweptRange = null;
+        if (lastRange == null || keyRange.getStartKey() == null) {
+            return false;
+        }
+        Key startKey = keyRange.getStartKey();
+        if (!startKey.getRowData().equals(lastRange.getStartKey().getRowData()) || !lastRange.afterEndKey(startKey)) {
+            return false;
+        }
+
+        int nexts = 0;
+        while (source.hasTop() && keyRange.beforeStartKey(source.getTopKey())) {
+            if (++nexts > documentNextSeek) {
+                return false;
+            }
+            source.next();
+        }
+        return true;
+    }
+
     // map the key to the dockey (only shard, datatype, uid)
     public static Key getDocKey(Key key) {
         final ByteSequence row = key.getRowData();
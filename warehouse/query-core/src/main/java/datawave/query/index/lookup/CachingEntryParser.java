@@ -0,0 +1,86 @@
+package datawave.query.index.lookup;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.commons.jexl3.parser.ASTEQNode;
+
+import com.google.common.collect.AbstractIterator;
+
+import datawave.core.query.configuration.Result;
+import datawave.query.util.Tuple2;
+
+/**
+ * An {@link EntryParser} which records the entries it parses so that a complete global index lookup can be added to the {@link GlobalIndexResultCache}. The
+ * owning {@link ScannerStream} calls {@link #complete()} once the scan is exhausted, and {@link #abandon()} if it seeks past any entries, in which case the
+ * lookup is not cached. When the scan is merged with cached days it is parsed with {@link #parse(Iterator)} instead, which completes the lookup itself.
+ */
+public class CachingEntryParser extends EntryParser {
+
+    private final GlobalIndexResultCache cache;
+    private final GlobalIndexResultCache.CacheKey cacheKey;
+    private final long recentTtlMillis;
+
+    private List<Result> results = new ArrayList<>();
+
+    public CachingEntryParser(ASTEQNode node, String fieldName, String literal, Set<String> indexOnlyFields, GlobalIndexResultCache cache,
+                    GlobalIndexResultCache.CacheKey cacheKey, long recentTtlMillis) {
+        super(node, fieldName, literal, indexOnlyFields);
+        this.cache = cache;
+        this.cacheKey = cacheKey;
+        this.recentTtlMillis = recentTtlMillis;
+    }
+
+    @Override
+    public Tuple2<String,IndexInfo> apply(Result entry) {
+        if (results != null) {
+            if (results.size() < cache.getMaxEntriesPerLookup()) {
+                results.add(new Result(new Key(entry.getKey()), new Value(entry.getValue())));
+            } else {
+                results = null;
+            }
+        }
+        return super.apply(entry);
+    }
+
+    /**
+     * Parse the entries of a scan, caching the lookup once the entries are exhausted
+     *
+     * @param entries
+     *            the scanned entries
+     * @return the parsed entries
+     */
+    public Iterator<Tuple2<String,IndexInfo>> parse(Iterator<Result> entries) {
+        return new AbstractIterator<Tuple2<String,IndexInfo>>() {
+            @Override
+            protected Tuple2<String,IndexInfo> computeNext() {
+                if (entries.hasNext()) {
+                    return apply(entries.next());
+                }
+                complete();
+                return endOfData();
+            }
+        };
+    }
+
+    /**
+     * Do not cache this lookup, the entries seen are not all of the entries for the term
+     */
+    public void abandon() {
+        results = null;
+    }
+
+    /**
+     * Cache this lookup if every entry for the term was seen
+     */
+    public void complete() {
+        if (results != null) {
+            cache.put(cacheKey, results, recentTtlMillis);
+            results = null;
+        }
+    }
+}
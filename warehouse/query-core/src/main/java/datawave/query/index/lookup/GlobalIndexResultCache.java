@@ -0,0 +1,400 @@
+package datawave.query.index.lookup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.log4j.Logger;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import datawave.core.query.configuration.Result;
+import datawave.util.time.DateHelper;
+
+/**
+ * A webserver side cache of global index lookups for single terms, see {@link RangeStream#visit(org.apache.commons.jexl3.parser.ASTEQNode, Object)}. The same
+ * selective terms are often looked up over and over again by dashboards and alerts, so the entries returned by the index scan for a term are kept and replayed
+ * through a new {@link EntryParser} for later queries instead of scanning the index again.
+ * <p>
+ * Lookups are keyed by everything that determines the entries returned by the scan: the index table, the field and normalized value, the datatype filter, the
+ * days searched, the authorizations and the uid iterator options. The entries of a lookup are cached per day and merged in day order on read, so a lookup can
+ * reuse the days cached by an earlier lookup over an overlapping date range. A day in the past can only change through late arriving data and is kept until
+ * it is evicted or the closed day TTL elapses, while the current and previous day are only reused for a short time.
+ * <p>
+ * A single instance is shared by all queries in the webserver, see {@link #getInstance()}. The hit and miss counts are logged every
+ * {@link #STATS_LOG_INTERVAL} lookups.
+ */
+public class GlobalIndexResultCache {
+
+    private static final Logger log = Logger.getLogger(GlobalIndexResultCache.class);
+
+    public static final long DEFAULT_MAX_WEIGHT = 64L * 1024L * 1024L;
+    public static final long DEFAULT_CLOSED_DAY_TTL_MILLIS = TimeUnit.DAYS.toMillis(1);
+    public static final int DEFAULT_MAX_ENTRIES_PER_LOOKUP = 10000;
+    public static final int DEFAULT_MAX_DAYS_PER_LOOKUP = 366;
+    public static final long STATS_LOG_INTERVAL = 1000L;
+
+    // approximate per object overhead used when weighing the cached entries
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private static final GlobalIndexResultCache INSTANCE = new GlobalIndexResultCache(DEFAULT_MAX_WEIGHT, DEFAULT_CLOSED_DAY_TTL_MILLIS);
+
+    private final Cache<CacheKey,CachedDay> cache;
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong fullHits = new AtomicLong();
+    private final AtomicLong partialHits = new AtomicLong();
+
+    private int maxEntriesPerLookup = DEFAULT_MAX_ENTRIES_PER_LOOKUP;
+    private int maxDaysPerLookup = DEFAULT_MAX_DAYS_PER_LOOKUP;
+
+    /**
+     * @param maxWeight
+     *            the approximate maximum size of the cached entries in bytes
+     * @param closedDayTtlMillis
+     *            how long a day in the past may be reused
+     */
+    public GlobalIndexResultCache(long maxWeight, long closedDayTtlMillis) {
+        // @formatter:off
+        this.cache = CacheBuilder.newBuilder()
+                        .maximumWeight(maxWeight)
+                        .weigher((CacheKey key, CachedDay day) -> key.weight() + day.weight())
+                        .expireAfterWrite(closedDayTtlMillis, TimeUnit.MILLISECONDS)
+                        .recordStats()
+                        .build();
+        // @formatter:on
+    }
+
+    /**
+     * @return the cache shared by all queries
+     */
+    public static GlobalIndexResultCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the cached entries for a lookup if every day of the lookup is cached
+     *
+     * @param key
+     *            the lookup
+     * @return the entries in the order they were scanned, or null if any day of the lookup is not cached
+     */
+    public List<Result> get(CacheKey key) {
+        SortedMap<String,List<Result>> days = getCachedDays(key);
+        return days.size() == key.getDays().size() ? merge(days.values()) : null;
+    }
+
+    /**
+     * Get the cached days of a lookup
+     *
+     * @param key
+     *            the lookup
+     * @return the entries of each cached day of the lookup in day order, which is empty for a day without entries. A day which is not cached is absent.
+     */
+    public SortedMap<String,List<Result>> getCachedDays(CacheKey key) {
+        SortedMap<String,List<Result>> days = new TreeMap<>();
+        List<String> lookupDays = key.getDays();
+        if (lookupDays.size() <= maxDaysPerLookup) {
+            long now = System.currentTimeMillis();
+            for (String day : lookupDays) {
+                CacheKey dayKey = key.forDays(day, day);
+                CachedDay cached = cache.getIfPresent(dayKey);
+                if (cached != null && cached.expiresAt < now) {
+                    cache.invalidate(dayKey);
+                    cached = null;
+                }
+                if (cached != null) {
+                    days.put(day, cached.results);
+                }
+            }
+        }
+
+        if (days.size() == lookupDays.size()) {
+            fullHits.incrementAndGet();
+        } else if (!days.isEmpty()) {
+            partialHits.incrementAndGet();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Global index cache has " + days.size() + " of " + lookupDays.size() + " days for " + key);
+        }
+        if (lookups.incrementAndGet() % STATS_LOG_INTERVAL == 0) {
+            logStats();
+        }
+        return days;
+    }
+
+    /**
+     * Merge the entries of several days
+     *
+     * @param days
+     *            the entries of each day, in day order
+     * @return the entries of all of the days
+     */
+    public static List<Result> merge(Collection<List<Result>> days) {
+        List<Result> merged = new ArrayList<>();
+        for (List<Result> day : days) {
+            merged.addAll(day);
+        }
+        return merged;
+    }
+
+    /**
+     * Cache the entries for a lookup, one cache entry for each of its days. The entries must be all of the entries returned by the scan for the lookup.
+     *
+     * @param key
+     *            the lookup
+     * @param results
+     *            the scanned entries
+     * @param recentTtlMillis
+     *            how long the current and previous day may be reused
+     */
+    public void put(CacheKey key, List<Result> results, long recentTtlMillis) {
+        List<String> lookupDays = key.getDays();
+        if (results.size() > maxEntriesPerLookup || lookupDays.size() > maxDaysPerLookup) {
+            return;
+        }
+
+        Map<String,List<Result>> days = new HashMap<>();
+        for (String day : lookupDays) {
+            days.put(day, new ArrayList<>());
+        }
+        for (Result result : results) {
+            List<Result> day = days.get(getDay(result));
+            if (day == null) {
+                log.warn("Not caching " + key + ", found an entry outside of its days: " + result.getKey());
+                return;
+            }
+            day.add(result);
+        }
+
+        long now = System.currentTimeMillis();
+        String openDay = DateHelper.format(new Date(now - TimeUnit.DAYS.toMillis(1)));
+        for (String day : lookupDays) {
+            long expiresAt = day.compareTo(openDay) >= 0 ? now + recentTtlMillis : Long.MAX_VALUE;
+            if (expiresAt > now) {
+                cache.put(key.forDays(day, day), new CachedDay(days.get(day), expiresAt));
+            }
+        }
+    }
+
+    /**
+     * Get the day of an entry returned by the index scan, whose column qualifier is the shard or the day
+     */
+    private static String getDay(Result result) {
+        String shard = result.getKey().getColumnQualifier().toString();
+        int splitIndex = shard.indexOf('_');
+        return splitIndex > 0 ? shard.substring(0, splitIndex) : shard;
+    }
+
+    /**
+     * Log the hit and miss counts of this cache
+     */
+    public void logStats() {
+        log.info("Global index cache lookups: " + lookups.get() + ", full hits: " + fullHits.get() + ", partial hits: " + partialHits.get() + ", days cached: "
+                        + cache.size() + ", " + cache.stats());
+    }
+
+    /**
+     * @return the hit, miss and eviction counts of the cached days
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * @return the number of cached days
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public int getMaxEntriesPerLookup() {
+        return maxEntriesPerLookup;
+    }
+
+    public void setMaxEntriesPerLookup(int maxEntriesPerLookup) {
+        this.maxEntriesPerLookup = maxEntriesPerLookup;
+    }
+
+    public int getMaxDaysPerLookup() {
+        return maxDaysPerLookup;
+    }
+
+    public void setMaxDaysPerLookup(int maxDaysPerLookup) {
+        this.maxDaysPerLookup = maxDaysPerLookup;
+    }
+
+    /**
+     * The identity of a global index lookup for a single term
+     */
+    public static class CacheKey {
+        private final String tableName;
+        private final String field;
+        private final String value;
+        private final Set<String> datatypes;
+        private final String beginDay;
+        private final String endDay;
+        private final Set<String> auths;
+        private final String options;
+        private final int hashCode;
+        private List<String> days;
+
+        /**
+         * @param tableName
+         *            the global index table
+         * @param field
+         *            the field
+         * @param value
+         *            the normalized value
+         * @param datatypes
+         *            the datatype filter, empty for all datatypes
+         * @param begin
+         *            the begin date
+         * @param end
+         *            the end date
+         * @param authorizations
+         *            the authorizations used for the scan
+         * @param options
+         *            the options of the iterators which build the entries
+         */
+        public CacheKey(String tableName, String field, String value, Collection<String> datatypes, Date begin, Date end,
+                        Collection<Authorizations> authorizations, String options) {
+            this(tableName, field, value, datatypes == null ? Collections.emptySet() : Collections.unmodifiableSet(new TreeSet<>(datatypes)),
+                            DateHelper.format(begin), DateHelper.format(end), toAuths(authorizations), options);
+        }
+
+        private CacheKey(String tableName, String field, String value, Set<String> datatypes, String beginDay, String endDay, Set<String> auths,
+                        String options) {
+            this.tableName = tableName;
+            this.field = field;
+            this.value = value;
+            this.datatypes = datatypes;
+            this.beginDay = beginDay;
+            this.endDay = endDay;
+            this.auths = auths;
+            this.options = options;
+            this.hashCode = Objects.hash(tableName, field, value, datatypes, beginDay, endDay, auths, options);
+        }
+
+        private static Set<String> toAuths(Collection<Authorizations> authorizations) {
+            Set<String> auths = new TreeSet<>();
+            if (authorizations != null) {
+                for (Authorizations authorization : authorizations) {
+                    List<String> sorted = new ArrayList<>();
+                    for (byte[] auth : authorization.getAuthorizations()) {
+                        sorted.add(new String(auth, StandardCharsets.UTF_8));
+                    }
+                    Collections.sort(sorted);
+                    auths.add(String.join(",", sorted));
+                }
+            }
+            return Collections.unmodifiableSet(auths);
+        }
+
+        /**
+         * Get the same lookup over other days
+         *
+         * @param beginDay
+         *            the first day, as yyyyMMdd
+         * @param endDay
+         *            the last day, as yyyyMMdd
+         * @return the lookup
+         */
+        public CacheKey forDays(String beginDay, String endDay) {
+            return new CacheKey(tableName, field, value, datatypes, beginDay, endDay, auths, options);
+        }
+
+        /**
+         * @return the days searched by this lookup as yyyyMMdd, in order
+         */
+        public List<String> getDays() {
+            if (days == null) {
+                List<String> days = new ArrayList<>();
+                long end = DateHelper.parse(endDay).getTime();
+                for (long day = DateHelper.parse(beginDay).getTime(); day <= end; day += TimeUnit.DAYS.toMillis(1)) {
+                    days.add(DateHelper.format(new Date(day)));
+                }
+                this.days = Collections.unmodifiableList(days);
+            }
+            return days;
+        }
+
+        int weight() {
+            int weight = ENTRY_OVERHEAD + tableName.length() + field.length() + value.length() + options.length() + 2 * beginDay.length();
+            for (String datatype : datatypes) {
+                weight += datatype.length();
+            }
+            for (String auth : auths) {
+                weight += auth.length();
+            }
+            return weight;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return hashCode == other.hashCode && tableName.equals(other.tableName) && field.equals(other.field) && value.equals(other.value)
+                            && datatypes.equals(other.datatypes) && beginDay.equals(other.beginDay) && endDay.equals(other.endDay)
+                            && auths.equals(other.auths) && options.equals(other.options);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            return tableName + " " + field + " == '" + value + "' " + datatypes + " [" + beginDay + "," + endDay + "]";
+        }
+    }
+
+    private static class CachedDay {
+        private final List<Result> results;
+        private final long expiresAt;
+        private final int weight;
+
+        CachedDay(List<Result> results, long expiresAt) {
+            this.results = Collections.unmodifiableList(new ArrayList<>(results));
+            this.expiresAt = expiresAt;
+            int weight = ENTRY_OVERHEAD;
+            for (Result result : results) {
+                Key key = result.getKey();
+                Value value = result.getValue();
+                weight += ENTRY_OVERHEAD + key.getSize() + (value == null ? 0 : value.getSize());
+            }
+            this.weight = weight;
+        }
+
+        int weight() {
+            return weight;
+        }
+    }
+}
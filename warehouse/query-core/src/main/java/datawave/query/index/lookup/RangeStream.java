@@ -24,6 +24,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -68,6 +69,7 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 
 import datawave.core.common.logging.ThreadConfigurableLogger;
+import datawave.core.query.configuration.Result;
 import datawave.data.type.Type;
 import datawave.query.CloseableIterable;
 import datawave.query.Constants;
@@ -129,6 +131,8 @@ public class RangeStream extends BaseVisitor implements CloseableIterable<QueryP
 
     protected UidIntersector uidIntersector = new IndexInfo();
 
+    protected GlobalIndexResultCache globalIndexCache = GlobalIndexResultCache.getInstance();
+
     /**
      * Intended to reduce the cost of repeated calls to helper.getAllFields
      */
@@ -553,6 +557,18 @@ public class RangeStream extends BaseVisitor implements CloseableIterable<QueryP
 
         // Final case, field is indexed
         log.debug("\"" + fieldName + "\" is indexed. for " + literal);
+
+        GlobalIndexResultCache.CacheKey cacheKey = null;
+        SortedMap<String,List<Result>> cachedDays = Collections.emptySortedMap();
+        if (config.isUseGlobalIndexCache()) {
+            cacheKey = createCacheKey(fieldName, literal);
+            cachedDays = globalIndexCache.getCachedDays(cacheKey);
+            if (cachedDays.size() == cacheKey.getDays().size()) {
+                EntryParser entryParser = new EntryParser(node, fieldName, literal, indexOnlyFields);
+                return ScannerStream.initialized(transform(GlobalIndexResultCache.merge(cachedDays.values()).iterator(), entryParser), node);
+            }
+        }
+
         try {
 
             int stackStart = config.getBaseIteratorPriority();
@@ -565,8 +581,24 @@ public class RangeStream extends BaseVisitor implements CloseableIterable<QueryP
 
             final IteratorSetting uidSetting;
 
-            // Create the range for the term from the provided config.
-            Range range = rangeForTerm(literal, fieldName, config);
+            // Create the range for the term from the provided config, or only over the days which are not cached
+            Range range;
+            String firstScannedDay = null;
+            String lastScannedDay = null;
+            if (cachedDays.isEmpty()) {
+                range = rangeForTerm(literal, fieldName, config);
+            } else {
+                for (String day : cacheKey.getDays()) {
+                    if (!cachedDays.containsKey(day)) {
+                        if (firstScannedDay == null) {
+                            firstScannedDay = day;
+                        }
+                        lastScannedDay = day;
+                    }
+                }
+                cacheKey = cacheKey.forDays(firstScannedDay, lastScannedDay);
+                range = rangeForTerm(literal, fieldName, DateHelper.parse(firstScannedDay), DateHelper.parse(lastScannedDay));
+            }
 
             if (limitScanners) {
                 // Setup the CreateUidsIterator
@@ -608,7 +640,22 @@ public class RangeStream extends BaseVisitor implements CloseableIterable<QueryP
             scannerSession.setRanges(Collections.singleton(range));
 
             // Create the EntryParser prior to ScannerStream.
-            EntryParser entryParser = new EntryParser(node, fieldName, literal, indexOnlyFields);
+            EntryParser entryParser;
+            if (cacheKey != null) {
+                entryParser = new CachingEntryParser(node, fieldName, literal, indexOnlyFields, globalIndexCache, cacheKey,
+                                config.getGlobalIndexCacheRecentTtlMillis());
+            } else {
+                entryParser = new EntryParser(node, fieldName, literal, indexOnlyFields);
+            }
+
+            if (!cachedDays.isEmpty()) {
+                // merge the scanned days with the cached days around them, which gives up seeking the scanner for the term
+                EntryParser cachedParser = new EntryParser(node, fieldName, literal, indexOnlyFields);
+                Iterator<Result> before = GlobalIndexResultCache.merge(cachedDays.headMap(firstScannedDay).values()).iterator();
+                Iterator<Result> after = GlobalIndexResultCache.merge(cachedDays.tailMap(lastScannedDay).values()).iterator();
+                return ScannerStream.initialized(concat(transform(before, cachedParser), ((CachingEntryParser) entryParser).parse(scannerSession),
+                                transform(after, cachedParser)), node);
+            }
 
             return ScannerStream.initialized(scannerSession, entryParser, node);
 
@@ -814,6 +861,23 @@ public class RangeStream extends BaseVisitor implements CloseableIterable<QueryP
         return null;
     }
 
+    /**
+     * Create the key of a global index lookup for the {@link GlobalIndexResultCache}. Everything that changes the entries returned by the lookup is included.
+     *
+     * @param fieldName
+     *            the field
+     * @param literal
+     *            the normalized value
+     * @return the cache key
+     */
+    protected GlobalIndexResultCache.CacheKey createCacheKey(String fieldName, String literal) {
+        String options = createUidsIteratorClass.getName() + ',' + limitScanners + ',' + collapseUids + ',' + config.getParseTldUids() + ',' + fieldCounts
+                        + ',' + termCounts;
+        return new GlobalIndexResultCache.CacheKey(config.getIndexTableName(), fieldName, literal,
+                        Arrays.asList(StringUtils.split(config.getDatatypeFilterAsString(), ',')), config.getBeginDate(), config.getEndDate(),
+                        config.getAuthorizations(), options);
+    }
+
     public Range rangeForTerm(String term, String field, ShardQueryConfiguration config) {
         return rangeForTerm(term, field, config.getBeginDate(), config.getEndDate());
     }
@@ -941,6 +1005,15 @@ public class RangeStream extends BaseVisitor implements CloseableIterable<QueryP
         return this;
     }
 
+    public GlobalIndexResultCache getGlobalIndexCache() {
+        return globalIndexCache;
+    }
+
+    public RangeStream setGlobalIndexCache(GlobalIndexResultCache globalIndexCache) {
+        this.globalIndexCache = globalIndexCache;
+        return this;
+    }
+
     protected Set<String> getAllFieldsFromHelper() throws TableNotFoundException {
         if (this.helperAllFieldsCache.isEmpty()) {
             this.helperAllFieldsCache = this.metadataHelper.getAllFields(this.config.getDatatypeFilter());
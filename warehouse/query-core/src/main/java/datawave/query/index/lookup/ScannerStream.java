@@ -113,6 +113,16 @@ public class ScannerStream extends BaseIndexStream {
         return new ScannerStream(scannerStream, entryParser, StreamContext.INITIALIZED, currNode, null);
     }
 
+    @Override
+    public boolean hasNext() {
+        boolean hasNext = super.hasNext();
+        if (!hasNext && entryParser instanceof CachingEntryParser) {
+            // every entry for the term has been seen
+            ((CachingEntryParser) entryParser).complete();
+        }
+        return hasNext;
+    }
+
     /**
      * Seek this ScannerStream to the specified shard.
      *
@@ -125,6 +135,9 @@ public class ScannerStream extends BaseIndexStream {
     @Override
     public String seek(String seekShard) {
         if (rangeStreamScanner != null) {
+            if (entryParser instanceof CachingEntryParser) {
+                ((CachingEntryParser) entryParser).abandon();
+            }
 
             String seekedShard = rangeStreamScanner.seek(seekShard);
             if (seekedShard == null) {
@@ -3,11 +3,8 @@ package datawave.query.iterator;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.util.AbstractMap;
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -31,6 +28,10 @@ import datawave.query.common.grouping.Groups;
 /**
  * Because the t-server may tear down and start a new iterator at any time after a next() call, there can be no saved state in this class. For that reason, each
  * next call on the t-server will flatten the aggregated data into a single Entry&gt;Key,Document&lt; to return to the web server.
+ * <p>
+ * Documents are aggregated into a hash table of groups, which is flushed as a partial aggregate once the batch size is reached, once the table holds the
+ * maximum number of distinct groups, or when the source is exhausted or yields. The flattened document is keyed by the most recent key read, which is all a new
+ * iterator needs to resume, so no other keys are retained between calls.
  */
 public class GroupingIterator implements Iterator<Map.Entry<Key,Document>> {
 
@@ -47,14 +48,16 @@ public class GroupingIterator implements Iterator<Map.Entry<Key,Document>> {
     private final Groups groups;
 
     /**
-     * list of keys that have been read, in order to keep track of where we left off when a new iterator is created
+     * the most recent key that has been read, in order to keep track of where we left off when a new iterator is created
      */
-    private final List<Key> keys = new ArrayList<>();
+    private Key lastKey;
 
     private final MarkingFunctions markingFunctions;
 
     private final int groupFieldsBatchSize;
 
+    private final int maxGroups;
+
     private final YieldCallback<Key> yieldCallback;
 
     private final Iterator<Map.Entry<Key,Document>> previousIterators;
@@ -63,29 +66,35 @@ public class GroupingIterator implements Iterator<Map.Entry<Key,Document>> {
 
     public GroupingIterator(Iterator<Map.Entry<Key,Document>> previousIterators, MarkingFunctions markingFunctions, GroupFields groupFields,
                     int groupFieldsBatchSize, YieldCallback<Key> yieldCallback) {
+        this(previousIterators, markingFunctions, groupFields, groupFieldsBatchSize, Integer.MAX_VALUE, yieldCallback);
+    }
+
+    public GroupingIterator(Iterator<Map.Entry<Key,Document>> previousIterators, MarkingFunctions markingFunctions, GroupFields groupFields,
+                    int groupFieldsBatchSize, int maxGroups, YieldCallback<Key> yieldCallback) {
         this.previousIterators = previousIterators;
         this.markingFunctions = markingFunctions;
         this.groupFields = groupFields;
         this.groupFieldsBatchSize = groupFieldsBatchSize;
+        this.maxGroups = maxGroups > 0 ? maxGroups : Integer.MAX_VALUE;
         this.yieldCallback = yieldCallback;
         this.groups = new Groups();
     }
 
     @Override
     public boolean hasNext() {
-        for (int i = 0; i < groupFieldsBatchSize; i++) {
+        for (int i = 0; i < groupFieldsBatchSize && groups.totalGroups() < maxGroups; i++) {
             if (previousIterators.hasNext()) {
                 Map.Entry<Key,Document> entry = previousIterators.next();
                 if (entry != null) {
                     log.trace("t-server get list key counts for: {}", entry);
-                    keys.add(entry.getKey());
+                    lastKey = entry.getKey();
                     DocumentGrouper.group(entry, groupFields, groups);
                 }
             } else if (yieldCallback != null && yieldCallback.hasYielded()) {
                 log.trace("hasNext is false because yield was called");
                 if (!groups.isEmpty()) {
                     // reset the yield and use its key in the flattened document prepared below
-                    keys.add(yieldCallback.getPositionAndReset());
+                    lastKey = yieldCallback.getPositionAndReset();
                 }
                 break;
             } else {
@@ -94,26 +103,12 @@ public class GroupingIterator implements Iterator<Map.Entry<Key,Document>> {
             }
         }
 
-        LinkedList<Document> documents = new LinkedList<>();
-        Document document = null;
         next = null;
 
         if (!groups.isEmpty()) {
-            for (Group group : groups.getGroups()) {
-                documents.add(GroupingUtils.createDocument(group, keys, markingFunctions, GroupingUtils.AverageAggregatorWriteFormat.NUMERATOR_AND_DIVISOR));
-            }
-            document = flatten(documents);
-        }
-
-        if (document != null) {
-            Key key;
-            if (keys.size() > 0) {
-                // use the last (most recent) key so a new iterator will know where to start
-                key = keys.get(keys.size() - 1);
-            } else {
-                key = document.getMetadata();
-            }
-            next = Maps.immutableEntry(key, document);
+            // use the last (most recent) key so a new iterator will know where to start
+            Document document = flatten();
+            next = Maps.immutableEntry(lastKey, document);
             log.trace("hasNext {}", next);
             groups.clear();
             return true;
@@ -174,18 +169,18 @@ public class GroupingIterator implements Iterator<Map.Entry<Key,Document>> {
      *
      * The Attributes, which have had their visibilities merged, are copied into normal TypeAttributes for serialization to the webserver.
      *
-     * @param documents
-     *            the list of documents to flatten into a single document
-     * @return a flattened document
+     * @return a flattened document of the current groups
      */
-    private Document flatten(List<Document> documents) {
-        log.trace("Flattening {}", documents);
+    private Document flatten() {
+        log.trace("Flattening {}", groups);
 
-        Document flattened = new Document(documents.get(documents.size() - 1).getMetadata(), true);
+        Document flattened = new Document(lastKey, true);
 
         int context = 0;
         Set<ColumnVisibility> visibilities = new HashSet<>();
-        for (Document document : documents) {
+        for (Group group : groups.getGroups()) {
+            Document document = GroupingUtils.createDocument(group, lastKey, markingFunctions,
+                            GroupingUtils.AverageAggregatorWriteFormat.NUMERATOR_AND_DIVISOR);
             log.trace("document: {}", document);
             for (Map.Entry<String,Attribute<? extends Comparable<?>>> entry : document.entrySet()) {
                 visibilities.add(entry.getValue().getColumnVisibility());
@@ -261,6 +261,10 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
         this.documentOptions = options;
         this.myEnvironment = env;
 
+        if (isSharedScan()) {
+            source = SharedScanIterator.wrap(source, env, getSharedScanAuths());
+        }
+
         if (gatherTimingDetails()) {
             this.trackingSpan = new MultiThreadedQuerySpan(getStatsdClient());
             this.source = new SourceTrackingIterator(trackingSpan, source);
@@ -773,10 +777,11 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
             };
         } else {
             //  @formatter:off
-            docMapper = new KeyToDocumentData(deepSourceCopy, myEnvironment, documentOptions, getEquality(), getEventFilter(), this.includeHierarchyFields,
-                            this.includeHierarchyFields)
+            docMapper = new KeyToDocumentData(getDocumentSource(deepSourceCopy), myEnvironment, documentOptions, getEquality(), getEventFilter(),
+                            this.includeHierarchyFields, this.includeHierarchyFields)
                             .withRangeProvider(getRangeProvider())
-                            .withAggregationThreshold(getDocAggregationThresholdMs());
+                            .withAggregationThreshold(getDocAggregationThresholdMs())
+                            .withDocumentNextSeek(getDocumentNextSeek());
             //  @formatter:on
         }
 
@@ -790,7 +795,8 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
         // which do not fall within the expected time range
         Iterator<Entry<Key,Document>> documents = null;
         Aggregation a = new Aggregation(this.getTimeFilter(), this.typeMetadataWithNonIndexed, compositeMetadata, this.isIncludeGroupingContext(),
-                        this.includeRecordId, this.disableIndexOnlyDocuments(), getEvaluationFilter(), isTrackSizes());
+                        this.includeRecordId, this.disableIndexOnlyDocuments(), getEvaluationFilter(), isTrackSizes())
+                        .withEagerFields(getEagerAttributeFields());
         if (gatherTimingDetails()) {
             documents = Iterators.transform(sourceIterator, new EvaluationTrackingFunction<>(QuerySpan.Stage.Aggregation, trackingSpan, a));
         } else {
@@ -1090,6 +1096,18 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
         }
     }
 
+    /**
+     * Get the source used to aggregate documents. When reading ahead between documents, the source is left after each document for the next one, so it gets
+     * its own copy rather than sharing the pipeline source with the evaluation.
+     *
+     * @param deepSourceCopy
+     *            the pipeline source
+     * @return the source for the document aggregation
+     */
+    protected SortedKeyValueIterator<Key,Value> getDocumentSource(SortedKeyValueIterator<Key,Value> deepSourceCopy) {
+        return getDocumentNextSeek() > 0 ? deepSourceCopy.deepCopy(myEnvironment) : deepSourceCopy;
+    }
+
     protected Iterator<Entry<Key,Document>> mapDocument(SortedKeyValueIterator<Key,Value> deepSourceCopy, Iterator<Entry<Key,Document>> documents,
                     CompositeMetadata compositeMetadata) {
         // now lets pull the data if we need to
@@ -1098,17 +1116,18 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
         }
         if (fieldIndexSatisfiesQuery) {
             //  @formatter:off
-            final KeyToDocumentData docMapper = new KeyToDocumentData(deepSourceCopy, this.myEnvironment, this.documentOptions, getEquality(),
-                            getEventFilter(), this.includeHierarchyFields, this.includeHierarchyFields)
+            final KeyToDocumentData docMapper = new KeyToDocumentData(getDocumentSource(deepSourceCopy), this.myEnvironment, this.documentOptions,
+                            getEquality(), getEventFilter(), this.includeHierarchyFields, this.includeHierarchyFields)
                             .withRangeProvider(getRangeProvider())
-                            .withAggregationThreshold(getDocAggregationThresholdMs());
+                            .withAggregationThreshold(getDocAggregationThresholdMs())
+                            .withDocumentNextSeek(getDocumentNextSeek());
             //  @formatter:on
 
             Iterator<Tuple2<Key,Document>> mappedDocuments = Iterators.transform(documents,
                             new GetDocument(docMapper,
                                             new Aggregation(this.getTimeFilter(), typeMetadataWithNonIndexed, compositeMetadata,
                                                             this.isIncludeGroupingContext(), this.includeRecordId, this.disableIndexOnlyDocuments(),
-                                                            getEvaluationFilter(), isTrackSizes())));
+                                                            getEvaluationFilter(), isTrackSizes()).withEagerFields(getEagerAttributeFields())));
             Iterator<Entry<Key,Document>> retDocuments = Iterators.transform(mappedDocuments, new TupleToEntry<>());
 
             // Inject the document permutations if required
@@ -1580,7 +1599,7 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
             synchronized (getGroupFields()) {
                 if (groupingIterator == null) {
                     groupingIterator = new GroupingIterator(in, MarkingFunctionsFactory.createMarkingFunctions(), getGroupFields(), this.groupFieldsBatchSize,
-                                    this.yield);
+                                    this.groupFieldsMaxGroups, this.yield);
                 }
             }
         }
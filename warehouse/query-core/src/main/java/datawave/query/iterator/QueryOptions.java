@@ -31,6 +31,7 @@ import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.OptionDescriber;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.security.Authorizations;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.jexl3.JexlArithmetic;
 import org.apache.commons.jexl3.parser.ASTJexlScript;
@@ -112,6 +113,12 @@ public class QueryOptions implements OptionDescriber {
 
     public static final String DEBUG_MULTITHREADED_SOURCES = "debug.multithreaded.sources";
 
+    public static final String SHARED_SCAN = "shared.scan";
+
+    public static final String SHARED_SCAN_AUTHS = "shared.scan.auths";
+
+    public static final String LAZY_ATTRIBUTES = "lazy.attributes";
+
     public static final String SCAN_ID = Scan.SCAN_ID;
     public static final String DISABLE_EVALUATION = "disable.evaluation";
     public static final String DISABLE_FIELD_INDEX_EVAL = "disable.fi";
@@ -146,6 +153,7 @@ public class QueryOptions implements OptionDescriber {
     public static final String LIMIT_FIELDS_FIELD = "limit.fields.field";
     public static final String GROUP_FIELDS = "group.fields";
     public static final String GROUP_FIELDS_BATCH_SIZE = "group.fields.batch.size";
+    public static final String GROUP_FIELDS_MAX_GROUPS = "group.fields.max.groups";
     public static final String UNIQUE_FIELDS = "unique.fields";
     public static final String HITS_ONLY = "hits.only";
     public static final String HIT_LIST = "hit.list";
@@ -266,6 +274,7 @@ public class QueryOptions implements OptionDescriber {
     public static final String EVENT_NEXT_SEEK = "event.next.seek";
     public static final String TF_FIELD_SEEK = "tf.field.seek";
     public static final String TF_NEXT_SEEK = "tf.next.seek";
+    public static final String DOCUMENT_NEXT_SEEK = "document.next.seek";
 
     public static final String SEEKING_EVENT_AGGREGATION = "seeking.event.aggregation";
 
@@ -308,6 +317,7 @@ public class QueryOptions implements OptionDescriber {
 
     protected GroupFields groupFields = new GroupFields();
     protected int groupFieldsBatchSize = Integer.MAX_VALUE;
+    protected int groupFieldsMaxGroups = Integer.MAX_VALUE;
     protected UniqueFields uniqueFields = new UniqueFields();
 
     protected Set<String> hitsOnlySet = new HashSet<>();
@@ -413,6 +423,13 @@ public class QueryOptions implements OptionDescriber {
 
     protected boolean debugMultithreadedSources = false;
 
+    protected boolean sharedScan = false;
+
+    // every authorization set the source is filtered with, not only the authorizations of the scan
+    protected List<Authorizations> sharedScanAuths = Collections.emptyList();
+
+    protected boolean lazyAttributes = false;
+
     /**
      * should document sizes be tracked
      */
@@ -436,6 +453,7 @@ public class QueryOptions implements OptionDescriber {
     private int eventNextSeek = -1;
     private int tfFieldSeek = -1;
     private int tfNextSeek = -1;
+    private int documentNextSeek = -1;
 
     private boolean seekingEventAggregation = false;
 
@@ -525,6 +543,7 @@ public class QueryOptions implements OptionDescriber {
         this.limitFieldsField = other.limitFieldsField;
         this.groupFields = other.groupFields;
         this.groupFieldsBatchSize = other.groupFieldsBatchSize;
+        this.groupFieldsMaxGroups = other.groupFieldsMaxGroups;
         this.hitsOnlySet = other.hitsOnlySet;
 
         this.compressedMappings = other.compressedMappings;
@@ -540,6 +559,11 @@ public class QueryOptions implements OptionDescriber {
 
         this.debugMultithreadedSources = other.debugMultithreadedSources;
 
+        this.sharedScan = other.sharedScan;
+        this.sharedScanAuths = other.sharedScanAuths;
+
+        this.lazyAttributes = other.lazyAttributes;
+
         this.trackSizes = other.trackSizes;
         this.activeQueryLogName = other.activeQueryLogName;
         this.excerptFields = other.excerptFields;
@@ -552,6 +576,7 @@ public class QueryOptions implements OptionDescriber {
         this.eventNextSeek = other.eventNextSeek;
         this.tfFieldSeek = other.tfFieldSeek;
         this.tfNextSeek = other.tfNextSeek;
+        this.documentNextSeek = other.documentNextSeek;
 
         this.seekingEventAggregation = other.seekingEventAggregation;
 
@@ -1171,6 +1196,14 @@ public class QueryOptions implements OptionDescriber {
         this.groupFieldsBatchSize = groupFieldsBatchSize;
     }
 
+    public int getGroupFieldsMaxGroups() {
+        return groupFieldsMaxGroups;
+    }
+
+    public void setGroupFieldsMaxGroups(int groupFieldsMaxGroups) {
+        this.groupFieldsMaxGroups = groupFieldsMaxGroups;
+    }
+
     public UniqueFields getUniqueFields() {
         return uniqueFields;
     }
@@ -1211,6 +1244,72 @@ public class QueryOptions implements OptionDescriber {
         this.debugMultithreadedSources = debugMultithreadedSources;
     }
 
+    public boolean isSharedScan() {
+        return sharedScan;
+    }
+
+    public void setSharedScan(boolean sharedScan) {
+        this.sharedScan = sharedScan;
+    }
+
+    public List<Authorizations> getSharedScanAuths() {
+        return sharedScanAuths;
+    }
+
+    public void setSharedScanAuths(List<Authorizations> sharedScanAuths) {
+        this.sharedScanAuths = sharedScanAuths;
+    }
+
+    /**
+     * Serialize the authorization sets of a query for the {@link #SHARED_SCAN_AUTHS} option
+     *
+     * @param authorizations
+     *            the authorization sets
+     * @return the authorization sets separated by semicolons, with the authorizations of a set separated by commas
+     */
+    public static String buildSharedScanAuths(Collection<Authorizations> authorizations) {
+        return authorizations.stream().map(Authorizations::toString).collect(Collectors.joining(";"));
+    }
+
+    /**
+     * Parse the {@link #SHARED_SCAN_AUTHS} option
+     *
+     * @param sharedScanAuths
+     *            the authorization sets, see {@link #buildSharedScanAuths(Collection)}
+     * @return the authorization sets
+     */
+    public static List<Authorizations> parseSharedScanAuths(String sharedScanAuths) {
+        List<Authorizations> authorizations = new ArrayList<>();
+        for (String auths : Splitter.on(';').split(sharedScanAuths)) {
+            authorizations.add(new Authorizations(Iterables.toArray(Splitter.on(',').omitEmptyStrings().trimResults().split(auths), String.class)));
+        }
+        return authorizations;
+    }
+
+    public boolean isLazyAttributes() {
+        return lazyAttributes;
+    }
+
+    public void setLazyAttributes(boolean lazyAttributes) {
+        this.lazyAttributes = lazyAttributes;
+    }
+
+    /**
+     * Get the fields whose attributes are built as soon as a document is aggregated when attributes are lazy
+     *
+     * @return the fields referenced by the query, or null if every attribute is built when the document is aggregated
+     */
+    public Set<String> getEagerAttributeFields() {
+        if (!lazyAttributes) {
+            return null;
+        }
+        Set<String> fields = new HashSet<>();
+        for (String field : getQueryFields()) {
+            fields.add(JexlASTHelper.deconstructIdentifier(field, false));
+        }
+        return fields;
+    }
+
     public String getActiveQueryLogName() {
         return activeQueryLogName;
     }
@@ -1285,6 +1384,7 @@ public class QueryOptions implements OptionDescriber {
         options.put(MATCHING_FIELD_SETS, "matching field sets (used along with limit fields)");
         options.put(GROUP_FIELDS, "group fields and fields to aggregate");
         options.put(GROUP_FIELDS_BATCH_SIZE, "group fields.batch.size");
+        options.put(GROUP_FIELDS_MAX_GROUPS, "the number of distinct groups at which partial groupings are returned early");
         options.put(UNIQUE_FIELDS, "unique fields");
         options.put(HIT_LIST, "hit list");
         options.put(NON_INDEXED_DATATYPES, "Normalizers to apply only at aggregation time");
@@ -1326,6 +1426,9 @@ public class QueryOptions implements OptionDescriber {
         options.put(RANGES, "The ranges associated with this scan.  Intended to be used for investigative purposes.");
 
         options.put(DEBUG_MULTITHREADED_SOURCES, "If provided, the SourceThreadTrackingIterator will be used");
+        options.put(SHARED_SCAN, "If true, the keys read from a column family of a shard are shared with concurrent queries through the SharedScanIterator");
+        options.put(SHARED_SCAN_AUTHS, "Every authorization set the source is filtered with, required to share the scan");
+        options.put(LAZY_ATTRIBUTES, "If true, the values of fields not referenced by the query are only normalized when they are used");
 
         options.put(METADATA_TABLE_NAME, this.metadataTableName);
         options.put(LIMIT_FIELDS_PRE_QUERY_EVALUATION, "If true, non-query fields limits will be applied immediately off the iterator");
@@ -1342,6 +1445,7 @@ public class QueryOptions implements OptionDescriber {
         options.put(EVENT_NEXT_SEEK, "The number of next calls made by an Event data filter or aggregator before a seek is issued");
         options.put(TF_FIELD_SEEK, "The number of fields traversed by a Term Frequency data filter or aggregator before a seek is issued");
         options.put(TF_NEXT_SEEK, "The number of next calls made by a Term Frequency data filter or aggregator before a seek is issued");
+        options.put(DOCUMENT_NEXT_SEEK, "The number of next calls made to reach the next document to aggregate before a seek is issued");
         options.put(DOC_AGGREGATION_THRESHOLD_MS, "Document aggregations that exceed this threshold are logged as a warning");
         options.put(TERM_FREQUENCY_AGGREGATION_THRESHOLD_MS, "TermFrequency aggregations that exceed this threshold are logged as a warning");
         options.put(FIELD_COUNTS, "Map of field counts from the global index");
@@ -1541,6 +1645,10 @@ public class QueryOptions implements OptionDescriber {
             this.tfNextSeek = Integer.parseInt(options.get(TF_NEXT_SEEK));
         }
 
+        if (options.containsKey(DOCUMENT_NEXT_SEEK)) {
+            this.documentNextSeek = Integer.parseInt(options.get(DOCUMENT_NEXT_SEEK));
+        }
+
         if (options.containsKey(SEEKING_EVENT_AGGREGATION)) {
             this.seekingEventAggregation = Boolean.parseBoolean(options.get(SEEKING_EVENT_AGGREGATION));
         }
@@ -1657,6 +1765,10 @@ public class QueryOptions implements OptionDescriber {
             this.setGroupFieldsBatchSize(batchSize);
         }
 
+        if (options.containsKey(GROUP_FIELDS_MAX_GROUPS)) {
+            this.setGroupFieldsMaxGroups(Integer.parseInt(options.get(GROUP_FIELDS_MAX_GROUPS)));
+        }
+
         if (options.containsKey(UNIQUE_FIELDS)) {
             this.setUniqueFields(UniqueFields.from(options.get(UNIQUE_FIELDS)));
         }
@@ -1820,6 +1932,18 @@ public class QueryOptions implements OptionDescriber {
             this.debugMultithreadedSources = Boolean.parseBoolean(options.get(DEBUG_MULTITHREADED_SOURCES));
         }
 
+        if (options.containsKey(SHARED_SCAN)) {
+            this.sharedScan = Boolean.parseBoolean(options.get(SHARED_SCAN));
+        }
+
+        if (options.containsKey(SHARED_SCAN_AUTHS)) {
+            this.sharedScanAuths = parseSharedScanAuths(options.get(SHARED_SCAN_AUTHS));
+        }
+
+        if (options.containsKey(LAZY_ATTRIBUTES)) {
+            this.lazyAttributes = Boolean.parseBoolean(options.get(LAZY_ATTRIBUTES));
+        }
+
         if (options.containsKey(ACTIVE_QUERY_LOG_NAME)) {
             setActiveQueryLogName(activeQueryLogName);
         }
@@ -2309,6 +2433,14 @@ public class QueryOptions implements OptionDescriber {
         this.tfNextSeek = tfNextSeek;
     }
 
+    public int getDocumentNextSeek() {
+        return documentNextSeek;
+    }
+
+    public void setDocumentNextSeek(int documentNextSeek) {
+        this.documentNextSeek = documentNextSeek;
+    }
+
     public int getDocAggregationThresholdMs() {
         return docAggregationThresholdMs;
     }
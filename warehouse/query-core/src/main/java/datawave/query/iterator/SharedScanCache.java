@@ -0,0 +1,315 @@
+package datawave.query.iterator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.client.PluginEnvironment;
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.log4j.Logger;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * A tablet server wide cache of the keys of single column families of a shard, shared by the {@link SharedScanIterator}s of concurrent queries. Dashboards run
+ * many queries with different predicates over the same shards, which read the same field index and event column families. The first query to read a column
+ * family publishes its keys here and the other queries read them from memory instead of from the RFiles.
+ * <p>
+ * Each column family is kept with every authorization set the scan which read it was filtered with, which for a query run on behalf of other users includes
+ * the authorization sets of its visibility filters and not only the authorizations of the scan. A query may only reuse a column family whose keys include
+ * every key it can see, and it filters the keys by each of its own authorization sets, see {@link SharedColumnFamily#isVisibleTo(List)}. Column families
+ * with more keys than the configured maximum are remembered as too large so that later queries read them from the source directly. Entries expire after a
+ * short time since data written after a column family was read is not seen until then.
+ * <p>
+ * A single instance is shared by all queries on the tablet server, see {@link #getInstance(IteratorEnvironment)}. It is sized from the tablet server
+ * configuration.
+ */
+public class SharedScanCache {
+    private static final Logger log = Logger.getLogger(SharedScanCache.class);
+
+    private static final String MAX_WEIGHT_PROP = "tserver.datawave.shared.scan.max.weight";
+    private static final String TTL_PROP = "tserver.datawave.shared.scan.ttl.ms";
+    private static final String MAX_KEYS_PROP = "tserver.datawave.shared.scan.max.keys";
+
+    public static final long DEFAULT_MAX_WEIGHT = 64L * 1024L * 1024L;
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    public static final int DEFAULT_MAX_KEYS = 10000;
+
+    // approximate per object overhead used when weighing the cached keys
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private static final Object instanceSemaphore = new Object();
+    private static volatile SharedScanCache instance;
+
+    private final Cache<CacheKey,SharedColumnFamily> cache;
+    private final int maxKeys;
+
+    /**
+     * @param maxWeight
+     *            the approximate maximum size of the cached keys in bytes
+     * @param ttlMillis
+     *            how long a column family may be reused after it was read
+     * @param maxKeys
+     *            the maximum number of keys of a cached column family
+     */
+    public SharedScanCache(long maxWeight, long ttlMillis, int maxKeys) {
+        // @formatter:off
+        this.cache = CacheBuilder.newBuilder()
+                        .maximumWeight(maxWeight)
+                        .weigher((CacheKey key, SharedColumnFamily columnFamily) -> key.weight() + columnFamily.weight())
+                        .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                        .recordStats()
+                        .build();
+        // @formatter:on
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * @param env
+     *            the iterator environment used to read the tablet server configuration when the cache is first created
+     * @return the cache shared by all queries on this tablet server
+     */
+    public static SharedScanCache getInstance(IteratorEnvironment env) {
+        if (instance == null) {
+            synchronized (instanceSemaphore) {
+                if (instance == null) {
+                    PluginEnvironment pluginEnv = env == null ? null : env.getPluginEnv();
+                    instance = new SharedScanCache(getProperty(pluginEnv, MAX_WEIGHT_PROP, DEFAULT_MAX_WEIGHT),
+                                    getProperty(pluginEnv, TTL_PROP, DEFAULT_TTL_MILLIS), (int) getProperty(pluginEnv, MAX_KEYS_PROP, DEFAULT_MAX_KEYS));
+                }
+            }
+        }
+        return instance;
+    }
+
+    private static long getProperty(PluginEnvironment pluginEnv, String prop, long defaultValue) {
+        if (pluginEnv != null && pluginEnv.getConfiguration() != null) {
+            String value = pluginEnv.getConfiguration().get(prop);
+            if (value != null) {
+                return Long.parseLong(value);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Get a column family usable with the given authorizations, loading it if it is not cached. Concurrent loads of the same column family wait for the first
+     * one.
+     *
+     * @param key
+     *            the column family
+     * @param authorizations
+     *            every authorization set the scan is filtered with
+     * @param loader
+     *            reads the column family with the authorizations of the scan
+     * @return the column family
+     * @throws IOException
+     *             if the column family could not be read
+     */
+    public SharedColumnFamily get(CacheKey key, List<Authorizations> authorizations, Callable<SharedColumnFamily> loader) throws IOException {
+        try {
+            SharedColumnFamily columnFamily = cache.getIfPresent(key);
+            if (columnFamily != null && (columnFamily.isTooLarge() || columnFamily.isVisibleTo(authorizations))) {
+                if (log.isTraceEnabled()) {
+                    log.trace("Shared scan cache hit for " + key);
+                }
+                return columnFamily;
+            }
+            if (log.isTraceEnabled()) {
+                log.trace("Shared scan cache miss for " + key);
+            }
+            if (columnFamily == null) {
+                return cache.get(key, loader);
+            }
+            // read with authorizations that see less than ours, so replace it with ours
+            columnFamily = loader.call();
+            cache.put(key, columnFamily);
+            return columnFamily;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Failed to load " + key, e.getCause());
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to load " + key, e);
+        }
+    }
+
+    /**
+     * @return the maximum number of keys of a cached column family
+     */
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    /**
+     * @return the hit, miss and eviction counts of this cache
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * The identity of a column family of a shard
+     */
+    public static class CacheKey {
+        private final String tableId;
+        private final ByteSequence row;
+        private final ByteSequence columnFamily;
+        private final int hashCode;
+
+        /**
+         * @param tableId
+         *            the table
+         * @param row
+         *            the shard
+         * @param columnFamily
+         *            the column family
+         */
+        public CacheKey(String tableId, ByteSequence row, ByteSequence columnFamily) {
+            this.tableId = tableId;
+            this.row = new ArrayByteSequence(row.toArray());
+            this.columnFamily = new ArrayByteSequence(columnFamily.toArray());
+            this.hashCode = 31 * (31 * tableId.hashCode() + this.row.hashCode()) + this.columnFamily.hashCode();
+        }
+
+        int weight() {
+            return ENTRY_OVERHEAD + tableId.length() + row.length() + columnFamily.length();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return hashCode == other.hashCode && tableId.equals(other.tableId) && row.equals(other.row) && columnFamily.equals(other.columnFamily);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            return tableId + " " + row + " " + columnFamily;
+        }
+    }
+
+    /**
+     * The keys of a column family as read by a scan filtered with the given authorization sets
+     */
+    public static class SharedColumnFamily {
+        private final Set<Authorizations> authorizations;
+        private final List<Map.Entry<Key,Value>> entries;
+        private final int weight;
+
+        /**
+         * @param authorizations
+         *            every authorization set the scan which read the keys was filtered with
+         * @param entries
+         *            all of the keys of the column family in order, or null if there were too many to cache
+         */
+        public SharedColumnFamily(List<Authorizations> authorizations, List<Map.Entry<Key,Value>> entries) {
+            this.authorizations = Collections.unmodifiableSet(new HashSet<>(authorizations));
+            this.entries = entries == null ? null : Collections.unmodifiableList(new ArrayList<>(entries));
+            int weight = ENTRY_OVERHEAD;
+            if (entries != null) {
+                for (Map.Entry<Key,Value> entry : entries) {
+                    weight += ENTRY_OVERHEAD + entry.getKey().getSize() + entry.getValue().getSize();
+                }
+            }
+            this.weight = weight;
+        }
+
+        /**
+         * A key was read if it is visible to every authorization set of the scan which read it, and the reusing scan can see a key if it is visible to every
+         * one of its own authorization sets. A column family can therefore only be reused if each authorization set it was read with holds all of the
+         * authorizations of one of the sets of the reusing scan, since keys that only the reusing scan can see would otherwise be missing. The keys must still
+         * be filtered by every authorization set of the reusing scan.
+         *
+         * @param authorizations
+         *            every authorization set of the reusing scan
+         * @return whether the keys read include every key the reusing scan can see
+         */
+        public boolean isVisibleTo(List<Authorizations> authorizations) {
+            for (Authorizations readWith : this.authorizations) {
+                boolean covered = false;
+                for (Authorizations auths : authorizations) {
+                    if (holdsAll(readWith, auths)) {
+                        covered = true;
+                        break;
+                    }
+                }
+                if (!covered) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean holdsAll(Authorizations holder, Authorizations authorizations) {
+            for (byte[] auth : authorizations.getAuthorizations()) {
+                if (!holder.contains(auth)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @param authorizations
+         *            every authorization set of the reusing scan
+         * @return whether the column family was read with the same authorization sets, so that no filtering is required
+         */
+        public boolean isReadWith(List<Authorizations> authorizations) {
+            return this.authorizations.equals(new HashSet<>(authorizations));
+        }
+
+        /**
+         * @return whether the column family had too many keys to cache
+         */
+        public boolean isTooLarge() {
+            return entries == null;
+        }
+
+        /**
+         * @return the keys of the column family in order
+         */
+        public List<Map.Entry<Key,Value>> getEntries() {
+            return entries;
+        }
+
+        int weight() {
+            return weight;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package datawave.query.iterator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.IteratorUtil;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.accumulo.core.security.VisibilityEvaluator;
+import org.apache.accumulo.core.security.VisibilityParseException;
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Serves seeks that fall within a single column family of a shard, such as the field index of a field or the event keys of a document, from the
+ * {@link SharedScanCache} so that concurrent queries over the same shards read those keys once. Any other seek, and any seek into a column family with too
+ * many keys to cache, is passed through to the source.
+ * <p>
+ * The source of a query is filtered by the authorizations of the scan and, for a query run on behalf of other users, by a visibility filter for each of the
+ * other authorization sets. The keys of a shared column family were read with every authorization set of the query which loaded it, which may see more than
+ * this query, so every key served from the cache is filtered by every authorization set of this query.
+ * <p>
+ * This is not an iterator that can be configured on a table, it is created around the source of the {@link QueryIterator}, see
+ * {@link #wrap(SortedKeyValueIterator, IteratorEnvironment, Collection)}.
+ */
+class SharedScanIterator implements SortedKeyValueIterator<Key,Value> {
+    private static final Logger log = Logger.getLogger(SharedScanIterator.class);
+
+    // the number of column visibilities whose evaluation is remembered
+    private static final int MAX_VISIBILITIES = 1000;
+
+    private final SortedKeyValueIterator<Key,Value> source;
+    private final SharedScanCache cache;
+    private final String tableId;
+    private final List<Authorizations> authorizations;
+    private final List<VisibilityEvaluator> evaluators = new ArrayList<>();
+    private final Map<ByteSequence,Boolean> visibilities = new HashMap<>();
+
+    // the cached keys being served, or null when passing through to the source
+    private List<Map.Entry<Key,Value>> entries;
+    private boolean filterVisibility;
+    private int index;
+    private Range range;
+    private boolean columnFamilyIncluded;
+
+    /**
+     * @param source
+     *            the source, filtered by every one of the given authorization sets
+     * @param cache
+     *            the shared cache
+     * @param tableId
+     *            the table being scanned
+     * @param authorizations
+     *            every authorization set the source is filtered with
+     */
+    SharedScanIterator(SortedKeyValueIterator<Key,Value> source, SharedScanCache cache, String tableId, List<Authorizations> authorizations) {
+        this.source = source;
+        this.cache = cache;
+        this.tableId = tableId;
+        this.authorizations = authorizations;
+        for (Authorizations auths : authorizations) {
+            evaluators.add(new VisibilityEvaluator(auths));
+        }
+    }
+
+    /**
+     * Wrap a source with a shared scan if the environment identifies the table and the authorizations of the scan
+     *
+     * @param source
+     *            the source
+     * @param env
+     *            the iterator environment
+     * @param queryAuthorizations
+     *            every authorization set of the query, each of which the source is filtered with
+     * @return the wrapped source, or the source if the scan cannot be shared
+     */
+    static SortedKeyValueIterator<Key,Value> wrap(SortedKeyValueIterator<Key,Value> source, IteratorEnvironment env,
+                    Collection<Authorizations> queryAuthorizations) {
+        if (env == null || env.getIteratorScope() != IteratorUtil.IteratorScope.scan) {
+            return source;
+        }
+        if (queryAuthorizations == null || queryAuthorizations.isEmpty()) {
+            // the visibility filters of the source are not known
+            log.warn("Unable to share the scan, the authorizations of the query were not provided");
+            return source;
+        }
+        try {
+            if (env.getTableId() == null || env.getAuthorizations() == null) {
+                return source;
+            }
+            // the authorizations of the scan itself are always applied, whether or not they are one of the sets of the query
+            Set<Authorizations> authorizations = new LinkedHashSet<>();
+            authorizations.add(env.getAuthorizations());
+            authorizations.addAll(queryAuthorizations);
+            return new SharedScanIterator(source, SharedScanCache.getInstance(env), env.getTableId().canonical(), new ArrayList<>(authorizations));
+        } catch (UnsupportedOperationException e) {
+            log.warn("Unable to share the scan, the iterator environment does not provide the table and authorizations", e);
+            return source;
+        }
+    }
+
+    /**
+     * Not supported, a shared scan is created around its source with {@link #wrap(SortedKeyValueIterator, IteratorEnvironment, Collection)}
+     */
+    @Override
+    public void init(SortedKeyValueIterator<Key,Value> source, Map<String,String> options, IteratorEnvironment env) throws IOException {
+        throw new UnsupportedOperationException("SharedScanIterator is created around its source");
+    }
+
+    @Override
+    public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
+        entries = null;
+        Key columnFamilyKey = getColumnFamilyKey(range);
+        if (columnFamilyKey != null) {
+            ByteSequence columnFamily = columnFamilyKey.getColumnFamilyData();
+            SharedScanCache.CacheKey cacheKey = new SharedScanCache.CacheKey(tableId, columnFamilyKey.getRowData(), columnFamily);
+            SharedScanCache.SharedColumnFamily shared = cache.get(cacheKey, authorizations, () -> load(columnFamilyKey));
+            if (!shared.isTooLarge()) {
+                this.entries = shared.getEntries();
+                this.filterVisibility = !shared.isReadWith(authorizations);
+                this.range = range;
+                this.columnFamilyIncluded = columnFamilies.isEmpty() ? !inclusive : inclusive == columnFamilies.contains(columnFamily);
+                this.index = findStart(range);
+                findTop();
+                return;
+            }
+        }
+        source.seek(range, columnFamilies, inclusive);
+    }
+
+    /**
+     * Get the column family containing a range
+     *
+     * @param range
+     *            the range
+     * @return a key with the row and column family of the range, or null if the range is not within a single column family
+     */
+    private Key getColumnFamilyKey(Range range) {
+        Key start = range.getStartKey();
+        Key end = range.getEndKey();
+        if (start == null || end == null || start.getColumnFamilyData().length() == 0) {
+            return null;
+        }
+        Key columnFamilyKey = new Key(start.getRow(), start.getColumnFamily());
+        if (end.compareTo(columnFamilyKey.followingKey(PartialKey.ROW_COLFAM)) > 0) {
+            return null;
+        }
+        return columnFamilyKey;
+    }
+
+    /**
+     * Read all of the keys of a column family from the source
+     *
+     * @param columnFamilyKey
+     *            the row and column family
+     * @return the column family, too large if it has more keys than the cache allows
+     * @throws IOException
+     *             for issues with read/write
+     */
+    private SharedScanCache.SharedColumnFamily load(Key columnFamilyKey) throws IOException {
+        Range columnFamilyRange = new Range(columnFamilyKey, true, columnFamilyKey.followingKey(PartialKey.ROW_COLFAM), false);
+        source.seek(columnFamilyRange, Collections.emptyList(), false);
+        List<Map.Entry<Key,Value>> loaded = new ArrayList<>();
+        while (source.hasTop()) {
+            if (loaded.size() >= cache.getMaxKeys()) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Not sharing " + columnFamilyKey + ", it has more than " + cache.getMaxKeys() + " keys");
+                }
+                return new SharedScanCache.SharedColumnFamily(authorizations, null);
+            }
+            // the source may reuse its key and value
+            loaded.add(Maps.immutableEntry(new Key(source.getTopKey()), new Value(source.getTopValue())));
+            source.next();
+        }
+        return new SharedScanCache.SharedColumnFamily(authorizations, loaded);
+    }
+
+    private int findStart(Range range) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (range.beforeStartKey(entries.get(mid).getKey())) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void findTop() throws IOException {
+        while (index < entries.size()) {
+            Key key = entries.get(index).getKey();
+            if (!columnFamilyIncluded || range.afterEndKey(key)) {
+                index = entries.size();
+            } else if (!filterVisibility || isVisible(key)) {
+                return;
+            } else {
+                index++;
+            }
+        }
+    }
+
+    private boolean isVisible(Key key) throws IOException {
+        ByteSequence visibility = key.getColumnVisibilityData();
+        if (visibility.length() == 0) {
+            return true;
+        }
+        Boolean visible = visibilities.get(visibility);
+        if (visible == null) {
+            visible = true;
+            try {
+                ColumnVisibility columnVisibility = new ColumnVisibility(visibility.toArray());
+                for (VisibilityEvaluator evaluator : evaluators) {
+                    if (!evaluator.evaluate(columnVisibility)) {
+                        visible = false;
+                        break;
+                    }
+                }
+            } catch (VisibilityParseException e) {
+                throw new IOException("Unable to evaluate the visibility of " + key, e);
+            }
+            if (visibilities.size() >= MAX_VISIBILITIES) {
+                visibilities.clear();
+            }
+            visibilities.put(new ArrayByteSequence(visibility.toArray()), visible);
+        }
+        return visible;
+    }
+
+    @Override
+    public boolean hasTop() {
+        return entries == null ? source.hasTop() : index < entries.size();
+    }
+
+    @Override
+    public void next() throws IOException {
+        if (entries == null) {
+            source.next();
+        } else {
+            index++;
+            findTop();
+        }
+    }
+
+    @Override
+    public Key getTopKey() {
+        return entries == null ? source.getTopKey() : entries.get(index).getKey();
+    }
+
+    @Override
+    public Value getTopValue() {
+        return entries == null ? source.getTopValue() : entries.get(index).getValue();
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+        return new SharedScanIterator(source.deepCopy(env), cache, tableId, authorizations);
+    }
+}
@@ -263,7 +263,8 @@ public class DynamicFacetIterator extends FieldIndexOnlyQueryIterator {
             CardinalitySummation summarizer = new CardinalitySummation(topEntry.getKey(), topEntry.getValue(), merge);
             while (fieldIndexDocuments.hasNext()) {
                 topEntry = fieldIndexDocuments.next();
-                summarizer.apply(topEntry);
+                // only the final summary is returned, so avoid rebuilding the summary document for every document
+                summarizer.add(topEntry);
             }
 
             return Iterators.singletonIterator(summarizer.getTop());
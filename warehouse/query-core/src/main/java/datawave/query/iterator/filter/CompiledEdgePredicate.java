@@ -0,0 +1,344 @@
+package datawave.query.iterator.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+import org.apache.commons.jexl3.parser.ASTAndNode;
+import org.apache.commons.jexl3.parser.ASTEQNode;
+import org.apache.commons.jexl3.parser.ASTERNode;
+import org.apache.commons.jexl3.parser.ASTIdentifier;
+import org.apache.commons.jexl3.parser.ASTJexlScript;
+import org.apache.commons.jexl3.parser.ASTNENode;
+import org.apache.commons.jexl3.parser.ASTNRNode;
+import org.apache.commons.jexl3.parser.ASTNotNode;
+import org.apache.commons.jexl3.parser.ASTOrNode;
+import org.apache.commons.jexl3.parser.ASTReferenceExpression;
+import org.apache.commons.jexl3.parser.ASTStringLiteral;
+import org.apache.commons.jexl3.parser.JexlNode;
+import org.apache.log4j.Logger;
+
+import datawave.query.jexl.JexlASTHelper;
+import datawave.query.jexl.JexlPatternCache;
+
+/**
+ * A compiled form of the common edge filter expressions: conjunctions, disjunctions and negations of equality and regex comparisons between an edge key
+ * component and a string literal. The predicate is evaluated directly against the byte ranges decoded by {@link EdgeKeyColumns} so that the common case does
+ * not need to create any {@link String}s or populate a JEXL context.
+ * <p>
+ * Evaluation is three-valued. When a comparison cannot be decided without reproducing the JEXL arithmetic (for example a component that looks like a floating
+ * point number, which JEXL compares numerically) the result is {@link #UNKNOWN} and the caller must fall back to evaluating the JEXL expression for that key.
+ */
+public abstract class CompiledEdgePredicate {
+
+    private static final Logger log = Logger.getLogger(CompiledEdgePredicate.class);
+
+    public static final int FALSE = 0;
+    public static final int TRUE = 1;
+    public static final int UNKNOWN = -1;
+
+    /**
+     * Evaluate the predicate against a decoded edge key
+     *
+     * @param columns
+     *            the decoded edge key
+     * @return {@link #TRUE}, {@link #FALSE} or {@link #UNKNOWN}
+     */
+    public abstract int evaluate(EdgeKeyColumns columns);
+
+    /**
+     * Compile a lowercased edge filter expression.
+     *
+     * @param query
+     *            the lowercased JEXL expression as evaluated by the {@link EdgeFilterIterator}
+     * @return the compiled predicate, or null if the expression contains anything other than the supported forms
+     */
+    public static CompiledEdgePredicate compile(String query) {
+        // backslashes are handled differently by the query parser than by the jexl engine, leave those to jexl
+        if (query == null || query.indexOf('\\') >= 0 || !EdgeKeyColumns.isAsciiLowerCaseSafe()) {
+            return null;
+        }
+        try {
+            ASTJexlScript script = JexlASTHelper.parseJexlQuery(query);
+            return compile(script);
+        } catch (Exception e) {
+            log.debug("Unable to compile edge filter expression, falling back to jexl: " + query, e);
+            return null;
+        }
+    }
+
+    private static CompiledEdgePredicate compile(JexlNode node) {
+        if (node instanceof ASTJexlScript || node instanceof ASTReferenceExpression) {
+            return node.jjtGetNumChildren() == 1 ? compile(node.jjtGetChild(0)) : null;
+        } else if (node instanceof ASTAndNode || node instanceof ASTOrNode) {
+            CompiledEdgePredicate[] children = new CompiledEdgePredicate[node.jjtGetNumChildren()];
+            for (int i = 0; i < children.length; i++) {
+                children[i] = compile(node.jjtGetChild(i));
+                if (children[i] == null) {
+                    return null;
+                }
+            }
+            return node instanceof ASTAndNode ? new And(children) : new Or(children);
+        } else if (node instanceof ASTNotNode) {
+            CompiledEdgePredicate child = node.jjtGetNumChildren() == 1 ? compile(node.jjtGetChild(0)) : null;
+            return child == null ? null : new Not(child);
+        } else if (node instanceof ASTEQNode || node instanceof ASTNENode) {
+            CompiledEdgePredicate equals = compileEquals(node);
+            if (equals == null || node instanceof ASTEQNode) {
+                return equals;
+            }
+            return new Not(equals);
+        } else if (node instanceof ASTERNode || node instanceof ASTNRNode) {
+            CompiledEdgePredicate matches = compileMatches(node);
+            if (matches == null || node instanceof ASTERNode) {
+                return matches;
+            }
+            return new Not(matches);
+        }
+        return null;
+    }
+
+    private static CompiledEdgePredicate compileEquals(JexlNode node) {
+        int field = getField(node);
+        String literal = getStringLiteral(node);
+        if (field < 0 || literal == null || isFloatingPointLike(literal)) {
+            return null;
+        }
+        return new Equals(field, literal);
+    }
+
+    private static CompiledEdgePredicate compileMatches(JexlNode node) {
+        int field = getField(node);
+        String literal = getStringLiteral(node);
+        if (field < 0 || literal == null) {
+            return null;
+        }
+        return new Matches(field, JexlPatternCache.getPattern(literal));
+    }
+
+    private static int getField(JexlNode node) {
+        if (node.jjtGetNumChildren() != 2) {
+            return -1;
+        }
+        for (int i = 0; i < 2; i++) {
+            JexlNode child = JexlASTHelper.dereference(node.jjtGetChild(i));
+            if (child instanceof ASTIdentifier) {
+                return EdgeKeyColumns.indexOf(JexlASTHelper.deconstructIdentifier((ASTIdentifier) child));
+            }
+        }
+        return -1;
+    }
+
+    private static String getStringLiteral(JexlNode node) {
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            JexlNode child = JexlASTHelper.dereference(node.jjtGetChild(i));
+            if (child instanceof ASTStringLiteral) {
+                return ((ASTStringLiteral) child).getLiteral();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * JEXL compares two strings numerically when either of them looks like a floating point number, so such values cannot be compared as bytes.
+     *
+     * @param value
+     *            the value
+     * @return true if the value could be treated as a number by the JEXL arithmetic
+     */
+    static boolean isFloatingPointLike(CharSequence value) {
+        boolean digit = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digit = true;
+            } else if (c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E') {
+                return false;
+            }
+        }
+        return digit;
+    }
+
+    private static class And extends CompiledEdgePredicate {
+        private final CompiledEdgePredicate[] children;
+
+        private And(CompiledEdgePredicate[] children) {
+            this.children = children;
+        }
+
+        @Override
+        public int evaluate(EdgeKeyColumns columns) {
+            int result = TRUE;
+            for (CompiledEdgePredicate child : children) {
+                int value = child.evaluate(columns);
+                if (value == FALSE) {
+                    return FALSE;
+                } else if (value == UNKNOWN) {
+                    result = UNKNOWN;
+                }
+            }
+            return result;
+        }
+    }
+
+    private static class Or extends CompiledEdgePredicate {
+        private final CompiledEdgePredicate[] children;
+
+        private Or(CompiledEdgePredicate[] children) {
+            this.children = children;
+        }
+
+        @Override
+        public int evaluate(EdgeKeyColumns columns) {
+            int result = FALSE;
+            for (CompiledEdgePredicate child : children) {
+                int value = child.evaluate(columns);
+                if (value == TRUE) {
+                    return TRUE;
+                } else if (value == UNKNOWN) {
+                    result = UNKNOWN;
+                }
+            }
+            return result;
+        }
+    }
+
+    private static class Not extends CompiledEdgePredicate {
+        private final CompiledEdgePredicate child;
+
+        private Not(CompiledEdgePredicate child) {
+            this.child = child;
+        }
+
+        @Override
+        public int evaluate(EdgeKeyColumns columns) {
+            int value = child.evaluate(columns);
+            return value == UNKNOWN ? UNKNOWN : TRUE - value;
+        }
+    }
+
+    private static class Equals extends CompiledEdgePredicate {
+        private final int field;
+        private final String literal;
+        private final byte[] literalBytes;
+
+        private Equals(int field, String literal) {
+            this.field = field;
+            this.literal = literal;
+            this.literalBytes = literal.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int evaluate(EdgeKeyColumns columns) {
+            if (!columns.isPresent(field)) {
+                return FALSE;
+            }
+            if (columns.isPlainAscii(field)) {
+                byte[] data = columns.getData(field);
+                int offset = columns.getOffset(field);
+                int length = columns.getLength(field);
+                if (isFloatingPointLike(data, offset, length)) {
+                    return UNKNOWN;
+                }
+                if (length != literalBytes.length) {
+                    return FALSE;
+                }
+                for (int i = 0; i < length; i++) {
+                    if (toLowerCase(data[offset + i]) != literalBytes[i]) {
+                        return FALSE;
+                    }
+                }
+                return TRUE;
+            }
+            String value = columns.getLowerCaseString(field);
+            if (isFloatingPointLike(value)) {
+                return UNKNOWN;
+            }
+            return literal.equals(value) ? TRUE : FALSE;
+        }
+    }
+
+    private static class Matches extends CompiledEdgePredicate {
+        private final int field;
+        private final Pattern pattern;
+        private final AsciiLowerCaseSequence sequence = new AsciiLowerCaseSequence();
+
+        private Matches(int field, Pattern pattern) {
+            this.field = field;
+            this.pattern = pattern;
+        }
+
+        @Override
+        public int evaluate(EdgeKeyColumns columns) {
+            if (!columns.isPresent(field)) {
+                return FALSE;
+            }
+            CharSequence value;
+            if (columns.isPlainAscii(field)) {
+                sequence.set(columns.getData(field), columns.getOffset(field), columns.getLength(field));
+                value = sequence;
+            } else {
+                value = columns.getLowerCaseString(field);
+            }
+            return pattern.matcher(value).matches() ? TRUE : FALSE;
+        }
+    }
+
+    private static boolean isFloatingPointLike(byte[] data, int offset, int length) {
+        boolean digit = false;
+        for (int i = offset; i < offset + length; i++) {
+            byte c = data[i];
+            if (c >= '0' && c <= '9') {
+                digit = true;
+            } else if (c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E') {
+                return false;
+            }
+        }
+        return digit;
+    }
+
+    private static byte toLowerCase(byte b) {
+        return (b >= 'A' && b <= 'Z') ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    /**
+     * A lowercased view of a range of 7-bit ASCII bytes, used to run regular expressions without creating a {@link String}
+     */
+    private static class AsciiLowerCaseSequence implements CharSequence {
+        private byte[] data;
+        private int offset;
+        private int length;
+
+        private void set(byte[] data, int offset, int length) {
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(Integer.toString(index));
+            }
+            return (char) toLowerCase(data[offset + index]);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = charAt(i);
+            }
+            return new String(chars);
+        }
+    }
+}
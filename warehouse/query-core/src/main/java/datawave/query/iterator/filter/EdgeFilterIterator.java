@@ -25,7 +25,6 @@ import org.apache.log4j.Logger;
 import com.google.common.collect.HashMultimap;
 
 import datawave.edge.model.EdgeModelFields.FieldKey;
-import datawave.edge.util.EdgeKeyUtil;
 import datawave.query.jexl.ArithmeticJexlEngines;
 import datawave.query.jexl.DatawaveJexlEngine;
 import datawave.query.jexl.DefaultArithmetic;
@@ -37,6 +36,10 @@ import datawave.query.jexl.DefaultArithmetic;
  * pair the returned values from that iterator stack down to only those that actually do adhere to the full JEXL expression.
  * <p>
  * Prefiltering is an optional component that can determine quickly if a key will fail using an allowlist of accepted values parsed from the jexl
+ * <p>
+ * Edge keys are decoded into reusable byte ranges by {@link EdgeKeyColumns}. When the expression only consists of equality and regex comparisons against the
+ * edge key components combined with and/or/not, it is compiled into a {@link CompiledEdgePredicate} that is evaluated directly against those byte ranges. The
+ * JEXL expression is only evaluated for expressions (or keys) the compiled predicate cannot decide.
  */
 public class EdgeFilterIterator extends Filter {
     public static final Logger log = Logger.getLogger(EdgeFilterIterator.class);
@@ -49,23 +52,42 @@ public class EdgeFilterIterator extends Filter {
 
     private static final Engine jexlEngine;
 
+    private static final String[] CONTEXT_NAMES = new String[EdgeKeyColumns.FIELDS.length];
+
     private boolean protobuffFormat;
     private boolean includeStatsEdges;
     private JexlExpression expression = null;
     private JexlExpression statsExpression = null;
+    private String query = null;
+    private String statsQuery = null;
+    private CompiledEdgePredicate predicate = null;
+    private CompiledEdgePredicate statsPredicate = null;
     private JexlContext ctx = new MapContext();
+    private EdgeKeyColumns columns = new EdgeKeyColumns();
 
     private HashMultimap<String,String> preFilterValues;
 
     static {
         jexlEngine = ArithmeticJexlEngines.getEngine(new DefaultArithmetic());
+        for (int i = 0; i < EdgeKeyColumns.FIELDS.length; i++) {
+            CONTEXT_NAMES[i] = EdgeKeyColumns.FIELDS[i].name().toLowerCase();
+        }
     }
 
     @Override
     public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
         EdgeFilterIterator result = (EdgeFilterIterator) super.deepCopy(env);
         result.protobuffFormat = this.protobuffFormat;
+        result.includeStatsEdges = this.includeStatsEdges;
         result.expression = this.expression;
+        result.statsExpression = this.statsExpression;
+        result.query = this.query;
+        result.statsQuery = this.statsQuery;
+        // the compiled predicates hold scratch state, so each copy gets its own
+        result.predicate = CompiledEdgePredicate.compile(this.query);
+        result.statsPredicate = CompiledEdgePredicate.compile(this.statsQuery);
+        result.ctx = new MapContext();
+        result.columns = new EdgeKeyColumns();
         result.preFilterValues = this.preFilterValues;
 
         return result;
@@ -94,52 +116,19 @@ public class EdgeFilterIterator extends Filter {
     }
 
     /**
-     * Sets up the jexl context with the terms to evaluate against.
+     * Sets up the jexl context with the terms to evaluate against from the decoded edge key.
      * <p>
      * Converts them all to lowercase for case-insensitive queries.
      *
      * @param ctx
      *            the context
-     * @param keyComponents
-     *            mapping of key components
+     * @param columns
+     *            the decoded edge key
      */
-    private void setupContext(JexlContext ctx, Map<FieldKey,String> keyComponents) {
-
-        String source = keyComponents.get(FieldKey.EDGE_SOURCE);
-        String sink = keyComponents.get(FieldKey.EDGE_SINK);
-        String edgeType = keyComponents.get(FieldKey.EDGE_TYPE);
-        String edgeRelationship = keyComponents.get(FieldKey.EDGE_RELATIONSHIP);
-        String edgeAttribute1 = keyComponents.get(FieldKey.EDGE_ATTRIBUTE1);
-        String edgeAttribute2 = keyComponents.get(FieldKey.EDGE_ATTRIBUTE2);
-        String edgeAttribute3 = keyComponents.get(FieldKey.EDGE_ATTRIBUTE3);
-        String edgeDate = keyComponents.get(FieldKey.DATE);
-
-        // Convert all values to lowercase.
-        if (null != source)
-            source = source.toLowerCase();
-        if (null != sink)
-            sink = sink.toLowerCase();
-        if (null != edgeType)
-            edgeType = edgeType.toLowerCase();
-        if (null != edgeRelationship)
-            edgeRelationship = edgeRelationship.toLowerCase();
-        if (null != edgeAttribute1)
-            edgeAttribute1 = edgeAttribute1.toLowerCase();
-        if (null != edgeAttribute2)
-            edgeAttribute2 = edgeAttribute2.toLowerCase();
-        if (null != edgeAttribute3)
-            edgeAttribute3 = edgeAttribute3.toLowerCase();
-        if (null != edgeDate)
-            edgeDate = edgeDate.toLowerCase();
-
-        ctx.set(FieldKey.EDGE_SOURCE.name().toLowerCase(), source);
-        ctx.set(FieldKey.EDGE_SINK.name().toLowerCase(), sink);
-        ctx.set(FieldKey.EDGE_TYPE.name().toLowerCase(), edgeType);
-        ctx.set(FieldKey.EDGE_RELATIONSHIP.name().toLowerCase(), edgeRelationship);
-        ctx.set(FieldKey.EDGE_ATTRIBUTE1.name().toLowerCase(), edgeAttribute1);
-        ctx.set(FieldKey.EDGE_ATTRIBUTE2.name().toLowerCase(), edgeAttribute2);
-        ctx.set(FieldKey.EDGE_ATTRIBUTE3.name().toLowerCase(), edgeAttribute3);
-        ctx.set(FieldKey.DATE.name().toLowerCase(), edgeDate);
+    private void setupContext(JexlContext ctx, EdgeKeyColumns columns) {
+        for (int i = 0; i < EdgeKeyColumns.FIELDS.length; i++) {
+            ctx.set(CONTEXT_NAMES[i], columns.getLowerCaseString(i));
+        }
     }
 
     /**
@@ -157,6 +146,11 @@ public class EdgeFilterIterator extends Filter {
         // to stay consistent with the rest of the query engine, support case-insensitive boolean operators.
         String caseFixQuery = jexl.toLowerCase();
         expression = jexlEngine.createExpression(caseFixQuery);
+        query = caseFixQuery;
+        predicate = CompiledEdgePredicate.compile(caseFixQuery);
+        if (log.isDebugEnabled()) {
+            log.debug("Edge filter expression " + (predicate == null ? "will be evaluated by jexl" : "was compiled") + ": " + caseFixQuery);
+        }
 
         String protobuff = options.get(PROTOBUF_OPTION);
         if (null == protobuff) {
@@ -173,7 +167,9 @@ public class EdgeFilterIterator extends Filter {
         String jexlStats = options.get(JEXL_STATS_OPTION);
 
         if (jexlStats != null) {
-            statsExpression = jexlEngine.createExpression(jexlStats.toLowerCase());
+            statsQuery = jexlStats.toLowerCase();
+            statsExpression = jexlEngine.createExpression(statsQuery);
+            statsPredicate = CompiledEdgePredicate.compile(statsQuery);
         }
 
         String inPrefilter = options.get(PREFILTER_ALLOWLIST);
@@ -195,31 +191,55 @@ public class EdgeFilterIterator extends Filter {
     }
 
     /**
-     * Method to perform prefilter against a allowlist to see if we can quickly ignore the key
+     * Method to perform prefilter against a allowlist to see if we can quickly ignore the decoded key
      *
-     * @param keyComponents
-     *            mapping of key components
+     * @param columns
+     *            the decoded edge key
      * @return if we can ignore the key
      */
-    private boolean prefilter(Map<FieldKey,String> keyComponents) {
-        boolean retVal = true;
+    private boolean prefilter(EdgeKeyColumns columns) {
         if (preFilterValues != null) {
-            for (Map.Entry<FieldKey,String> entry : keyComponents.entrySet()) {
-                String fieldName = entry.getKey().name();
-                Set<String> values = preFilterValues.get(fieldName);
+            for (int i = 0; i < EdgeKeyColumns.FIELDS.length; i++) {
+                if (!columns.isPresent(i)) {
+                    continue;
+                }
+                Set<String> values = preFilterValues.get(EdgeKeyColumns.FIELDS[i].name());
                 if (values == null || values.size() < 1) {
                     // if we encountered a regex, we'll just let the jexl engine handle it, or filter it by a different field
                     continue;
                 }
-                // assuming we have no regex to match on this field, then if the allowlist exists
-                // and the value for this key isn't in that allowlist, we just give it the boot.
-                if (!preFilterValues.get(fieldName).contains(entry.getValue())) {
+                if (!values.contains(columns.getString(i))) {
+                    return false;
+                }
+            }
+            if (columns.isStatsEdge()) {
+                Set<String> values = preFilterValues.get(FieldKey.STATS_EDGE.name());
+                if (values != null && values.size() > 0 && !values.contains("true")) {
                     return false;
                 }
             }
         }
+        return true;
+    }
 
-        return retVal;
+    /**
+     * Evaluate the compiled predicate if there is one, falling back to the jexl expression when the predicate is not available or cannot decide the key
+     *
+     * @param compiled
+     *            the compiled predicate, may be null
+     * @param jexl
+     *            the jexl expression
+     * @return true if the decoded key satisfies the expression
+     */
+    private boolean evaluate(CompiledEdgePredicate compiled, JexlExpression jexl) {
+        if (compiled != null) {
+            int result = compiled.evaluate(columns);
+            if (result != CompiledEdgePredicate.UNKNOWN) {
+                return result == CompiledEdgePredicate.TRUE;
+            }
+        }
+        setupContext(ctx, columns);
+        return isMatched(jexl.evaluate(ctx));
     }
 
     @Override
@@ -258,16 +278,14 @@ public class EdgeFilterIterator extends Filter {
     public boolean accept(Key k, Value V) {
         boolean value = false;
 
-        Map<FieldKey,String> keyComponents = EdgeKeyUtil.dissasembleKey(k, protobuffFormat);
+        columns.decode(k, protobuffFormat);
 
-        if (!prefilter(keyComponents)) {
+        if (!prefilter(columns)) {
             value = false;
-        } else if (keyComponents.containsKey(FieldKey.STATS_EDGE)) {
+        } else if (columns.isStatsEdge()) {
             if (includeStatsEdges) {
                 if (statsExpression != null) {
-                    setupContext(ctx, keyComponents);
-                    Object o = statsExpression.evaluate(ctx);
-                    value = isMatched(o);
+                    value = evaluate(statsPredicate, statsExpression);
                 } else {
                     value = true;
                 }
@@ -275,9 +293,7 @@ public class EdgeFilterIterator extends Filter {
                 value = false;
             }
         } else {
-            setupContext(ctx, keyComponents);
-            Object o = expression.evaluate(ctx);
-            value = isMatched(o);
+            value = evaluate(predicate, expression);
         }
 
         return value;
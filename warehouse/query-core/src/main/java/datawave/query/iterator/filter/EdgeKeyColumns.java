@@ -0,0 +1,307 @@
+package datawave.query.iterator.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.commons.lang.StringEscapeUtils;
+
+import datawave.edge.model.EdgeModelFields.FieldKey;
+
+/**
+ * A reusable, allocation free decoding of the components of an edge {@link Key}. Rather than building a map of {@link String}s per key (see
+ * {@link datawave.edge.util.EdgeKeyUtil#dissasembleKey(Key, boolean)}), the positions of each component are recorded as byte ranges into the backing arrays of
+ * the row, column family and column qualifier. Components are only materialized as {@link String}s on request.
+ * <p>
+ * The component boundaries are identical to those produced by {@code EdgeKeyUtil.dissasembleKey}, including the handling of trailing empty components.
+ */
+public class EdgeKeyColumns {
+
+    /**
+     * The edge key components that are made available to filter expressions, in the order used to index the column arrays
+     */
+    public static final FieldKey[] FIELDS = {FieldKey.EDGE_SOURCE, FieldKey.EDGE_SINK, FieldKey.EDGE_TYPE, FieldKey.EDGE_RELATIONSHIP, FieldKey.EDGE_ATTRIBUTE1,
+            FieldKey.EDGE_ATTRIBUTE2, FieldKey.EDGE_ATTRIBUTE3, FieldKey.DATE};
+
+    public static final int SOURCE = 0;
+    public static final int SINK = 1;
+    public static final int TYPE = 2;
+    public static final int RELATIONSHIP = 3;
+    public static final int ATTRIBUTE1 = 4;
+    public static final int ATTRIBUTE2 = 5;
+    public static final int ATTRIBUTE3 = 6;
+    public static final int DATE = 7;
+
+    private static final int MAX_PARTS = 8;
+
+    private static final byte[] STATS_PREFIX = "STATS".getBytes(StandardCharsets.UTF_8);
+
+    private final byte[][] data = new byte[FIELDS.length][];
+    private final int[] offset = new int[FIELDS.length];
+    private final int[] length = new int[FIELDS.length];
+
+    // scratch space used when splitting a column into its parts
+    private final int[] partStart = new int[MAX_PARTS];
+    private final int[] partEnd = new int[MAX_PARTS];
+
+    private boolean statsEdge;
+
+    /**
+     * @param name
+     *            the lowercase name of a field as used in the filter expressions (e.g. edge_source)
+     * @return the index of the field, or -1 if the field is not an edge key component
+     */
+    public static int indexOf(String name) {
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (FIELDS[i].name().toLowerCase().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decode the component positions of an edge key, replacing the previously decoded key.
+     *
+     * @param key
+     *            the edge key
+     * @param protobuffFormat
+     *            whether the key is in the protocol buffer edge format
+     */
+    public void decode(Key key, boolean protobuffFormat) {
+        for (int i = 0; i < FIELDS.length; i++) {
+            data[i] = null;
+        }
+
+        ByteSequence row = key.getRowData();
+        ByteSequence cf = key.getColumnFamilyData();
+        ByteSequence cq = key.getColumnQualifierData();
+
+        decodeRow(row);
+
+        statsEdge = startsWith(cf, STATS_PREFIX);
+        if (!statsEdge) {
+            int cfParts = split(cf);
+            if (cfParts >= 2) {
+                set(TYPE, cf, 0);
+                set(RELATIONSHIP, cf, 1);
+            }
+            if (protobuffFormat) {
+                decodeQualifier(cq);
+            } else {
+                if (cfParts >= 3) {
+                    set(ATTRIBUTE1, cf, 2);
+                }
+                if (cfParts >= 4) {
+                    set(ATTRIBUTE2, cf, 3);
+                }
+                if (cfParts >= 5) {
+                    set(ATTRIBUTE3, cf, 4);
+                }
+                data[DATE] = cq.getBackingArray();
+                offset[DATE] = cq.offset();
+                length[DATE] = cq.length();
+            }
+        } else if (protobuffFormat) {
+            int cfParts = split(cf);
+            if (cfParts >= 4) {
+                set(TYPE, cf, 2);
+                set(RELATIONSHIP, cf, 3);
+            }
+            decodeQualifier(cq);
+        }
+    }
+
+    /**
+     * Split the row on '\0' the way {@link datawave.util.StringUtils#split(String, char)} does: empty parts, whether leading, trailing or between adjacent
+     * separators, are dropped. A row of one part is the source, a row of two parts the source and sink, and any other row sets neither.
+     *
+     * @param row
+     *            the row
+     */
+    private void decodeRow(ByteSequence row) {
+        byte[] bytes = row.getBackingArray();
+        int start = row.offset();
+        int end = start + row.length();
+        int parts = 0;
+        int partBegin = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || bytes[i] == 0) {
+                if (i > partBegin) {
+                    if (parts == 2) {
+                        // more than two parts, neither source nor sink are set
+                        data[SOURCE] = null;
+                        data[SINK] = null;
+                        return;
+                    }
+                    int field = parts == 0 ? SOURCE : SINK;
+                    data[field] = bytes;
+                    offset[field] = partBegin;
+                    length[field] = i - partBegin;
+                    parts++;
+                }
+                partBegin = i + 1;
+            }
+        }
+    }
+
+    private void decodeQualifier(ByteSequence cq) {
+        int cqParts = split(cq);
+        if (cqParts >= 1) {
+            set(DATE, cq, 0);
+        }
+        if (cqParts >= 2) {
+            set(ATTRIBUTE1, cq, 1);
+        }
+        if (cqParts >= 3) {
+            set(ATTRIBUTE2, cq, 2);
+        }
+        if (cqParts >= 4) {
+            set(ATTRIBUTE3, cq, 3);
+        }
+    }
+
+    /**
+     * Split a column on '/' into the scratch arrays, following the semantics of {@link String#split(String)}: trailing empty parts are dropped and an empty
+     * column yields a single empty part. Only the first {@link #MAX_PARTS} parts are recorded.
+     *
+     * @param column
+     *            the column
+     * @return the number of parts
+     */
+    private int split(ByteSequence column) {
+        byte[] bytes = column.getBackingArray();
+        int start = column.offset();
+        int end = start + column.length();
+        if (start == end) {
+            partStart[0] = start;
+            partEnd[0] = end;
+            return 1;
+        }
+        int parts = 0;
+        int lastNonEmpty = 0;
+        int partBegin = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || bytes[i] == '/') {
+                if (parts < MAX_PARTS) {
+                    partStart[parts] = partBegin;
+                    partEnd[parts] = i;
+                }
+                parts++;
+                if (i > partBegin) {
+                    lastNonEmpty = parts;
+                }
+                partBegin = i + 1;
+            }
+        }
+        return lastNonEmpty;
+    }
+
+    private void set(int field, ByteSequence column, int part) {
+        data[field] = column.getBackingArray();
+        offset[field] = partStart[part];
+        length[field] = partEnd[part] - partStart[part];
+    }
+
+    private static boolean startsWith(ByteSequence sequence, byte[] prefix) {
+        if (sequence.length() < prefix.length) {
+            return false;
+        }
+        byte[] bytes = sequence.getBackingArray();
+        int start = sequence.offset();
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[start + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isStatsEdge() {
+        return statsEdge;
+    }
+
+    public boolean isPresent(int field) {
+        return data[field] != null;
+    }
+
+    public byte[] getData(int field) {
+        return data[field];
+    }
+
+    public int getOffset(int field) {
+        return offset[field];
+    }
+
+    public int getLength(int field) {
+        return length[field];
+    }
+
+    /**
+     * Determine whether the field can be compared byte for byte with a lowercase literal: the field must be 7-bit ASCII, and the source and sink must not
+     * contain any escape sequences.
+     *
+     * @param field
+     *            the field index
+     * @return true if the raw bytes may be compared directly
+     */
+    public boolean isPlainAscii(int field) {
+        byte[] bytes = data[field];
+        int end = offset[field] + length[field];
+        boolean escaped = field == SOURCE || field == SINK;
+        for (int i = offset[field]; i < end; i++) {
+            byte b = bytes[i];
+            if (b < 0 || (escaped && b == '\\')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Materialize a field as the lowercase {@link String} that the JEXL filter expressions are evaluated against
+     *
+     * @param field
+     *            the field index
+     * @return the lowercase value, or null if the field is not present
+     */
+    public String getLowerCaseString(int field) {
+        if (data[field] == null) {
+            return null;
+        }
+        String value = new String(data[field], offset[field], length[field], StandardCharsets.UTF_8);
+        if (field == SOURCE || field == SINK) {
+            value = StringEscapeUtils.unescapeJava(value);
+        }
+        return value.toLowerCase();
+    }
+
+    /**
+     * Materialize a field as it appears in the key, with source and sink unescaped
+     *
+     * @param field
+     *            the field index
+     * @return the value, or null if the field is not present
+     */
+    public String getString(int field) {
+        if (data[field] == null) {
+            return null;
+        }
+        String value = new String(data[field], offset[field], length[field], StandardCharsets.UTF_8);
+        if (field == SOURCE || field == SINK) {
+            value = StringEscapeUtils.unescapeJava(value);
+        }
+        return value;
+    }
+
+    /**
+     * ASCII lowercasing is only equivalent to {@link String#toLowerCase()} when the default locale does not have special casing rules for ASCII letters.
+     *
+     * @return true if ASCII bytes may be lowercased directly
+     */
+    static boolean isAsciiLowerCaseSafe() {
+        String language = Locale.getDefault().getLanguage();
+        return !("tr".equals(language) || "az".equals(language) || "lt".equals(language));
+    }
+}
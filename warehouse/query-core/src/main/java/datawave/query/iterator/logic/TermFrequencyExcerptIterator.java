@@ -132,10 +132,26 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
         /** The size of half of the original desired excerpt length. Used during trimming. */
         private float origHalfSize;
 
+        public String getFieldName() {
+            return fieldName;
+        }
+
         public List<String> getHitTermsList() {
             return hitTermsList;
         }
 
+        public boolean isTrimExcerpt() {
+            return trimExcerpt;
+        }
+
+        public int getStartOffset() {
+            return startOffset;
+        }
+
+        public int getEndOffset() {
+            return endOffset;
+        }
+
         public String toString() {
             return fieldName + ", " + startOffset + ", " + endOffset;
         }
@@ -349,6 +365,35 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
             return;
         }
 
+        // set the size of the array to the number of offsets that we will try to fill for the potential excerpt
+        WordsAndScores[] wordsAndScoresArr = new WordsAndScores[config.endOffset - config.startOffset];
+
+        Key top = fillWordsAndScores(dtUid, wordsAndScoresArr);
+        // if a stop word was found, the top key is already set to the word skipped marker
+        if (top == null) {
+            return;
+        }
+
+        // Now that the words and scores array is populated with all the tf data, it's time to generate an excerpt and
+        // create a key that contains all of our excerpts to be read by the ExcerptTransform
+        tk = new Key(top.getRow(), new Text(dtUid), new Text(config.fieldName + Constants.NULL + generateExcerpt(wordsAndScoresArr)), top.getColumnVisibility(),
+                        top.getTimestamp());
+        tv = new Value();
+    }
+
+    /**
+     * Fill the words and scores of the configured offsets of a document from its term frequencies. The source is positioned at the first term frequency of
+     * the document and is left at the first term frequency of the next document, unless a stop word is found.
+     *
+     * @param dtUid
+     *            the dt and uid of the document
+     * @param wordsAndScoresArr
+     *            the words and scores to fill, indexed by offset from the start offset
+     * @return the last term frequency key read, or null if a stop word was found outside of trim mode and the word skipped marker was set as the top key
+     * @throws IOException
+     *             for issues with read/write
+     */
+    protected Key fillWordsAndScores(String dtUid, WordsAndScores[] wordsAndScoresArr) throws IOException {
         final int startOffset = config.startOffset;
         final int endOffset = config.endOffset;
         final List<String> hitTermsList = config.hitTermsList;
@@ -356,9 +401,6 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
 
         Key top = source.getTopKey();
 
-        // set the size of the array to the number of offsets that we will try to fill for the potential excerpt
-        WordsAndScores[] wordsAndScoresArr = new WordsAndScores[endOffset - startOffset];
-
         // while we have term frequencies for the same document
         while (source.hasTop() && dtUid.equals(getDtUidFromTfKey(source.getTopKey()))) {
             top = source.getTopKey();
@@ -403,10 +445,8 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
                             // to return the special marker token. When seeing this, the transform will run this again
                             // in trim mode with an expanded offset range.
                             if (stopFound && !config.trimExcerpt) {
-                                tk = new Key(top.getRow(), new Text(dtUid), new Text(fieldName + Constants.NULL + WORD_SKIPPED_MARKER + Constants.NULL
-                                                + WORD_SKIPPED_MARKER + Constants.NULL + WORD_SKIPPED_MARKER), top.getColumnVisibility(), top.getTimestamp());
-                                tv = new Value();
-                                return;
+                                setWordSkippedMarker(top, dtUid);
+                                return null;
                             }
                         }
                     }
@@ -417,10 +457,20 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
             // get the next term frequency
             source.next();
         }
-        // Now that the words and scores array is populated with all the tf data, it's time to generate an excerpt and
-        // create a key that contains all of our excerpts to be read by the ExcerptTransform
-        tk = new Key(top.getRow(), new Text(dtUid), new Text(fieldName + Constants.NULL + generateExcerpt(wordsAndScoresArr)), top.getColumnVisibility(),
-                        top.getTimestamp());
+        return top;
+    }
+
+    /**
+     * Set the top key to the word skipped marker, telling the ExcerptTransform to run this iterator again in trim mode with an expanded offset range
+     *
+     * @param top
+     *            the key of the document
+     * @param dtUid
+     *            the dt and uid of the document
+     */
+    protected void setWordSkippedMarker(Key top, String dtUid) {
+        tk = new Key(top.getRow(), new Text(dtUid), new Text(config.fieldName + Constants.NULL + WORD_SKIPPED_MARKER + Constants.NULL + WORD_SKIPPED_MARKER
+                        + Constants.NULL + WORD_SKIPPED_MARKER), top.getColumnVisibility(), top.getTimestamp());
         tv = new Value();
     }
 
@@ -851,7 +901,7 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
      * @throws IOException
      *             for issues with read/write
      */
-    private void seekToNextUid(Text row, String dtAndUid) throws IOException {
+    protected void seekToNextUid(Text row, String dtAndUid) throws IOException {
         Key startKey = new Key(row, Constants.TERM_FREQUENCY_COLUMN_FAMILY, new Text(dtAndUid + '.'));
         this.scanRange = new Range(startKey, false, this.scanRange.getEndKey(), this.scanRange.isEndKeyInclusive());
         if (log.isDebugEnabled()) {
@@ -0,0 +1,129 @@
+package datawave.query.iterator.logic;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.hadoop.io.Text;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import datawave.ingest.protobuf.TokenPositionBlock;
+import datawave.query.Constants;
+
+/**
+ * An excerpt iterator that reads the terms of the requested offsets from the {@link TokenPositionBlock}s of a document field, written at ingest when token
+ * position blocks are enabled, instead of scanning every term frequency of the document. Only the blocks covering the offsets are read, so the cost of an
+ * excerpt does not grow with the size of the document. Documents without blocks for the field fall back to the term frequency scan of the
+ * {@link TermFrequencyExcerptIterator}.
+ */
+public class TokenPositionExcerptIterator extends TermFrequencyExcerptIterator {
+    private static final Logger log = LoggerFactory.getLogger(TokenPositionExcerptIterator.class);
+    private static final Collection<ByteSequence> TOKEN_POSITION_COLUMN_FAMILY_BYTE_SEQUENCE = Collections
+                    .singleton(new ArrayByteSequence(Constants.TOKEN_POSITION_COLUMN_FAMILY.getBytes()));
+    private static final Collection<ByteSequence> TERM_FREQUENCY_COLUMN_FAMILY_BYTE_SEQUENCE = Collections
+                    .singleton(new ArrayByteSequence(Constants.TERM_FREQUENCY_COLUMN_FAMILY.getBytes()));
+
+    @Override
+    public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+        TokenPositionExcerptIterator it = new TokenPositionExcerptIterator();
+        it.source = source.deepCopy(env);
+        it.config.deepCopy(config);
+        return it;
+    }
+
+    @Override
+    protected Key fillWordsAndScores(String dtUid, WordsAndScores[] wordsAndScoresArr) throws IOException {
+        Key top = source.getTopKey();
+        Text row = top.getRow();
+
+        Boolean stopFound = fillFromTokenPositions(row, dtUid, wordsAndScoresArr);
+        if (stopFound == null) {
+            // no blocks for this document field, so go back to its term frequencies
+            log.debug("{} found no token position blocks for {}, scanning term frequencies", this, dtUid);
+            source.seek(new Range(top, true, scanRange.getEndKey(), scanRange.isEndKeyInclusive()), TERM_FREQUENCY_COLUMN_FAMILY_BYTE_SEQUENCE, true);
+            return super.fillWordsAndScores(dtUid, wordsAndScoresArr);
+        }
+
+        // skip the term frequencies of this document
+        seekToNextUid(row, dtUid);
+
+        if (stopFound && !config.isTrimExcerpt()) {
+            setWordSkippedMarker(top, dtUid);
+            return null;
+        }
+        return top;
+    }
+
+    /**
+     * Fill the words of the configured offsets from the token position blocks that cover them
+     *
+     * @param row
+     *            the shard
+     * @param dtUid
+     *            the dt and uid of the document
+     * @param wordsAndScoresArr
+     *            the words and scores to fill, indexed by offset from the start offset
+     * @return whether a stop word was found, or null if there are no usable blocks
+     * @throws IOException
+     *             for issues with read/write
+     */
+    private Boolean fillFromTokenPositions(Text row, String dtUid, WordsAndScores[] wordsAndScoresArr) throws IOException {
+        final int startOffset = config.getStartOffset();
+        final int endOffset = config.getEndOffset();
+        final List<String> hitTermsList = config.getHitTermsList();
+
+        // blocks are keyed by the last position of their range, so the first block at or after the start offset is in the first range covering it
+        String prefix = dtUid + Constants.NULL + config.getFieldName() + Constants.NULL;
+        Key startKey = new Key(row, Constants.TOKEN_POSITION_COLUMN_FAMILY, new Text(prefix + TokenPositionBlock.encodePosition(startOffset)));
+        Key endKey = new Key(row, Constants.TOKEN_POSITION_COLUMN_FAMILY, new Text(prefix + Constants.MAX_UNICODE_STRING));
+        source.seek(new Range(startKey, true, endKey, false), TOKEN_POSITION_COLUMN_FAMILY_BYTE_SEQUENCE, true);
+
+        boolean found = false;
+        boolean stopFound = false;
+        int previousKeyPosition = -1;
+        while (source.hasTop()) {
+            TokenPositionBlock block;
+            int keyPosition;
+            try {
+                keyPosition = TokenPositionBlock.decodePosition(source.getTopKey().getColumnQualifier().toString().substring(prefix.length()));
+                block = TokenPositionBlock.parseFrom(source.getTopValue().get());
+            } catch (IOException | NumberFormatException e) {
+                log.warn("Entry found in tp column was not a valid token position block, falling back to term frequencies", e);
+                return null;
+            }
+            // the blocks of a range share its key position, one per visibility, so stop only once past every block of the range covering the end offset
+            if (keyPosition != previousKeyPosition && previousKeyPosition >= endOffset - 1) {
+                break;
+            }
+            previousKeyPosition = keyPosition;
+            found = true;
+
+            int last = Math.min(block.getLastPosition(), endOffset - 1);
+            for (int offset = Math.max(block.getFirstPosition(), startOffset); offset <= last; offset++) {
+                for (String term : block.getTerms(offset)) {
+                    int index = offset - startOffset;
+                    if (wordsAndScoresArr[index] == null) {
+                        wordsAndScoresArr[index] = new WordsAndScores();
+                    }
+                    stopFound |= wordsAndScoresArr[index].addTerm(term, hitTermsList);
+                }
+            }
+            source.next();
+        }
+        return found ? stopFound : null;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenPositionExcerptIterator: " + config;
+    }
+}
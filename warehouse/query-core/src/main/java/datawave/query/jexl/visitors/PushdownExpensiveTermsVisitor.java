@@ -0,0 +1,144 @@
+package datawave.query.jexl.visitors;
+
+import static datawave.query.jexl.nodes.QueryPropertyMarker.MarkerType.DELAYED;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.commons.jexl3.parser.ASTAndNode;
+import org.apache.commons.jexl3.parser.ASTEQNode;
+import org.apache.commons.jexl3.parser.ASTERNode;
+import org.apache.commons.jexl3.parser.ASTFunctionNode;
+import org.apache.commons.jexl3.parser.ASTNotNode;
+import org.apache.commons.jexl3.parser.ASTReference;
+import org.apache.commons.jexl3.parser.ASTReferenceExpression;
+import org.apache.commons.jexl3.parser.JexlNode;
+import org.apache.commons.jexl3.parser.JexlNodes;
+import org.apache.log4j.Logger;
+
+import datawave.query.jexl.JexlASTHelper;
+import datawave.query.jexl.nodes.QueryPropertyMarker;
+import datawave.query.planner.QueryCostModel;
+
+/**
+ * Visitor meant to 'push down' the terms of a conjunction that are much less selective than its most selective term. Scanning the global index and the field
+ * index for such a term, or expanding it when it is a regex, costs far more than evaluating it against the few documents the cheaper term already selects.
+ * <p>
+ * An equality or regex term is delayed when its estimate, see {@link QueryCostModel}, exceeds the given factor times the smallest known estimate among its
+ * siblings. The smallest term is never delayed, so the conjunction stays executable, and terms of fields that can not be evaluated against the event, such as
+ * index only fields, are left alone.
+ */
+public class PushdownExpensiveTermsVisitor extends ShortCircuitBaseVisitor {
+    private static final Logger log = Logger.getLogger(PushdownExpensiveTermsVisitor.class);
+
+    private final QueryCostModel costModel;
+    private final Set<String> nonEventFields;
+    private final double factor;
+
+    public PushdownExpensiveTermsVisitor(QueryCostModel costModel, Set<String> nonEventFields, double factor) {
+        this.costModel = costModel;
+        this.nonEventFields = nonEventFields == null ? Collections.emptySet() : nonEventFields;
+        this.factor = Math.max(1.0d, factor);
+    }
+
+    /**
+     * Delay the expensive terms of the conjunctions of a query tree
+     *
+     * @param queryTree
+     *            the query tree
+     * @param costModel
+     *            the cost model used to estimate each term
+     * @param nonEventFields
+     *            fields whose terms may not be delayed
+     * @param factor
+     *            terms estimated above this multiple of the cheapest sibling are delayed
+     * @param <T>
+     *            the type of the query tree
+     * @return the query tree
+     */
+    public static <T extends JexlNode> T pushdownExpensiveTerms(T queryTree, QueryCostModel costModel, Set<String> nonEventFields, double factor) {
+        PushdownExpensiveTermsVisitor visitor = new PushdownExpensiveTermsVisitor(costModel, nonEventFields, factor);
+        queryTree.jjtAccept(visitor, null);
+        return queryTree;
+    }
+
+    @Override
+    public Object visit(ASTReferenceExpression node, Object data) {
+        // if not already delayed somehow
+        if (!QueryPropertyMarker.findInstance(node).isAnyType()) {
+            return super.visit(node, data);
+        }
+        return data;
+    }
+
+    // delaying a term under a negation does not save a lookup
+    @Override
+    public Object visit(ASTNotNode node, Object data) {
+        return data;
+    }
+
+    @Override
+    public Object visit(ASTFunctionNode node, Object data) {
+        return data;
+    }
+
+    @Override
+    public Object visit(ASTAndNode node, Object data) {
+        // if not already delayed somehow
+        if (QueryPropertyMarker.findInstance(node).isAnyType()) {
+            return data;
+        }
+        super.visit(node, data);
+
+        int numChildren = node.jjtGetNumChildren();
+        long[] estimates = new long[numChildren];
+        long lowest = QueryCostModel.UNKNOWN;
+        for (int i = 0; i < numChildren; i++) {
+            estimates[i] = costModel.estimate(node.jjtGetChild(i));
+            lowest = Math.min(lowest, estimates[i]);
+        }
+        if (lowest == QueryCostModel.UNKNOWN) {
+            return data;
+        }
+
+        double threshold = factor * Math.max(1L, lowest);
+        List<JexlNode> expensive = new ArrayList<>();
+        for (int i = 0; i < numChildren; i++) {
+            if (estimates[i] != QueryCostModel.UNKNOWN && estimates[i] > threshold) {
+                JexlNode term = unwrap(node.jjtGetChild(i));
+                if (isDelayable(term)) {
+                    expensive.add(term);
+                }
+            }
+        }
+        for (JexlNode term : expensive) {
+            if (log.isDebugEnabled()) {
+                log.debug("Delaying " + JexlStringBuildingVisitor.buildQueryWithoutParse(term) + ", estimated at more than " + factor + " times "
+                                + lowest);
+            }
+            JexlNodes.swap(term.jjtGetParent(), term, QueryPropertyMarker.create(term, DELAYED));
+        }
+        return data;
+    }
+
+    private boolean isDelayable(JexlNode term) {
+        if (!(term instanceof ASTEQNode || term instanceof ASTERNode)) {
+            return false;
+        }
+        try {
+            return !nonEventFields.contains(JexlASTHelper.getIdentifier(term));
+        } catch (NoSuchElementException e) {
+            return false;
+        }
+    }
+
+    private static JexlNode unwrap(JexlNode node) {
+        while (node.jjtGetNumChildren() == 1 && (node instanceof ASTReference || node instanceof ASTReferenceExpression)) {
+            node = node.jjtGetChild(0);
+        }
+        return node;
+    }
+}
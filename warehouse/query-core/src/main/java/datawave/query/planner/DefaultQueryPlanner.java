@@ -89,6 +89,7 @@ import datawave.query.exceptions.InvalidQueryException;
 import datawave.query.exceptions.NoResultsException;
 import datawave.query.function.JexlEvaluation;
 import datawave.query.index.lookup.RangeStream;
+import datawave.query.index.stats.IndexStatsClient;
 import datawave.query.iterator.CloseableListIterable;
 import datawave.query.iterator.QueryIterator;
 import datawave.query.iterator.QueryOptions;
@@ -131,6 +132,7 @@ import datawave.query.jexl.visitors.NodeTypeCountVisitor;
 import datawave.query.jexl.visitors.PrintingVisitor;
 import datawave.query.jexl.visitors.PullupUnexecutableNodesVisitor;
 import datawave.query.jexl.visitors.PushFunctionsIntoExceededValueRanges;
+import datawave.query.jexl.visitors.PushdownExpensiveTermsVisitor;
 import datawave.query.jexl.visitors.PushdownLowSelectivityNodesVisitor;
 import datawave.query.jexl.visitors.PushdownMissingIndexRangeNodesVisitor;
 import datawave.query.jexl.visitors.PushdownUnexecutableNodesVisitor;
@@ -513,6 +515,8 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
                     .setNumRangesToBuffer(config.getNumRangesToBuffer())
                     .setRangeBufferTimeoutMillis(config.getRangeBufferTimeoutMillis())
                     .setRangeBufferPollMillis(config.getRangeBufferPollMillis())
+                    .setAdaptiveBundling(config.isAdaptiveRangeBundling())
+                    .setBundleTargetMillis(config.getRangeBundleTargetMillis())
                     .build();
             // @formatter:on
         } else {
@@ -533,6 +537,7 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
         addOption(cfg, QueryOptions.MATCHING_FIELD_SETS, config.getMatchingFieldSetsAsString(), false);
         addOption(cfg, QueryOptions.GROUP_FIELDS, config.getGroupFields().toString(), true);
         addOption(cfg, QueryOptions.GROUP_FIELDS_BATCH_SIZE, config.getGroupFieldsBatchSizeAsString(), true);
+        addOption(cfg, QueryOptions.GROUP_FIELDS_MAX_GROUPS, Integer.toString(config.getGroupFieldsMaxGroups()), true);
         addOption(cfg, QueryOptions.UNIQUE_FIELDS, config.getUniqueFields().toString(), true);
         addOption(cfg, QueryOptions.HIT_LIST, Boolean.toString(config.isHitList()), false);
         addOption(cfg, QueryOptions.TERM_FREQUENCY_FIELDS, Joiner.on(',').join(config.getQueryTermFrequencyFields()), false);
@@ -907,7 +912,7 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
         Set<String> indexedFields = null;
         Set<String> indexOnlyFields = null;
         Set<String> nonEventFields = null;
-        if (config.getMinSelectivity() > 0 || !disableBoundedLookup) {
+        if (config.getMinSelectivity() > 0 || !disableBoundedLookup || config.isUseCostBasedPlanning()) {
             try {
                 indexedFields = metadataHelper.getIndexedFields(config.getDatatypeFilter());
                 indexOnlyFields = metadataHelper.getIndexOnlyFields(config.getDatatypeFilter());
@@ -927,6 +932,11 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
             config.setQueryTree(timedPushdownLowSelectiveTerms(timers, config));
         }
 
+        // delay and reorder terms by their estimated cost
+        if (config.isUseCostBasedPlanning()) {
+            config.setQueryTree(timedApplyCostModel(timers, config, indexedFields, nonEventFields));
+        }
+
         config.setQueryTree(timedForceFieldToFieldComparison(timers, config.getQueryTree()));
 
         if (!disableCompositeFields) {
@@ -1531,6 +1541,52 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
         return config.getQueryTree();
     }
 
+    protected ASTJexlScript timedApplyCostModel(QueryStopwatch timers, ShardQueryConfiguration config, Set<String> indexedFields,
+                    Set<String> nonEventFields) {
+        TraceStopwatch stopwatch = timers.newStartedStopwatch("DefaultQueryPlanner - Apply Cost Model");
+
+        Set<String> fields = new HashSet<>(QueryFieldsVisitor.parseQueryFields(config.getQueryTree(), metadataHelper));
+        fields.retainAll(indexedFields);
+        if (!fields.isEmpty()) {
+            Set<String> datatypes = config.getDatatypeFilter();
+            Map<String,Long> fieldCounts = Collections.emptyMap();
+            try {
+                fieldCounts = metadataHelper.getCountsForFieldsInDateRange(fields, datatypes, config.getBeginDate(), config.getEndDate());
+            } catch (Exception e) {
+                log.warn("Could not retrieve field counts from metadata helper, estimating by index stats alone", e);
+            }
+            IndexStatsClient statsClient = new IndexStatsClient(config.getClient(), config.getIndexStatsTableName());
+            Map<String,Double> selectivities = new HashMap<>(statsClient.safeGetStat(fields, datatypes, config.getBeginDate(), config.getEndDate()));
+            selectivities.remove(IndexStatsClient.DEFAULT_STRING);
+
+            QueryCostModel costModel = new QueryCostModel(indexedFields, fieldCounts, selectivities);
+            ASTJexlScript script = PushdownExpensiveTermsVisitor.pushdownExpensiveTerms(config.getQueryTree(), costModel, nonEventFields,
+                            config.getCostBasedPushdownFactor());
+            Map<String,Long> estimates = costModel.getTermEstimates(script);
+            if (!estimates.isEmpty()) {
+                script = OrderByCostVisitor.orderByTermCount(script, estimates);
+            }
+
+            Map<String,Double> planEstimates = new HashMap<>();
+            for (Map.Entry<String,Long> estimate : estimates.entrySet()) {
+                planEstimates.put(estimate.getKey(), estimate.getValue().doubleValue());
+            }
+            long total = costModel.estimate(script);
+            if (total != QueryCostModel.UNKNOWN) {
+                planEstimates.put("Total", (double) total);
+            }
+            config.setPlanEstimates(planEstimates);
+            config.setQueryTree(script);
+            if (log.isDebugEnabled()) {
+                log.debug("Estimates: " + planEstimates);
+                logQuery(config.getQueryTree(), "Query after applying the cost model:");
+            }
+        }
+
+        stopwatch.stop();
+        return config.getQueryTree();
+    }
+
     protected ASTJexlScript timedForceFieldToFieldComparison(QueryStopwatch timers, final ASTJexlScript script) throws DatawaveQueryException {
         return visitorManager.timedVisit(timers, "Force Field-to-Field Comparison to Evaluation Only",
                         () -> (FieldToFieldComparisonVisitor.forceEvaluationOnly(script)));
@@ -2280,6 +2336,16 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
                 addOption(cfg, QueryOptions.DEBUG_MULTITHREADED_SOURCES, Boolean.toString(config.isDebugMultithreadedSources()), false);
             }
 
+            if (config.isSharedScan()) {
+                addOption(cfg, QueryOptions.SHARED_SCAN, Boolean.toString(config.isSharedScan()), false);
+                // the source is filtered by every authorization set of the query, so the shared keys are too
+                addOption(cfg, QueryOptions.SHARED_SCAN_AUTHS, QueryOptions.buildSharedScanAuths(config.getAuthorizations()), false);
+            }
+
+            if (config.isLazyAttributes()) {
+                addOption(cfg, QueryOptions.LAZY_ATTRIBUTES, Boolean.toString(config.isLazyAttributes()), false);
+            }
+
             if (config.isLimitFieldsPreQueryEvaluation()) {
                 addOption(cfg, QueryOptions.LIMIT_FIELDS_PRE_QUERY_EVALUATION, Boolean.toString(config.isLimitFieldsPreQueryEvaluation()), false);
             }
@@ -2355,6 +2421,9 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
         if (config.getTfNextSeek() > 0) {
             addOption(cfg, QueryOptions.TF_NEXT_SEEK, String.valueOf(config.getTfNextSeek()), false);
         }
+        if (config.getDocumentNextSeek() > 0) {
+            addOption(cfg, QueryOptions.DOCUMENT_NEXT_SEEK, String.valueOf(config.getDocumentNextSeek()), false);
+        }
 
         if (config.isSeekingEventAggregation()) {
             addOption(cfg, QueryOptions.SEEKING_EVENT_AGGREGATION, String.valueOf(config.isSeekingEventAggregation()), false);
@@ -2797,46 +2866,9 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
                 }
                 config.setCollapseUids(true);
             }
-            TraceStopwatch stopwatch = config.getTimers().newStartedStopwatch("DefaultQueryPlanner - Begin stream of ranges from inverted index");
-
-            RangeStream stream = initializeRangeStream(config, scannerFactory, metadataHelper);
-
-            ranges = stream.streamPlans(queryTree);
-
-            if (log.isTraceEnabled()) {
-                log.trace("query stream is " + stream.context());
-            }
-
-            switch (stream.context()) {
-                case EXCEEDED_TERM_THRESHOLD:
-                    // throw an unsupported exception if the planner cannot handle term threshold exceeded
-                    if (!config.canHandleExceededTermThreshold()) {
-                        throw new UnsupportedOperationException(EXCEED_TERM_EXPANSION_ERROR);
-                    }
-                    break;
-                case UNINDEXED:
-                    if (log.isDebugEnabled()) {
-                        log.debug("Full table scan required because of unindexed fields");
-                    }
-                    needsFullTable = true;
-                    break;
-                case DELAYED_FIELD:
-                    if (log.isDebugEnabled()) {
-                        log.debug("Full table scan required because query consists of only delayed expressions");
-                    }
-                    needsFullTable = true;
-                    break;
-                default:
-                    // the context is good and does not prevent a query from executing
-            }
-
-            // check for the case where we cannot handle an ivarator but the query requires an ivarator
-            if (IvaratorRequiredVisitor.isIvaratorRequired(queryTree) && !config.canHandleExceededValueThreshold()) {
-                log.debug("Needs full table scan because we exceeded the value threshold and config.canHandleExceededValueThreshold() is false");
-                needsFullTable = true;
-            }
-
-            stopwatch.stop();
+            Tuple2<CloseableIterable<QueryPlan>,Boolean> indexRanges = getIndexQueryRanges(scannerFactory, metadataHelper, config, queryTree);
+            ranges = indexRanges.first();
+            needsFullTable = indexRanges.second();
         }
         if (needsFullTable) {
             if (config.getFullTableScanEnabled()) {
@@ -2855,6 +2887,69 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
         return new Tuple2<>(ranges, needsFullTable);
     }
 
+    /**
+     * Returns the ranges computed from the global index for an executable query, and whether the query turned out to require a full table scan instead. This
+     * is called by {@link #getQueryRanges(ScannerFactory, MetadataHelper, ShardQueryConfiguration, JexlNode)} once the query has been checked and its datatype
+     * filter has been reduced, and may be overridden to look up the ranges in a different way.
+     *
+     * @param scannerFactory
+     *            the scanner factory
+     * @param metadataHelper
+     *            the metadata helper
+     * @param config
+     *            the shard configuration
+     * @param queryTree
+     *            the query tree
+     * @return the query range tuples
+     * @throws DatawaveQueryException
+     *             for issues with the query
+     */
+    protected Tuple2<CloseableIterable<QueryPlan>,Boolean> getIndexQueryRanges(ScannerFactory scannerFactory, MetadataHelper metadataHelper,
+                    ShardQueryConfiguration config, JexlNode queryTree) throws DatawaveQueryException {
+        boolean needsFullTable = false;
+        TraceStopwatch stopwatch = config.getTimers().newStartedStopwatch("DefaultQueryPlanner - Begin stream of ranges from inverted index");
+
+        RangeStream stream = initializeRangeStream(config, scannerFactory, metadataHelper);
+
+        CloseableIterable<QueryPlan> ranges = stream.streamPlans(queryTree);
+
+        if (log.isTraceEnabled()) {
+            log.trace("query stream is " + stream.context());
+        }
+
+        switch (stream.context()) {
+            case EXCEEDED_TERM_THRESHOLD:
+                // throw an unsupported exception if the planner cannot handle term threshold exceeded
+                if (!config.canHandleExceededTermThreshold()) {
+                    throw new UnsupportedOperationException(EXCEED_TERM_EXPANSION_ERROR);
+                }
+                break;
+            case UNINDEXED:
+                if (log.isDebugEnabled()) {
+                    log.debug("Full table scan required because of unindexed fields");
+                }
+                needsFullTable = true;
+                break;
+            case DELAYED_FIELD:
+                if (log.isDebugEnabled()) {
+                    log.debug("Full table scan required because query consists of only delayed expressions");
+                }
+                needsFullTable = true;
+                break;
+            default:
+                // the context is good and does not prevent a query from executing
+        }
+
+        // check for the case where we cannot handle an ivarator but the query requires an ivarator
+        if (IvaratorRequiredVisitor.isIvaratorRequired(queryTree) && !config.canHandleExceededValueThreshold()) {
+            log.debug("Needs full table scan because we exceeded the value threshold and config.canHandleExceededValueThreshold() is false");
+            needsFullTable = true;
+        }
+
+        stopwatch.stop();
+        return new Tuple2<>(ranges, needsFullTable);
+    }
+
     protected ASTJexlScript timedSortQueryBeforeGlobalIndex(ShardQueryConfiguration config, MetadataHelper metadataHelper) throws DatawaveQueryException {
         return visitorManager.timedVisit(config.getTimers(), "SortQueryBeforeGlobalIndex", () -> {
             Set<String> fields = QueryFieldsVisitor.parseQueryFields(config.getQueryTree(), getMetadataHelper());
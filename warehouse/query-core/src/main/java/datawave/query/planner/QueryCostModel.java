@@ -0,0 +1,153 @@
+package datawave.query.planner;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.commons.jexl3.parser.ASTAndNode;
+import org.apache.commons.jexl3.parser.ASTEQNode;
+import org.apache.commons.jexl3.parser.ASTERNode;
+import org.apache.commons.jexl3.parser.ASTFunctionNode;
+import org.apache.commons.jexl3.parser.ASTJexlScript;
+import org.apache.commons.jexl3.parser.ASTNotNode;
+import org.apache.commons.jexl3.parser.ASTOrNode;
+import org.apache.commons.jexl3.parser.ASTReference;
+import org.apache.commons.jexl3.parser.ASTReferenceExpression;
+import org.apache.commons.jexl3.parser.JexlNode;
+
+import datawave.query.jexl.JexlASTHelper;
+import datawave.query.jexl.nodes.QueryPropertyMarker;
+import datawave.query.jexl.visitors.JexlStringBuildingVisitor;
+
+/**
+ * Estimates the number of documents matched by the nodes of a query tree, so that the planner can order conjuncts and decide which terms are worth an index
+ * lookup.
+ * <p>
+ * Estimates come from the per field selectivity of the index stats table, the number of unique values over the number of entries (see
+ * {@link datawave.query.index.stats.IndexStatsClient}), and the per field counts of the metadata table for the date range of the query. An equality term is
+ * estimated by the average number of entries per value, capped by the field count, and a regex by its field count. A conjunction is as large as its smallest
+ * known child and a disjunction as large as the sum of its children. Anything else, including negations, functions, marked nodes and terms of fields that are
+ * not indexed, is {@link #UNKNOWN}.
+ * <p>
+ * The estimates are reported with the query metrics, so the counts of individual values, which are only available with root authorizations, are not used.
+ */
+public class QueryCostModel {
+
+    public static final long UNKNOWN = Long.MAX_VALUE;
+
+    private final Set<String> indexedFields;
+    private final Map<String,Long> fieldCounts;
+    private final Map<String,Double> selectivities;
+
+    /**
+     * @param indexedFields
+     *            the indexed fields, only terms of these fields are estimated
+     * @param fieldCounts
+     *            the number of entries per field in the date range of the query
+     * @param selectivities
+     *            the selectivity per field, the number of unique values over the number of entries
+     */
+    public QueryCostModel(Set<String> indexedFields, Map<String,Long> fieldCounts, Map<String,Double> selectivities) {
+        this.indexedFields = indexedFields == null ? Collections.emptySet() : indexedFields;
+        this.fieldCounts = fieldCounts == null ? Collections.emptyMap() : fieldCounts;
+        this.selectivities = selectivities == null ? Collections.emptyMap() : selectivities;
+    }
+
+    /**
+     * Estimate the number of documents matched by a node
+     *
+     * @param node
+     *            a query node
+     * @return the estimate, or {@link #UNKNOWN}
+     */
+    public long estimate(JexlNode node) {
+        if (node.jjtGetNumChildren() == 1 && (node instanceof ASTJexlScript || node instanceof ASTReference || node instanceof ASTReferenceExpression)) {
+            return estimate(node.jjtGetChild(0));
+        } else if (QueryPropertyMarker.findInstance(node).isAnyType()) {
+            return UNKNOWN;
+        } else if (node instanceof ASTOrNode) {
+            long sum = 0;
+            for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+                long estimate = estimate(node.jjtGetChild(i));
+                if (estimate == UNKNOWN) {
+                    return UNKNOWN;
+                }
+                // saturate just below UNKNOWN so that a large but known disjunction stays known
+                sum = sum > UNKNOWN - 1 - estimate ? UNKNOWN - 1 : sum + estimate;
+            }
+            return sum;
+        } else if (node instanceof ASTAndNode) {
+            long lowest = UNKNOWN;
+            for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+                lowest = Math.min(lowest, estimate(node.jjtGetChild(i)));
+            }
+            return lowest;
+        } else if (node instanceof ASTEQNode) {
+            return estimateTerm(node);
+        } else if (node instanceof ASTERNode) {
+            return estimateField(node);
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Collect the estimates of the equality and regex terms of a query tree, keyed by the query string of each term as expected by
+     * {@link datawave.query.jexl.visitors.order.OrderByCostVisitor#orderByTermCount(JexlNode, Map)}. Negated terms, functions and marked nodes are skipped.
+     *
+     * @param node
+     *            the query tree
+     * @return the known estimates of the terms
+     */
+    public Map<String,Long> getTermEstimates(JexlNode node) {
+        Map<String,Long> estimates = new HashMap<>();
+        collectTermEstimates(node, estimates);
+        return estimates;
+    }
+
+    private void collectTermEstimates(JexlNode node, Map<String,Long> estimates) {
+        if (node instanceof ASTNotNode || node instanceof ASTFunctionNode || QueryPropertyMarker.findInstance(node).isAnyType()) {
+            return;
+        }
+        if (node instanceof ASTEQNode || node instanceof ASTERNode) {
+            long estimate = estimate(node);
+            if (estimate != UNKNOWN) {
+                estimates.put(JexlStringBuildingVisitor.buildQueryWithoutParse(node), estimate);
+            }
+            return;
+        }
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            collectTermEstimates(node.jjtGetChild(i), estimates);
+        }
+    }
+
+    private long estimateTerm(JexlNode node) {
+        String field = getIndexedField(node);
+        if (field == null) {
+            return UNKNOWN;
+        }
+        Long fieldCount = fieldCounts.get(field);
+        Double selectivity = selectivities.get(field);
+        if (selectivity != null && selectivity > 0.0d && selectivity <= 1.0d) {
+            long perValue = (long) Math.ceil(1.0d / selectivity);
+            return fieldCount == null ? perValue : Math.min(fieldCount, perValue);
+        }
+        return fieldCount == null ? UNKNOWN : fieldCount;
+    }
+
+    private long estimateField(JexlNode node) {
+        String field = getIndexedField(node);
+        Long fieldCount = field == null ? null : fieldCounts.get(field);
+        return fieldCount == null ? UNKNOWN : fieldCount;
+    }
+
+    private String getIndexedField(JexlNode node) {
+        try {
+            String field = JexlASTHelper.getIdentifier(node);
+            return indexedFields.contains(field) ? field : null;
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+}
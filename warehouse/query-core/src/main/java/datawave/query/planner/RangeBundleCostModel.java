@@ -0,0 +1,164 @@
+package datawave.query.planner;
+
+import java.util.Map;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.hadoop.io.Text;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import datawave.core.query.configuration.QueryData;
+import datawave.query.ranges.RangeFactory;
+import datawave.query.util.count.CountMap;
+
+/**
+ * Estimates the cost of scanning the ranges of a {@link QueryPlan} and decides how much work the {@link ThreadedRangeBundlerIterator} may bundle into a
+ * single {@link QueryData}. A document range costs a single unit, a shard or shard-datatype range costs the smallest term count known for the plan, and a day
+ * range costs as much as a full day of shards.
+ * <p>
+ * The scheduler reports how long each scan of a bundle took, see {@link ScanCostListener}. The observed time per unit of cost is smoothed and used to size
+ * bundles so that each scan takes roughly the target time: cheap ranges are grouped into larger bundles while an expensive range is scanned on its own. Until
+ * the first scan is reported, bundles are limited to the cost of a single shard.
+ */
+public class RangeBundleCostModel implements ScanCostListener {
+
+    public static final long DEFAULT_SHARD_COST = 1000L;
+    public static final int DEFAULT_SHARDS_PER_DAY = 10;
+
+    // weight given to the most recent observation
+    private static final double SMOOTHING = 0.3d;
+
+    // the maximum number of bundles awaiting feedback
+    private static final int MAX_PENDING_BUNDLES = 10000;
+
+    private final long targetMillis;
+    private final long maxCost;
+    private final long shardCost;
+    private final int shardsPerDay;
+
+    // the estimated cost per range of the bundles handed to the scheduler, keyed by identity
+    private final Cache<QueryData,Double> pending = CacheBuilder.newBuilder().weakKeys().maximumSize(MAX_PENDING_BUNDLES).build();
+
+    private final Text holder = new Text();
+
+    private double millisPerCost = -1;
+    private long scansObserved = 0;
+
+    /**
+     * @param targetMillis
+     *            the desired duration of a single scan
+     * @param maxCost
+     *            the upper bound of the cost of a bundle
+     */
+    public RangeBundleCostModel(long targetMillis, long maxCost) {
+        this(targetMillis, maxCost, DEFAULT_SHARD_COST, DEFAULT_SHARDS_PER_DAY);
+    }
+
+    public RangeBundleCostModel(long targetMillis, long maxCost, long shardCost, int shardsPerDay) {
+        this.targetMillis = targetMillis;
+        this.maxCost = Math.max(1L, maxCost);
+        this.shardCost = shardCost;
+        this.shardsPerDay = shardsPerDay;
+    }
+
+    /**
+     * Estimate the cost of scanning all of the ranges of a plan
+     *
+     * @param plan
+     *            the query plan
+     * @return the estimated cost
+     */
+    public synchronized long estimateCost(QueryPlan plan) {
+        long cost = 0;
+        for (Range range : plan.getRanges()) {
+            cost += estimateCost(range, plan.getTermCounts());
+        }
+        return cost;
+    }
+
+    private long estimateCost(Range range, CountMap termCounts) {
+        if (range == null || range.getStartKey() == null) {
+            return shardCost;
+        }
+        Key sk = range.getStartKey();
+        sk.getColumnFamily(holder);
+        if (holder.getLength() > 0 && holder.find("\0") > 0) {
+            return 1L;
+        }
+
+        long cost = getShardCost(termCounts);
+        if (holder.getLength() == 0 && isDayRange(range)) {
+            cost *= shardsPerDay;
+        }
+        return cost;
+    }
+
+    private boolean isDayRange(Range range) {
+        range.getStartKey().getRow(holder);
+        if (holder.find("_") < 0) {
+            return true;
+        }
+        return range.getEndKey() != null && range.getEndKey().getRow().toString().endsWith(RangeFactory.MAX_UNICODE_STRING);
+    }
+
+    private long getShardCost(CountMap termCounts) {
+        long cost = Long.MAX_VALUE;
+        if (termCounts != null) {
+            for (Map.Entry<String,Long> entry : termCounts.entrySet()) {
+                if (entry.getValue() != null && entry.getValue() > 0) {
+                    cost = Math.min(cost, entry.getValue());
+                }
+            }
+        }
+        return cost == Long.MAX_VALUE ? shardCost : cost;
+    }
+
+    /**
+     * @return the cost a bundle may reach before it is handed to the scheduler
+     */
+    public synchronized long getBundleBudget() {
+        if (millisPerCost <= 0) {
+            return Math.min(shardCost, maxCost);
+        }
+        long budget = (long) (targetMillis / millisPerCost);
+        return Math.max(1L, Math.min(budget, maxCost));
+    }
+
+    /**
+     * Remember the cost of a bundle so that its scan times can be attributed when they are reported
+     *
+     * @param bundle
+     *            the bundle handed to the scheduler
+     * @param cost
+     *            the estimated cost of the bundle
+     */
+    public void register(QueryData bundle, long cost) {
+        if (bundle.getRanges() != null && !bundle.getRanges().isEmpty()) {
+            pending.put(bundle, (double) cost / bundle.getRanges().size());
+        }
+    }
+
+    @Override
+    public void scanFinished(QueryData bundle, int ranges, long elapsedMillis) {
+        Double costPerRange = pending.getIfPresent(bundle);
+        if (costPerRange == null || ranges <= 0 || elapsedMillis < 0) {
+            return;
+        }
+        double cost = Math.max(1d, costPerRange * ranges);
+        double observed = Math.max(elapsedMillis, 1L) / cost;
+        synchronized (this) {
+            millisPerCost = (millisPerCost <= 0) ? observed : (SMOOTHING * observed) + ((1 - SMOOTHING) * millisPerCost);
+            scansObserved++;
+        }
+    }
+
+    public synchronized double getMillisPerCost() {
+        return millisPerCost;
+    }
+
+    public synchronized long getScansObserved() {
+        return scansObserved;
+    }
+}
@@ -0,0 +1,19 @@
+package datawave.query.planner;
+
+import datawave.core.query.configuration.QueryData;
+
+/**
+ * Notified by the scan session each time a scan of some of the ranges of a {@link QueryData} completes
+ */
+public interface ScanCostListener {
+
+    /**
+     * @param bundle
+     *            the query data the scanned ranges were taken from
+     * @param ranges
+     *            the number of ranges scanned
+     * @param elapsedMillis
+     *            the time spent starting and iterating the scan
+     */
+    void scanFinished(QueryData bundle, int ranges, long elapsedMillis);
+}
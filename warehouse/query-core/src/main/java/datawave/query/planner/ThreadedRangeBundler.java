@@ -23,6 +23,8 @@ public class ThreadedRangeBundler implements CloseableIterable<QueryData> {
     private final long rangeBufferTimeoutMillis;
     private final long rangeBufferPollMillis;
     private final long maxRangeWaitMillis;
+    private final boolean adaptiveBundling;
+    private final long bundleTargetMillis;
     private ThreadedRangeBundlerIterator iterator;
 
     /**
@@ -45,6 +47,8 @@ public class ThreadedRangeBundler implements CloseableIterable<QueryData> {
         this.numRangesToBuffer = builder.numRangesToBuffer;
         this.rangeBufferTimeoutMillis = builder.rangeBufferTimeoutMillis;
         this.rangeBufferPollMillis = builder.rangeBufferPollMillis;
+        this.adaptiveBundling = builder.adaptiveBundling;
+        this.bundleTargetMillis = builder.bundleTargetMillis;
     }
 
     public QueryData getOriginal() {
@@ -87,6 +91,14 @@ public class ThreadedRangeBundler implements CloseableIterable<QueryData> {
         return maxRangeWaitMillis;
     }
 
+    public boolean isAdaptiveBundling() {
+        return adaptiveBundling;
+    }
+
+    public long getBundleTargetMillis() {
+        return bundleTargetMillis;
+    }
+
     /**
      * Builds and returns a new {@link ThreadedRangeBundlerIterator}.
      *
@@ -113,6 +125,7 @@ public class ThreadedRangeBundler implements CloseableIterable<QueryData> {
                 .setNumRangesToBuffer(numRangesToBuffer)
                 .setRangeBufferTimeoutMillis(rangeBufferTimeoutMillis)
                 .setRangeBufferPollMillis(rangeBufferPollMillis)
+                .setCostModel(adaptiveBundling ? new RangeBundleCostModel(bundleTargetMillis, Long.MAX_VALUE) : null)
                 .build();
         // @formatter:on
 
@@ -149,6 +162,8 @@ public class ThreadedRangeBundler implements CloseableIterable<QueryData> {
         private int numRangesToBuffer;
         private long rangeBufferTimeoutMillis;
         private long rangeBufferPollMillis = 100L;
+        private boolean adaptiveBundling = false;
+        private long bundleTargetMillis = 1000L;
 
         public Builder setOriginal(QueryData original) {
             this.original = original;
@@ -200,12 +215,24 @@ public class ThreadedRangeBundler implements CloseableIterable<QueryData> {
             return this;
         }
 
+        public Builder setAdaptiveBundling(boolean adaptiveBundling) {
+            this.adaptiveBundling = adaptiveBundling;
+            return this;
+        }
+
+        public Builder setBundleTargetMillis(long bundleTargetMillis) {
+            this.bundleTargetMillis = bundleTargetMillis;
+            return this;
+        }
+
         /**
          * Builds and returns a new {@link ThreadedRangeBundler}. The following default values will be used unless specified otherwise in the builder.
          *
          * <ul>
          * <li>{@link ThreadedRangeBundler#maxRangeWaitMillis}: 50</li>
          * <li>{@link ThreadedRangeBundler#rangeBufferPollMillis}: 100</li>
+         * <li>{@link ThreadedRangeBundler#adaptiveBundling}: false</li>
+         * <li>{@link ThreadedRangeBundler#bundleTargetMillis}: 1000</li>
          * </ul>
          *
          * @return the new {@link ThreadedRangeBundler}
@@ -2,10 +2,13 @@ package datawave.query.planner;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.PriorityBlockingQueue;
@@ -28,9 +31,10 @@ import datawave.microservice.query.Query;
 import datawave.query.CloseableIterable;
 import datawave.query.iterator.QueryOptions;
 import datawave.query.tld.TLDQueryIterator;
+import datawave.query.util.count.CountMap;
 import datawave.query.util.count.CountMapSerDe;
 
-public class ThreadedRangeBundlerIterator implements Iterator<QueryData>, Closeable {
+public class ThreadedRangeBundlerIterator implements Iterator<QueryData>, Closeable, ScanCostListener {
     private static final Logger log = ThreadConfigurableLogger.getLogger(ThreadedRangeBundlerIterator.class);
 
     private final long maxWaitValue;
@@ -64,8 +68,15 @@ public class ThreadedRangeBundlerIterator implements Iterator<QueryData>, Closea
 
     private CountMapSerDe mapSerDe;
 
+    // when set, plans are bundled by their estimated cost
+    private final RangeBundleCostModel costModel;
+    private QueryPlan pendingPlan = null;
+    private long bundleCost = 0;
+
     private ThreadedRangeBundlerIterator(Builder builder) {
 
+        this.costModel = builder.getCostModel();
+
         this.original = builder.getOriginal();
 
         if (isTld(this.original.getSettings())) {
@@ -121,71 +132,44 @@ public class ThreadedRangeBundlerIterator implements Iterator<QueryData>, Closea
             }
 
             try {
-                while ((!this.rangeQueue.isEmpty() || (!this.rangeConsumer.isStopped() || this.rangeConsumerThread.isAlive()))) {
+                while ((null != pendingPlan || !this.rangeQueue.isEmpty() || (!this.rangeConsumer.isStopped() || this.rangeConsumerThread.isAlive()))) {
                     if (log.isTraceEnabled())
                         log.trace(" has next " + rangeQueue.isEmpty() + " is stopped? " + rangeConsumer.isStopped() + " isalive "
                                         + rangeConsumerThread.isAlive());
 
-                    // wait until we have a minimum number of ranges buffered OR the buffer is full OR the specified
-                    // amount of time to wait has elapsed OR we have processed all of our ranges before continuing
-                    while (this.rangeQueue.size() < numRangesToBuffer && this.rangeQueue.remainingCapacity() > 0
-                                    && (startTimeMillis + rangeBufferTimeoutMillis) > System.currentTimeMillis() && !rangeConsumer.isStopped()) {
-                        Thread.sleep(rangeBufferPollMillis);
-                    }
-
-                    QueryPlan plan = this.rangeQueue.poll(this.maxWaitValue, this.maxWaitUnit);
+                    QueryPlan plan = pendingPlan;
+                    pendingPlan = null;
                     if (null == plan) {
-                        if (!rangeConsumer.isStopped()) {
-                            if (log.isTraceEnabled())
-                                log.trace("Continuing because should probably wait");
-                            continue;
+                        // wait until we have a minimum number of ranges buffered OR the buffer is full OR the specified
+                        // amount of time to wait has elapsed OR we have processed all of our ranges before continuing
+                        while (this.rangeQueue.size() < numRangesToBuffer && this.rangeQueue.remainingCapacity() > 0
+                                        && (startTimeMillis + rangeBufferTimeoutMillis) > System.currentTimeMillis() && !rangeConsumer.isStopped()) {
+                            Thread.sleep(rangeBufferPollMillis);
                         }
-                        if (log.isTraceEnabled())
-                            log.trace("null from rangeQueue");
-                        next = null;
-                        break;
-                    }
-
-                    // if the generated query is larger, use the original
-                    if (null != queryTree && (plan.getQueryString().length() > original.getQuery().length())) {
-                        plan.setQueryTree(queryTree);
-                        plan.withQueryString(original.getQuery());
-                    }
-                    if (log.isTraceEnabled())
-                        log.trace("size of ranges is " + plan.getRanges());
-                    // if the generated query is larger, use the original
-
-                    for (Range r : plan.getRanges()) {
-                        if (log.isTraceEnabled())
-                            log.trace("Adding range" + r);
-                        if (null == r) {
-
-                            if (!this.rangeConsumer.isStopped()) {
-                                log.warn("Consumer is still running, but could not fetch a range in " + this.maxWaitValue + this.maxWaitUnit);
-                            }
 
-                        } else {
-                            Key sk = r.getStartKey();
-                            sk.getColumnFamily(holder);
-                            if (holder.getLength() > 0) {
-                                if (holder.find("\0") > 0) {
-                                    eventRanges++;
-                                } else {
-                                    shardDatatypeRanges++;
-                                }
-                            } else {
-                                sk.getRow(holder);
-                                if (holder.find("_") > 0) {
-                                    shardRanges++;
-                                } else {
-                                    dayRanges++;
-                                }
+                        plan = this.rangeQueue.poll(this.maxWaitValue, this.maxWaitUnit);
+                        if (null == plan) {
+                            if (!rangeConsumer.isStopped()) {
+                                if (log.isTraceEnabled())
+                                    log.trace("Continuing because should probably wait");
+                                continue;
                             }
-
+                            if (log.isTraceEnabled())
+                                log.trace("null from rangeQueue");
+                            next = null;
+                            break;
                         }
+                        preparePlan(plan);
+                    }
+
+                    if (null != costModel) {
+                        plan = bundle(plan);
                     }
 
                     next = createNewQueryData(plan);
+                    if (null != costModel) {
+                        costModel.register(next, bundleCost);
+                    }
                     if (log.isTraceEnabled()) {
                         if (null != next) {
                             log.trace("Built QueryData with " + next.getRanges().size() + " range(s)");
@@ -210,6 +194,130 @@ public class ThreadedRangeBundlerIterator implements Iterator<QueryData>, Closea
         }
     }
 
+    /**
+     * Use the original query if the generated query is larger, and count the types of ranges in a plan
+     *
+     * @param plan
+     *            the query plan taken from the queue
+     */
+    private void preparePlan(QueryPlan plan) {
+        // if the generated query is larger, use the original
+        if (null != queryTree && (plan.getQueryString().length() > original.getQuery().length())) {
+            plan.setQueryTree(queryTree);
+            plan.withQueryString(original.getQuery());
+        }
+        if (log.isTraceEnabled())
+            log.trace("size of ranges is " + plan.getRanges());
+
+        for (Range r : plan.getRanges()) {
+            if (log.isTraceEnabled())
+                log.trace("Adding range" + r);
+            if (null == r) {
+
+                if (!this.rangeConsumer.isStopped()) {
+                    log.warn("Consumer is still running, but could not fetch a range in " + this.maxWaitValue + this.maxWaitUnit);
+                }
+
+            } else {
+                Key sk = r.getStartKey();
+                sk.getColumnFamily(holder);
+                if (holder.getLength() > 0) {
+                    if (holder.find("\0") > 0) {
+                        eventRanges++;
+                    } else {
+                        shardDatatypeRanges++;
+                    }
+                } else {
+                    sk.getRow(holder);
+                    if (holder.find("_") > 0) {
+                        shardRanges++;
+                    } else {
+                        dayRanges++;
+                    }
+                }
+
+            }
+        }
+    }
+
+    /**
+     * Bundle the plans waiting in the queue with a plan until the bundle reaches the budget of the cost model. A plan that is at least as expensive as the
+     * budget is scanned alone, and only plans that run the same query against the same table and column families are bundled. Field and term counts are per
+     * shard, so the counts of the bundled plans are summed the way the index lookup merges them. The first plan that cannot be added is kept for the next call
+     * to {@link #hasNext()}.
+     *
+     * @param plan
+     *            the first plan of the bundle
+     * @return the bundled plan
+     */
+    private QueryPlan bundle(QueryPlan plan) {
+        long budget = costModel.getBundleBudget();
+        bundleCost = costModel.estimateCost(plan);
+        if (bundleCost >= budget) {
+            return plan;
+        }
+
+        List<Range> ranges = new ArrayList<>(plan.getRanges());
+        CountMap fieldCounts = plan.getFieldCounts();
+        CountMap termCounts = plan.getTermCounts();
+        QueryPlan candidate;
+        while (bundleCost < budget && (candidate = rangeQueue.poll()) != null) {
+            preparePlan(candidate);
+            long cost = costModel.estimateCost(candidate);
+            if (!isBundleable(plan, candidate) || bundleCost + cost > budget || (maxRanges > 0 && ranges.size() + candidate.getRanges().size() > maxRanges)) {
+                pendingPlan = candidate;
+                break;
+            }
+            ranges.addAll(candidate.getRanges());
+            fieldCounts = mergeCounts(fieldCounts, candidate.getFieldCounts());
+            termCounts = mergeCounts(termCounts, candidate.getTermCounts());
+            bundleCost += cost;
+        }
+
+        if (ranges.size() == plan.getRanges().size()) {
+            return plan;
+        }
+        if (log.isTraceEnabled())
+            log.trace("Bundled " + ranges.size() + " ranges with an estimated cost of " + bundleCost + " against a budget of " + budget);
+        return new QueryPlan(plan).withRanges(ranges).withFieldCounts(fieldCounts).withTermCounts(termCounts);
+    }
+
+    private static boolean isBundleable(QueryPlan plan, QueryPlan other) {
+        return Objects.equals(plan.getTableName(), other.getTableName()) && Objects.equals(plan.getQueryString(), other.getQueryString())
+                        && Objects.equals(plan.getColumnFamilies(), other.getColumnFamilies());
+    }
+
+    /**
+     * Sum two sets of counts into a new map, leaving both unchanged
+     *
+     * @param counts
+     *            the counts of the bundle so far, may be null
+     * @param other
+     *            the counts of the plan being added, may be null
+     * @return the summed counts, or null if neither has any
+     */
+    private static CountMap mergeCounts(CountMap counts, CountMap other) {
+        if (other == null || other.isEmpty()) {
+            return counts;
+        }
+        CountMap merged = new CountMap();
+        if (counts != null) {
+            merged.putAll(counts);
+        }
+        for (Map.Entry<String,Long> entry : other.entrySet()) {
+            Long existing = merged.get(entry.getKey());
+            merged.put(entry.getKey(), existing == null ? entry.getValue() : existing + entry.getValue());
+        }
+        return merged;
+    }
+
+    @Override
+    public void scanFinished(QueryData bundle, int ranges, long elapsedMillis) {
+        if (null != costModel) {
+            costModel.scanFinished(bundle, ranges, elapsedMillis);
+        }
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -280,7 +388,7 @@ public class ThreadedRangeBundlerIterator implements Iterator<QueryData>, Closea
             IteratorSetting newSetting = new IteratorSetting(setting.getPriority(), setting.getName(), iterClazz);
             newSetting.addOptions(setting.getOptions());
 
-            if (plan.getFieldCounts() != null && !plan.getTermCounts().isEmpty()) {
+            if (plan.getFieldCounts() != null && !plan.getFieldCounts().isEmpty()) {
                 newSetting.addOption(QueryOptions.FIELD_COUNTS, getMapSerDe().serializeToString(plan.getFieldCounts()));
             }
 
@@ -413,6 +521,7 @@ public class ThreadedRangeBundlerIterator implements Iterator<QueryData>, Closea
         protected int numRangesToBuffer = 0;
         protected long rangeBufferTimeoutMillis = 0;
         protected long rangeBufferPollMillis = 100;
+        protected RangeBundleCostModel costModel = null;
 
         public QueryData getOriginal() {
             return original;
@@ -513,6 +622,15 @@ public class ThreadedRangeBundlerIterator implements Iterator<QueryData>, Closea
             return this;
         }
 
+        public RangeBundleCostModel getCostModel() {
+            return costModel;
+        }
+
+        public Builder setCostModel(RangeBundleCostModel costModel) {
+            this.costModel = costModel;
+            return this;
+        }
+
         public ThreadedRangeBundlerIterator build() {
             return new ThreadedRangeBundlerIterator(this);
         }
@@ -0,0 +1,400 @@
+package datawave.query.planner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.accumulo.core.client.BatchScanner;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.commons.jexl3.parser.ASTEQNode;
+import org.apache.commons.jexl3.parser.ASTJexlScript;
+import org.apache.commons.jexl3.parser.ASTOrNode;
+import org.apache.commons.jexl3.parser.ASTStringLiteral;
+import org.apache.commons.jexl3.parser.JexlNode;
+import org.apache.commons.lang.StringUtils;
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+
+import datawave.ingest.protobuf.Uid;
+import datawave.microservice.query.Query;
+import datawave.microservice.query.QueryImpl.Parameter;
+import datawave.query.CloseableIterable;
+import datawave.query.QueryParameters;
+import datawave.query.config.ShardQueryConfiguration;
+import datawave.query.exceptions.DatawaveFatalQueryException;
+import datawave.query.exceptions.DatawaveQueryException;
+import datawave.query.index.lookup.CreateUidsIterator;
+import datawave.query.index.lookup.RangeStream;
+import datawave.query.iterator.CloseableListIterable;
+import datawave.query.jexl.JexlASTHelper;
+import datawave.query.jexl.functions.QueryFunctions;
+import datawave.query.model.QueryModel;
+import datawave.query.ranges.RangeFactory;
+import datawave.query.tables.ScannerFactory;
+import datawave.query.util.DateIndexHelper;
+import datawave.query.util.MetadataHelper;
+import datawave.query.util.QueryStopwatch;
+import datawave.query.util.Tuple2;
+import datawave.util.time.DateHelper;
+import datawave.util.time.TraceStopwatch;
+import datawave.webservice.query.exception.DatawaveErrorCode;
+import datawave.webservice.query.exception.QueryException;
+
+/**
+ * A query planner for UUID lookups. A lookup by UUID is a disjunction of equality terms against indexed UUID fields, each of which matches a handful of
+ * documents at most, so almost none of the work of the {@link DefaultQueryPlanner} applies to it. A query written as such a lookup is planned directly: it is
+ * parsed, its fields are configured and its values normalized, and the other stages of planning are skipped. Rather than building a range stream with a
+ * scanner session per term, all of the terms are then looked up in the global index with a single batch scanner and the document ranges are built directly
+ * from the uids that are found.
+ * <p>
+ * Any other query, including a lookup that needs the query options, a shards and days hint, a date index, a query model mapping or index holes, is planned
+ * by the {@link DefaultQueryPlanner}. A lookup that only becomes one once it is planned still has its ranges built directly.
+ */
+public class UUIDLookupQueryPlanner extends DefaultQueryPlanner {
+
+    private static final Logger log = Logger.getLogger(UUIDLookupQueryPlanner.class);
+
+    // the fields which may be looked up directly, or any indexed field if empty
+    private Set<String> uuidFields = Collections.emptySet();
+
+    // the maximum number of terms to look up directly
+    private int maxLookupTerms = 1000;
+
+    public UUIDLookupQueryPlanner() {
+        super();
+    }
+
+    public UUIDLookupQueryPlanner(long maxRangesPerQueryPiece) {
+        super(maxRangesPerQueryPiece);
+    }
+
+    public UUIDLookupQueryPlanner(long maxRangesPerQueryPiece, boolean limitScanners) {
+        super(maxRangesPerQueryPiece, limitScanners);
+    }
+
+    protected UUIDLookupQueryPlanner(UUIDLookupQueryPlanner other) {
+        super(other);
+        setUuidFields(other.uuidFields);
+        setMaxLookupTerms(other.maxLookupTerms);
+    }
+
+    @Override
+    protected ASTJexlScript updateQueryTree(ScannerFactory scannerFactory, MetadataHelper metadataHelper, DateIndexHelper dateIndexHelper,
+                    ShardQueryConfiguration config, String query, Query settings) throws DatawaveQueryException {
+        ASTJexlScript queryTree = planLookup(metadataHelper, config, query, settings);
+        if (queryTree == null) {
+            return super.updateQueryTree(scannerFactory, metadataHelper, dateIndexHelper, config, query, settings);
+        }
+        return queryTree;
+    }
+
+    /**
+     * Plan a query that is written as a disjunction of equality terms against the lookup fields. The query tree is only changed by normalizing its values, and
+     * the configuration is updated as it is by the full planning for the fields of the query.
+     *
+     * @param metadataHelper
+     *            the metadata helper
+     * @param config
+     *            the query configuration
+     * @param query
+     *            the query string
+     * @param settings
+     *            the query settings
+     * @return the planned query tree, or null if the query must be planned in full
+     * @throws DatawaveQueryException
+     *             if the query cannot be planned
+     */
+    protected ASTJexlScript planLookup(MetadataHelper metadataHelper, ShardQueryConfiguration config, String query, Query settings)
+                    throws DatawaveQueryException {
+        if (query.contains(QueryFunctions.QUERY_FUNCTION_NAMESPACE + ':') || hasParameter(settings, QueryParameters.SHARDS_AND_DAYS)
+                        || isDateIndexQuery(config, settings) || !config.getIndexHoles().isEmpty()) {
+            return null;
+        }
+
+        final QueryStopwatch timers = config.getTimers();
+
+        TraceStopwatch stopwatch = timers.newStartedStopwatch("UUIDLookupQueryPlanner - Parse lookup");
+        ASTJexlScript queryTree = parseQueryAndValidatePattern(query, stopwatch);
+        stopwatch.stop();
+
+        queryTree = timedFlatten(timers, timedInvertSwappedNodes(timers, queryTree));
+
+        Set<String> indexedFields;
+        try {
+            indexedFields = metadataHelper.getIndexedFields(config.getDatatypeFilter());
+        } catch (TableNotFoundException e) {
+            QueryException qe = new QueryException(DatawaveErrorCode.METADATA_ACCESS_ERROR, e);
+            throw new DatawaveFatalQueryException(qe);
+        }
+
+        Multimap<String,String> terms = getLookupTerms(queryTree, indexedFields, uuidFields);
+        if (terms == null || terms.isEmpty() || terms.size() > maxLookupTerms) {
+            return null;
+        }
+
+        QueryModel queryModel = loadQueryModel(config);
+        if (isRemapped(queryModel, terms.keySet())) {
+            return null;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Planning a lookup of " + terms.size() + " terms directly");
+        }
+
+        timedCapDateRange(timers, config);
+        validateQuerySize("lookup parse", queryTree, config);
+
+        // the fields of the lookup are unchanged by these, but the projection, grouping and unique fields are updated with them
+        config.setQueryTree(timedUpperCaseIdentifiers(timers, queryTree, config, metadataHelper));
+        config.setQueryTree(timedApplyQueryModel(timers, config.getQueryTree(), config, metadataHelper, queryModel));
+
+        timedFetchDatatypes(timers, "Fetch Required Datatypes", config.getQueryTree(), config);
+        config.setQueryTree(timedExpandMultiNormalizedTerms(timers, config.getQueryTree(), config, metadataHelper));
+        config.setQueryTree(timedFlatten(timers, config.getQueryTree()));
+
+        Set<String> indexOnlyFields = loadIndexedFields(config);
+        if (!indexOnlyFields.isEmpty()) {
+            timedCheckForIndexOnlyFieldsInQuery(timers, "Check for Index-Only Fields", config.getQueryTree(), config, indexOnlyFields);
+        }
+        timedCheckForCompositeFields(timers, "Check for Composite Fields", config, metadataHelper);
+        timedCheckForSortedUids(timers, "Check for Sorted UIDs", config);
+        timedCheckForTokenizedFields(timers, "Check for term frequency (tokenized) fields", config, metadataHelper);
+        timeScanHintRules(timers, "Apply scan hint rules", config);
+
+        return config.getQueryTree();
+    }
+
+    private static boolean hasParameter(Query settings, String name) {
+        Parameter parameter = settings.findParameter(name);
+        return parameter != null && StringUtils.isNotBlank(parameter.getParameterValue());
+    }
+
+    private static boolean isDateIndexQuery(ShardQueryConfiguration config, Query settings) {
+        Parameter parameter = settings.findParameter(QueryParameters.DATE_RANGE_TYPE);
+        return parameter != null && StringUtils.isNotBlank(parameter.getParameterValue())
+                        && !parameter.getParameterValue().trim().toUpperCase().equals(config.getDefaultDateTypeName());
+    }
+
+    /**
+     * Whether the query model maps any of the fields to fields other than themselves
+     *
+     * @param queryModel
+     *            the query model, which may be null
+     * @param fields
+     *            the fields
+     * @return true if any of the fields is mapped
+     */
+    static boolean isRemapped(QueryModel queryModel, Set<String> fields) {
+        if (queryModel != null) {
+            for (String field : fields) {
+                Collection<String> mapped = queryModel.getForwardQueryMapping().get(field);
+                if (!mapped.isEmpty() && !(mapped.size() == 1 && mapped.contains(field))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected Tuple2<CloseableIterable<QueryPlan>,Boolean> getIndexQueryRanges(ScannerFactory scannerFactory, MetadataHelper metadataHelper,
+                    ShardQueryConfiguration config, JexlNode queryTree) throws DatawaveQueryException {
+        Multimap<String,String> terms = getLookupTerms(queryTree, config.getIndexedFields(), uuidFields);
+        if (terms == null || terms.isEmpty() || terms.size() > maxLookupTerms) {
+            return super.getIndexQueryRanges(scannerFactory, metadataHelper, config, queryTree);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Looking up " + terms.size() + " terms directly in " + config.getIndexTableName());
+        }
+
+        Map<String,SortedSet<String>> shards = new TreeMap<>();
+        BatchScanner bs = null;
+        try {
+            bs = scannerFactory.newScanner(config.getIndexTableName(), config.getAuthorizations(), config.getNumQueryThreads(), config.getQuery());
+            bs.setRanges(createIndexRanges(terms, config.getBeginDate(), config.getEndDate()));
+            bs.addScanIterator(RangeStream.makeDataTypeFilter(config, config.getBaseIteratorPriority()));
+            for (Entry<Key,Value> entry : bs) {
+                addIndexEntry(shards, entry.getKey(), entry.getValue());
+            }
+        } catch (TableNotFoundException | IOException e) {
+            throw new DatawaveQueryException("Failed to look up " + terms.size() + " terms in " + config.getIndexTableName(), e);
+        } finally {
+            if (bs != null) {
+                scannerFactory.close(bs);
+            }
+        }
+
+        return new Tuple2<>(new CloseableListIterable<>(createQueryPlans(shards, config.getShardTableName(), queryTree, config.isTldQuery())), false);
+    }
+
+    /**
+     * Get the field and value of every term in a query that is a disjunction of equality terms against the lookup fields
+     *
+     * @param queryTree
+     *            the planned query tree
+     * @param indexedFields
+     *            the indexed fields
+     * @param uuidFields
+     *            the fields which may be looked up, or any indexed field if empty
+     * @return the values by field, or null if the query is not a simple lookup
+     */
+    static Multimap<String,String> getLookupTerms(JexlNode queryTree, Set<String> indexedFields, Set<String> uuidFields) {
+        JexlNode node = queryTree;
+        if (node instanceof ASTJexlScript) {
+            if (node.jjtGetNumChildren() != 1) {
+                return null;
+            }
+            node = node.jjtGetChild(0);
+        }
+        node = JexlASTHelper.dereference(node);
+
+        Multimap<String,String> terms = HashMultimap.create();
+        if (node instanceof ASTOrNode) {
+            for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+                if (!addLookupTerm(terms, JexlASTHelper.dereference(node.jjtGetChild(i)), indexedFields, uuidFields)) {
+                    return null;
+                }
+            }
+        } else if (!addLookupTerm(terms, node, indexedFields, uuidFields)) {
+            return null;
+        }
+        return terms;
+    }
+
+    private static boolean addLookupTerm(Multimap<String,String> terms, JexlNode node, Set<String> indexedFields, Set<String> uuidFields) {
+        if (!(node instanceof ASTEQNode)) {
+            return false;
+        }
+        JexlASTHelper.IdentifierOpLiteral iol = JexlASTHelper.getIdentifierOpLiteral(node);
+        if (iol == null || !(iol.getLiteral() instanceof ASTStringLiteral)) {
+            return false;
+        }
+        String field = iol.deconstructIdentifier();
+        if (!indexedFields.contains(field) || (!uuidFields.isEmpty() && !uuidFields.contains(field))) {
+            return false;
+        }
+        terms.put(field, iol.getLiteralValue().toString());
+        return true;
+    }
+
+    /**
+     * Create the global index ranges for the lookup terms over a date range
+     *
+     * @param terms
+     *            the values by field
+     * @param begin
+     *            the begin date
+     * @param end
+     *            the end date
+     * @return the global index ranges
+     */
+    static Collection<Range> createIndexRanges(Multimap<String,String> terms, Date begin, Date end) {
+        String beginShard = DateHelper.format(begin) + "_";
+        String endShard = DateHelper.format(end) + "_" + '\uffff';
+        List<Range> ranges = new ArrayList<>(terms.size());
+        for (Entry<String,String> term : terms.entries()) {
+            ranges.add(new Range(new Key(term.getValue(), term.getKey(), beginShard), true, new Key(term.getValue(), term.getKey(), endShard), false));
+        }
+        return ranges;
+    }
+
+    /**
+     * Add the uids from a global index entry. If the entry does not list its uids then the whole shard must be searched, which is recorded as a null uid set.
+     *
+     * @param shards
+     *            the uids by shard
+     * @param key
+     *            the global index key
+     * @param value
+     *            the global index value
+     * @throws IOException
+     *             if the uid list cannot be parsed
+     */
+    static void addIndexEntry(Map<String,SortedSet<String>> shards, Key key, Value value) throws IOException {
+        String cq = key.getColumnQualifier().toString();
+        String shard = cq.substring(0, cq.lastIndexOf('\u0000'));
+        String dataType = CreateUidsIterator.parseDataType(key);
+
+        Uid.List uids = Uid.List.parseFrom(value.get());
+        if (uids.getIGNORE()) {
+            shards.put(shard, null);
+        } else if (uids.getCOUNT() > 0 && uids.getUIDCount() > 0) {
+            if (!shards.containsKey(shard)) {
+                shards.put(shard, new TreeSet<>());
+            }
+            SortedSet<String> docIds = shards.get(shard);
+            if (docIds != null) {
+                for (String uid : uids.getUIDList()) {
+                    docIds.add(dataType + '\u0000' + uid.trim());
+                }
+            }
+        }
+    }
+
+    /**
+     * Create a query plan for each document found, or for each shard whose uids were not listed
+     *
+     * @param shards
+     *            the uids by shard
+     * @param tableName
+     *            the shard table name
+     * @param queryTree
+     *            the query tree
+     * @param isTldQuery
+     *            whether the query is a tld query
+     * @return the query plans
+     */
+    static List<QueryPlan> createQueryPlans(Map<String,SortedSet<String>> shards, String tableName, JexlNode queryTree, boolean isTldQuery) {
+        List<QueryPlan> plans = new ArrayList<>();
+        for (Entry<String,SortedSet<String>> entry : shards.entrySet()) {
+            String shard = entry.getKey();
+            if (entry.getValue() == null) {
+                plans.add(new QueryPlan().withTableName(tableName).withQueryTree(queryTree)
+                                .withRanges(Collections.singleton(RangeFactory.createShardRange(shard))));
+            } else {
+                for (String docId : entry.getValue()) {
+                    Range range = isTldQuery ? RangeFactory.createTldDocumentSpecificRange(shard, docId)
+                                    : RangeFactory.createDocumentSpecificRange(shard, docId);
+                    plans.add(new QueryPlan().withTableName(tableName).withQueryTree(queryTree).withRanges(Collections.singleton(range)));
+                }
+            }
+        }
+        return plans;
+    }
+
+    public Set<String> getUuidFields() {
+        return uuidFields;
+    }
+
+    public void setUuidFields(Set<String> uuidFields) {
+        this.uuidFields = uuidFields == null ? Collections.emptySet() : new TreeSet<>(uuidFields);
+    }
+
+    public int getMaxLookupTerms() {
+        return maxLookupTerms;
+    }
+
+    public void setMaxLookupTerms(int maxLookupTerms) {
+        this.maxLookupTerms = maxLookupTerms;
+    }
+
+    @Override
+    public UUIDLookupQueryPlanner clone() {
+        return new UUIDLookupQueryPlanner(this);
+    }
+}
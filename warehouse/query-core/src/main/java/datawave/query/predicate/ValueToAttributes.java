@@ -7,6 +7,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.security.ColumnVisibility;
@@ -59,7 +60,12 @@ public class ValueToAttributes implements Function<Entry<Key,String>,Iterable<En
 
     public ValueToAttributes(CompositeMetadata compositeMetadata, TypeMetadata typeMetadata, EventDataQueryFilter attrFilter, MarkingFunctions markingFunctions,
                     boolean fromIndex) {
-        this.attrFactory = new AttributeFactory(typeMetadata);
+        this(compositeMetadata, typeMetadata, attrFilter, markingFunctions, fromIndex, null);
+    }
+
+    public ValueToAttributes(CompositeMetadata compositeMetadata, TypeMetadata typeMetadata, EventDataQueryFilter attrFilter, MarkingFunctions markingFunctions,
+                    boolean fromIndex, Set<String> eagerFields) {
+        this.attrFactory = new AttributeFactory(typeMetadata).withEagerFields(eagerFields);
         this.markingFunctions = markingFunctions;
         this.attrFilter = attrFilter;
         if (compositeMetadata != null) {
@@ -38,6 +38,7 @@ import datawave.core.query.logic.QueryCheckpoint;
 import datawave.core.query.logic.QueryKey;
 import datawave.mr.bulk.RfileResource;
 import datawave.query.config.ShardQueryConfiguration;
+import datawave.query.planner.ScanCostListener;
 import datawave.query.tables.BatchScannerSession;
 import datawave.query.tables.ScannerFactory;
 import datawave.query.tables.ShardQueryLogic;
@@ -183,6 +184,11 @@ public class PushdownScheduler extends Scheduler {
             session.setBackoffEnabled(true);
         }
 
+        // feed the scan times back to the range bundler, unless the query data is split again before scanning
+        if (!config.isCheckpointable() && config.getQueriesIter() instanceof ScanCostListener) {
+            session.setScanCostListener((ScanCostListener) config.getQueriesIter());
+        }
+
         session.setChunkIter(chunkIter);
 
         session.setTabletLocator(tl);
@@ -48,10 +48,13 @@ import datawave.core.query.configuration.ResultContext;
 import datawave.core.query.logic.QueryCheckpoint;
 import datawave.core.query.logic.QueryKey;
 import datawave.microservice.query.Query;
+import datawave.query.planner.ScanCostListener;
 import datawave.query.tables.async.Scan;
 import datawave.query.tables.async.ScannerChunk;
 import datawave.query.tables.async.SessionArbiter;
 import datawave.query.tables.async.SpeculativeScan;
+import datawave.query.tables.stats.ScanSessionStats;
+import datawave.query.tables.stats.ScanSessionStats.TIMERS;
 
 public class BatchScannerSession extends ScannerSession implements Iterator<Result>, FutureCallback<Scan>, SessionArbiter, UncaughtExceptionHandler {
 
@@ -122,6 +125,11 @@ public class BatchScannerSession extends ScannerSession implements Iterator<Resu
 
     protected boolean speculativeScanning = false;
 
+    /**
+     * Notified of the time taken by each completed scan, if set
+     */
+    protected ScanCostListener scanCostListener = null;
+
     protected int threadCount = 5;
 
     public List<QueryCheckpoint> checkpoint(QueryKey queryKey) {
@@ -580,6 +588,13 @@ public class BatchScannerSession extends ScannerSession implements Iterator<Resu
                     stats.merge(finishedScan.getStats());
                 }
             }
+
+            ScanSessionStats scanStats = finishedScan.getStats();
+            ResultContext context = finishedScan.getScannerChunk().getContext();
+            if (null != scanCostListener && null != scanStats && context instanceof QueryData) {
+                long elapsed = scanStats.getValue(TIMERS.SCANNER_START) + scanStats.getValue(TIMERS.SCANNER_ITERATE);
+                scanCostListener.scanFinished((QueryData) context, finishedScan.getScannerChunk().getRanges().size(), elapsed);
+            }
         } else {
             // we've timed out
             AtomicInteger failCount = serverFailureMap.get(finishedScan.getScanLocation());
@@ -774,6 +789,10 @@ public class BatchScannerSession extends ScannerSession implements Iterator<Resu
         this.speculativeScanning = speculative;
     }
 
+    public void setScanCostListener(ScanCostListener scanCostListener) {
+        this.scanCostListener = scanCostListener;
+    }
+
     @Override
     public void uncaughtException(Thread t, Throwable e) {
         t.interrupt();
@@ -4,6 +4,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 
 import org.apache.accumulo.core.client.AccumuloClient;
 import org.apache.accumulo.core.data.Key;
@@ -11,21 +12,46 @@ import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.log4j.Logger;
 
+import com.google.common.hash.BloomFilter;
+
 import datawave.core.query.configuration.GenericQueryConfiguration;
+import datawave.core.query.configuration.Result;
 import datawave.microservice.query.Query;
 import datawave.microservice.query.QueryImpl.Parameter;
 import datawave.query.QueryParameters;
+import datawave.query.config.ShardQueryConfiguration;
 import datawave.query.tables.chunk.Chunker;
+import datawave.query.tables.chunk.ParallelChunkIterator;
 
+/**
+ * Splits a query into smaller chunks with a {@link Chunker} and returns the results of every chunk. By default the chunks are run one after another through
+ * this query logic. When the chunk parallelism is greater than one, the chunks after the first are run concurrently by that many minus one copies of this
+ * query logic, each with an equal share of the query threads, and their results are handed over through a bounded queue as soon as they are found. Results
+ * are deduplicated across all chunks unless the uids are sorted.
+ */
 public class PartitionedQueryLogic extends ShardQueryLogic {
     protected static final Logger log = Logger.getLogger(PartitionedQueryLogic.class);
 
+    public static final int DEFAULT_MAX_QUEUED_CHUNK_RESULTS = 1000;
+
     private AccumuloClient client;
     private Query settings;
     private Set<Authorizations> auths;
 
     private Chunker chunker;
 
+    // the number of chunks run at the same time
+    private int chunkParallelism = 1;
+    // the number of results of concurrent chunks held before they block
+    private int maxQueuedChunkResults = DEFAULT_MAX_QUEUED_CHUNK_RESULTS;
+
+    // a copy of this logic before initialization, from which the concurrent chunks are run
+    private ShardQueryLogic chunkTemplate;
+    // the query threads of each chunk when running chunks concurrently
+    private int chunkQueryThreads;
+    // the results of the chunks when running chunks concurrently, which may only be iterated once
+    private ParallelChunkIterator parallelChunks;
+
     public PartitionedQueryLogic() {
         super();
     }
@@ -36,6 +62,8 @@ public class PartitionedQueryLogic extends ShardQueryLogic {
         this.settings = other.settings;
         this.auths = other.auths;
         this.chunker = other.chunker.clone();
+        this.chunkParallelism = other.chunkParallelism;
+        this.maxQueuedChunkResults = other.maxQueuedChunkResults;
     }
 
     @Override
@@ -45,6 +73,12 @@ public class PartitionedQueryLogic extends ShardQueryLogic {
         this.client = client;
         this.auths = auths;
 
+        if (chunkParallelism > 1) {
+            this.chunkTemplate = new ShardQueryLogic(this);
+            // the chunks together use no more than the configured query threads
+            this.chunkQueryThreads = Math.max(1, getQueryThreads() / chunkParallelism);
+        }
+
         this.settings = settings.duplicate(settings.getQueryName() + "-chunk");
         this.settings.setQuery(getJexlQueryString(this.settings));
         chunker.setBaseQuery(this.settings);
@@ -71,7 +105,12 @@ public class PartitionedQueryLogic extends ShardQueryLogic {
             chunker.initialize(config);
         }
 
-        return initializeNextChunk();
+        GenericQueryConfiguration config = initializeNextChunk();
+        if (chunkParallelism > 1) {
+            // the first chunk is run by this logic alongside the concurrent chunks, so it only gets its share of the query threads
+            ((ShardQueryConfiguration) config).setNumQueryThreads(chunkQueryThreads);
+        }
+        return config;
     }
 
     /**
@@ -106,9 +145,24 @@ public class PartitionedQueryLogic extends ShardQueryLogic {
      *
      * This iterator will re-initialize the query logic when moving between the generated query chunks.
      *
+     * @throws IllegalStateException
+     *             if the chunks are run concurrently and an iterator was already returned, since the workers consume the chunker
      */
     @Override
     public Iterator<Entry<Key,Value>> iterator() {
+        if (chunkParallelism > 1) {
+            if (parallelChunks != null) {
+                throw new IllegalStateException("The chunks of this query are already being run");
+            }
+            parallelChunks = new ParallelChunkIterator(scanIterator(), this::nextChunk, this::runChunk, chunkParallelism - 1, maxQueuedChunkResults);
+            Iterator<Entry<Key,Value>> chunks = parallelChunks;
+            if (getConfig().isSortedUIDs()) {
+                return chunks;
+            }
+            // each chunk is deduplicated on its own, so deduplicate across them here
+            return Result.keyValueIterator(new DedupingIterator(Result.resultIterator(null, chunks)));
+        }
+
         return new Iterator<Entry<Key,Value>>() {
             Iterator<Entry<Key,Value>> currentChunk = scanIterator();
 
@@ -116,8 +170,11 @@ public class PartitionedQueryLogic extends ShardQueryLogic {
             public boolean hasNext() {
                 while (chunker.hasNext() && !currentChunk.hasNext()) {
                     try {
+                        BloomFilter<byte[]> bloom = getConfig().getBloom();
                         close();
                         GenericQueryConfiguration nextConfig = initializeNextChunk();
+                        // deduplicate the next chunk against the results of the previous chunks
+                        ((ShardQueryConfiguration) nextConfig).setBloom(bloom);
                         setupQuery(nextConfig);
                         this.currentChunk = scanIterator();
                     } catch (InterruptedException e) {
@@ -142,6 +199,49 @@ public class PartitionedQueryLogic extends ShardQueryLogic {
         };
     }
 
+    /**
+     * @return the next chunk, or null if there are no more chunks
+     */
+    private Query nextChunk() {
+        synchronized (chunker) {
+            return chunker.hasNext() ? chunker.next() : null;
+        }
+    }
+
+    /**
+     * Run a chunk through a copy of this query logic taken before initialization, handing over its results as they are found
+     *
+     * @param chunk
+     *            the chunk
+     * @param results
+     *            the queue to which the results are handed over
+     * @throws Exception
+     *             if the chunk cannot be run, or the worker is interrupted
+     */
+    private void runChunk(Query chunk, BlockingQueue<Entry<Key,Value>> results) throws Exception {
+        ShardQueryLogic logic = new ShardQueryLogic(chunkTemplate);
+        // the copy must not close the scanners of this logic
+        logic.setScannerFactory(null);
+        logic.setQueryThreads(chunkQueryThreads);
+        try {
+            logic.setupQuery(logic.initialize(client, chunk, auths));
+            Iterator<Entry<Key,Value>> chunkResults = logic.iterator();
+            while (chunkResults.hasNext()) {
+                results.put(chunkResults.next());
+            }
+        } finally {
+            logic.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (parallelChunks != null) {
+            parallelChunks.close();
+        }
+        super.close();
+    }
+
     @Override
     public PartitionedQueryLogic clone() {
         return new PartitionedQueryLogic(this);
@@ -154,4 +254,20 @@ public class PartitionedQueryLogic extends ShardQueryLogic {
     public void setChunker(Chunker chunker) {
         this.chunker = chunker;
     }
+
+    public int getChunkParallelism() {
+        return chunkParallelism;
+    }
+
+    public void setChunkParallelism(int chunkParallelism) {
+        this.chunkParallelism = chunkParallelism;
+    }
+
+    public int getMaxQueuedChunkResults() {
+        return maxQueuedChunkResults;
+    }
+
+    public void setMaxQueuedChunkResults(int maxQueuedChunkResults) {
+        this.maxQueuedChunkResults = maxQueuedChunkResults;
+    }
 }
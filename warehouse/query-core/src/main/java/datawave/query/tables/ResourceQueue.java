@@ -3,6 +3,8 @@ package datawave.query.tables;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.accumulo.core.client.AccumuloClient;
 import org.apache.commons.pool.PoolableObjectFactory;
@@ -11,6 +13,9 @@ import org.apache.log4j.Logger;
 
 import com.google.common.base.Preconditions;
 
+import datawave.core.common.connection.AccumuloConnectionFactory.Priority;
+import datawave.core.common.connection.ScanAdmissionController;
+
 /**
  * Closable queue that defines a simplistic factory that creates and destroys scanner resources.
  */
@@ -22,6 +27,12 @@ public final class ResourceQueue implements Closeable {
 
     private final byte type;
 
+    // when set, a permit is taken from the admission controller for each fetch from the tablet servers
+    private ScanAdmissionController admissionController = null;
+    private String user = null;
+    private Priority priority = Priority.NORMAL;
+    private long admissionMaxWaitMillis = 0L;
+
     /**
      * Constructor for the queue that accepts the capacity and the connector. Defaults to the block when exhausted queue option
      *
@@ -61,6 +72,50 @@ public final class ResourceQueue implements Closeable {
         this.scannerPool.setWhenExhaustedAction(type);
     }
 
+    /**
+     * Take a permit from a webserver wide admission controller for each fetch from the tablet servers, see {@link #acquirePermit()}, so that the scans of this
+     * queue wait their turn with the scans of other queries
+     *
+     * @param admissionController
+     *            the admission controller
+     * @param user
+     *            the user running the query
+     * @param priority
+     *            the priority of the query
+     * @param maxWaitMillis
+     *            the longest time to wait for a permit before failing the scan
+     */
+    public void setAdmissionControl(ScanAdmissionController admissionController, String user, Priority priority, long maxWaitMillis) {
+        this.admissionController = admissionController;
+        this.user = user;
+        this.priority = priority == null ? Priority.NORMAL : priority;
+        this.admissionMaxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * Wait for a permit to fetch from the tablet servers. A scan holds the permit only while it fetches, and returns it with {@link #releasePermit()} before it
+     * waits for its results to be read. Does nothing without an admission controller.
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     * @throws TimeoutException
+     *             if no permit was granted within the configured wait
+     */
+    public void acquirePermit() throws InterruptedException, TimeoutException {
+        if (admissionController != null) {
+            admissionController.acquire(user, priority, admissionMaxWaitMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Return a permit taken with {@link #acquirePermit()}
+     */
+    public void releasePermit() {
+        if (admissionController != null) {
+            admissionController.release(user, priority);
+        }
+    }
+
     public AccumuloResource getScannerResource() throws Exception {
         // let's grab an object from the pool,
         AccumuloResource resource = null;
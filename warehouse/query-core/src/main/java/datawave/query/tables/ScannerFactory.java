@@ -22,6 +22,8 @@ import org.apache.log4j.Logger;
 
 import com.google.common.base.Preconditions;
 
+import datawave.core.common.connection.AccumuloConnectionFactory;
+import datawave.core.common.connection.ScanAdmissionController;
 import datawave.core.query.configuration.GenericQueryConfiguration;
 import datawave.ingest.data.config.ingest.AccumuloHelper;
 import datawave.microservice.query.Query;
@@ -375,7 +377,43 @@ public class ScannerFactory {
         this.maxQueue = size;
     }
 
+    /**
+     * Have every scanner session created by this factory take a permit from an admission controller for each batch it fetches
+     *
+     * @param admissionController
+     *            the admission controller
+     * @param user
+     *            the user running the query
+     * @param priority
+     *            the priority of the query
+     * @param maxWaitMillis
+     *            the longest time to wait for a permit before failing the scan
+     */
+    public void setAdmissionControl(ScanAdmissionController admissionController, String user, AccumuloConnectionFactory.Priority priority,
+                    long maxWaitMillis) {
+        Preconditions.checkNotNull(scanQueue);
+        scanQueue.setAdmissionControl(admissionController, user, priority, maxWaitMillis);
+    }
+
     public ScannerBase newRfileScanner(String tableName, Set<Authorizations> auths, Query setting) {
+        return newRfileScanner(tableName, auths, 1, setting);
+    }
+
+    /**
+     * Create a scanner that reads the RFiles of the target tablets directly rather than going through the tablet servers. The tablet splits are read by up to
+     * {@code threads} threads concurrently.
+     *
+     * @param tableName
+     *            the table name
+     * @param auths
+     *            the authorizations
+     * @param threads
+     *            the number of tablet splits to read concurrently
+     * @param setting
+     *            the query
+     * @return an RFile backed scanner
+     */
+    public ScannerBase newRfileScanner(String tableName, Set<Authorizations> auths, int threads, Query setting) {
         if (open.get()) {
             Configuration conf = new Configuration();
 
@@ -394,7 +432,7 @@ public class ScannerFactory {
 
             conf.set(MultiRfileInputformat.CACHE_METADATA, "true");
 
-            ScannerBase baseScanner = new RfileScanner(client, conf, tableName, auths, 1);
+            ScannerBase baseScanner = new RfileScanner(client, conf, tableName, auths, threads);
 
             applyConfigs(baseScanner, tableName);
 
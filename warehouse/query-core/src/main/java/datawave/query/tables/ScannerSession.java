@@ -11,6 +11,7 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.PartialKey;
@@ -117,6 +118,9 @@ public class ScannerSession extends AbstractExecutionThreadService implements It
 
     protected AccumuloResource delegatedResource = null;
 
+    // whether this session holds a permit to fetch from the tablet servers, see ResourceQueue#acquirePermit
+    private boolean permitHeld = false;
+
     protected boolean isFair = true;
 
     protected QueryUncaughtExceptionHandler uncaughtExceptionHandler = null;
@@ -471,6 +475,7 @@ public class ScannerSession extends AbstractExecutionThreadService implements It
                 log.trace(lastSeenKey + ", using current range of " + currentRange);
             }
 
+            acquirePermit();
             delegatedResource = ResourceFactory.initializeResource(delegatedResourceInitializer, delegatedResource, tableName, auths, currentRange)
                             .setOptions(options);
 
@@ -528,6 +533,7 @@ public class ScannerSession extends AbstractExecutionThreadService implements It
             if (null != stats)
                 stats.getTimer(TIMERS.SCANNER_START).suspend();
 
+            releasePermit();
             synchronized (sessionDelegator) {
                 if (null != delegatedResource) {
                     sessionDelegator.close(delegatedResource);
@@ -538,7 +544,32 @@ public class ScannerSession extends AbstractExecutionThreadService implements It
         }
     }
 
-    protected int scannerInvariant(final Iterator<Result> iter) {
+    /**
+     * Take a permit to fetch from the tablet servers, unless this session already holds one
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     * @throws TimeoutException
+     *             if no permit was granted within the configured wait
+     */
+    protected void acquirePermit() throws InterruptedException, TimeoutException {
+        if (!permitHeld) {
+            sessionDelegator.acquirePermit();
+            permitHeld = true;
+        }
+    }
+
+    /**
+     * Return the permit of this session, if it holds one
+     */
+    protected void releasePermit() {
+        if (permitHeld) {
+            permitHeld = false;
+            sessionDelegator.releasePermit();
+        }
+    }
+
+    protected int scannerInvariant(final Iterator<Result> iter) throws InterruptedException, TimeoutException {
         int retrievalCount = 0;
 
         Result myEntry = null;
@@ -552,7 +583,11 @@ public class ScannerSession extends AbstractExecutionThreadService implements It
             }
 
             // this creates a bottleneck on the resultQueue size, but guarantees no results will be lost
-            boolean accepted = false;
+            boolean accepted = resultQueue.offer(myEntry);
+            if (!accepted) {
+                // the results are not being read, so do not hold the permit while waiting for room
+                releasePermit();
+            }
             while (!accepted) {
                 try {
                     accepted = resultQueue.offer(myEntry, 200, TimeUnit.MILLISECONDS);
@@ -562,6 +597,9 @@ public class ScannerSession extends AbstractExecutionThreadService implements It
             }
 
             retrievalCount++;
+
+            // take a permit again before fetching the next batch
+            acquirePermit();
         }
 
         lastSeenKey = highest;
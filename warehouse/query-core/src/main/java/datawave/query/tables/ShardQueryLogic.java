@@ -44,6 +44,7 @@ import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 
 import datawave.core.common.connection.AccumuloConnectionFactory;
+import datawave.core.common.connection.ScanAdmissionController;
 import datawave.core.common.logging.ThreadConfigurableLogger;
 import datawave.core.query.configuration.GenericQueryConfiguration;
 import datawave.core.query.configuration.QueryData;
@@ -252,8 +253,14 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
     }
 
     public static BatchScanner createBatchScanner(ShardQueryConfiguration config, ScannerFactory scannerFactory, QueryData qd) throws TableNotFoundException {
-        final BatchScanner bs = scannerFactory.newScanner(config.getShardTableName(), config.getAuthorizations(), config.getNumQueryThreads(),
-                        config.getQuery());
+        final BatchScanner bs;
+        if (config.getBypassAccumulo()) {
+            // read the rfiles of the target tablets directly, evaluating the query iterator stack locally
+            bs = (BatchScanner) scannerFactory.newRfileScanner(config.getShardTableName(), config.getAuthorizations(), config.getNumQueryThreads(),
+                            config.getQuery());
+        } else {
+            bs = scannerFactory.newScanner(config.getShardTableName(), config.getAuthorizations(), config.getNumQueryThreads(), config.getQuery());
+        }
 
         if (log.isTraceEnabled()) {
             log.trace("Running with " + config.getAuthorizations() + " and " + config.getNumQueryThreads() + " threads: " + qd);
@@ -387,6 +394,7 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
         config.setMaxIndexBatchSize(getMaxIndexBatchSize());
 
         setScannerFactory(new ScannerFactory(config));
+        configureScanAdmission(config, settings);
 
         // load params before parsing jexl string so these can be injected
         loadQueryParameters(config, settings);
@@ -1337,6 +1345,22 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
         this.config = config;
     }
 
+    /**
+     * Have the scans of this query wait their turn with the scans of other queries in the webserver, see {@link ScanAdmissionController}
+     *
+     * @param config
+     *            the query configuration
+     * @param settings
+     *            the query settings
+     */
+    protected void configureScanAdmission(ShardQueryConfiguration config, Query settings) {
+        if (config.isUseScanAdmissionControl()) {
+            String user = (settings == null) ? null : settings.getOwner();
+            getScannerFactory().setAdmissionControl(ScanAdmissionController.getInstance(), user, getConnectionPriority(),
+                            config.getScanAdmissionMaxWaitMillis());
+        }
+    }
+
     @Override
     public AccumuloConnectionFactory.Priority getConnectionPriority() {
         return AccumuloConnectionFactory.Priority.NORMAL;
@@ -1462,6 +1486,14 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
         return getConfig().getGroupFieldsBatchSize();
     }
 
+    public void setGroupFieldsMaxGroups(int groupFieldsMaxGroups) {
+        getConfig().setGroupFieldsMaxGroups(groupFieldsMaxGroups);
+    }
+
+    public int getGroupFieldsMaxGroups() {
+        return getConfig().getGroupFieldsMaxGroups();
+    }
+
     public UniqueFields getUniqueFields() {
         return getConfig().getUniqueFields();
     }
@@ -1562,6 +1594,14 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
         getConfig().setTfNextSeek(tfNextSeek);
     }
 
+    public int getDocumentNextSeek() {
+        return getConfig().getDocumentNextSeek();
+    }
+
+    public void setDocumentNextSeek(int documentNextSeek) {
+        getConfig().setDocumentNextSeek(documentNextSeek);
+    }
+
     public boolean isSeekingEventAggregation() {
         return getConfig().isSeekingEventAggregation();
     }
@@ -2400,6 +2440,70 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
         getConfig().setPruneQueryByIngestTypes(pruneQueryByIngestTypes);
     }
 
+    public boolean isUseGlobalIndexCache() {
+        return getConfig().isUseGlobalIndexCache();
+    }
+
+    public void setUseGlobalIndexCache(boolean useGlobalIndexCache) {
+        getConfig().setUseGlobalIndexCache(useGlobalIndexCache);
+    }
+
+    public long getGlobalIndexCacheRecentTtlMillis() {
+        return getConfig().getGlobalIndexCacheRecentTtlMillis();
+    }
+
+    public void setGlobalIndexCacheRecentTtlMillis(long globalIndexCacheRecentTtlMillis) {
+        getConfig().setGlobalIndexCacheRecentTtlMillis(globalIndexCacheRecentTtlMillis);
+    }
+
+    public boolean isAdaptiveRangeBundling() {
+        return getConfig().isAdaptiveRangeBundling();
+    }
+
+    public void setAdaptiveRangeBundling(boolean adaptiveRangeBundling) {
+        getConfig().setAdaptiveRangeBundling(adaptiveRangeBundling);
+    }
+
+    public long getRangeBundleTargetMillis() {
+        return getConfig().getRangeBundleTargetMillis();
+    }
+
+    public void setRangeBundleTargetMillis(long rangeBundleTargetMillis) {
+        getConfig().setRangeBundleTargetMillis(rangeBundleTargetMillis);
+    }
+
+    public boolean isUseCostBasedPlanning() {
+        return getConfig().isUseCostBasedPlanning();
+    }
+
+    public void setUseCostBasedPlanning(boolean useCostBasedPlanning) {
+        getConfig().setUseCostBasedPlanning(useCostBasedPlanning);
+    }
+
+    public double getCostBasedPushdownFactor() {
+        return getConfig().getCostBasedPushdownFactor();
+    }
+
+    public void setCostBasedPushdownFactor(double costBasedPushdownFactor) {
+        getConfig().setCostBasedPushdownFactor(costBasedPushdownFactor);
+    }
+
+    public boolean isUseScanAdmissionControl() {
+        return getConfig().isUseScanAdmissionControl();
+    }
+
+    public void setUseScanAdmissionControl(boolean useScanAdmissionControl) {
+        getConfig().setUseScanAdmissionControl(useScanAdmissionControl);
+    }
+
+    public long getScanAdmissionMaxWaitMillis() {
+        return getConfig().getScanAdmissionMaxWaitMillis();
+    }
+
+    public void setScanAdmissionMaxWaitMillis(long scanAdmissionMaxWaitMillis) {
+        getConfig().setScanAdmissionMaxWaitMillis(scanAdmissionMaxWaitMillis);
+    }
+
     public boolean getReduceQueryFields() {
         return this.getConfig().getReduceQueryFields();
     }
@@ -2608,6 +2712,22 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
         getConfig().setDebugMultithreadedSources(debugMultithreadedSources);
     }
 
+    public boolean isSharedScan() {
+        return getConfig().isSharedScan();
+    }
+
+    public void setSharedScan(boolean sharedScan) {
+        getConfig().setSharedScan(sharedScan);
+    }
+
+    public boolean isLazyAttributes() {
+        return getConfig().isLazyAttributes();
+    }
+
+    public void setLazyAttributes(boolean lazyAttributes) {
+        getConfig().setLazyAttributes(lazyAttributes);
+    }
+
     public boolean isSortGeoWaveQueryRanges() {
         return getConfig().isSortGeoWaveQueryRanges();
     }
@@ -2768,6 +2888,7 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
         config.setQueries(checkpoint.getQueries());
         config.setClient(client);
         setScannerFactory(new ScannerFactory(config));
+        configureScanAdmission(config, config.getQuery());
 
         setupQuery(config);
     }
@@ -8,6 +8,7 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.accumulo.core.client.IteratorSetting;
@@ -73,6 +74,9 @@ public class Scan implements Callable<Scan> {
 
     private AccumuloResource delegatedResource = null;
 
+    // whether this scan holds a permit to fetch from the tablet servers, see ResourceQueue#acquirePermit
+    private boolean permitHeld = false;
+
     public Scan(String localTableName, Set<Authorizations> localAuths, ScannerChunk chunk, ResourceQueue delegatorReference,
                     Class<? extends AccumuloResource> delegatedResourceInitializer, BlockingQueue<Result> results, ExecutorService callingService) {
         myScan = chunk;
@@ -238,6 +242,7 @@ public class Scan implements Callable<Scan> {
                     log.trace("Using " + initializer);
                 }
 
+                acquirePermit();
                 delegatedResource = ResourceFactory.initializeResource(initializer, delegatedResource, localTableName, localAuths, currentRange)
                                 .setOptions(myScan.getOptions());
 
@@ -262,9 +267,13 @@ public class Scan implements Callable<Scan> {
                         throw new Exception("Stopped mid cycle");
                     myEntry = iter.next();
 
-                    while (!caller.isShutdown() && !results.offer(myEntry, 25, TimeUnit.MILLISECONDS)) {
-                        if (log.isTraceEnabled())
-                            log.trace("offering");
+                    if (!results.offer(myEntry)) {
+                        // the results are not being read, so do not hold the permit while waiting for room
+                        releasePermit();
+                        while (!caller.isShutdown() && !results.offer(myEntry, 25, TimeUnit.MILLISECONDS)) {
+                            if (log.isTraceEnabled())
+                                log.trace("offering");
+                        }
                     }
 
                     if (log.isTraceEnabled())
@@ -276,12 +285,17 @@ public class Scan implements Callable<Scan> {
                     lastSeenKey = myEntry.getKey();
                     if (log.isTraceEnabled())
                         log.trace("last seen key is " + lastSeenKey);
+
+                    // take a permit again before fetching the next batch
+                    acquirePermit();
                 }
                 if (!iter.hasNext())
                     lastSeenKey = null;
+                releasePermit();
 
                 // close early
                 delegatorReference.close(delegatedResource);
+                delegatedResource = null;
 
                 if (null != myStats)
                     myStats.getTimer(TIMERS.SCANNER_ITERATE).suspend();
@@ -300,6 +314,7 @@ public class Scan implements Callable<Scan> {
             }
             throw e;
         } finally {
+            releasePermit();
             if (null != delegatedResource) {
                 delegatorReference.close(delegatedResource);
             }
@@ -308,6 +323,20 @@ public class Scan implements Callable<Scan> {
 
     }
 
+    private void acquirePermit() throws InterruptedException, TimeoutException {
+        if (!permitHeld) {
+            delegatorReference.acquirePermit();
+            permitHeld = true;
+        }
+    }
+
+    private void releasePermit() {
+        if (permitHeld) {
+            permitHeld = false;
+            delegatorReference.releasePermit();
+        }
+    }
+
     private boolean isInterruptedException(Throwable t) {
         while (t != null && !(t instanceof InterruptedException || t instanceof InterruptedIOException)
                         && !(t.getMessage() != null && t.getMessage().contains("InterruptedException"))) {
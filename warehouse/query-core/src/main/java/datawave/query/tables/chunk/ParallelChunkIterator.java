@@ -0,0 +1,154 @@
+package datawave.query.tables.chunk;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.log4j.Logger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import datawave.microservice.query.Query;
+
+/**
+ * Returns the results of a first chunk, which is run by the caller, together with the results of the remaining chunks, which are run concurrently by a fixed
+ * number of workers. The results of the concurrent chunks are returned as soon as they are found, and the workers block once the configured number of results
+ * is waiting to be returned. Closing the iterator stops the workers, including any that are blocked handing over a result.
+ */
+public class ParallelChunkIterator implements Iterator<Entry<Key,Value>>, AutoCloseable {
+    private static final Logger log = Logger.getLogger(ParallelChunkIterator.class);
+
+    /**
+     * Runs a chunk on a worker thread
+     */
+    public interface ChunkRunner {
+        /**
+         * Run a chunk and put each of its results on the queue
+         *
+         * @param chunk
+         *            the chunk
+         * @param results
+         *            the queue to which the results are handed over, which blocks when full
+         * @throws InterruptedException
+         *             if the worker is stopped while handing over a result
+         * @throws Exception
+         *             if the chunk cannot be run
+         */
+        void run(Query chunk, BlockingQueue<Entry<Key,Value>> results) throws Exception;
+    }
+
+    private final BlockingQueue<Entry<Key,Value>> results;
+    private final Supplier<Query> chunks;
+    private final ChunkRunner runner;
+    private final AtomicInteger runningWorkers;
+    private final ExecutorService executor;
+    private Iterator<Entry<Key,Value>> firstChunk;
+    private Entry<Key,Value> next;
+
+    /**
+     * @param firstChunk
+     *            the results of the first chunk
+     * @param chunks
+     *            supplies the remaining chunks to the workers, returning null when there are no more, and must be thread safe
+     * @param runner
+     *            runs a chunk
+     * @param workers
+     *            the number of workers
+     * @param maxQueuedResults
+     *            the number of results of the workers held before they block
+     */
+    public ParallelChunkIterator(Iterator<Entry<Key,Value>> firstChunk, Supplier<Query> chunks, ChunkRunner runner, int workers, int maxQueuedResults) {
+        this.firstChunk = firstChunk;
+        this.chunks = chunks;
+        this.runner = runner;
+        this.results = new ArrayBlockingQueue<>(maxQueuedResults);
+        this.runningWorkers = new AtomicInteger(workers);
+        this.executor = Executors.newFixedThreadPool(workers, new ThreadFactoryBuilder().setNameFormat("ParallelChunkIterator %d").setDaemon(true).build());
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::runChunks);
+        }
+    }
+
+    private void runChunks() {
+        try {
+            Query chunk;
+            while (!Thread.currentThread().isInterrupted() && (chunk = chunks.get()) != null) {
+                try {
+                    runner.run(chunk, results);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    log.warn("Could not process a chunk.", e);
+                }
+            }
+        } finally {
+            runningWorkers.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return the number of workers still running chunks
+     */
+    int getRunningWorkers() {
+        return runningWorkers.get();
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (next == null) {
+                next = results.poll();
+                if (next == null) {
+                    if (firstChunk != null) {
+                        if (firstChunk.hasNext()) {
+                            next = firstChunk.next();
+                        } else {
+                            firstChunk = null;
+                        }
+                    } else if (runningWorkers.get() == 0) {
+                        // the workers are done, so anything they queued is already there
+                        next = results.poll();
+                        if (next == null) {
+                            executor.shutdown();
+                            return false;
+                        }
+                    } else {
+                        next = results.poll(100, TimeUnit.MILLISECONDS);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public Entry<Key,Value> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Entry<Key,Value> result = next;
+        next = null;
+        return result;
+    }
+
+    /**
+     * Stop the workers, interrupting any that are blocked handing over a result
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
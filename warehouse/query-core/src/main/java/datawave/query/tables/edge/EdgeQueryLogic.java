@@ -56,6 +56,7 @@ import datawave.core.query.logic.QueryLogicTransformer;
 import datawave.data.type.Type;
 import datawave.edge.model.EdgeModelFields;
 import datawave.edge.model.EdgeModelFieldsFactory;
+import datawave.edge.util.EdgeDateBucket;
 import datawave.microservice.query.Query;
 import datawave.query.Constants;
 import datawave.query.QueryParameters;
@@ -189,8 +190,10 @@ public class EdgeQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
         qData.setTableName(config.getTableName());
         qData.setRanges(ranges);
 
-        addIterators(qData, getDateBasedIterators(config.getBeginDate(), config.getEndDate(), currentIteratorPriority, config.getDateFilterSkipLimit(),
-                        config.getDateFilterScanLimit(), dateFilterType));
+        int dateIteratorPriority = currentIteratorPriority;
+        List<IteratorSetting> dateIterators = getDateBasedIterators(config.getBeginDate(), config.getEndDate(), currentIteratorPriority,
+                        config.getDateFilterSkipLimit(), config.getDateFilterScanLimit(), dateFilterType);
+        addIterators(qData, dateIterators);
 
         if (!normalizedQuery.equals("")) {
             log.debug("Query being sent to the filter iterator: " + normalizedQuery);
@@ -224,11 +227,67 @@ public class EdgeQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
 
         addCustomFilters(qData, currentIteratorPriority);
 
-        config.setQueries(Collections.singletonList(qData));
+        config.setQueries(planDateBuckets(config, qData, dateIterators.size(), dateIteratorPriority));
 
         return config;
     }
 
+    /**
+     * Split the query across the daily edge table and the weekly and monthly rollup tables. The coarsest bucket that exactly covers each part of the date range
+     * is read, so long date ranges read one entry per edge per month instead of one per day, and only the days at the edges of the range come from the daily
+     * table. Edges read from a rollup table carry the first day of their week or month as their date.
+     * <p>
+     * Rollups are not used for load date filtering, as the load date of a rollup entry is the earliest load date of the days it aggregates.
+     *
+     * @param config
+     *            the edge query configuration
+     * @param qData
+     *            the query against the daily edge table, whose first iterators are the date filters
+     * @param numDateIterators
+     *            the number of date filter iterators
+     * @param dateIteratorPriority
+     *            the priority of the first date filter iterator
+     * @return the queries to run
+     */
+    protected List<QueryData> planDateBuckets(EdgeQueryConfiguration config, QueryData qData, int numDateIterators, int dateIteratorPriority) {
+        boolean weekly = config.getWeeklyRollupTableName() != null;
+        boolean monthly = config.getMonthlyRollupTableName() != null;
+        EdgeQueryConfiguration.dateType dateFilterType = config.getDateRangeType();
+        if ((!weekly && !monthly) || config.getBeginDate() == null || config.getEndDate() == null || dateFilterType == EdgeQueryConfiguration.dateType.LOAD
+                        || dateFilterType == EdgeQueryConfiguration.dateType.ACTIVITY_LOAD || dateFilterType == EdgeQueryConfiguration.dateType.ANY_LOAD) {
+            return Collections.singletonList(qData);
+        }
+
+        List<EdgeDateBucket.Segment> segments = EdgeDateBucket.plan(config.getBeginDate(), config.getEndDate(), weekly, monthly);
+        if (segments.size() == 1 && segments.get(0).getBucket() == EdgeDateBucket.DAY) {
+            return Collections.singletonList(qData);
+        }
+        log.debug("Edge query date range split into " + segments);
+
+        List<IteratorSetting> otherIterators = Lists.newArrayList(qData.getSettings()).subList(numDateIterators, qData.getSettings().size());
+        List<QueryData> queries = Lists.newArrayListWithCapacity(segments.size());
+        for (EdgeDateBucket.Segment segment : segments) {
+            List<IteratorSetting> settings = Lists.newArrayList(getDateBasedIterators(EdgeDateBucket.toDate(segment.getBegin()),
+                            EdgeDateBucket.toDate(segment.getEnd()), dateIteratorPriority, config.getDateFilterSkipLimit(), config.getDateFilterScanLimit(),
+                            dateFilterType));
+            settings.addAll(otherIterators);
+
+            QueryData segmentData = new QueryData(qData).withSettings(settings);
+            switch (segment.getBucket()) {
+                case WEEK:
+                    segmentData.setTableName(config.getWeeklyRollupTableName());
+                    break;
+                case MONTH:
+                    segmentData.setTableName(config.getMonthlyRollupTableName());
+                    break;
+                default:
+                    segmentData.setTableName(qData.getTableName());
+            }
+            queries.add(segmentData);
+        }
+        return queries;
+    }
+
     public String getJexlQueryString(Query settings) throws datawave.query.language.parser.ParseException {
         // queryString should be JEXl after all query parsers are applied
         String queryString;
@@ -690,7 +749,7 @@ public class EdgeQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
 
         for (QueryData qd : config.getQueries()) {
             // scan the table
-            BatchScanner bs = createBatchScanner(config);
+            BatchScanner bs = createBatchScanner(config, qd.getTableName() == null ? config.getTableName() : qd.getTableName());
 
             log.debug("Using the following ranges: " + qd.getRanges());
 
@@ -768,9 +827,13 @@ public class EdgeQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
     }
 
     protected BatchScanner createBatchScanner(GenericQueryConfiguration config) {
+        return createBatchScanner(config, config.getTableName());
+    }
+
+    protected BatchScanner createBatchScanner(GenericQueryConfiguration config, String tableName) {
         EdgeQueryConfiguration conf = (EdgeQueryConfiguration) config;
         try {
-            return scannerFactory.newScanner(config.getTableName(), config.getAuthorizations(), conf.getQueryThreads(), conf.getQuery());
+            return scannerFactory.newScanner(tableName, config.getAuthorizations(), conf.getQueryThreads(), conf.getQuery());
         } catch (TableNotFoundException e) {
             throw new IllegalStateException(e);
         }
@@ -950,6 +1013,22 @@ public class EdgeQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
         getConfig().setDateFilterScanLimit(dateFilterScanLimit);
     }
 
+    public String getWeeklyRollupTableName() {
+        return getConfig().getWeeklyRollupTableName();
+    }
+
+    public void setWeeklyRollupTableName(String weeklyRollupTableName) {
+        getConfig().setWeeklyRollupTableName(weeklyRollupTableName);
+    }
+
+    public String getMonthlyRollupTableName() {
+        return getConfig().getMonthlyRollupTableName();
+    }
+
+    public void setMonthlyRollupTableName(String monthlyRollupTableName) {
+        getConfig().setMonthlyRollupTableName(monthlyRollupTableName);
+    }
+
     public void setEdgeModelFieldsFactory(EdgeModelFieldsFactory edgeModelFieldsFactory) {
         this.edgeFields = edgeModelFieldsFactory.createFields();
     }
@@ -2,9 +2,7 @@ package datawave.query.transformer;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
-import java.util.ArrayList;
 import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -48,9 +46,9 @@ public class GroupingTransform extends DocumentTransform.DefaultDocumentTransfor
     private final LinkedList<Document> documents = new LinkedList<>();
 
     /**
-     * list of keys that have been read, in order to keep track of where we left off when a new iterator is created
+     * the most recent key that has been read, in order to keep track of where we left off when a new iterator is created
      */
-    private final List<Key> keys = new ArrayList<>();
+    private Key lastKey;
 
     /**
      * Length of time in milliseconds that a client will wait while results are collected. If a full page is not collected before the timeout, a blank page will
@@ -91,7 +89,7 @@ public class GroupingTransform extends DocumentTransform.DefaultDocumentTransfor
                 return keyDocumentEntry;
             }
 
-            keys.add(keyDocumentEntry.getKey());
+            lastKey = keyDocumentEntry.getKey();
             log.trace("{} get list key counts for: {}", "web-server", keyDocumentEntry);
             DocumentGrouper.group(keyDocumentEntry, groupFields, groups);
         }
@@ -119,7 +117,7 @@ public class GroupingTransform extends DocumentTransform.DefaultDocumentTransfor
         Document document = null;
         if (!groups.isEmpty()) {
             for (Group group : groups.getGroups()) {
-                documents.add(GroupingUtils.createDocument(group, keys, markingFunctions, GroupingUtils.AverageAggregatorWriteFormat.AVERAGE));
+                documents.add(GroupingUtils.createDocument(group, lastKey, markingFunctions, GroupingUtils.AverageAggregatorWriteFormat.AVERAGE));
             }
         }
 
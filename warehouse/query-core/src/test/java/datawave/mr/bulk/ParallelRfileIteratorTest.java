@@ -0,0 +1,137 @@
+package datawave.mr.bulk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.accumulo.core.client.rfile.RFile;
+import org.apache.accumulo.core.client.rfile.RFileWriter;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Lists;
+
+import datawave.mr.bulk.split.FileRangeSplit;
+import datawave.mr.bulk.split.TabletSplitSplit;
+
+/**
+ * Reads RFiles written to the local filesystem through {@link RecordIterator}s and verifies the parallel split reader returns every key exactly once.
+ */
+public class ParallelRfileIteratorTest {
+
+    private static final int NUM_SPLITS = 4;
+    private static final int KEYS_PER_SPLIT = 2500;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Configuration conf;
+    private FileSystem fs;
+
+    @Before
+    public void setup() throws Exception {
+        File tempDir = temporaryFolder.newFolder();
+        System.setProperty("hadoop.home.dir", tempDir.getCanonicalPath());
+        conf = new Configuration();
+        fs = FileSystem.getLocal(conf);
+    }
+
+    @Test
+    public void testReadsAllSplits() throws Exception {
+        SortedSet<Key> expected = new TreeSet<>();
+        List<RecordIterator> iterators = createIterators(expected);
+
+        SortedSet<Key> actual = new TreeSet<>();
+        int count = 0;
+        try (ParallelRfileIterator iterator = new ParallelRfileIterator(iterators, 3, 16)) {
+            while (iterator.hasNext()) {
+                Entry<Key,Value> entry = iterator.next();
+                actual.add(entry.getKey());
+                count++;
+            }
+            assertFalse(iterator.hasNext());
+        } finally {
+            for (RecordIterator recordIterator : iterators) {
+                recordIterator.close();
+            }
+        }
+
+        assertEquals(expected.size(), count);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testCloseStopsReaders() throws Exception {
+        List<RecordIterator> iterators = createIterators(new TreeSet<>());
+        ParallelRfileIterator iterator = new ParallelRfileIterator(iterators, 2, 4);
+        try {
+            iterator.next();
+            iterator.close();
+            assertFalse(iterator.hasNext());
+        } finally {
+            for (RecordIterator recordIterator : iterators) {
+                recordIterator.close();
+            }
+        }
+    }
+
+    @Test
+    public void testCloseWaitsForReaders() throws Exception {
+        List<RecordIterator> iterators = createIterators(new TreeSet<>());
+        try {
+            // a queue of one keeps every reader blocked, mid split, when the iterator is closed
+            ParallelRfileIterator iterator = new ParallelRfileIterator(iterators, NUM_SPLITS, 1);
+            iterator.next();
+            iterator.close();
+
+            // the readers have stopped, so each split can be repositioned and read in full without interference
+            for (RecordIterator recordIterator : iterators) {
+                recordIterator.seek(new Range(), Collections.emptyList(), false);
+                int count = 0;
+                while (recordIterator.hasTop()) {
+                    count++;
+                    recordIterator.next();
+                }
+                assertEquals(KEYS_PER_SPLIT, count);
+            }
+        } finally {
+            for (RecordIterator recordIterator : iterators) {
+                recordIterator.close();
+            }
+        }
+    }
+
+    private List<RecordIterator> createIterators(SortedSet<Key> expected) throws Exception {
+        List<RecordIterator> iterators = Lists.newArrayList();
+        for (int split = 0; split < NUM_SPLITS; split++) {
+            File file = new File(temporaryFolder.getRoot(), "split" + split + ".rf");
+            try (RFileWriter writer = RFile.newWriter().to(file.getAbsolutePath()).withFileSystem(fs).build()) {
+                writer.startDefaultLocalityGroup();
+                for (int i = 0; i < KEYS_PER_SPLIT; i++) {
+                    Key key = new Key(String.format("20240101_%d", split), String.format("datatype\u0000uid%05d", i), "FIELD\u0000value");
+                    writer.append(key, new Value(Integer.toString(i)));
+                    expected.add(key);
+                }
+            }
+
+            TabletSplitSplit tabletSplit = new TabletSplitSplit(1);
+            tabletSplit.add(new FileRangeSplit(new Range(), new Path(file.toURI()), 0, file.length(), null));
+            iterators.add(new RecordIterator(tabletSplit, new Configuration(conf)));
+        }
+        return iterators;
+    }
+}
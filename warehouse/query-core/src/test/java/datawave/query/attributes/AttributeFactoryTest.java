@@ -1,6 +1,7 @@
 package datawave.query.attributes;
 
 import java.util.Collection;
+import java.util.Collections;
 
 import org.apache.accumulo.core.data.Key;
 import org.apache.log4j.Logger;
@@ -66,4 +67,31 @@ public class AttributeFactoryTest {
         Assert.assertEquals("blue", blueType.getType().getNormalizedValue());
     }
 
+    @Test
+    public void testLazyNormalization() {
+        TypeMetadata metadata = new TypeMetadata();
+        metadata.put("QUERY_FIELD", "ingest-type", LcNoDiacriticsType.class.getTypeName());
+        metadata.put("OTHER_FIELD", "ingest-type", NumberType.class.getTypeName());
+        metadata.put("BAD_FIELD", "ingest-type", NumberType.class.getTypeName());
+
+        AttributeFactory factory = new AttributeFactory(metadata).withEagerFields(Collections.singleton("QUERY_FIELD"));
+
+        Key key = new Key("row", "ingest-type\0uid");
+        TypeAttribute<?> queryField = (TypeAttribute<?>) factory.create("QUERY_FIELD", "Red", key, true);
+        TypeAttribute<?> otherField = (TypeAttribute<?>) factory.create("OTHER_FIELD", "12", key, true);
+        TypeAttribute<?> badField = (TypeAttribute<?>) factory.create("BAD_FIELD", "twelve", key, true);
+
+        Assert.assertFalse(queryField.isLazy());
+        Assert.assertTrue(otherField.isLazy());
+        Assert.assertTrue(otherField.copy().isLazy());
+
+        Assert.assertEquals(NumberType.class, otherField.getType().getClass());
+        Assert.assertEquals("12", otherField.getType().getDelegateAsString());
+        Assert.assertFalse(otherField.isLazy());
+
+        // a value its type cannot parse is kept as a NoOpType, as it is when normalized eagerly
+        Assert.assertEquals(NoOpType.class, badField.getType().getClass());
+        Assert.assertEquals("twelve", badField.getType().getNormalizedValue());
+    }
+
 }
@@ -92,6 +92,57 @@ public class DocumentGrouperTest {
         groupsAssert.assertGroup(textKey("GENDER", "FEMALE")).hasCount(3);
     }
 
+    /**
+     * Verify that entries whose name is not a target field are ignored, even when the target field name appears elsewhere in the entry key.
+     */
+    @Test
+    public void testGroupingIgnoresNonTargetFields() {
+        givenGroupFields("GENDER");
+        givenSumFields("AGE");
+
+        givenDocumentEntry(DocumentEntry.of("GENDER.FOO.1").withLcNoDiacritics("MALE"));
+        givenDocumentEntry(DocumentEntry.of("AGE.FOO.1").withNumberType("20"));
+        givenDocumentEntry(DocumentEntry.of("GENDERS.FOO.1").withLcNoDiacritics("FEMALE"));
+        givenDocumentEntry(DocumentEntry.of("NAME.GENDER.1").withLcNoDiacritics("FEMALE"));
+        givenDocumentEntry(DocumentEntry.of("NAME.AGE.1").withNumberType("30"));
+        givenDocumentEntry(DocumentEntry.of("FOO").withNumberType("40"));
+
+        executeGrouping();
+
+        // We should have the following groupings:
+        // MALE (Count of 1) with an AGE sum of 20
+        GroupsAssert groupsAssert = GroupsAssert.assertThat(groups);
+        groupsAssert.hasTotalGroups(1);
+        groupsAssert.assertGroup(textKey("GENDER", "MALE")).hasCount(1).hasAggregatedSum("AGE", new BigDecimal("20"));
+    }
+
+    /**
+     * Verify that combinations extended with a single direct match combination, or with a single field event, are each extended without affecting the others.
+     */
+    @Test
+    public void testGroupingExtendsCombinationsWithSingleValues() {
+        givenGroupFields("AGE", "GENDER", "RECORD_ID", "BUILDING");
+
+        givenDocumentEntry(DocumentEntry.of("AGE.FOO.1").withNumberType("20"));
+        givenDocumentEntry(DocumentEntry.of("GENDER.FOO.1").withLcNoDiacritics("MALE"));
+        givenDocumentEntry(DocumentEntry.of("AGE.FOO.2").withNumberType("10"));
+        givenDocumentEntry(DocumentEntry.of("GENDER.FOO.2").withLcNoDiacritics("FEMALE"));
+        givenDocumentEntry(DocumentEntry.of("RECORD_ID.BAR.1").withNumberType("123"));
+        givenDocumentEntry(DocumentEntry.of("BUILDING").withLcNoDiacritics("West"));
+
+        executeGrouping();
+
+        // We should have the following groupings:
+        // 20-MALE-123-West (Count of 1)
+        // 10-FEMALE-123-West (Count of 1)
+        GroupsAssert groupsAssert = GroupsAssert.assertThat(groups);
+        groupsAssert.hasTotalGroups(2);
+        groupsAssert.assertGroup(numericKey("AGE", "20"), textKey("GENDER", "MALE"), numericKey("RECORD_ID", "123"), textKey("BUILDING", "West"))
+                        .hasCount(1);
+        groupsAssert.assertGroup(numericKey("AGE", "10"), textKey("GENDER", "FEMALE"), numericKey("RECORD_ID", "123"), textKey("BUILDING", "West"))
+                        .hasCount(1);
+    }
+
     /**
      * Verify that when grouping by multiple fields, where all entries have a grouping context and instance, and only direct matches need to be grouped, that
      * the count is correct for each grouping. Additionally, verify that the grouping context and instance are parsed correctly from the field names.
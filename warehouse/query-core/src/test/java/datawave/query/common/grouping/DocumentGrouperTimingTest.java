@@ -0,0 +1,94 @@
+package datawave.query.common.grouping;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.AbstractMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import datawave.data.type.LcNoDiacriticsType;
+import datawave.query.attributes.Document;
+import datawave.query.attributes.TypeAttribute;
+
+/**
+ * Timing harness for {@link DocumentGrouper} over wide documents, i.e. documents with many group-by fields that are direct matches of each other. Each document
+ * yields one grouping per grouping context, and the cost of building a grouping used to grow with the square of the number of group-by fields because every
+ * field copied and rehashed the grouping built so far. With that cost now linear, doubling the width should roughly double the time per document rather than
+ * quadruple it.
+ * <p>
+ * This is not part of the regular build since timings depend on the host. Remove the {@link Ignore} to run it.
+ */
+@Ignore
+public class DocumentGrouperTimingTest {
+
+    private static final ColumnVisibility COLVIS = new ColumnVisibility("ALL");
+    private static final int CONTEXTS = 50;
+    private static final int DOCUMENTS = 200;
+    private static final int WARMUP_DOCUMENTS = 100;
+
+    @Test
+    public void timeWideDocuments() {
+        long previous = 0;
+        for (int width = 8; width <= 128; width *= 2) {
+            GroupFields groupFields = getGroupFields(width);
+            Document document = getDocument(width);
+
+            group(groupFields, document, WARMUP_DOCUMENTS);
+
+            long start = System.nanoTime();
+            Groups groups = group(groupFields, document, DOCUMENTS);
+            long elapsed = System.nanoTime() - start;
+
+            // every context yields the same grouping, seen once per context in each document
+            assertEquals(1, groups.getGroups().size());
+            assertEquals(CONTEXTS * DOCUMENTS, groups.getGroups().iterator().next().getCount());
+
+            String growth = previous == 0 ? "" : String.format(", %.1fx the previous width", (double) elapsed / previous);
+            System.out.printf("width %d: %d ms for %d documents%s%n", width, TimeUnit.NANOSECONDS.toMillis(elapsed), DOCUMENTS, growth);
+            previous = elapsed;
+        }
+    }
+
+    private Groups group(GroupFields groupFields, Document document, int documents) {
+        Groups groups = new Groups();
+        for (int i = 0; i < documents; i++) {
+            DocumentGrouper.group(new AbstractMap.SimpleEntry<>(new Key("row" + i), document), groupFields, groups);
+        }
+        return groups;
+    }
+
+    private GroupFields getGroupFields(int width) {
+        Set<String> fields = new HashSet<>();
+        for (int field = 0; field < width; field++) {
+            fields.add("FIELD" + field);
+        }
+        // a field without a grouping context, combined with each grouping
+        fields.add("NAME");
+        GroupFields groupFields = new GroupFields();
+        groupFields.setGroupByFields(fields);
+        return groupFields;
+    }
+
+    private Document getDocument(int width) {
+        Document document = new Document();
+        for (int context = 0; context < CONTEXTS; context++) {
+            for (int field = 0; field < width; field++) {
+                put(document, "FIELD" + field + ".CONTEXT." + context, "value" + field);
+            }
+        }
+        put(document, "NAME", "name");
+        return document;
+    }
+
+    private void put(Document document, String field, String value) {
+        TypeAttribute<?> attribute = new TypeAttribute<>(new LcNoDiacriticsType(value), new Key("cf", "cq"), true);
+        attribute.setColumnVisibility(COLVIS);
+        document.put(field, attribute, true, false);
+    }
+}
@@ -204,6 +204,10 @@ public class ShardQueryConfigurationTest {
         updatedValues.put("serializeQueryIterator", true);
         defaultValues.put("debugMultithreadedSources", false);
         updatedValues.put("debugMultithreadedSources", true);
+        defaultValues.put("sharedScan", false);
+        updatedValues.put("sharedScan", true);
+        defaultValues.put("lazyAttributes", false);
+        updatedValues.put("lazyAttributes", true);
         defaultValues.put("sortGeoWaveQueryRanges", false);
         updatedValues.put("sortGeoWaveQueryRanges", true);
         defaultValues.put("numRangesToBuffer", 0);
@@ -479,6 +483,8 @@ public class ShardQueryConfigurationTest {
         updatedValues.put("tfFieldSeek", 14);
         defaultValues.put("tfNextSeek", -1);
         updatedValues.put("tfNextSeek", 15);
+        defaultValues.put("documentNextSeek", -1);
+        updatedValues.put("documentNextSeek", 16);
         defaultValues.put("seekingEventAggregation", false);
         updatedValues.put("seekingEventAggregation", true);
         defaultValues.put("visitorFunctionMaxWeight", 5000000L);
@@ -497,6 +503,22 @@ public class ShardQueryConfigurationTest {
         updatedValues.put("reduceIngestTypesPerShard", true);
         defaultValues.put("pruneQueryByIngestTypes", false);
         updatedValues.put("pruneQueryByIngestTypes", true);
+        defaultValues.put("useGlobalIndexCache", false);
+        updatedValues.put("useGlobalIndexCache", true);
+        defaultValues.put("globalIndexCacheRecentTtlMillis", 60000L);
+        updatedValues.put("globalIndexCacheRecentTtlMillis", 5000L);
+        defaultValues.put("adaptiveRangeBundling", false);
+        updatedValues.put("adaptiveRangeBundling", true);
+        defaultValues.put("rangeBundleTargetMillis", 1000L);
+        updatedValues.put("rangeBundleTargetMillis", 5000L);
+        defaultValues.put("useCostBasedPlanning", false);
+        updatedValues.put("useCostBasedPlanning", true);
+        defaultValues.put("costBasedPushdownFactor", 1000.0d);
+        updatedValues.put("costBasedPushdownFactor", 100.0d);
+        defaultValues.put("useScanAdmissionControl", false);
+        updatedValues.put("useScanAdmissionControl", true);
+        defaultValues.put("scanAdmissionMaxWaitMillis", 300000L);
+        updatedValues.put("scanAdmissionMaxWaitMillis", 60000L);
         defaultValues.put("numIndexLookupThreads", 8);
         updatedValues.put("numIndexLookupThreads", 18);
         defaultValues.put("accrueStats", false);
@@ -575,6 +597,8 @@ public class ShardQueryConfigurationTest {
         defaultValues.put("groupFieldsBatchSizeAsString", "0");
         updatedValues.put("groupFieldsBatchSizeAsString", "5");
         alreadySet.add("groupFieldsBatchSizeAsString");
+        defaultValues.put("groupFieldsMaxGroups", 10000);
+        updatedValues.put("groupFieldsMaxGroups", 500);
 
         defaultValues.put("groupFields", new GroupFields());
         updatedValues.put("groupFields", GroupFields.from("GROUP(FIELD_G,FIELD_H)"));
@@ -591,6 +615,8 @@ public class ShardQueryConfigurationTest {
         updatedValues.put("tableConsistencyLevels", Collections.singletonMap(TableName.SHARD, ScannerBase.ConsistencyLevel.EVENTUAL));
         defaultValues.put("tableHints", Collections.emptyMap());
         updatedValues.put("tableHints", Collections.emptyMap());
+        defaultValues.put("planEstimates", Collections.emptyMap());
+        updatedValues.put("planEstimates", Collections.singletonMap("FOO == 'bar'", 10.0d));
 
         defaultValues.put("useQueryTreeScanHintRules", false);
         updatedValues.put("useQueryTreeScanHintRules", true);
@@ -0,0 +1,111 @@
+package datawave.query.function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.data.Key;
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+
+import datawave.query.attributes.Attribute;
+import datawave.query.attributes.Attributes;
+import datawave.query.attributes.Cardinality;
+import datawave.query.attributes.Document;
+import datawave.query.attributes.FieldValueCardinality;
+
+public class CardinalitySummationTest {
+
+    private static final Key METADATA = new Key("", "", "", "", -1);
+
+    @Test
+    public void testSummarize() {
+        CardinalitySummation summation = new CardinalitySummation(docKey("uid1"), document("uid1", "a", "b"), true);
+        summation.add(Maps.immutableEntry(docKey("uid2"), document("uid2", "a", "c")));
+        summation.add(Maps.immutableEntry(docKey("uid3"), document("uid3", "a")));
+
+        Map<String,Long> estimates = getEstimates(summation.getTop().getValue());
+        assertEquals(3, estimates.size());
+        assertEquals(Long.valueOf(3), estimates.get("a"));
+        assertEquals(Long.valueOf(1), estimates.get("b"));
+        assertEquals(Long.valueOf(1), estimates.get("c"));
+    }
+
+    @Test
+    public void testApplyMatchesAdd() {
+        CardinalitySummation applied = new CardinalitySummation(docKey("uid0"), document("uid0", "v0"), true);
+        CardinalitySummation added = new CardinalitySummation(docKey("uid0"), document("uid0", "v0"), true);
+        for (int i = 1; i < 50; i++) {
+            String uid = "uid" + i;
+            Entry<Key,Document> appliedTop = applied.apply(Maps.immutableEntry(docKey(uid), document(uid, "v" + (i % 7), "v" + (i % 11), "w" + i)));
+            added.add(Maps.immutableEntry(docKey(uid), document(uid, "v" + (i % 7), "v" + (i % 11), "w" + i)));
+            assertEquals(getEstimates(appliedTop.getValue()), getEstimates(added.getTop().getValue()));
+        }
+        assertEquals(applied.getTop().getKey(), added.getTop().getKey());
+    }
+
+    @Test
+    public void testManyDistinctValues() {
+        int numDocs = 200;
+        int valuesPerDoc = 100;
+        CardinalitySummation summation = new CardinalitySummation(docKey("uid0"), document("uid0", "common"), true);
+        for (int i = 1; i < numDocs; i++) {
+            String[] values = new String[valuesPerDoc];
+            values[0] = "common";
+            for (int j = 1; j < valuesPerDoc; j++) {
+                values[j] = "value" + (i * valuesPerDoc + j);
+            }
+            summation.add(Maps.immutableEntry(docKey("uid" + i), document("uid" + i, values)));
+        }
+
+        Map<String,Long> estimates = getEstimates(summation.getTop().getValue());
+        assertEquals(1 + (numDocs - 1) * (valuesPerDoc - 1), estimates.size());
+        // the estimate is approximate
+        long common = estimates.get("common");
+        assertTrue("unexpected estimate " + common, Math.abs(common - numDocs) < numDocs / 10);
+    }
+
+    private static Key docKey(String uid) {
+        return new Key("20240101_0", "datatype\u0000" + uid, "FIELD\u0000value");
+    }
+
+    private static Document document(String uid, String... values) {
+        Document document = new Document();
+        if (values.length == 1) {
+            document.put("FIELD", cardinality(uid, values[0]));
+        } else {
+            Attributes attributes = new Attributes(true);
+            for (String value : values) {
+                attributes.add(cardinality(uid, value));
+            }
+            document.put("FIELD", attributes);
+        }
+        return document;
+    }
+
+    private static Cardinality cardinality(String uid, String value) {
+        FieldValueCardinality fvc = new FieldValueCardinality();
+        fvc.setContent(value);
+        fvc.setDocId(uid);
+        return new Cardinality(fvc, METADATA, true);
+    }
+
+    private static Map<String,Long> getEstimates(Document document) {
+        Map<String,Long> estimates = new HashMap<>();
+        Attribute<?> field = document.get("FIELD");
+        if (field instanceof Attributes) {
+            for (Attribute<?> attribute : ((Attributes) field).getAttributes()) {
+                FieldValueCardinality fvc = ((Cardinality) attribute).getContent();
+                estimates.put(fvc.getFloorValue(), fvc.getEstimate().cardinality());
+            }
+        } else {
+            FieldValueCardinality fvc = ((Cardinality) field).getContent();
+            estimates.put(fvc.getFloorValue(), fvc.getEstimate().cardinality());
+        }
+        return estimates;
+    }
+}
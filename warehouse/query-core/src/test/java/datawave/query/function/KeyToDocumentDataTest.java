@@ -105,6 +105,39 @@ public class KeyToDocumentDataTest {
         assertFields(Set.of("FIELD_A", "FIELD_B"));
     }
 
+    @Test
+    public void testEventData_documentNextSeek() {
+        // the same documents must be aggregated whether the source is seeked for each document or read ahead
+        for (int documentNextSeek : new int[] {-1, 2, 100}) {
+            KeyToDocumentData data = new KeyToDocumentData(new SortedMapIterator(getMultiDocumentSourceData()), equality, null, false, false)
+                            .withRangeProvider(rangeProvider).withDocumentNextSeek(documentNextSeek);
+            drive(data, getEntry(new Key("20230114_17", "datatype\0uid1")), 2);
+            assertFields(Set.of("FIELD_A", "FIELD_B"));
+            // no data for this document
+            drive(data, getEntry(new Key("20230114_17", "datatype\0uid2")), 0);
+            // more keys to skip than the next calls allowed
+            drive(data, getEntry(new Key("20230114_17", "datatype\0uid4")), 1);
+            assertFields(Set.of("FIELD_C"));
+            drive(data, getEntry(new Key("20230114_17", "datatype\0uid5")), 3);
+            assertFields(Set.of("FIELD_A", "FIELD_D"));
+            // next shard
+            drive(data, getEntry(new Key("20230114_18", "datatype\0uid1")), 1);
+            assertFields(Set.of("FIELD_E"));
+        }
+    }
+
+    @Test
+    public void testEventData_documentNextSeek_withFilter() {
+        EventDataQueryFilter filter = new EventDataQueryFieldFilter().withFields(Set.of("FIELD_A"));
+        KeyToDocumentData data = new KeyToDocumentData(new SortedMapIterator(getMultiDocumentSourceData()), equality, filter, false, false)
+                        .withRangeProvider(rangeProvider).withDocumentNextSeek(100);
+        drive(data, getEntry(new Key("20230114_17", "datatype\0uid1")), 1);
+        assertFields(Set.of("FIELD_A"));
+        drive(data, getEntry(new Key("20230114_17", "datatype\0uid4")), 0);
+        drive(data, getEntry(new Key("20230114_17", "datatype\0uid5")), 1);
+        assertFields(Set.of("FIELD_A"));
+    }
+
     /**
      * Drive the aggregation and assert expected size
      *
@@ -172,6 +205,22 @@ public class KeyToDocumentDataTest {
         return data;
     }
 
+    private SortedMap<Key,Value> getMultiDocumentSourceData() {
+        SortedMap<Key,Value> data = new TreeMap<>();
+        data.put(new Key("20230114_17", "datatype\0uid1", "FIELD_A\0value_1"), value);
+        data.put(new Key("20230114_17", "datatype\0uid1", "FIELD_B\0value_2"), value);
+        data.put(new Key("20230114_17", "datatype\0uid3", "FIELD_A\0value_1"), value);
+        data.put(new Key("20230114_17", "datatype\0uid3", "FIELD_B\0value_2"), value);
+        data.put(new Key("20230114_17", "datatype\0uid3", "FIELD_C\0value_3"), value);
+        data.put(new Key("20230114_17", "datatype\0uid3", "FIELD_D\0value_4"), value);
+        data.put(new Key("20230114_17", "datatype\0uid4", "FIELD_C\0value_3"), value);
+        data.put(new Key("20230114_17", "datatype\0uid5", "FIELD_A\0value_1"), value);
+        data.put(new Key("20230114_17", "datatype\0uid5", "FIELD_D\0value_3"), value);
+        data.put(new Key("20230114_17", "datatype\0uid5", "FIELD_D\0value_4"), value);
+        data.put(new Key("20230114_18", "datatype\0uid1", "FIELD_E\0value_5"), value);
+        return data;
+    }
+
     private SortedMap<Key,Value> getTLDSourceData() {
         SortedMap<Key,Value> data = new TreeMap<>();
         // parent
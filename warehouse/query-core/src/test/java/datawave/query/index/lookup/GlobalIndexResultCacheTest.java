@@ -0,0 +1,203 @@
+package datawave.query.index.lookup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iteratorsImpl.system.SortedMapIterator;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.commons.jexl3.parser.ASTEQNode;
+import org.junit.Before;
+import org.junit.Test;
+
+import datawave.core.query.configuration.Result;
+import datawave.ingest.protobuf.Uid;
+import datawave.query.jexl.JexlNodeFactory;
+import datawave.query.util.Tuple2;
+import datawave.util.time.DateHelper;
+
+public class GlobalIndexResultCacheTest {
+
+    private static final Date BEGIN = DateHelper.parse("20240101");
+    private static final Date END = DateHelper.parse("20240105");
+
+    private GlobalIndexResultCache cache;
+
+    @Before
+    public void setup() {
+        cache = new GlobalIndexResultCache(GlobalIndexResultCache.DEFAULT_MAX_WEIGHT, GlobalIndexResultCache.DEFAULT_CLOSED_DAY_TTL_MILLIS);
+    }
+
+    @Test
+    public void testCacheKey() {
+        GlobalIndexResultCache.CacheKey key = createKey("value", BEGIN, END, Arrays.asList("dt1", "dt2"), new Authorizations("A", "B"));
+        assertEquals(key, createKey("value", BEGIN, END, Arrays.asList("dt2", "dt1"), new Authorizations("B", "A")));
+        // only the days searched matter
+        assertEquals(key, createKey("value", new Date(BEGIN.getTime() + 1000), END, Arrays.asList("dt1", "dt2"), new Authorizations("A", "B")));
+
+        assertNotEqual(key, createKey("other", BEGIN, END, Arrays.asList("dt1", "dt2"), new Authorizations("A", "B")));
+        assertNotEqual(key, createKey("value", BEGIN, DateHelper.parse("20240106"), Arrays.asList("dt1", "dt2"), new Authorizations("A", "B")));
+        assertNotEqual(key, createKey("value", BEGIN, END, Collections.singletonList("dt1"), new Authorizations("A", "B")));
+        assertNotEqual(key, createKey("value", BEGIN, END, Arrays.asList("dt1", "dt2"), new Authorizations("A")));
+    }
+
+    @Test
+    public void testCompleteLookupIsCached() throws IOException {
+        GlobalIndexResultCache.CacheKey key = createKey("value", BEGIN, END, Collections.emptyList(), new Authorizations("A"));
+        CachingEntryParser parser = createParser(key);
+        Tuple2<String,IndexInfo> first = parser.apply(createResult("20240101_0", "uid1", "uid2"));
+        Tuple2<String,IndexInfo> second = parser.apply(createResult("20240103_1", "uid3"));
+        assertNull(cache.get(key));
+
+        parser.complete();
+        List<Result> cached = cache.get(key);
+        assertNotNull(cached);
+        assertEquals(2, cached.size());
+
+        // replaying the cached entries produces the same index info
+        EntryParser replay = new EntryParser(node(), "FIELD", "value", Collections.emptySet());
+        assertEquals(first.first(), replay.apply(cached.get(0)).first());
+        assertEquals(first.second().uids(), replay.apply(cached.get(0)).second().uids());
+        assertEquals(second.second().uids(), replay.apply(cached.get(1)).second().uids());
+        // one entry for each day, including the days without entries
+        assertEquals(5, cache.size());
+        assertEquals(5, cache.stats().hitCount());
+    }
+
+    @Test
+    public void testDaysAreMergedAcrossLookups() throws IOException {
+        GlobalIndexResultCache.CacheKey key = createKey("value", BEGIN, END, Collections.emptyList(), new Authorizations("A"));
+        cache.put(key, Arrays.asList(createResult("20240101_0", "uid1"), createResult("20240103_1", "uid2"), createResult("20240105_0", "uid3")), 60000L);
+
+        // a lookup over some of the days only returns the entries of those days
+        List<Result> cached = cache.get(createKey("value", DateHelper.parse("20240102"), DateHelper.parse("20240103"), Collections.emptyList(),
+                        new Authorizations("A")));
+        assertNotNull(cached);
+        assertEquals(1, cached.size());
+        assertEquals("20240103_1", cached.get(0).getKey().getColumnQualifier().toString());
+
+        // a lookup over more days only has the overlapping days
+        GlobalIndexResultCache.CacheKey longer = createKey("value", BEGIN, DateHelper.parse("20240107"), Collections.emptyList(), new Authorizations("A"));
+        assertNull(cache.get(longer));
+        SortedMap<String,List<Result>> days = cache.getCachedDays(longer);
+        assertEquals(Arrays.asList("20240101", "20240102", "20240103", "20240104", "20240105"), new ArrayList<>(days.keySet()));
+
+        // once the other days are cached the entries are merged in day order
+        cache.put(longer.forDays("20240106", "20240107"), Collections.singletonList(createResult("20240107_3", "uid4")), 60000L);
+        cached = cache.get(longer);
+        assertNotNull(cached);
+        List<String> shards = new ArrayList<>();
+        for (Result result : cached) {
+            shards.add(result.getKey().getColumnQualifier().toString());
+        }
+        assertEquals(Arrays.asList("20240101_0", "20240103_1", "20240105_0", "20240107_3"), shards);
+    }
+
+    @Test
+    public void testEntryOutsideOfLookupIsNotCached() throws IOException {
+        GlobalIndexResultCache.CacheKey key = createKey("value", BEGIN, END, Collections.emptyList(), new Authorizations("A"));
+        cache.put(key, Collections.singletonList(createResult("20240108_0", "uid1")), 60000L);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLongLookupIsNotCached() throws IOException {
+        cache.setMaxDaysPerLookup(4);
+        GlobalIndexResultCache.CacheKey key = createKey("value", BEGIN, END, Collections.emptyList(), new Authorizations("A"));
+        cache.put(key, Collections.singletonList(createResult("20240101_0", "uid1")), 60000L);
+        assertNull(cache.get(key));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testAbandonedLookupIsNotCached() throws IOException {
+        GlobalIndexResultCache.CacheKey key = createKey("value", BEGIN, END, Collections.emptyList(), new Authorizations("A"));
+        CachingEntryParser parser = createParser(key);
+        parser.apply(createResult("20240101_0", "uid1"));
+        parser.abandon();
+        parser.complete();
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    public void testLargeLookupIsNotCached() throws IOException {
+        cache.setMaxEntriesPerLookup(2);
+        GlobalIndexResultCache.CacheKey key = createKey("value", BEGIN, END, Collections.emptyList(), new Authorizations("A"));
+        CachingEntryParser parser = createParser(key);
+        parser.apply(createResult("20240101_0", "uid1"));
+        parser.apply(createResult("20240102_0", "uid2"));
+        parser.apply(createResult("20240103_0", "uid3"));
+        parser.complete();
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    public void testRecentDaysExpire() throws IOException {
+        Date today = new Date();
+        Date yesterday = new Date(today.getTime() - TimeUnit.DAYS.toMillis(1));
+        Date closed = new Date(today.getTime() - TimeUnit.DAYS.toMillis(3));
+        GlobalIndexResultCache.CacheKey key = createKey("value", closed, today, Collections.emptyList(), new Authorizations("A"));
+        List<Result> results = Collections.singletonList(createResult(DateHelper.format(closed) + "_0", "uid1"));
+
+        cache.put(key, results, 0L);
+        assertNull(cache.get(key));
+        // only the current and previous day are dropped, the closed days are kept regardless of the recent ttl
+        SortedMap<String,List<Result>> days = cache.getCachedDays(key);
+        assertEquals(2, days.size());
+        assertEquals(DateHelper.format(closed), days.firstKey());
+        assertEquals(results, days.get(days.firstKey()));
+        assertFalse(days.containsKey(DateHelper.format(yesterday)));
+        assertFalse(days.containsKey(DateHelper.format(today)));
+
+        cache.put(key, results, 60000L);
+        assertEquals(results, cache.get(key));
+    }
+
+    private CachingEntryParser createParser(GlobalIndexResultCache.CacheKey key) {
+        return new CachingEntryParser(node(), "FIELD", "value", Collections.emptySet(), cache, key, 60000L);
+    }
+
+    private static ASTEQNode node() {
+        return (ASTEQNode) JexlNodeFactory.buildEQNode("FIELD", "value");
+    }
+
+    private static GlobalIndexResultCache.CacheKey createKey(String value, Date begin, Date end, List<String> datatypes, Authorizations auths) {
+        return new GlobalIndexResultCache.CacheKey("shardIndex", "FIELD", value, datatypes, begin, end, Collections.singleton(auths), "options");
+    }
+
+    private static void assertNotEqual(Object expected, Object actual) {
+        assertEquals(false, expected.equals(actual));
+    }
+
+    /**
+     * Create an entry as it is returned by the {@link CreateUidsIterator}
+     */
+    private static Result createResult(String shard, String... uids) throws IOException {
+        Uid.List.Builder builder = Uid.List.newBuilder();
+        builder.addAllUID(Arrays.asList(uids));
+        builder.setCOUNT(uids.length);
+        builder.setIGNORE(false);
+
+        TreeMap<Key,Value> data = new TreeMap<>();
+        data.put(new Key("value", "FIELD", shard + "\u0000datatype"), new Value(builder.build().toByteArray()));
+
+        CreateUidsIterator iterator = new CreateUidsIterator();
+        iterator.init(new SortedMapIterator(data), null, null);
+        iterator.seek(new Range(), Collections.emptySet(), false);
+        return new Result(iterator.getTopKey(), iterator.getTopValue());
+    }
+}
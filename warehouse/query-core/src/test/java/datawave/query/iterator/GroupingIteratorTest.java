@@ -0,0 +1,111 @@
+package datawave.query.iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.junit.Before;
+import org.junit.Test;
+
+import datawave.data.type.LcNoDiacriticsType;
+import datawave.marking.MarkingFunctions;
+import datawave.query.attributes.Document;
+import datawave.query.attributes.TypeAttribute;
+import datawave.query.common.grouping.DocumentGrouper;
+import datawave.query.common.grouping.GroupFields;
+import datawave.query.common.grouping.GroupingAttribute;
+import datawave.query.common.grouping.Groups;
+import datawave.test.GroupsAssert;
+
+public class GroupingIteratorTest {
+
+    private static final ColumnVisibility COLVIS_ALL = new ColumnVisibility("ALL");
+
+    private final List<Map.Entry<Key,Document>> documents = new ArrayList<>();
+    private GroupFields groupFields;
+
+    @Before
+    public void setUp() {
+        groupFields = new GroupFields();
+        groupFields.setGroupByFields(Collections.singleton("GENDER"));
+
+        String[] genders = {"MALE", "FEMALE", "OTHER", "MALE", "FEMALE", "MALE"};
+        for (int i = 0; i < genders.length; i++) {
+            Key key = new Key("20240101_" + i, "datatype\u0000uid" + i);
+            TypeAttribute<?> attribute = new TypeAttribute<>(new LcNoDiacriticsType(genders[i]), key, true);
+            attribute.setColumnVisibility(COLVIS_ALL);
+            Document document = new Document(key, true);
+            document.put("GENDER", attribute, true, false);
+            documents.add(new AbstractMap.SimpleEntry<>(key, document));
+        }
+    }
+
+    /**
+     * Verify that partial groupings are returned once the maximum number of distinct groups is held, each keyed by the last key read.
+     */
+    @Test
+    public void testFlushOnMaxGroups() {
+        GroupingIterator iterator = new GroupingIterator(documents.iterator(), new MarkingFunctions.Default(), groupFields, Integer.MAX_VALUE, 2, null);
+
+        List<Map.Entry<Key,Document>> results = drain(iterator);
+        assertEquals(3, results.size());
+        assertEquals(documents.get(1).getKey(), results.get(0).getKey());
+        assertEquals(documents.get(3).getKey(), results.get(1).getKey());
+        assertEquals(documents.get(5).getKey(), results.get(2).getKey());
+
+        assertMergedGroups(results);
+    }
+
+    /**
+     * Verify that the batch size still bounds the number of documents grouped into each partial grouping.
+     */
+    @Test
+    public void testFlushOnBatchSize() {
+        GroupingIterator iterator = new GroupingIterator(documents.iterator(), new MarkingFunctions.Default(), groupFields, 4, null);
+
+        List<Map.Entry<Key,Document>> results = drain(iterator);
+        assertEquals(2, results.size());
+        assertEquals(documents.get(3).getKey(), results.get(0).getKey());
+        assertEquals(documents.get(5).getKey(), results.get(1).getKey());
+
+        assertMergedGroups(results);
+    }
+
+    private static List<Map.Entry<Key,Document>> drain(GroupingIterator iterator) {
+        List<Map.Entry<Key,Document>> results = new ArrayList<>();
+        while (iterator.hasNext()) {
+            results.add(iterator.next());
+        }
+        assertFalse(iterator.hasNext());
+        return results;
+    }
+
+    /**
+     * Merge the partial groupings as the web server does and verify the final counts.
+     */
+    private void assertMergedGroups(List<Map.Entry<Key,Document>> results) {
+        Groups groups = new Groups();
+        for (Map.Entry<Key,Document> result : results) {
+            assertTrue(result.getValue().containsKey("COUNT.0"));
+            DocumentGrouper.group(result, groupFields, groups);
+        }
+
+        GroupsAssert groupsAssert = GroupsAssert.assertThat(groups);
+        groupsAssert.hasTotalGroups(3);
+        groupsAssert.assertGroup(gender("MALE")).hasCount(3);
+        groupsAssert.assertGroup(gender("FEMALE")).hasCount(2);
+        groupsAssert.assertGroup(gender("OTHER")).hasCount(1);
+    }
+
+    private static GroupingAttribute<?> gender(String value) {
+        return new GroupingAttribute<>(new LcNoDiacriticsType(value), new Key("GENDER"), true);
+    }
+}
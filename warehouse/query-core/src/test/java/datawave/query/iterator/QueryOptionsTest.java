@@ -20,10 +20,12 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 
+import org.apache.accumulo.core.security.Authorizations;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.junit.Assert;
@@ -80,6 +82,13 @@ public class QueryOptionsTest {
         assertEquals("Failed to parse null option string", expectedDataTypeMap, fieldDataTypeMap);
     }
 
+    @Test
+    public void testSharedScanAuths() {
+        List<Authorizations> auths = Arrays.asList(new Authorizations("A", "B"), new Authorizations("A"), new Authorizations());
+        String option = QueryOptions.buildSharedScanAuths(auths);
+        assertEquals(auths, QueryOptions.parseSharedScanAuths(option));
+    }
+
     @Test
     public void testBuildFieldDataTypeMapFromBadString() {
         String badData = "k:k2:k3:v;";
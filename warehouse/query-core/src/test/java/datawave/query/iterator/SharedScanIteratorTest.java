@@ -0,0 +1,171 @@
+package datawave.query.iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.SortedMapIterator;
+import org.apache.accumulo.core.security.Authorizations;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SharedScanIteratorTest {
+
+    private static final String row = "20240101_0";
+    private static final Value value = new Value(new byte[0]);
+    private static final Authorizations allAuths = new Authorizations("A", "B");
+    private static final Authorizations fewerAuths = new Authorizations("A");
+
+    private SharedScanCache cache;
+
+    @Before
+    public void setup() {
+        cache = new SharedScanCache(SharedScanCache.DEFAULT_MAX_WEIGHT, SharedScanCache.DEFAULT_TTL_MILLIS, SharedScanCache.DEFAULT_MAX_KEYS);
+    }
+
+    /**
+     * The data as seen by a scan with the given authorizations
+     */
+    private SortedMap<Key,Value> getData(Authorizations auths) {
+        SortedMap<Key,Value> data = new TreeMap<>();
+        data.put(new Key(row, "fi\0FIELD", "apple\0dt\0uid1", "A"), value);
+        data.put(new Key(row, "fi\0FIELD", "banana\0dt\0uid2", ""), value);
+        data.put(new Key(row, "dt\0uid1", "FIELD\0apple", "A"), value);
+        if (auths.contains("B")) {
+            data.put(new Key(row, "fi\0FIELD", "apple\0dt\0uid3", "A&B"), value);
+            data.put(new Key(row, "fi\0FIELD", "cherry\0dt\0uid4", "B"), value);
+        }
+        return data;
+    }
+
+    private SharedScanIterator getIterator(SortedMap<Key,Value> data, Authorizations... auths) {
+        return new SharedScanIterator(new SortedMapIterator(data), cache, "1", List.of(auths));
+    }
+
+    private Range getFieldIndexRange() {
+        Key start = new Key(row, "fi\0FIELD");
+        return new Range(start, true, start.followingKey(PartialKey.ROW_COLFAM), false);
+    }
+
+    private List<String> scan(SortedKeyValueIterator<Key,Value> iterator, Range range) throws IOException {
+        return scan(iterator, range, Collections.emptyList(), false);
+    }
+
+    private List<String> scan(SortedKeyValueIterator<Key,Value> iterator, Range range, Collection<ByteSequence> columnFamilies, boolean inclusive)
+                    throws IOException {
+        List<String> values = new ArrayList<>();
+        iterator.seek(range, columnFamilies, inclusive);
+        while (iterator.hasTop()) {
+            values.add(iterator.getTopKey().getColumnQualifier().toString().split("\0")[0]);
+            iterator.next();
+        }
+        return values;
+    }
+
+    @Test
+    public void testSharedWithFewerAuthorizations() throws IOException {
+        assertEquals(List.of("apple", "apple", "banana", "cherry"), scan(getIterator(getData(allAuths), allAuths), getFieldIndexRange()));
+
+        // a query with nothing left to read is served from the cache, filtered by its own authorizations
+        assertEquals(List.of("apple", "banana"), scan(getIterator(new TreeMap<>(), fewerAuths), getFieldIndexRange()));
+        assertEquals(List.of("apple", "apple", "banana", "cherry"), scan(getIterator(new TreeMap<>(), allAuths), getFieldIndexRange()));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testNotSharedWithMoreAuthorizations() throws IOException {
+        assertEquals(List.of("apple", "banana"), scan(getIterator(getData(fewerAuths), fewerAuths), getFieldIndexRange()));
+
+        // keys only visible with more authorizations are missing from the cache, so they are read again
+        assertEquals(List.of("apple", "apple", "banana", "cherry"), scan(getIterator(getData(allAuths), allAuths), getFieldIndexRange()));
+        assertEquals(List.of("apple", "banana"), scan(getIterator(new TreeMap<>(), fewerAuths), getFieldIndexRange()));
+    }
+
+    /**
+     * A query run on behalf of another user has a second authorization set, applied by a visibility filter below the shared scan
+     */
+    @Test
+    public void testSharedWithTwoAuthorizationSets() throws IOException {
+        assertEquals(List.of("apple", "apple", "banana", "cherry"), scan(getIterator(getData(allAuths), allAuths), getFieldIndexRange()));
+
+        // the keys read with all authorizations are filtered by both sets of the proxied query, not only by the authorizations of its scan
+        assertEquals(List.of("apple", "banana"), scan(getIterator(new TreeMap<>(), allAuths, fewerAuths), getFieldIndexRange()));
+        assertEquals(List.of("apple", "banana"), scan(getIterator(new TreeMap<>(), fewerAuths, allAuths), getFieldIndexRange()));
+    }
+
+    @Test
+    public void testNotSharedFromTwoAuthorizationSets() throws IOException {
+        // the source of the proxied query only has the keys visible to both of its sets
+        assertEquals(List.of("apple", "banana"), scan(getIterator(getData(fewerAuths), allAuths, fewerAuths), getFieldIndexRange()));
+
+        // a query with all authorizations would miss keys, so it reads them again
+        assertEquals(List.of("apple", "apple", "banana", "cherry"), scan(getIterator(getData(allAuths), allAuths), getFieldIndexRange()));
+
+        // and a query with the same sets reuses them
+        SharedScanCache.SharedColumnFamily shared = new SharedScanCache.SharedColumnFamily(List.of(allAuths, fewerAuths), List.of());
+        assertTrue(shared.isVisibleTo(List.of(fewerAuths, allAuths)));
+        assertTrue(shared.isVisibleTo(List.of(fewerAuths)));
+        assertFalse(shared.isVisibleTo(List.of(allAuths)));
+        assertTrue(shared.isReadWith(List.of(fewerAuths, allAuths)));
+    }
+
+    @Test
+    public void testRangeWithinColumnFamily() throws IOException {
+        SharedScanIterator iterator = getIterator(getData(allAuths), allAuths);
+        assertEquals(List.of("apple", "apple", "banana", "cherry"), scan(iterator, getFieldIndexRange()));
+
+        SharedScanIterator cached = getIterator(new TreeMap<>(), allAuths);
+        Range apples = new Range(new Key(row, "fi\0FIELD", "apple\0"), true, new Key(row, "fi\0FIELD", "apple\1"), false);
+        assertEquals(List.of("apple", "apple"), scan(cached, apples));
+        Range afterApples = new Range(new Key(row, "fi\0FIELD", "apple\0dt\0uid1", "A"), false, getFieldIndexRange().getEndKey(), false);
+        assertEquals(List.of("apple", "banana", "cherry"), scan(cached, afterApples));
+
+        ByteSequence fieldIndex = new ArrayByteSequence("fi\0FIELD");
+        assertEquals(List.of(), scan(cached, getFieldIndexRange(), Collections.singleton(fieldIndex), false));
+        assertEquals(List.of("apple", "apple", "banana", "cherry"), scan(cached, getFieldIndexRange(), Collections.singleton(fieldIndex), true));
+        assertEquals(List.of(), scan(cached, getFieldIndexRange(), Collections.emptyList(), true));
+    }
+
+    @Test
+    public void testRangeAcrossColumnFamiliesNotShared() throws IOException {
+        Range shard = new Range(new Key(row), true, new Key(row).followingKey(PartialKey.ROW), false);
+        assertEquals(5, scan(getIterator(getData(allAuths), allAuths), shard).size());
+        assertEquals(0, cache.size());
+        assertEquals(List.of(), scan(getIterator(new TreeMap<>(), allAuths), shard));
+    }
+
+    @Test
+    public void testTooLargeNotShared() throws IOException {
+        cache = new SharedScanCache(SharedScanCache.DEFAULT_MAX_WEIGHT, SharedScanCache.DEFAULT_TTL_MILLIS, 2);
+        assertEquals(List.of("apple", "apple", "banana", "cherry"), scan(getIterator(getData(allAuths), allAuths), getFieldIndexRange()));
+
+        // remembered as too large, so later queries read from their source
+        assertEquals(List.of(), scan(getIterator(new TreeMap<>(), allAuths), getFieldIndexRange()));
+        assertEquals(List.of("apple", "banana"), scan(getIterator(getData(fewerAuths), fewerAuths), getFieldIndexRange()));
+    }
+
+    @Test
+    public void testDeepCopyShares() throws IOException {
+        SharedScanIterator iterator = getIterator(getData(allAuths), allAuths);
+        assertEquals(List.of("apple", "apple", "banana", "cherry"), scan(iterator, getFieldIndexRange()));
+        Key start = new Key(row, "dt\0uid1");
+        Range event = new Range(start, true, start.followingKey(PartialKey.ROW_COLFAM), false);
+        assertEquals(List.of("FIELD"), scan(iterator.deepCopy(null), event));
+        assertEquals(2, cache.size());
+    }
+}
@@ -0,0 +1,129 @@
+package datawave.query.iterator.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.commons.jexl3.JexlContext;
+import org.apache.commons.jexl3.JexlExpression;
+import org.apache.commons.jexl3.MapContext;
+import org.junit.Test;
+
+import datawave.edge.model.EdgeModelFields.FieldKey;
+import datawave.edge.util.EdgeKeyUtil;
+import datawave.query.jexl.ArithmeticJexlEngines;
+import datawave.query.jexl.DefaultArithmetic;
+
+public class EdgeFilterIteratorTest {
+
+    private static final String[] QUERIES = {"EDGE_SOURCE == 'alpha'", "EDGE_SOURCE == 'ALPHA' && EDGE_TYPE == 'browser'",
+            "(EDGE_SINK == 'bravo' || EDGE_SINK == 'charlie') && EDGE_RELATIONSHIP == 'to-from'", "EDGE_SOURCE =~ 'al.*' && !(EDGE_TYPE == 'browser')",
+            "EDGE_ATTRIBUTE1 == 'source1' && EDGE_ATTRIBUTE2 != 'source2'", "EDGE_SINK !~ 'br.*' || EDGE_ATTRIBUTE3 == 'attr'",
+            "EDGE_SOURCE == '1.5' || EDGE_SINK == 'bravo'", "EDGE_SOURCE == 'tab\\tsource'", "EDGE_SOURCE == '\u00fcmlaut'"};
+
+    private static final Key[] KEYS = {new Key("alpha\0bravo", "BROWSER/TO-FROM", "20240101/SOURCE1/SOURCE2/ATTR"),
+            new Key("Alpha\0Charlie", "browser/to-from", "20240101/source1/other"), new Key("alpha", "browser/to-from", "20240101"),
+            new Key("alpha\0bravo", "STATS/ACTIVITY/BROWSER/TO", "20240101/source1"), new Key("delta\0bravo", "RADIO/FROM-TO", "20240102/SOURCE1//"),
+            new Key("1.50\0bravo", "RADIO/TO-FROM", "20240102/x"), new Key("tab\\tsource\0bravo", "RADIO/TO-FROM", "20240102"),
+            new Key("\u00dcMLAUT\0bravo", "RADIO/TO-FROM", "20240102"), new Key("a\0b\0c", "A/B", "20240103"),
+            new Key("echo\0foxtrot", "TYPE", "/20240104/"), new Key("alpha\0\0bravo", "A/B", "20240105"), new Key("\0alpha", "A/B", "20240105"),
+            new Key("alpha\0", "A/B", "20240105"), new Key("", "A/B", "20240105"), new Key("\0\0", "A/B", "20240105")};
+
+    private static final JexlExpression[] REFERENCE = new JexlExpression[QUERIES.length];
+
+    static {
+        for (int i = 0; i < QUERIES.length; i++) {
+            REFERENCE[i] = ArithmeticJexlEngines.getEngine(new DefaultArithmetic()).createExpression(QUERIES[i].toLowerCase());
+        }
+    }
+
+    @Test
+    public void testColumnsMatchDisassembledKey() {
+        EdgeKeyColumns columns = new EdgeKeyColumns();
+        for (boolean protobuf : new boolean[] {true, false}) {
+            for (Key key : KEYS) {
+                columns.decode(key, protobuf);
+                Map<FieldKey,String> expected = EdgeKeyUtil.dissasembleKey(key, protobuf);
+                assertEquals(key.toString(), expected.containsKey(FieldKey.STATS_EDGE), columns.isStatsEdge());
+                for (int i = 0; i < EdgeKeyColumns.FIELDS.length; i++) {
+                    assertEquals(key + " " + EdgeKeyColumns.FIELDS[i], expected.get(EdgeKeyColumns.FIELDS[i]), columns.getString(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCompile() {
+        assertNotNull(CompiledEdgePredicate.compile("edge_source == 'alpha' && (edge_sink =~ 'b.*' || not(edge_type == 'x'))"));
+        // numeric literals, unknown identifiers and functions are left to jexl
+        assertNull(CompiledEdgePredicate.compile("edge_source == 5"));
+        assertNull(CompiledEdgePredicate.compile("edge_source == '1.5'"));
+        assertNull(CompiledEdgePredicate.compile("other_field == 'alpha'"));
+        assertNull(CompiledEdgePredicate.compile("edge_source.size() > 2"));
+    }
+
+    @Test
+    public void testMatchesJexl() throws Exception {
+        for (int q = 0; q < QUERIES.length; q++) {
+            EdgeFilterIterator iterator = createIterator(QUERIES[q]);
+            for (Key key : KEYS) {
+                if (key.getColumnFamily().toString().startsWith("STATS")) {
+                    continue;
+                }
+                assertEquals(QUERIES[q] + " against " + key, evaluateReference(REFERENCE[q], key), iterator.accept(key, new Value()));
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyRowParts() {
+        EdgeKeyColumns columns = new EdgeKeyColumns();
+
+        // empty parts are dropped, as when the row is split into strings
+        columns.decode(new Key("alpha\0\0bravo", "A/B", "20240101"), true);
+        assertEquals("alpha", columns.getString(EdgeKeyColumns.SOURCE));
+        assertEquals("bravo", columns.getString(EdgeKeyColumns.SINK));
+
+        columns.decode(new Key("\0alpha", "A/B", "20240101"), true);
+        assertEquals("alpha", columns.getString(EdgeKeyColumns.SOURCE));
+        assertNull(columns.getString(EdgeKeyColumns.SINK));
+
+        columns.decode(new Key("alpha\0", "A/B", "20240101"), true);
+        assertEquals("alpha", columns.getString(EdgeKeyColumns.SOURCE));
+        assertNull(columns.getString(EdgeKeyColumns.SINK));
+
+        for (String row : new String[] {"", "\0", "\0\0", "a\0\0b\0c"}) {
+            columns.decode(new Key(row, "A/B", "20240101"), true);
+            assertNull(columns.getString(EdgeKeyColumns.SOURCE));
+            assertNull(columns.getString(EdgeKeyColumns.SINK));
+        }
+    }
+
+    private static EdgeFilterIterator createIterator(String query) throws Exception {
+        Map<String,String> options = new HashMap<>();
+        options.put(EdgeFilterIterator.JEXL_OPTION, query);
+        options.put(EdgeFilterIterator.PROTOBUF_OPTION, "true");
+        options.put(EdgeFilterIterator.INCLUDE_STATS_OPTION, "false");
+        EdgeFilterIterator iterator = new EdgeFilterIterator();
+        iterator.init(null, options);
+        return iterator;
+    }
+
+    /**
+     * The edge filter as it was evaluated before the compiled predicates: disassemble the key into strings and evaluate the jexl expression
+     */
+    private static boolean evaluateReference(JexlExpression expression, Key key) {
+        Map<FieldKey,String> components = EdgeKeyUtil.dissasembleKey(key, true);
+        JexlContext ctx = new MapContext();
+        for (FieldKey field : EdgeKeyColumns.FIELDS) {
+            String value = components.get(field);
+            ctx.set(field.name().toLowerCase(), value == null ? null : value.toLowerCase());
+        }
+        return ArithmeticJexlEngines.isMatched(expression.evaluate(ctx));
+    }
+}
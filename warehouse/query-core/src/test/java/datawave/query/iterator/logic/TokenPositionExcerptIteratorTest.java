@@ -0,0 +1,161 @@
+package datawave.query.iterator.logic;
+
+import static datawave.query.iterator.logic.TermFrequencyExcerptIterator.Configuration.END_OFFSET;
+import static datawave.query.iterator.logic.TermFrequencyExcerptIterator.Configuration.FIELD_NAME;
+import static datawave.query.iterator.logic.TermFrequencyExcerptIterator.Configuration.START_OFFSET;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.io.Text;
+import org.junit.Before;
+import org.junit.Test;
+
+import datawave.ingest.protobuf.TermWeight;
+import datawave.ingest.protobuf.TokenPositionBlock;
+import datawave.query.Constants;
+import datawave.query.iterator.SortedListKeyValueIterator;
+
+public class TokenPositionExcerptIteratorTest {
+
+    private static final Text row = new Text("20220115_1");
+    private static final ColumnVisibility visibility = new ColumnVisibility("ALL");
+    private static final int BLOCK_SIZE = 3;
+
+    private final List<Map.Entry<Key,Value>> source = new ArrayList<>();
+    private final Map<String,String> options = new HashMap<>();
+    private final TokenPositionExcerptIterator iterator = new TokenPositionExcerptIterator();
+
+    @Before
+    public void setUp() throws IOException {
+        // the blocks are upper case so that the tests can tell them apart from the term frequencies
+        givenTermFrequencies("email", "123.456.789", "BODY", "the quick brown fox jumped over the lazy dog");
+        givenTokenPositions("email", "123.456.789", "BODY", "THE QUICK BROWN FOX JUMPED OVER THE LAZY DOG");
+        givenTermFrequencies("email", "111.222.333", "BODY", "the coldest tale ever told");
+        givenTermFrequencies("email", "333.222.111", "BODY", "the coldest tale <eps> ever told");
+        givenTokenPositions("email", "333.222.111", "BODY", "the coldest tale <eps> ever told");
+        // the terms of this document alternate between two visibilities, so each range has a block per visibility
+        givenTokenPositions("email", "444.555.666", "BODY", "A B C D E F G H I", new ColumnVisibility("SECRET"), i -> i % 2 == 0);
+        givenTokenPositions("email", "444.555.666", "BODY", "A B C D E F G H I", new ColumnVisibility("PUBLIC"), i -> i % 2 == 1);
+    }
+
+    private void givenTermFrequencies(String datatype, String uid, String fieldName, String phrase) {
+        Map<String,List<Integer>> termIndexes = new HashMap<>();
+        String[] terms = phrase.split(" ");
+        for (int i = 0; i < terms.length; i++) {
+            termIndexes.computeIfAbsent(terms[i], k -> new ArrayList<>()).add(i);
+        }
+        for (Map.Entry<String,List<Integer>> entry : termIndexes.entrySet()) {
+            Text colq = new Text(datatype + Constants.NULL + uid + Constants.NULL + entry.getKey() + Constants.NULL + fieldName);
+            TermWeight.Info info = TermWeight.Info.newBuilder().addAllTermOffset(entry.getValue()).build();
+            source.add(new AbstractMap.SimpleEntry<>(new Key(row, Constants.TERM_FREQUENCY_COLUMN_FAMILY, colq, visibility, 0L),
+                            new Value(info.toByteArray())));
+        }
+    }
+
+    private void givenTokenPositions(String datatype, String uid, String fieldName, String phrase) throws IOException {
+        givenTokenPositions(datatype, uid, fieldName, phrase, visibility, i -> true);
+    }
+
+    private void givenTokenPositions(String datatype, String uid, String fieldName, String phrase, ColumnVisibility columnVisibility, IntPredicate positions)
+                    throws IOException {
+        SortedMap<Integer,List<String>> termsByPosition = new TreeMap<>();
+        String[] terms = phrase.split(" ");
+        for (int i = 0; i < terms.length; i++) {
+            if (positions.test(i)) {
+                termsByPosition.put(i, Collections.singletonList(terms[i]));
+            }
+        }
+        String prefix = datatype + Constants.NULL + uid + Constants.NULL + fieldName + Constants.NULL;
+        // small blocks so that an excerpt spans several of them
+        for (TokenPositionBlock block : TokenPositionBlock.split(termsByPosition, BLOCK_SIZE)) {
+            Text colq = new Text(prefix + TokenPositionBlock.encodePosition(block.getKeyPosition(BLOCK_SIZE)));
+            source.add(new AbstractMap.SimpleEntry<>(new Key(row, Constants.TOKEN_POSITION_COLUMN_FAMILY, colq, columnVisibility, 0L),
+                            new Value(block.toByteArray())));
+        }
+    }
+
+    private Key seek(String field, int start, int end, String datatype, String uid) throws IOException {
+        options.put(FIELD_NAME, field);
+        options.put(START_OFFSET, String.valueOf(start));
+        options.put(END_OFFSET, String.valueOf(end));
+        iterator.init(new SortedListKeyValueIterator(source), options, null);
+        iterator.setHitTermsList(new ArrayList<>(List.of("")));
+
+        Key startKey = new Key(row, new Text(datatype + Constants.NULL + uid));
+        iterator.seek(new Range(startKey, true, startKey.followingKey(PartialKey.ROW_COLFAM), false), Collections.emptyList(), false);
+        assertTrue(iterator.hasTop());
+        return iterator.getTopKey();
+    }
+
+    private static Text excerpt(String field, String phrase) {
+        return new Text(field + Constants.NULL + "XXXNOTSCOREDXXX" + Constants.NULL + phrase + Constants.NULL + "XXXNOTSCOREDXXX");
+    }
+
+    /**
+     * Verify that the excerpt is read from the blocks covering the offsets.
+     */
+    @Test
+    public void testExcerptFromBlocks() throws IOException {
+        Key topKey = seek("BODY", 2, 7, "email", "123.456.789");
+        assertEquals(new Text("email" + Constants.NULL + "123.456.789"), topKey.getColumnFamily());
+        assertEquals(excerpt("BODY", "BROWN FOX JUMPED OVER THE"), topKey.getColumnQualifier());
+    }
+
+    /**
+     * Verify that offsets past the end of the document are ignored.
+     */
+    @Test
+    public void testOffsetRangeOutsideBounds() throws IOException {
+        Key topKey = seek("BODY", 5, 20, "email", "123.456.789");
+        assertEquals(excerpt("BODY", "OVER THE LAZY DOG"), topKey.getColumnQualifier());
+    }
+
+    /**
+     * Verify that documents without blocks fall back to the term frequencies.
+     */
+    @Test
+    public void testFallbackToTermFrequencies() throws IOException {
+        Key topKey = seek("BODY", 1, 4, "email", "111.222.333");
+        assertEquals(new Text("email" + Constants.NULL + "111.222.333"), topKey.getColumnFamily());
+        assertEquals(excerpt("BODY", "coldest tale ever"), topKey.getColumnQualifier());
+    }
+
+    /**
+     * Verify that a stop word in the blocks returns the word skipped marker unless trimming.
+     */
+    @Test
+    public void testWordSkipped() throws IOException {
+        Key topKey = seek("BODY", 1, 5, "email", "333.222.111");
+        String marker = TermFrequencyExcerptIterator.WORD_SKIPPED_MARKER;
+        assertEquals(new Text("BODY" + Constants.NULL + marker + Constants.NULL + marker + Constants.NULL + marker), topKey.getColumnQualifier());
+    }
+
+    /**
+     * Verify that the blocks written under different visibilities for the same range are merged, including the blocks of the range covering the end offset.
+     */
+    @Test
+    public void testBlocksAcrossVisibilities() throws IOException {
+        Key topKey = seek("BODY", 1, 8, "email", "444.555.666");
+        assertEquals(excerpt("BODY", "B C D E F G H"), topKey.getColumnQualifier());
+
+        // the public block of the last range sorts first and starts at the end offset, but the secret block of that range still covers the last offset
+        topKey = seek("BODY", 0, 7, "email", "444.555.666");
+        assertEquals(excerpt("BODY", "A B C D E F G"), topKey.getColumnQualifier());
+    }
+}
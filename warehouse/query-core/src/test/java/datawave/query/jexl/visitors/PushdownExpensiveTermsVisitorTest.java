@@ -0,0 +1,112 @@
+package datawave.query.jexl.visitors;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.jexl3.parser.ASTJexlScript;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+import datawave.query.jexl.JexlASTHelper;
+import datawave.query.jexl.visitors.order.OrderByCostVisitor;
+import datawave.query.planner.QueryCostModel;
+
+public class PushdownExpensiveTermsVisitorTest {
+    private QueryCostModel costModel = null;
+
+    @Before
+    public void setup() {
+        Set<String> indexedFields = Sets.newHashSet("FOO", "BAR", "BAZ", "INDEX_ONLY");
+        Map<String,Long> fieldCounts = new HashMap<>();
+        fieldCounts.put("FOO", 100000L);
+        fieldCounts.put("BAR", 1000000L);
+        fieldCounts.put("BAZ", 50L);
+        fieldCounts.put("INDEX_ONLY", 1000000L);
+        Map<String,Double> selectivities = new HashMap<>();
+        // two entries per value
+        selectivities.put("FOO", 0.5d);
+        costModel = new QueryCostModel(indexedFields, fieldCounts, selectivities);
+    }
+
+    @Test
+    public void testEstimates() throws Exception {
+        Assert.assertEquals(2L, costModel.estimate(JexlASTHelper.parseJexlQuery("FOO == 'a'")));
+        Assert.assertEquals(50L, costModel.estimate(JexlASTHelper.parseJexlQuery("BAZ == 'a'")));
+        Assert.assertEquals(1000000L, costModel.estimate(JexlASTHelper.parseJexlQuery("BAR =~ 'a.*'")));
+        Assert.assertEquals(2L, costModel.estimate(JexlASTHelper.parseJexlQuery("FOO == 'a' && BAR == 'b'")));
+        Assert.assertEquals(52L, costModel.estimate(JexlASTHelper.parseJexlQuery("FOO == 'a' || BAZ == 'b'")));
+        Assert.assertEquals(QueryCostModel.UNKNOWN, costModel.estimate(JexlASTHelper.parseJexlQuery("FOO == 'a' || UNINDEXED == 'b'")));
+        Assert.assertEquals(QueryCostModel.UNKNOWN, costModel.estimate(JexlASTHelper.parseJexlQuery("FOO != 'a'")));
+        Assert.assertEquals(QueryCostModel.UNKNOWN, costModel.estimate(JexlASTHelper.parseJexlQuery("((_Delayed_ = true) && (FOO == 'a'))")));
+    }
+
+    @Test
+    public void testDelayEquality() throws Exception {
+        ASTJexlScript script = JexlASTHelper.parseJexlQuery("FOO == 'a' && BAR == 'b'");
+
+        String result = JexlStringBuildingVisitor.buildQuery(PushdownExpensiveTermsVisitor.pushdownExpensiveTerms(script, costModel, null, 1000));
+        Assert.assertEquals("FOO == 'a' && ((_Delayed_ = true) && (BAR == 'b'))", result);
+    }
+
+    @Test
+    public void testDelayRegex() throws Exception {
+        ASTJexlScript script = JexlASTHelper.parseJexlQuery("BAZ == 'a' && (BAR =~ 'b.*' || FOO == 'c')");
+
+        String result = JexlStringBuildingVisitor.buildQuery(PushdownExpensiveTermsVisitor.pushdownExpensiveTerms(script, costModel, null, 1000));
+        Assert.assertEquals("BAZ == 'a' && (BAR =~ 'b.*' || FOO == 'c')", result);
+
+        script = JexlASTHelper.parseJexlQuery("BAZ == 'a' && BAR =~ 'b.*'");
+        result = JexlStringBuildingVisitor.buildQuery(PushdownExpensiveTermsVisitor.pushdownExpensiveTerms(script, costModel, null, 1000));
+        Assert.assertEquals("BAZ == 'a' && ((_Delayed_ = true) && (BAR =~ 'b.*'))", result);
+    }
+
+    @Test
+    public void testSkipWithinFactor() throws Exception {
+        ASTJexlScript script = JexlASTHelper.parseJexlQuery("BAZ == 'a' && FOO == 'b'");
+
+        String result = JexlStringBuildingVisitor.buildQuery(PushdownExpensiveTermsVisitor.pushdownExpensiveTerms(script, costModel, null, 1000));
+        Assert.assertEquals("BAZ == 'a' && FOO == 'b'", result);
+    }
+
+    @Test
+    public void testSkipNonEventFields() throws Exception {
+        ASTJexlScript script = JexlASTHelper.parseJexlQuery("FOO == 'a' && INDEX_ONLY == 'b'");
+
+        String result = JexlStringBuildingVisitor.buildQuery(
+                        PushdownExpensiveTermsVisitor.pushdownExpensiveTerms(script, costModel, Collections.singleton("INDEX_ONLY"), 1000));
+        Assert.assertEquals("FOO == 'a' && INDEX_ONLY == 'b'", result);
+    }
+
+    @Test
+    public void testSkipWithoutAnchor() throws Exception {
+        ASTJexlScript script = JexlASTHelper.parseJexlQuery("UNINDEXED == 'a' && BAR == 'b'");
+
+        String result = JexlStringBuildingVisitor.buildQuery(PushdownExpensiveTermsVisitor.pushdownExpensiveTerms(script, costModel, null, 1000));
+        Assert.assertEquals("UNINDEXED == 'a' && BAR == 'b'", result);
+    }
+
+    @Test
+    public void testSkipNegations() throws Exception {
+        ASTJexlScript script = JexlASTHelper.parseJexlQuery("FOO == 'a' && !(BAZ == 'b' && BAR == 'c')");
+
+        String result = JexlStringBuildingVisitor.buildQuery(PushdownExpensiveTermsVisitor.pushdownExpensiveTerms(script, costModel, null, 10));
+        Assert.assertEquals("FOO == 'a' && !(BAZ == 'b' && BAR == 'c')", result);
+    }
+
+    @Test
+    public void testOrderByEstimates() throws Exception {
+        ASTJexlScript script = JexlASTHelper.parseJexlQuery("BAR == 'a' && BAZ == 'b' && FOO == 'c'");
+
+        Map<String,Long> estimates = costModel.getTermEstimates(script);
+        Assert.assertEquals(3, estimates.size());
+        Assert.assertEquals(Long.valueOf(2L), estimates.get("FOO == 'c'"));
+
+        String result = JexlStringBuildingVisitor.buildQuery(OrderByCostVisitor.orderByTermCount(script, estimates));
+        Assert.assertEquals("FOO == 'c' && BAZ == 'b' && BAR == 'a'", result);
+    }
+}
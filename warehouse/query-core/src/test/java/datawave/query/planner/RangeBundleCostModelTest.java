@@ -0,0 +1,63 @@
+package datawave.query.planner;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.junit.Test;
+
+import datawave.core.query.configuration.QueryData;
+import datawave.query.ranges.RangeFactory;
+import datawave.query.util.count.CountMap;
+
+public class RangeBundleCostModelTest {
+
+    @Test
+    public void testEstimateCost() {
+        RangeBundleCostModel model = new RangeBundleCostModel(1000L, Long.MAX_VALUE, 1000L, 10);
+
+        assertEquals(1L, model.estimateCost(plan(RangeFactory.createDocumentSpecificRange("20240101_0", "datatype\u0000uid1"))));
+        assertEquals(1000L, model.estimateCost(plan(RangeFactory.createShardRange("20240101_0"))));
+        assertEquals(1000L, model.estimateCost(plan(new Range(new Key("20240101_0", "datatype"), new Key("20240101_0", "datatype\u0001")))));
+        assertEquals(10000L, model.estimateCost(plan(RangeFactory.createDayRange("20240101"))));
+        assertEquals(2000L, model.estimateCost(plan(RangeFactory.createShardRange("20240101_0"), RangeFactory.createShardRange("20240101_1"))));
+
+        // the smallest term count bounds the cost of a shard
+        CountMap termCounts = new CountMap();
+        termCounts.put("FOO == 'bar'", 50L);
+        termCounts.put("FOO == 'baz'", 5000L);
+        assertEquals(50L, model.estimateCost(plan(RangeFactory.createShardRange("20240101_0")).withTermCounts(termCounts)));
+    }
+
+    @Test
+    public void testBudgetAdaptsToScanTimes() {
+        RangeBundleCostModel model = new RangeBundleCostModel(1000L, 100000L, 1000L, 10);
+        assertEquals(1000L, model.getBundleBudget());
+
+        // a scan of unregistered query data is ignored
+        model.scanFinished(new QueryData().withRanges(Collections.singletonList(new Range())), 1, 500L);
+        assertEquals(0L, model.getScansObserved());
+
+        // cheap scans grow the budget
+        QueryData cheap = new QueryData().withRanges(Arrays.asList(new Range("a"), new Range("b")));
+        model.register(cheap, 1000L);
+        model.scanFinished(cheap, 2, 10L);
+        assertEquals(1L, model.getScansObserved());
+        assertEquals(100000L, model.getBundleBudget());
+
+        // expensive scans shrink it again
+        QueryData expensive = new QueryData().withRanges(Collections.singletonList(new Range("c")));
+        for (int i = 0; i < 20; i++) {
+            model.register(expensive, 1000L);
+            model.scanFinished(expensive, 1, 10000L);
+        }
+        assertEquals(100L, model.getBundleBudget());
+    }
+
+    private static QueryPlan plan(Range... ranges) {
+        return new QueryPlan().withTableName("shard").withQueryString("FOO == 'bar'").withRanges(Arrays.asList(ranges));
+    }
+}
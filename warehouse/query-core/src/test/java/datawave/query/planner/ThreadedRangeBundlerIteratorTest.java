@@ -0,0 +1,152 @@
+package datawave.query.planner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.Range;
+import org.junit.After;
+import org.junit.Test;
+
+import datawave.core.query.configuration.QueryData;
+import datawave.microservice.query.QueryImpl;
+import datawave.query.iterator.CloseableListIterable;
+import datawave.query.iterator.QueryIterator;
+import datawave.query.iterator.QueryOptions;
+import datawave.query.ranges.RangeFactory;
+import datawave.query.util.count.CountMap;
+import datawave.query.util.count.CountMapSerDe;
+
+/**
+ * Bundles query plans with the {@link RangeBundleCostModel}, with every plan queued before the first bundle is built
+ */
+public class ThreadedRangeBundlerIteratorTest {
+
+    private static final String QUERY = "FOO == 'bar'";
+
+    private final CountMapSerDe serDe = new CountMapSerDe();
+
+    private ThreadedRangeBundlerIterator iterator;
+
+    @After
+    public void tearDown() throws IOException {
+        if (iterator != null) {
+            iterator.close();
+        }
+    }
+
+    /**
+     * Verify that shard ranges whose term counts differ are bundled, with the counts summed
+     */
+    @Test
+    public void testBundleAcrossShards() {
+        List<QueryData> bundles = bundle(shardPlan("20240101_0", 100L), shardPlan("20240101_1", 200L), shardPlan("20240101_2", 300L));
+
+        assertEquals(1, bundles.size());
+        QueryData bundle = bundles.get(0);
+        assertEquals(Arrays.asList(RangeFactory.createShardRange("20240101_0"), RangeFactory.createShardRange("20240101_1"),
+                        RangeFactory.createShardRange("20240101_2")), bundle.getRanges());
+        assertEquals(Long.valueOf(600L), getCounts(bundle, QueryOptions.TERM_COUNTS).get(QUERY));
+        assertEquals(Long.valueOf(60L), getCounts(bundle, QueryOptions.FIELD_COUNTS).get("FOO"));
+    }
+
+    /**
+     * Verify that a bundle stops at the budget, and that the plan which did not fit starts the next bundle
+     */
+    @Test
+    public void testBudget() {
+        List<QueryData> bundles = bundle(shardPlan("20240101_0", 600L), shardPlan("20240101_1", 300L), shardPlan("20240101_2", 400L),
+                        shardPlan("20240101_3", 2000L), documentPlan("20240101_4", "uid1"));
+
+        assertEquals(4, bundles.size());
+        assertEquals(2, bundles.get(0).getRanges().size());
+        assertEquals(Long.valueOf(900L), getCounts(bundles.get(0), QueryOptions.TERM_COUNTS).get(QUERY));
+        // the third shard does not fit into the first bundle, and the fourth is over the budget by itself
+        assertEquals(Collections.singletonList(RangeFactory.createShardRange("20240101_2")), bundles.get(1).getRanges());
+        assertEquals(Long.valueOf(400L), getCounts(bundles.get(1), QueryOptions.TERM_COUNTS).get(QUERY));
+        assertEquals(Collections.singletonList(RangeFactory.createShardRange("20240101_3")), bundles.get(2).getRanges());
+        assertEquals(Long.valueOf(2000L), getCounts(bundles.get(2), QueryOptions.TERM_COUNTS).get(QUERY));
+        assertEquals(Collections.singletonList(RangeFactory.createDocumentSpecificRange("20240101_4", "datatype\u0000uid1")), bundles.get(3).getRanges());
+    }
+
+    /**
+     * Verify that plans of different queries are not bundled, and that each plan left pending is still returned in order
+     */
+    @Test
+    public void testPendingPlans() {
+        QueryPlan other = documentPlan("20240101_1", "uid2").withQueryString("FOO == 'baz'");
+        List<QueryData> bundles = bundle(documentPlan("20240101_0", "uid1"), other, documentPlan("20240101_2", "uid3"), documentPlan("20240101_3", "uid4"));
+
+        assertEquals(3, bundles.size());
+        assertEquals(QUERY, bundles.get(0).getQuery());
+        assertEquals(Collections.singletonList(RangeFactory.createDocumentSpecificRange("20240101_0", "datatype\u0000uid1")), bundles.get(0).getRanges());
+        assertEquals("FOO == 'baz'", bundles.get(1).getQuery());
+        assertEquals(1, bundles.get(1).getRanges().size());
+        assertEquals(QUERY, bundles.get(2).getQuery());
+        assertEquals(Arrays.asList(RangeFactory.createDocumentSpecificRange("20240101_2", "datatype\u0000uid3"),
+                        RangeFactory.createDocumentSpecificRange("20240101_3", "datatype\u0000uid4")), bundles.get(2).getRanges());
+        // document ranges carry no counts
+        assertNull(bundles.get(2).getSettings().get(0).getOptions().get(QueryOptions.TERM_COUNTS));
+    }
+
+    private List<QueryData> bundle(QueryPlan... plans) {
+        QueryImpl settings = new QueryImpl();
+        settings.setId(UUID.randomUUID());
+
+        QueryData original = new QueryData().withQuery(QUERY)
+                        .withSettings(Collections.singletonList(new IteratorSetting(10, "query", QueryIterator.class.getName())));
+
+        // @formatter:off
+        iterator = new ThreadedRangeBundlerIterator.Builder()
+                        .setOriginal(original)
+                        .setRanges(new CloseableListIterable<>(Arrays.asList(plans)))
+                        .setMaxRanges(100)
+                        .setMaxWaitValue(10)
+                        .setMaxWaitUnit(TimeUnit.MILLISECONDS)
+                        .setSettings(settings)
+                        .setNumRangesToBuffer(plans.length)
+                        .setRangeBufferTimeoutMillis(TimeUnit.SECONDS.toMillis(30))
+                        .setRangeBufferPollMillis(1)
+                        .setCostModel(new RangeBundleCostModel(1000L, Long.MAX_VALUE, 1000L, 10))
+                        .build();
+        // @formatter:on
+
+        List<QueryData> bundles = new ArrayList<>();
+        while (iterator.hasNext()) {
+            bundles.add(iterator.next());
+        }
+        assertFalse(iterator.hasNext());
+        assertTrue(bundles.stream().allMatch(bundle -> !bundle.getRanges().isEmpty()));
+        return bundles;
+    }
+
+    private CountMap getCounts(QueryData bundle, String option) {
+        return serDe.deserializeFromString(bundle.getSettings().get(0).getOptions().get(option));
+    }
+
+    private static QueryPlan shardPlan(String shard, long termCount) {
+        CountMap termCounts = new CountMap();
+        termCounts.put(QUERY, termCount);
+        CountMap fieldCounts = new CountMap();
+        fieldCounts.put("FOO", termCount / 10);
+        return plan(RangeFactory.createShardRange(shard)).withTermCounts(termCounts).withFieldCounts(fieldCounts);
+    }
+
+    private static QueryPlan documentPlan(String shard, String uid) {
+        return plan(RangeFactory.createDocumentSpecificRange(shard, "datatype\u0000" + uid));
+    }
+
+    private static QueryPlan plan(Range range) {
+        return new QueryPlan().withTableName("shard").withQueryString(QUERY).withRanges(Collections.singletonList(range));
+    }
+}
@@ -0,0 +1,270 @@
+package datawave.query.planner;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+import org.apache.accumulo.core.client.AccumuloClient;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.commons.collections4.iterators.TransformIterator;
+import org.apache.commons.jexl3.parser.ASTJexlScript;
+import org.apache.commons.jexl3.parser.JexlNode;
+import org.apache.log4j.Logger;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
+
+import datawave.configuration.spring.SpringBean;
+import datawave.core.query.configuration.GenericQueryConfiguration;
+import datawave.core.query.iterator.DatawaveTransformIterator;
+import datawave.ingest.data.TypeRegistry;
+import datawave.microservice.query.Query;
+import datawave.microservice.query.QueryImpl;
+import datawave.query.CloseableIterable;
+import datawave.query.QueryTestTableHelper;
+import datawave.query.config.ShardQueryConfiguration;
+import datawave.query.exceptions.DatawaveQueryException;
+import datawave.query.iterator.CloseableListIterable;
+import datawave.query.jexl.visitors.JexlStringBuildingVisitor;
+import datawave.query.ranges.RangeFactory;
+import datawave.query.tables.ScannerFactory;
+import datawave.query.tables.ShardQueryLogic;
+import datawave.query.tables.edge.DefaultEdgeEventQueryLogic;
+import datawave.query.transformer.DocumentTransformer;
+import datawave.query.util.MetadataHelper;
+import datawave.query.util.Tuple2;
+import datawave.query.util.WiseGuysIngest;
+import datawave.webservice.edgedictionary.RemoteEdgeDictionary;
+import datawave.webservice.query.result.event.EventBase;
+import datawave.webservice.result.BaseQueryResponse;
+import datawave.webservice.result.DefaultEventQueryResponse;
+
+/**
+ * Plans and runs UUID lookups with the {@link UUIDLookupQueryPlanner}, against a global index that lists the uids of each term and against one that does not.
+ */
+public abstract class UUIDLookupQueryPlannerQueryTest {
+
+    @RunWith(Arquillian.class)
+    public static class ShardRange extends UUIDLookupQueryPlannerQueryTest {
+        protected static AccumuloClient client = null;
+
+        @BeforeClass
+        public static void setUp() throws Exception {
+            QueryTestTableHelper qtth = new QueryTestTableHelper(ShardRange.class.toString(), log);
+            client = qtth.client;
+            WiseGuysIngest.writeItAll(client, WiseGuysIngest.WhatKindaRange.SHARD);
+        }
+
+        @Override
+        protected AccumuloClient getClient() {
+            return client;
+        }
+
+        @Override
+        protected Range getExpectedRange(String uid) {
+            // the uids are not listed in the global index, so the whole shard is searched
+            return RangeFactory.createShardRange(SHARD);
+        }
+    }
+
+    @RunWith(Arquillian.class)
+    public static class DocumentRange extends UUIDLookupQueryPlannerQueryTest {
+        protected static AccumuloClient client = null;
+
+        @BeforeClass
+        public static void setUp() throws Exception {
+            QueryTestTableHelper qtth = new QueryTestTableHelper(DocumentRange.class.toString(), log);
+            client = qtth.client;
+            WiseGuysIngest.writeItAll(client, WiseGuysIngest.WhatKindaRange.DOCUMENT);
+        }
+
+        @Override
+        protected AccumuloClient getClient() {
+            return client;
+        }
+
+        @Override
+        protected Range getExpectedRange(String uid) {
+            return RangeFactory.createDocumentSpecificRange(SHARD, "test\u0000" + uid);
+        }
+    }
+
+    /**
+     * Records whether the query was planned directly, and the plans found in the global index and whether they came from a direct lookup
+     */
+    private static class RecordingQueryPlanner extends UUIDLookupQueryPlanner {
+        private final List<QueryPlan> plans = new ArrayList<>();
+        private boolean planned = false;
+        private boolean lookup = false;
+
+        @Override
+        protected ASTJexlScript planLookup(MetadataHelper metadataHelper, ShardQueryConfiguration config, String query, Query settings)
+                        throws DatawaveQueryException {
+            ASTJexlScript queryTree = super.planLookup(metadataHelper, config, query, settings);
+            planned = queryTree != null;
+            return queryTree;
+        }
+
+        @Override
+        protected Tuple2<CloseableIterable<QueryPlan>,Boolean> getIndexQueryRanges(ScannerFactory scannerFactory, MetadataHelper metadataHelper,
+                        ShardQueryConfiguration config, JexlNode queryTree) throws DatawaveQueryException {
+            lookup = getLookupTerms(queryTree, config.getIndexedFields(), getUuidFields()) != null;
+            Tuple2<CloseableIterable<QueryPlan>,Boolean> ranges = super.getIndexQueryRanges(scannerFactory, metadataHelper, config, queryTree);
+            Iterables.addAll(plans, ranges.first());
+            return new Tuple2<>(new CloseableListIterable<>(plans), ranges.second());
+        }
+    }
+
+    private static final Logger log = Logger.getLogger(UUIDLookupQueryPlannerQueryTest.class);
+
+    private static final String SHARD = "20130101_0";
+
+    private final Authorizations auths = new Authorizations("ALL");
+    private final Set<Authorizations> authSet = Collections.singleton(auths);
+    private final DateFormat format = new SimpleDateFormat("yyyyMMdd");
+
+    @Inject
+    @SpringBean(name = "EventQuery")
+    protected ShardQueryLogic logic;
+
+    private QueryPlanner defaultPlanner;
+    private RecordingQueryPlanner planner;
+
+    @Deployment
+    public static JavaArchive createDeployment() throws Exception {
+        return ShrinkWrap.create(JavaArchive.class)
+                        .addPackages(true, "org.apache.deltaspike", "io.astefanutti.metrics.cdi", "datawave.query", "org.jboss.logging",
+                                        "datawave.webservice.query.result.event")
+                        .deleteClass(DefaultEdgeEventQueryLogic.class).deleteClass(RemoteEdgeDictionary.class)
+                        .deleteClass(datawave.query.metrics.QueryMetricQueryLogic.class)
+                        .addAsManifestResource(new StringAsset(
+                                        "<alternatives>" + "<stereotype>datawave.query.tables.edge.MockAlternative</stereotype>" + "</alternatives>"),
+                                        "beans.xml");
+    }
+
+    @AfterClass
+    public static void teardown() {
+        TypeRegistry.reset();
+    }
+
+    @Before
+    public void setup() {
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
+
+        defaultPlanner = logic.getQueryPlanner();
+        planner = new RecordingQueryPlanner();
+        planner.setTransformRules(((DefaultQueryPlanner) defaultPlanner).getTransformRules());
+        planner.setVisitorManager(((DefaultQueryPlanner) defaultPlanner).getVisitorManager());
+        logic.setQueryPlanner(planner);
+    }
+
+    @After
+    public void reset() {
+        logic.setQueryPlanner(defaultPlanner);
+    }
+
+    protected abstract AccumuloClient getClient();
+
+    protected abstract Range getExpectedRange(String uid);
+
+    @Test
+    public void testLookup() throws Exception {
+        Set<String> uids = runTestQuery("UUID == 'CAPONE'");
+        Assert.assertEquals(Collections.singleton(WiseGuysIngest.caponeUID), uids);
+
+        Assert.assertTrue(planner.planned);
+        Assert.assertTrue(planner.lookup);
+        Assert.assertEquals(1, planner.plans.size());
+        Assert.assertEquals(Collections.singleton(getExpectedRange(WiseGuysIngest.caponeUID)), planner.plans.get(0).getRanges());
+        // the lookup is made with the normalized query
+        Assert.assertEquals("UUID == 'capone'", JexlStringBuildingVisitor.buildQuery(planner.plans.get(0).getQueryTree()));
+    }
+
+    @Test
+    public void testMultipleLookups() throws Exception {
+        Set<String> uids = runTestQuery("UUID == 'CORLEONE' || UUID == 'SOPRANO' || UUID == 'NOBODY'");
+        Assert.assertEquals(Sets.newHashSet(WiseGuysIngest.corleoneUID, WiseGuysIngest.sopranoUID), uids);
+
+        Assert.assertTrue(planner.planned);
+        Assert.assertTrue(planner.lookup);
+        Set<Range> ranges = new HashSet<>();
+        for (QueryPlan plan : planner.plans) {
+            ranges.addAll(plan.getRanges());
+        }
+        Assert.assertEquals(Sets.newHashSet(getExpectedRange(WiseGuysIngest.corleoneUID), getExpectedRange(WiseGuysIngest.sopranoUID)), ranges);
+    }
+
+    @Test
+    public void testNotALookup() throws Exception {
+        // NOME is indexed but is not one of the lookup fields, so the query is planned with a range stream
+        planner.setUuidFields(Collections.singleton("UUID"));
+        Set<String> uids = runTestQuery("UUID == 'CAPONE' || NOME == 'SANTINO'");
+        Assert.assertEquals(Sets.newHashSet(WiseGuysIngest.caponeUID, WiseGuysIngest.corleoneUID), uids);
+        Assert.assertFalse(planner.planned);
+        Assert.assertFalse(planner.lookup);
+    }
+
+    @Test
+    public void testLookupPlannedInFull() throws Exception {
+        // the lookup is written with a lower case field, so it is only a lookup once it is planned
+        Set<String> uids = runTestQuery("uuid == 'CAPONE'");
+        Assert.assertEquals(Collections.singleton(WiseGuysIngest.caponeUID), uids);
+
+        Assert.assertFalse(planner.planned);
+        Assert.assertTrue(planner.lookup);
+        Assert.assertEquals(Collections.singleton(getExpectedRange(WiseGuysIngest.caponeUID)), planner.plans.get(0).getRanges());
+    }
+
+    private Set<String> runTestQuery(String querystr) throws Exception {
+        QueryImpl settings = new QueryImpl();
+        settings.setBeginDate(format.parse("20091231"));
+        settings.setEndDate(format.parse("20150101"));
+        settings.setPagesize(Integer.MAX_VALUE);
+        settings.setQueryAuthorizations(auths.serialize());
+        settings.setQuery(querystr);
+        settings.setParameters(new HashMap<>());
+        settings.setId(UUID.randomUUID());
+
+        GenericQueryConfiguration config = logic.initialize(getClient(), settings, authSet);
+        logic.setupQuery(config);
+
+        DocumentTransformer transformer = (DocumentTransformer) (logic.getTransformer(settings));
+        TransformIterator iter = new DatawaveTransformIterator(logic.iterator(), transformer);
+        List<Object> eventList = new ArrayList<>();
+        while (iter.hasNext()) {
+            eventList.add(iter.next());
+        }
+
+        Set<String> uids = new HashSet<>();
+        if (!eventList.isEmpty()) {
+            BaseQueryResponse response = transformer.createResponse(eventList);
+            Assert.assertTrue(response instanceof DefaultEventQueryResponse);
+            for (EventBase event : ((DefaultEventQueryResponse) response).getEvents()) {
+                uids.add(event.getMetadata().getInternalId());
+            }
+        }
+        return uids;
+    }
+}
@@ -0,0 +1,112 @@
+package datawave.query.planner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.commons.jexl3.parser.ASTJexlScript;
+import org.junit.Test;
+
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+
+import datawave.ingest.protobuf.Uid;
+import datawave.query.jexl.JexlASTHelper;
+import datawave.query.model.QueryModel;
+import datawave.query.ranges.RangeFactory;
+import datawave.util.time.DateHelper;
+
+public class UUIDLookupQueryPlannerTest {
+
+    private static final Set<String> INDEXED = Sets.newHashSet("UUID", "EVENT_ID", "TEXT");
+
+    @Test
+    public void testLookupTerms() throws Exception {
+        Multimap<String,String> terms = getLookupTerms("UUID == 'abc' || EVENT_ID == 'def' || UUID == 'ghi'", Collections.emptySet());
+        assertEquals(3, terms.size());
+        assertEquals(Sets.newHashSet("abc", "ghi"), Sets.newHashSet(terms.get("UUID")));
+        assertEquals(Sets.newHashSet("def"), Sets.newHashSet(terms.get("EVENT_ID")));
+
+        terms = getLookupTerms("(UUID == 'abc')", Collections.emptySet());
+        assertEquals(1, terms.size());
+    }
+
+    @Test
+    public void testNotALookup() throws Exception {
+        assertNull(getLookupTerms("UUID == 'abc' && EVENT_ID == 'def'", Collections.emptySet()));
+        assertNull(getLookupTerms("UUID == 'abc' || UUID =~ 'de.*'", Collections.emptySet()));
+        assertNull(getLookupTerms("UUID == 'abc' || UNINDEXED == 'def'", Collections.emptySet()));
+        assertNull(getLookupTerms("UUID == 'abc' || TEXT == 'def'", Collections.singleton("UUID")));
+        assertNull(getLookupTerms("UUID == 'abc' || (EVENT_ID == 'def' && TEXT == 'ghi')", Collections.emptySet()));
+    }
+
+    @Test
+    public void testRemapped() {
+        QueryModel queryModel = new QueryModel();
+        queryModel.addTermToModel("UUID", "UUID");
+        queryModel.addTermToModel("ID", "EVENT_ID");
+        queryModel.addTermToModel("ID", "UUID");
+
+        assertFalse(UUIDLookupQueryPlanner.isRemapped(null, Sets.newHashSet("UUID", "ID")));
+        assertFalse(UUIDLookupQueryPlanner.isRemapped(queryModel, Sets.newHashSet("UUID", "EVENT_ID")));
+        assertTrue(UUIDLookupQueryPlanner.isRemapped(queryModel, Sets.newHashSet("UUID", "ID")));
+    }
+
+    @Test
+    public void testIndexRanges() throws Exception {
+        Date begin = DateHelper.parse("20240101");
+        Date end = DateHelper.parse("20240105");
+        Collection<Range> ranges = UUIDLookupQueryPlanner.createIndexRanges(getLookupTerms("UUID == 'abc'", Collections.emptySet()), begin, end);
+        assertEquals(1, ranges.size());
+        Range range = ranges.iterator().next();
+        assertTrue(range.contains(new Key("abc", "UUID", "20240101_0\u0000datatype")));
+        assertTrue(range.contains(new Key("abc", "UUID", "20240105_12\u0000datatype")));
+        assertTrue(!range.contains(new Key("abc", "UUID", "20240106_0\u0000datatype")));
+        assertTrue(!range.contains(new Key("abc", "EVENT_ID", "20240101_0\u0000datatype")));
+    }
+
+    @Test
+    public void testQueryPlans() throws Exception {
+        Map<String,SortedSet<String>> shards = new TreeMap<>();
+        UUIDLookupQueryPlanner.addIndexEntry(shards, new Key("abc", "UUID", "20240101_0\u0000datatype"), uids(false, "uid2", "uid1"));
+        UUIDLookupQueryPlanner.addIndexEntry(shards, new Key("def", "EVENT_ID", "20240101_0\u0000datatype"), uids(false, "uid1"));
+        UUIDLookupQueryPlanner.addIndexEntry(shards, new Key("abc", "UUID", "20240102_3\u0000datatype"), uids(true));
+        UUIDLookupQueryPlanner.addIndexEntry(shards, new Key("def", "EVENT_ID", "20240102_3\u0000datatype"), uids(false, "uid3"));
+        UUIDLookupQueryPlanner.addIndexEntry(shards, new Key("ghi", "UUID", "20240103_1\u0000datatype"), uids(false));
+
+        ASTJexlScript script = JexlASTHelper.parseJexlQuery("UUID == 'abc' || EVENT_ID == 'def'");
+        List<QueryPlan> plans = UUIDLookupQueryPlanner.createQueryPlans(shards, "shard", script, false);
+        assertEquals(3, plans.size());
+        assertEquals(Collections.singleton(RangeFactory.createDocumentSpecificRange("20240101_0", "datatype\u0000uid1")), plans.get(0).getRanges());
+        assertEquals(Collections.singleton(RangeFactory.createDocumentSpecificRange("20240101_0", "datatype\u0000uid2")), plans.get(1).getRanges());
+        assertEquals(Collections.singleton(RangeFactory.createShardRange("20240102_3")), plans.get(2).getRanges());
+        for (QueryPlan plan : plans) {
+            assertEquals("shard", plan.getTableName());
+        }
+    }
+
+    private static Multimap<String,String> getLookupTerms(String query, Set<String> uuidFields) throws Exception {
+        return UUIDLookupQueryPlanner.getLookupTerms(JexlASTHelper.parseJexlQuery(query), INDEXED, uuidFields);
+    }
+
+    private static Value uids(boolean ignore, String... uids) {
+        Uid.List.Builder builder = Uid.List.newBuilder().setIGNORE(ignore).setCOUNT(ignore ? 1000 : uids.length);
+        for (String uid : uids) {
+            builder.addUID(uid);
+        }
+        return new Value(builder.build().toByteArray());
+    }
+}
@@ -0,0 +1,221 @@
+package datawave.query.tables;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+import org.apache.accumulo.core.client.AccumuloClient;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.commons.collections4.iterators.TransformIterator;
+import org.apache.log4j.Logger;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.common.collect.Sets;
+
+import datawave.configuration.spring.SpringBean;
+import datawave.core.query.configuration.GenericQueryConfiguration;
+import datawave.core.query.iterator.DatawaveTransformIterator;
+import datawave.ingest.data.TypeRegistry;
+import datawave.microservice.query.Query;
+import datawave.microservice.query.QueryImpl;
+import datawave.query.QueryTestTableHelper;
+import datawave.query.tables.chunk.Chunker;
+import datawave.query.tables.edge.DefaultEdgeEventQueryLogic;
+import datawave.query.transformer.DocumentTransformer;
+import datawave.query.util.WiseGuysIngest;
+import datawave.webservice.edgedictionary.RemoteEdgeDictionary;
+import datawave.webservice.query.result.event.EventBase;
+import datawave.webservice.result.DefaultEventQueryResponse;
+
+/**
+ * Runs a query split into chunks that overlap, one chunk after another and concurrently.
+ */
+@RunWith(Arquillian.class)
+public class PartitionedQueryLogicTest {
+
+    private static final Logger log = Logger.getLogger(PartitionedQueryLogicTest.class);
+
+    // the third chunk finds the same document as the second, and the last chunk repeats the first
+    private static final List<String> CHUNKS = Arrays.asList("UUID == 'CAPONE'", "UUID == 'CORLEONE'", "NOME == 'SANTINO'", "UUID == 'SOPRANO'",
+                    "UUID == 'CAPONE'");
+
+    private static AccumuloClient client;
+
+    private final Authorizations auths = new Authorizations("ALL");
+    private final Set<Authorizations> authSet = Collections.singleton(auths);
+    private final DateFormat format = new SimpleDateFormat("yyyyMMdd");
+
+    @Inject
+    @SpringBean(name = "PartitionedEventQuery")
+    protected PartitionedQueryLogic logic;
+
+    // a second logic, since a logic carries the bloom filter of its previous query into the next
+    @Inject
+    @SpringBean(name = "PartitionedEventQuery")
+    protected PartitionedQueryLogic parallelLogic;
+
+    /**
+     * Splits a query into a fixed list of queries
+     */
+    private static class ListChunker extends Chunker {
+        private final List<String> queries;
+        private Iterator<String> remaining;
+        private Query baseQuery;
+
+        ListChunker(List<String> queries) {
+            this.queries = queries;
+        }
+
+        @Override
+        public void setBaseQuery(Query query) {
+            this.baseQuery = query;
+            this.remaining = queries.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining.hasNext();
+        }
+
+        @Override
+        public Query next() {
+            Query chunk = baseQuery.duplicate(baseQuery.getQueryName());
+            chunk.setQuery(remaining.next());
+            return chunk;
+        }
+
+        @Override
+        public ListChunker clone() {
+            return new ListChunker(queries);
+        }
+    }
+
+    @Deployment
+    public static JavaArchive createDeployment() throws Exception {
+        return ShrinkWrap.create(JavaArchive.class)
+                        .addPackages(true, "org.apache.deltaspike", "io.astefanutti.metrics.cdi", "datawave.query", "org.jboss.logging",
+                                        "datawave.webservice.query.result.event")
+                        .deleteClass(DefaultEdgeEventQueryLogic.class).deleteClass(RemoteEdgeDictionary.class)
+                        .deleteClass(datawave.query.metrics.QueryMetricQueryLogic.class)
+                        .addAsManifestResource(new StringAsset(
+                                        "<alternatives>" + "<stereotype>datawave.query.tables.edge.MockAlternative</stereotype>" + "</alternatives>"),
+                                        "beans.xml");
+    }
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        QueryTestTableHelper qtth = new QueryTestTableHelper(PartitionedQueryLogicTest.class.toString(), log);
+        client = qtth.client;
+        WiseGuysIngest.writeItAll(client, WiseGuysIngest.WhatKindaRange.DOCUMENT);
+    }
+
+    @AfterClass
+    public static void teardown() {
+        TypeRegistry.reset();
+    }
+
+    @Before
+    public void setup() {
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
+        logic.setChunker(new ListChunker(CHUNKS));
+        parallelLogic.setChunker(new ListChunker(CHUNKS));
+    }
+
+    @After
+    public void reset() {
+        logic.close();
+        parallelLogic.close();
+    }
+
+    /**
+     * Verify that the chunks run one after another and concurrently return the same results, each document once even when found by several chunks.
+     */
+    @Test
+    public void testSequentialAndParallelAgree() throws Exception {
+        // run one after another, each chunk is deduplicated against the previous chunks with the bloom filter that they hand on
+        List<String> sequential = runTestQuery(logic, 1);
+        Assert.assertEquals(3, sequential.size());
+        Assert.assertEquals(Sets.newHashSet(WiseGuysIngest.caponeUID, WiseGuysIngest.corleoneUID, WiseGuysIngest.sopranoUID), new HashSet<>(sequential));
+
+        List<String> parallel = runTestQuery(parallelLogic, 3);
+        Collections.sort(sequential);
+        Collections.sort(parallel);
+        Assert.assertEquals(sequential, parallel);
+    }
+
+    /**
+     * Verify that a chunk run concurrently whose results are all duplicates of earlier chunks adds nothing, with the workers blocking on every result.
+     */
+    @Test
+    public void testParallelDeduplicatesAcrossChunks() throws Exception {
+        logic.setChunker(new ListChunker(Arrays.asList("UUID == 'CAPONE'", "UUID == 'CAPONE'", "UUID == 'CAPONE'", "UUID == 'CAPONE'")));
+        logic.setMaxQueuedChunkResults(1);
+        Assert.assertEquals(Collections.singletonList(WiseGuysIngest.caponeUID), runTestQuery(logic, 4));
+    }
+
+    /**
+     * Verify that the chunks cannot be run concurrently twice by the same query logic, since the workers of the first run consume the chunker.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testParallelIteratorOnlyOnce() throws Exception {
+        logic.setChunkParallelism(2);
+        logic.setupQuery(logic.initialize(client, createSettings(), authSet));
+        logic.iterator();
+        logic.iterator();
+    }
+
+    private QueryImpl createSettings() throws Exception {
+        QueryImpl settings = new QueryImpl();
+        settings.setBeginDate(format.parse("20091231"));
+        settings.setEndDate(format.parse("20150101"));
+        settings.setPagesize(Integer.MAX_VALUE);
+        settings.setQueryAuthorizations(auths.serialize());
+        settings.setQuery(CHUNKS.get(0));
+        settings.setParameters(new HashMap<>());
+        settings.setId(UUID.randomUUID());
+        return settings;
+    }
+
+    private List<String> runTestQuery(PartitionedQueryLogic logic, int chunkParallelism) throws Exception {
+        logic.setChunkParallelism(chunkParallelism);
+        QueryImpl settings = createSettings();
+
+        GenericQueryConfiguration config = logic.initialize(client, settings, authSet);
+        logic.setupQuery(config);
+
+        DocumentTransformer transformer = (DocumentTransformer) (logic.getTransformer(settings));
+        TransformIterator iter = new DatawaveTransformIterator(logic.iterator(), transformer);
+        List<Object> eventList = new ArrayList<>();
+        while (iter.hasNext()) {
+            eventList.add(iter.next());
+        }
+
+        List<String> uids = new ArrayList<>();
+        for (EventBase event : ((DefaultEventQueryResponse) transformer.createResponse(eventList)).getEvents()) {
+            uids.add(event.getMetadata().getInternalId());
+        }
+        return uids;
+    }
+}
@@ -0,0 +1,174 @@
+package datawave.query.tables;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+import org.apache.accumulo.core.client.AccumuloClient;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.minicluster.MiniAccumuloCluster;
+import org.apache.commons.collections4.iterators.TransformIterator;
+import org.apache.log4j.Logger;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import com.google.common.collect.Sets;
+
+import datawave.configuration.spring.SpringBean;
+import datawave.core.query.configuration.GenericQueryConfiguration;
+import datawave.core.query.iterator.DatawaveTransformIterator;
+import datawave.core.query.logic.BaseQueryLogic;
+import datawave.ingest.data.TypeRegistry;
+import datawave.microservice.query.QueryImpl;
+import datawave.query.QueryTestTableHelper;
+import datawave.query.config.ShardQueryConfiguration;
+import datawave.query.tables.edge.DefaultEdgeEventQueryLogic;
+import datawave.query.transformer.DocumentTransformer;
+import datawave.query.util.WiseGuysIngest;
+import datawave.util.TableName;
+import datawave.webservice.edgedictionary.RemoteEdgeDictionary;
+import datawave.webservice.query.result.event.EventBase;
+import datawave.webservice.result.BaseQueryResponse;
+import datawave.webservice.result.DefaultEventQueryResponse;
+
+/**
+ * Runs queries with the shard table read directly from its RFiles rather than through the tablet servers. This spins up a mini accumulo since the in memory
+ * instance does not write any RFiles.
+ */
+@RunWith(Arquillian.class)
+public class ShardQueryLogicBypassAccumuloTest {
+
+    private static final Logger log = Logger.getLogger(ShardQueryLogicBypassAccumuloTest.class);
+
+    @ClassRule
+    public static TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static final String PASSWORD = "password";
+
+    private static MiniAccumuloCluster instance;
+    private static AccumuloClient client;
+
+    private final Authorizations auths = new Authorizations("ALL");
+    private final Set<Authorizations> authSet = Collections.singleton(auths);
+    private final DateFormat format = new SimpleDateFormat("yyyyMMdd");
+
+    @Inject
+    @SpringBean(name = "EventQuery")
+    protected ShardQueryLogic logic;
+
+    @Deployment
+    public static JavaArchive createDeployment() throws Exception {
+        return ShrinkWrap.create(JavaArchive.class)
+                        .addPackages(true, "org.apache.deltaspike", "io.astefanutti.metrics.cdi", "datawave.query", "org.jboss.logging",
+                                        "datawave.webservice.query.result.event")
+                        .deleteClass(DefaultEdgeEventQueryLogic.class).deleteClass(RemoteEdgeDictionary.class)
+                        .deleteClass(datawave.query.metrics.QueryMetricQueryLogic.class)
+                        .addAsManifestResource(new StringAsset(
+                                        "<alternatives>" + "<stereotype>datawave.query.tables.edge.MockAlternative</stereotype>" + "</alternatives>"),
+                                        "beans.xml");
+    }
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        instance = new MiniAccumuloCluster(temporaryFolder.newFolder(), PASSWORD);
+        instance.start();
+
+        client = instance.createAccumuloClient("root", new PasswordToken(PASSWORD));
+        client.securityOperations().changeUserAuthorizations("root", new Authorizations("ALL"));
+
+        new QueryTestTableHelper(client, log);
+        WiseGuysIngest.writeItAll(client, WiseGuysIngest.WhatKindaRange.SHARD);
+
+        // write the shard table out to rfiles, which is all that is read when bypassing accumulo
+        client.tableOperations().flush(TableName.SHARD, null, null, true);
+    }
+
+    @AfterClass
+    public static void teardown() throws Exception {
+        TypeRegistry.reset();
+        client.close();
+        instance.stop();
+    }
+
+    @Before
+    public void setup() {
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
+        logic.setAccumuloPassword(PASSWORD);
+    }
+
+    @After
+    public void reset() {
+        logic.setSequentialScheduler(false);
+    }
+
+    @Test
+    public void testPushdownScheduler() throws Exception {
+        runTestQuery(Sets.newHashSet(WiseGuysIngest.caponeUID), "UUID == 'CAPONE'");
+        runTestQuery(Sets.newHashSet(WiseGuysIngest.corleoneUID, WiseGuysIngest.sopranoUID), "UUID == 'CORLEONE' || UUID == 'SOPRANO'");
+    }
+
+    @Test
+    public void testSequentialScheduler() throws Exception {
+        // the sequential scheduler reads the rfiles through an RfileScanner rather than through the pushdown scanner session
+        logic.setSequentialScheduler(true);
+        runTestQuery(Sets.newHashSet(WiseGuysIngest.caponeUID), "UUID == 'CAPONE'");
+        runTestQuery(Sets.newHashSet(WiseGuysIngest.corleoneUID, WiseGuysIngest.sopranoUID), "UUID == 'CORLEONE' || UUID == 'SOPRANO'");
+    }
+
+    private void runTestQuery(Set<String> expectedUids, String querystr) throws Exception {
+        Map<String,String> extraParms = new HashMap<>();
+        extraParms.put(BaseQueryLogic.BYPASS_ACCUMULO, "true");
+
+        QueryImpl settings = new QueryImpl();
+        settings.setBeginDate(format.parse("20091231"));
+        settings.setEndDate(format.parse("20150101"));
+        settings.setPagesize(Integer.MAX_VALUE);
+        settings.setQueryAuthorizations(auths.serialize());
+        settings.setQuery(querystr);
+        settings.setParameters(extraParms);
+        settings.setId(UUID.randomUUID());
+
+        GenericQueryConfiguration config = logic.initialize(client, settings, authSet);
+        Assert.assertTrue(((ShardQueryConfiguration) config).getBypassAccumulo());
+        logic.setupQuery(config);
+
+        DocumentTransformer transformer = (DocumentTransformer) (logic.getTransformer(settings));
+        TransformIterator iter = new DatawaveTransformIterator(logic.iterator(), transformer);
+        List<Object> eventList = new ArrayList<>();
+        while (iter.hasNext()) {
+            eventList.add(iter.next());
+        }
+
+        BaseQueryResponse response = transformer.createResponse(eventList);
+        Assert.assertTrue(response instanceof DefaultEventQueryResponse);
+
+        Set<String> uids = new HashSet<>();
+        for (EventBase event : ((DefaultEventQueryResponse) response).getEvents()) {
+            uids.add(event.getMetadata().getInternalId());
+        }
+        Assert.assertEquals(expectedUids, uids);
+    }
+}
@@ -0,0 +1,174 @@
+package datawave.query.tables.chunk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.junit.After;
+import org.junit.Test;
+
+import datawave.microservice.query.Query;
+import datawave.microservice.query.QueryImpl;
+
+public class ParallelChunkIteratorTest {
+
+    private static final int RESULTS_PER_CHUNK = 5;
+
+    private ParallelChunkIterator iterator;
+
+    @After
+    public void tearDown() {
+        if (iterator != null) {
+            iterator.close();
+        }
+    }
+
+    private static Supplier<Query> chunks(int count) {
+        ConcurrentLinkedQueue<Query> chunks = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < count; i++) {
+            QueryImpl chunk = new QueryImpl();
+            chunk.setQuery("chunk" + i);
+            chunks.add(chunk);
+        }
+        return chunks::poll;
+    }
+
+    private static Entry<Key,Value> result(String row, int i) {
+        return new AbstractMap.SimpleEntry<>(new Key(row, "result" + i), new Value());
+    }
+
+    private static void putResults(Query chunk, BlockingQueue<Entry<Key,Value>> results) throws InterruptedException {
+        for (int i = 0; i < RESULTS_PER_CHUNK; i++) {
+            results.put(result(chunk.getQuery(), i));
+        }
+    }
+
+    private static List<String> drain(Iterator<Entry<Key,Value>> iterator) {
+        List<String> results = new ArrayList<>();
+        while (iterator.hasNext()) {
+            Key key = iterator.next().getKey();
+            results.add(key.getRow() + "/" + key.getColumnFamily());
+        }
+        Collections.sort(results);
+        return results;
+    }
+
+    private static List<String> expected(int chunks) {
+        List<String> results = new ArrayList<>();
+        for (int i = 0; i < RESULTS_PER_CHUNK; i++) {
+            results.add("first/result" + i);
+        }
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            for (int i = 0; i < RESULTS_PER_CHUNK; i++) {
+                results.add("chunk" + chunk + "/result" + i);
+            }
+        }
+        Collections.sort(results);
+        return results;
+    }
+
+    private static Iterator<Entry<Key,Value>> firstChunk() {
+        List<Entry<Key,Value>> results = new ArrayList<>();
+        for (int i = 0; i < RESULTS_PER_CHUNK; i++) {
+            results.add(result("first", i));
+        }
+        return results.iterator();
+    }
+
+    /**
+     * Verify that the results of every chunk are returned, with the workers blocking on a queue smaller than a chunk.
+     */
+    @Test
+    public void testAllResults() {
+        iterator = new ParallelChunkIterator(firstChunk(), chunks(10), ParallelChunkIteratorTest::putResults, 3, 2);
+        assertEquals(expected(10), drain(iterator));
+        assertEquals(0, iterator.getRunningWorkers());
+    }
+
+    /**
+     * Verify that the results still queued when the last worker finishes are returned.
+     */
+    @Test
+    public void testResultsQueuedAfterWorkersFinish() {
+        iterator = new ParallelChunkIterator(new Iterator<Entry<Key,Value>>() {
+            private final Iterator<Entry<Key,Value>> delegate = firstChunk();
+
+            @Override
+            public boolean hasNext() {
+                // hold back the end of the first chunk until every worker has finished
+                if (!delegate.hasNext()) {
+                    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+                    while (iterator.getRunningWorkers() > 0 && System.currentTimeMillis() < deadline) {
+                        Thread.yield();
+                    }
+                    assertEquals(0, iterator.getRunningWorkers());
+                }
+                return delegate.hasNext();
+            }
+
+            @Override
+            public Entry<Key,Value> next() {
+                return delegate.next();
+            }
+        }, chunks(4), ParallelChunkIteratorTest::putResults, 2, 4 * RESULTS_PER_CHUNK);
+
+        assertEquals(expected(4), drain(iterator));
+    }
+
+    /**
+     * Verify that closing the iterator stops a worker that is blocked handing over a result.
+     */
+    @Test
+    public void testCloseUnblocksWorkers() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        iterator = new ParallelChunkIterator(Collections.emptyIterator(), chunks(1), (chunk, results) -> {
+            try {
+                results.put(result("chunk", 0));
+                blocked.countDown();
+                // the queue holds one result, so this blocks until the iterator is closed
+                results.put(result("chunk", 1));
+            } finally {
+                stopped.countDown();
+            }
+        }, 1, 1);
+
+        assertTrue(blocked.await(30, TimeUnit.SECONDS));
+        assertEquals(1, iterator.getRunningWorkers());
+
+        iterator.close();
+        assertTrue(stopped.await(30, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Verify that a chunk which fails does not stop the other chunks.
+     */
+    @Test
+    public void testFailedChunk() {
+        iterator = new ParallelChunkIterator(firstChunk(), chunks(3), (chunk, results) -> {
+            if (chunk.getQuery().equals("chunk1")) {
+                throw new IllegalStateException("failed chunk");
+            }
+            putResults(chunk, results);
+        }, 2, 10);
+
+        List<String> expected = expected(3);
+        expected.removeIf(result -> result.startsWith("chunk1/"));
+        assertEquals(expected, drain(iterator));
+        assertFalse(iterator.hasNext());
+    }
+}
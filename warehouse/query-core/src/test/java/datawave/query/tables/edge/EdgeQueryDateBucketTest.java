@@ -0,0 +1,119 @@
+package datawave.query.tables.edge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.junit.Before;
+import org.junit.Test;
+
+import datawave.core.iterators.ColumnRangeIterator;
+import datawave.core.query.configuration.QueryData;
+import datawave.edge.util.EdgeDateBucket;
+import datawave.query.Constants;
+import datawave.query.config.EdgeQueryConfiguration;
+import datawave.query.iterator.filter.EdgeFilterIterator;
+
+public class EdgeQueryDateBucketTest {
+
+    private static final int DATE_ITERATOR_PRIORITY = 10;
+
+    private final EdgeQueryLogic logic = new EdgeQueryLogic();
+    private EdgeQueryConfiguration config;
+
+    @Before
+    public void setup() {
+        config = new EdgeQueryConfiguration();
+        config.setTableName("edge");
+        config.setWeeklyRollupTableName("edgeWeekly");
+        config.setMonthlyRollupTableName("edgeMonthly");
+        // Wednesday 2023-12-13 through Wednesday 2024-04-17
+        config.setBeginDate(date("20231213"));
+        config.setEndDate(date("20240417"));
+    }
+
+    private QueryData getQueryData(List<IteratorSetting> dateIterators) {
+        List<IteratorSetting> settings = new ArrayList<>(dateIterators);
+        settings.add(new IteratorSetting(DATE_ITERATOR_PRIORITY + dateIterators.size(), "edgeFilter", EdgeFilterIterator.class));
+        return new QueryData().withTableName(config.getTableName()).withSettings(settings);
+    }
+
+    private List<IteratorSetting> getDateIterators() {
+        return EdgeQueryLogic.getDateBasedIterators(config.getBeginDate(), config.getEndDate(), DATE_ITERATOR_PRIORITY, config.getDateFilterSkipLimit(),
+                        config.getDateFilterScanLimit(), config.getDateRangeType());
+    }
+
+    @Test
+    public void testSplitAcrossRollupTables() throws IOException {
+        List<IteratorSetting> dateIterators = getDateIterators();
+        List<QueryData> queries = logic.planDateBuckets(config, getQueryData(dateIterators), dateIterators.size(), DATE_ITERATOR_PRIORITY);
+
+        assertEquals(5, queries.size());
+        assertSegment(queries.get(0), "edge", "20231213", "20231217", dateIterators.size());
+        assertSegment(queries.get(1), "edgeWeekly", "20231218", "20231231", dateIterators.size());
+        assertSegment(queries.get(2), "edgeMonthly", "20240101", "20240331", dateIterators.size());
+        assertSegment(queries.get(3), "edgeWeekly", "20240401", "20240414", dateIterators.size());
+        assertSegment(queries.get(4), "edge", "20240415", "20240417", dateIterators.size());
+    }
+
+    @Test
+    public void testShortRangeUsesDailyTable() {
+        config.setBeginDate(date("20240110"));
+        config.setEndDate(date("20240112"));
+        List<IteratorSetting> dateIterators = getDateIterators();
+        QueryData qData = getQueryData(dateIterators);
+
+        List<QueryData> queries = logic.planDateBuckets(config, qData, dateIterators.size(), DATE_ITERATOR_PRIORITY);
+        assertEquals(1, queries.size());
+        assertSame(qData, queries.get(0));
+    }
+
+    @Test
+    public void testNoRollupTables() {
+        config.setWeeklyRollupTableName(null);
+        config.setMonthlyRollupTableName(null);
+        List<IteratorSetting> dateIterators = getDateIterators();
+        QueryData qData = getQueryData(dateIterators);
+
+        List<QueryData> queries = logic.planDateBuckets(config, qData, dateIterators.size(), DATE_ITERATOR_PRIORITY);
+        assertEquals(1, queries.size());
+        assertSame(qData, queries.get(0));
+    }
+
+    @Test
+    public void testLoadDateUsesDailyTable() {
+        config.setDateRangeType(EdgeQueryConfiguration.dateType.LOAD);
+        List<IteratorSetting> dateIterators = getDateIterators();
+        QueryData qData = getQueryData(dateIterators);
+
+        List<QueryData> queries = logic.planDateBuckets(config, qData, dateIterators.size(), DATE_ITERATOR_PRIORITY);
+        assertEquals(1, queries.size());
+        assertSame(qData, queries.get(0));
+    }
+
+    private void assertSegment(QueryData query, String tableName, String begin, String end, int numDateIterators) throws IOException {
+        assertEquals(tableName, query.getTableName());
+
+        List<IteratorSetting> settings = new ArrayList<>(query.getSettings());
+        assertEquals(numDateIterators + 1, settings.size());
+
+        // the date filter is limited to the segment
+        Range range = new Range(new Key(begin), new Key(end + Constants.MAX_UNICODE_STRING));
+        assertEquals(ColumnRangeIterator.encodeRange(range), settings.get(0).getOptions().get(ColumnRangeIterator.RANGE_NAME));
+        assertEquals(DATE_ITERATOR_PRIORITY, settings.get(0).getPriority());
+
+        // the other iterators are carried over unchanged
+        assertEquals("edgeFilter", settings.get(numDateIterators).getName());
+    }
+
+    private static Date date(String yyyymmdd) {
+        return EdgeDateBucket.toDate(EdgeDateBucket.parse(yyyymmdd));
+    }
+}
@@ -1,5 +1,6 @@
 package datawave.webservice.query.database;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -7,6 +8,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -29,9 +31,12 @@ import org.apache.log4j.Logger;
 
 import datawave.configuration.spring.SpringBean;
 import datawave.core.query.cachedresults.CachedResultsQueryParameters;
+import datawave.webservice.results.cached.CachedRunningQuery;
+import datawave.webservice.results.cached.store.CachedResultsStore;
 
 /**
- * Removes tables and views from the MySQL database that have been there for 24 hours so that we don't have to purge data from them.
+ * Removes tables and views from the MySQL database that have been there for 24 hours so that we don't have to purge data from them, along with the tables of
+ * the cached results store when one is configured.
  */
 @RunAs("InternalUser")
 @RolesAllowed({"AuthorizedUser", "AuthorizedQueryServer", "InternalUser", "Administrator"})
@@ -108,6 +113,19 @@ public class CachedResultsCleanupBean {
         } catch (SQLException e) {
             log.error("Error cleaning up cached result objects: " + e.getMessage());
         }
+
+        CachedResultsStore store = CachedRunningQuery.getStore();
+        if (store != null) {
+            try {
+                long time = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(cachedResultsCleanupConfiguration.getDaysToLive());
+                for (String tableName : store.dropCreatedBefore(time)) {
+                    removeCrqRow(tableName);
+                    removeCrqRow(CachedResultsQueryParameters.validate(tableName.replaceFirst("t", "v")));
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                log.error("Error cleaning up cached result store: " + e.getMessage());
+            }
+        }
     }
 
     private void removeCrqRow(String id) {
@@ -138,6 +138,10 @@ import datawave.webservice.result.CachedResultsResponse;
 import datawave.webservice.result.GenericResponse;
 import datawave.webservice.result.TotalResultsAware;
 import datawave.webservice.result.VoidResponse;
+import datawave.webservice.results.cached.store.CachedResultsStore;
+import datawave.webservice.results.cached.store.CachedResultsTable;
+import datawave.webservice.results.cached.store.CachedResultsWriter;
+import datawave.webservice.results.cached.store.ColumnarCachedResultsStore;
 
 /**
  * CachedResultsBean loads the results of a predefined query into a relational database (MySQL) so that the user can run SQL queries against the data, which
@@ -155,6 +159,10 @@ import datawave.webservice.result.VoidResponse;
  * database and use the group_concat() SQL function to concatentate them at query time. Also, since the data is coming from a schema-less source, all columns in
  * the table will be of type Text.
  *
+ * When a store directory is configured the rows are instead loaded into a {@link ColumnarCachedResultsStore} table, whose columns are named after the fields
+ * so that no view is needed. The queries against it are limited to the subset of SQL that {@link datawave.webservice.results.cached.store.CachedResultsQuery}
+ * supports, and the state of each cached query is still kept in the database.
+ *
  * Object that loads a predefined query into a relational database so that SQL queries can be run against it. Typical use case for this object is:
  *
  * load() create() repeated calls to next() or previous() close()
@@ -264,6 +272,15 @@ public class CachedResultsBean {
         CachedRunningQuery.setQueryFactory(queryFactory);
         CachedRunningQuery.setResponseObjectFactory(responseObjectFactory);
 
+        // load cached results into local columnar files rather than into database tables when a store directory is configured
+        String storeDir = cachedResultsConfiguration.getStoreDir();
+        if (StringUtils.isNotBlank(storeDir)) {
+            log.info("cached results store: " + storeDir);
+            CachedRunningQuery.setStore(new ColumnarCachedResultsStore(new File(storeDir)));
+        } else {
+            CachedRunningQuery.setStore(null);
+        }
+
         String template = null;
         try (Connection con = ds.getConnection(); Statement s = con.createStatement()) {
             template = cachedResultsConfiguration.getParameters().get("TEMPLATE_TABLE");
@@ -333,6 +350,60 @@ public class CachedResultsBean {
 
     }
 
+    /**
+     * Append a row to a table of the cached results store. Fields are numbered the same way as the columns of a database table, so the column markings and
+     * timestamps of a row refer to the same columns, and a column is added to the table the first time that its field is seen.
+     *
+     * @param writer
+     *            the writer of the table
+     * @param owner
+     *            the owner
+     * @param queryId
+     *            the query id
+     * @param logicName
+     *            the query logic name
+     * @param fieldMap
+     *            the column number of each field seen so far
+     * @param cqo
+     *            the row
+     * @throws IOException
+     *             if the row can not be written
+     */
+    protected void storeRow(CachedResultsWriter writer, String owner, String queryId, String logicName, Map<String,Integer> fieldMap, CacheableQueryRow cqo)
+                    throws IOException {
+        List<String> values = new ArrayList<>(writer.getColumns().size());
+        values.add(owner);
+        values.add(queryId);
+        values.add(logicName);
+        values.add(cqo.getDataType());
+        values.add(cqo.getEventId());
+        values.add(cqo.getRow());
+        values.add(cqo.getColFam());
+        values.add(MarkingFunctions.Encoding.toString(new TreeMap<>(cqo.getMarkings())));
+        // the column markings and timestamps are set once every field has a column number
+        values.add(null);
+        values.add(null);
+        for (Entry<String,String> e : cqo.getColumnValues().entrySet()) {
+            String columnName = e.getKey();
+            Integer columnNumber = fieldMap.get(columnName);
+            if (columnNumber == null) {
+                columnNumber = CacheableQueryRow.getFixedColumnSet().size() + fieldMap.size() + 1;
+                fieldMap.put(columnName, columnNumber);
+                writer.addColumn(columnName);
+            }
+            while (values.size() < columnNumber) {
+                values.add(null);
+            }
+            values.set(columnNumber - 1, e.getValue());
+        }
+        values.set(8, cqo.getColumnSecurityMarkingString(fieldMap));
+        values.set(9, cqo.getColumnTimestampString(fieldMap));
+        while (values.size() < writer.getColumns().size()) {
+            values.add(null);
+        }
+        writer.addRow(values);
+    }
+
     protected GenericResponse<String> load(@Required("queryId") String queryId, String alias, String nameBase) {
 
         GenericResponse<String> response = new GenericResponse<>();
@@ -360,6 +431,8 @@ public class CachedResultsBean {
         String viewName = "v" + nameBase;
         Connection con = null;
         PreparedStatement ps = null;
+        CachedResultsStore store = CachedRunningQuery.getStore();
+        CachedResultsWriter writer = null;
         boolean tableCreated = false;
         boolean viewCreated = false;
         CachedRunningQuery crq = null;
@@ -493,21 +566,30 @@ public class CachedResultsBean {
                 throw new IllegalArgumentException(logic.getLogicName() + " does not support CachedResults calls");
             }
 
-            try {
-                con = ds.getConnection();
-                // Create the result table for this query
-                Statement s = con.createStatement();
-                String createTable = cachedResultsConfiguration.getParameters().get("CREATE_TABLE");
-                createTable = createTable.replace(TABLE, tableName);
-                s.execute(createTable);
-                s.close();
-                tableCreated = true;
-                // Parse the PreparedStatement
-                String insert = cachedResultsConfiguration.getParameters().get("INSERT");
-                insert = insert.replace(TABLE, tableName);
-                ps = con.prepareStatement(insert);
-            } catch (SQLException sqle) {
-                throw new QueryException(DatawaveErrorCode.CACHED_RESULTS_TABLE_CREATE_ERROR, sqle);
+            if (store != null) {
+                try {
+                    writer = store.create(tableName, new ArrayList<>(CacheableQueryRow.getFixedColumnSet()));
+                    tableCreated = true;
+                } catch (IOException e) {
+                    throw new QueryException(DatawaveErrorCode.CACHED_RESULTS_TABLE_CREATE_ERROR, e);
+                }
+            } else {
+                try {
+                    con = ds.getConnection();
+                    // Create the result table for this query
+                    Statement s = con.createStatement();
+                    String createTable = cachedResultsConfiguration.getParameters().get("CREATE_TABLE");
+                    createTable = createTable.replace(TABLE, tableName);
+                    s.execute(createTable);
+                    s.close();
+                    tableCreated = true;
+                    // Parse the PreparedStatement
+                    String insert = cachedResultsConfiguration.getParameters().get("INSERT");
+                    insert = insert.replace(TABLE, tableName);
+                    ps = con.prepareStatement(insert);
+                } catch (SQLException sqle) {
+                    throw new QueryException(DatawaveErrorCode.CACHED_RESULTS_TABLE_CREATE_ERROR, sqle);
+                }
             }
 
             // Object for keeping track of which fields are placed in which
@@ -536,6 +618,11 @@ public class CachedResultsBean {
                 for (Object o : results.getResults()) {
                     CacheableQueryRow cacheableQueryRow = cacheableLogic.writeToCache(o);
 
+                    if (writer != null) {
+                        storeRow(writer, owner, queryId, logic.getLogicName(), fieldMap, cacheableQueryRow);
+                        continue;
+                    }
+
                     Collection<String> values = cacheableQueryRow.getColumnValues().values();
                     int maxValueLength = 0;
                     for (String s : values) {
@@ -599,8 +686,13 @@ public class CachedResultsBean {
                 }
             }
 
-            // Create the view of the table
-            viewCreated = createView(tableName, viewName, con, viewCreated, fieldMap);
+            if (writer != null) {
+                // the rows become visible once the writer is closed, and the columns are already named after the fields so no view is needed
+                writer.close();
+            } else {
+                // Create the view of the table
+                viewCreated = createView(tableName, viewName, con, viewCreated, fieldMap);
+            }
 
             // create the CachedRunningQuery and store it under the originalQueryName, but do not activate it
             crq = new CachedRunningQuery(q, logic, viewName, alias, owner, viewName, cachedResultsConfiguration.getDefaultPageSize(), queryId,
@@ -667,6 +759,15 @@ public class CachedResultsBean {
             } else {
                 log.error(t.getMessage(), t);
             }
+            if (writer != null && tableCreated) {
+                try {
+                    writer.close();
+                    store.drop(tableName);
+                } catch (Exception e1) {
+                    log.error(e1.getMessage(), e1);
+                    response.addException(new QueryException(DatawaveErrorCode.FAILURE_CLEANUP_ERROR, e1).getBottomQueryException());
+                }
+            }
             if (con != null) {
                 Statement s = null;
                 try {
@@ -1133,27 +1234,41 @@ public class CachedResultsBean {
 
             List<String> columns = new ArrayList<>();
             Integer numRows = null;
-            try (Connection con = ds.getConnection(); Statement s = con.createStatement()) {
-                try (ResultSet rs = s.executeQuery(String.format("select count(*) from %s", view))) {
-                    if (rs.next()) {
-                        numRows = rs.getInt(1);
-                    }
-                }
-
-                try (ResultSet rs = s.executeQuery(String.format("show columns from %s", view))) {
+            if (crq.isStored()) {
+                try (CachedResultsTable table = CachedRunningQuery.getStore().open(crq.getTableName())) {
+                    numRows = (int) table.getNumRows();
                     Set<String> fixedColumns = CacheableQueryRow.getFixedColumnSet();
-                    while (rs.next()) {
-                        String column = rs.getString(1);
+                    for (String column : table.getColumns()) {
                         if (!fixedColumns.contains(column)) {
                             columns.add(column);
                         }
                     }
+                } catch (IOException e) {
+                    throw new QueryException(DatawaveErrorCode.CACHED_QUERY_SQL_ERROR, e);
                 }
+            } else {
+                try (Connection con = ds.getConnection(); Statement s = con.createStatement()) {
+                    try (ResultSet rs = s.executeQuery(String.format("select count(*) from %s", view))) {
+                        if (rs.next()) {
+                            numRows = rs.getInt(1);
+                        }
+                    }
+
+                    try (ResultSet rs = s.executeQuery(String.format("show columns from %s", view))) {
+                        Set<String> fixedColumns = CacheableQueryRow.getFixedColumnSet();
+                        while (rs.next()) {
+                            String column = rs.getString(1);
+                            if (!fixedColumns.contains(column)) {
+                                columns.add(column);
+                            }
+                        }
+                    }
 
-            } catch (SQLSyntaxErrorException e) {
-                throw new NotFoundQueryException(DatawaveErrorCode.VIEW_NOT_FOUND);
-            } catch (SQLException e) {
-                throw new QueryException(DatawaveErrorCode.CACHED_QUERY_SQL_ERROR);
+                } catch (SQLSyntaxErrorException e) {
+                    throw new NotFoundQueryException(DatawaveErrorCode.VIEW_NOT_FOUND);
+                } catch (SQLException e) {
+                    throw new QueryException(DatawaveErrorCode.CACHED_QUERY_SQL_ERROR);
+                }
             }
 
             response.setColumns(columns);
@@ -1241,11 +1356,10 @@ public class CachedResultsBean {
                 }
             }
             // this needs the real view name, so use the value from loadCrq instead of cp.getView() (because cp.getView may return the alias instead)
-            crq = new CachedRunningQuery(con, query, queryLogic, cp.getQueryId(), cp.getAlias(), owner, loadCrq.getView(), cp.getFields(), cp.getConditions(),
-                            cp.getGrouping(), cp.getOrder(), cp.getPagesize(), loadCrq.getVariableFields(), fixedFields, metricFactory);
+            crq = new CachedRunningQuery(con, query, queryLogic, cp.getQueryId(), cp.getAlias(), owner, loadCrq.getView(), table, cp.getFields(),
+                            cp.getConditions(), cp.getGrouping(), cp.getOrder(), cp.getPagesize(), loadCrq.getVariableFields(), fixedFields, metricFactory);
             crq.setStatus(CachedRunningQuery.Status.CREATING);
             crq.setOriginalQueryId(originalQueryId);
-            crq.setTableName(table);
             persist(crq, owner);
             // see above comment about using loadCrq.getView() instead of cp.getView()
             CachedRunningQuery.removeFromDatabase(loadCrq.getView());
@@ -18,7 +18,9 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.UUID;
 
@@ -50,6 +52,10 @@ import datawave.webservice.query.data.ObjectSizeOf;
 import datawave.webservice.query.exception.QueryException;
 import datawave.webservice.query.result.event.ResponseObjectFactory;
 import datawave.webservice.query.util.MapUtils;
+import datawave.webservice.results.cached.store.CachedResultsQuery;
+import datawave.webservice.results.cached.store.CachedResultsStore;
+import datawave.webservice.results.cached.store.CachedResultsTable;
+import datawave.webservice.results.cached.store.Condition;
 
 @SuppressWarnings("restriction")
 public class CachedRunningQuery extends AbstractRunningQuery {
@@ -61,9 +67,12 @@ public class CachedRunningQuery extends AbstractRunningQuery {
     private static final long serialVersionUID = 1L;
 
     private static ResponseObjectFactory responseObjectFactory;
+    private static CachedResultsStore store = null;
     private transient Connection connection = null;
     private transient CachedRowSet crs = null;
     private transient Statement statement = null;
+    private transient CachedResultsTable table = null;
+    private transient CachedResultsQuery storeQuery = null;
 
     private transient CacheableLogic cacheableLogic = null;
     private transient QueryLogic<?> queryLogic = null;
@@ -78,6 +87,12 @@ public class CachedRunningQuery extends AbstractRunningQuery {
     };
 
     private transient position currentRow = position.BEFORE_FIRST;
+    // the first and last row of the page last returned by next or previous
+    private transient int pageBegin = 0;
+    private transient int pageEnd = 0;
+    // where the row after each page fetched so far starts, by row number
+    private transient TreeMap<Integer,Bookmark> bookmarks = null;
+    private transient String bookmarkedSql = null;
     private static QueryLogicFactory queryFactory = null;
 
     // fields below are persisted
@@ -120,6 +135,7 @@ public class CachedRunningQuery extends AbstractRunningQuery {
     };
 
     private static final String DEFAULT_ORDER_BY = " ORDER BY _eventId_";
+    private static final int MAX_BOOKMARKS = 10000;
 
     private static String createCrqTable = "CREATE TABLE IF NOT EXISTS cachedResultsQuery (" + "queryId VARCHAR(100) NOT NULL," + "alias VARCHAR(100),"
                     + "lastUpdate TIMESTAMP," + "pagesize LONG," + "user VARCHAR(50) NOT NULL," + "view VARCHAR(200)," + "tableName VARCHAR(200),"
@@ -305,8 +321,8 @@ public class CachedRunningQuery extends AbstractRunningQuery {
     }
 
     public CachedRunningQuery(Connection connection, Query query, QueryLogic<?> queryLogic, String queryId, String alias, String user, String view,
-                    String fields, String conditions, String grouping, String order, int pagesize, Set<String> variableFields, Set<String> fixedFieldsInEvent,
-                    QueryMetricFactory metricFactory) throws SQLException {
+                    String tableName, String fields, String conditions, String grouping, String order, int pagesize, Set<String> variableFields,
+                    Set<String> fixedFieldsInEvent, QueryMetricFactory metricFactory) throws SQLException {
         super(metricFactory);
 
         this.variableFields.clear();
@@ -319,6 +335,7 @@ public class CachedRunningQuery extends AbstractRunningQuery {
             this.queryLogicName = queryLogic.getLogicName();
         }
         this.view = view;
+        this.tableName = tableName;
         this.fields = fields;
         this.conditions = conditions;
         this.grouping = grouping;
@@ -410,7 +427,7 @@ public class CachedRunningQuery extends AbstractRunningQuery {
             grouping = null;
 
         if (null == this.viewColumnNames)
-            this.viewColumnNames = this.getViewColumnNames(connection, view);
+            this.viewColumnNames = isStored() ? this.getStoredColumnNames() : this.getViewColumnNames(connection, view);
 
         if (!fields.equals("*")) {
             LinkedHashSet<String> fieldSet = new LinkedHashSet<>();
@@ -550,7 +567,7 @@ public class CachedRunningQuery extends AbstractRunningQuery {
     }
 
     public boolean isActivated() {
-        if (this.connection != null && this.statement != null && this.crs != null) {
+        if (this.connection != null && ((this.statement != null && this.crs != null) || this.table != null)) {
             return true;
         } else {
             return false;
@@ -574,6 +591,28 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         return columns;
     }
 
+    private List<String> getStoredColumnNames() throws SQLException {
+        List<String> columns = new ArrayList<>();
+        try (CachedResultsTable t = store.open(this.tableName)) {
+            Set<String> fixedColumns = CacheableQueryRow.getFixedColumnSet();
+            for (String column : t.getColumns()) {
+                if (fixedColumns.contains(column) == false) {
+                    columns.add(column);
+                }
+            }
+        } catch (IOException e) {
+            throw new SQLException("Unable to read the columns of " + this.tableName, e);
+        }
+        return columns;
+    }
+
+    /**
+     * @return true if the rows of this query were loaded into the {@link CachedResultsStore} rather than into a database table
+     */
+    public boolean isStored() {
+        return store != null && this.tableName != null && store.exists(this.tableName);
+    }
+
     public void activate(Connection connection, QueryLogic<?> queryLogic) throws SQLException {
 
         this.connection = connection;
@@ -594,7 +633,9 @@ public class CachedRunningQuery extends AbstractRunningQuery {
                 log.trace("activating CRS on host:" + host + ", " + this);
             }
 
-            this.statement = this.connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+            if (!isStored()) {
+                this.statement = this.connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+            }
             initialize();
         } catch (SQLException e) {
             log.error(e.getMessage(), e);
@@ -612,6 +653,28 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         this.sqlQuery = this.generateSql(this.view, this.fields, this.conditions, this.grouping, this.order, this.user, this.connection);
         this.getMetric().setQuery(sqlQuery);
 
+        // pages are fetched on demand by next, previous and getRows
+        this.currentRow = position.BEFORE_FIRST;
+        this.pageBegin = 0;
+        this.pageEnd = 0;
+        this.bookmarks = null;
+
+        if (isStored()) {
+            try {
+                if (this.table == null) {
+                    this.table = store.open(this.tableName);
+                }
+                this.storeQuery = createStoreQuery(this.table.getColumns());
+                this.totalRows = (int) this.table.count(this.storeQuery);
+            } catch (IOException | IllegalArgumentException e) {
+                throw new SQLException("Unable to query " + this.tableName + ": " + e.getMessage(), e);
+            }
+            if (log.isTraceEnabled()) {
+                log.trace("Setting totalRows to " + this.totalRows);
+            }
+            return;
+        }
+
         this.crs = RowSetProvider.newFactory().createCachedRowSet();
         this.crs.setCommand(this.sqlQuery);
 
@@ -635,10 +698,51 @@ public class CachedRunningQuery extends AbstractRunningQuery {
             log.trace("Setting maxRows to " + crs.getMaxRows());
             log.trace("Setting totalRows to " + this.totalRows);
         }
+    }
 
-        this.crs.execute(this.connection);
-        this.crs.beforeFirst();
-        this.currentRow = position.BEFORE_FIRST;
+    /**
+     * Build the query against the {@link CachedResultsStore} that matches the SQL of {@link #generateSql}: the fixed columns are always selected, the rows are
+     * limited to those of the user, and ungrouped rows are ordered by _eventId_ unless another order is requested. Fixed columns that are neither grouped nor
+     * aggregated are returned as their largest value in each group.
+     *
+     * @param columns
+     *            the columns of the table
+     * @return the query
+     * @throws IllegalArgumentException
+     *             if the fields, conditions, grouping or order use SQL that the store does not support
+     */
+    private CachedResultsQuery createStoreQuery(List<String> columns) {
+        CachedResultsQuery requested = CachedResultsQuery.parse(this.fields, this.conditions, this.grouping, this.order);
+        boolean aggregated = !requested.getGrouping().isEmpty();
+        Set<String> labels = new HashSet<>();
+        for (CachedResultsQuery.Field field : requested.getFields()) {
+            labels.add(field.getLabel());
+            aggregated |= field.getAggregate() != CachedResultsQuery.Aggregate.NONE;
+        }
+
+        CachedResultsQuery query = new CachedResultsQuery();
+        if (!requested.getFields().isEmpty()) {
+            boolean all = false;
+            for (String field : tokenizeOutsideParens(this.fields, ',')) {
+                all |= field.replace(BACKTICK, "").trim().equals("*");
+            }
+            for (String column : all ? columns : CacheableQueryRow.getFixedColumnSet()) {
+                if (!labels.contains(column)) {
+                    boolean grouped = !aggregated || requested.getGrouping().contains(column);
+                    CachedResultsQuery.Aggregate aggregate = grouped ? CachedResultsQuery.Aggregate.NONE : CachedResultsQuery.Aggregate.MAX;
+                    query.addField(new CachedResultsQuery.Field(column, aggregate, column));
+                }
+            }
+            requested.getFields().forEach(query::addField);
+        }
+        query.addCondition(new Condition("_user_", Condition.Operator.fromSymbol("="), this.user));
+        requested.getConditions().forEach(query::addCondition);
+        requested.getGrouping().forEach(query::addGrouping);
+        requested.getOrder().forEach(query::addOrder);
+        if (requested.getOrder().isEmpty() && !aggregated) {
+            query.addOrder(new CachedResultsQuery.Order("_eventId_", true));
+        }
+        return query;
     }
 
     public String getUser() {
@@ -665,71 +769,135 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         updateTimestamp();
         long pageStartTime = System.currentTimeMillis();
 
-        // We need to apply a default ORDER BY clause if one does not EXIST in the query
+        ResultsPage resultList = fetchRows(rowBegin, rowEnd, pageByteTrigger);
+
+        // Update the metric
+        long now = System.currentTimeMillis();
+        this.getMetric().addPageTime(resultList.getResults().size(), (now - pageStartTime), pageStartTime, now);
+        updateTimestamp();
+        return resultList;
+    }
+
+    /**
+     * Fetch rows rowBegin through rowEnd, letting the database skip to the first row rather than reading every preceding row. When the rows are in the
+     * default _eventId_ order, the query seeks from the nearest page boundary seen so far using a WHERE _eventId_ &gt;= ? clause, so paging forward or back
+     * costs the same regardless of depth. Otherwise, or for an arbitrary jump, the query falls back to LIMIT and OFFSET.
+     *
+     * @param rowBegin
+     *            the first row, starting at 1
+     * @param rowEnd
+     *            the last row
+     * @param pageByteTrigger
+     *            the page byte
+     * @return the page of results
+     * @throws SQLException
+     *             for issues with sql
+     */
+    private ResultsPage fetchRows(int rowBegin, int rowEnd, long pageByteTrigger) throws SQLException {
+        int pagesize = (rowEnd - rowBegin) + 1;
+        if (pagesize <= 0) {
+            return new ResultsPage();
+        }
+        if (this.table != null) {
+            try {
+                return convert(this.table.select(this.storeQuery, rowBegin - 1, pagesize), pageByteTrigger);
+            } catch (IOException | IllegalArgumentException e) {
+                throw new SQLException("Unable to read rows from " + this.tableName + ": " + e.getMessage(), e);
+            }
+        }
+
+        boolean keyset = isKeysetOrdered();
+        Map.Entry<Integer,Bookmark> bookmark = keyset ? getBookmarks().floorEntry(rowBegin) : null;
+
         StringBuilder query = new StringBuilder(this.sqlQuery);
+        int offset;
+        if (bookmark != null) {
+            query.append(" AND _eventId_ >= ?");
+            offset = bookmark.getValue().ties + (rowBegin - bookmark.getKey());
+        } else {
+            offset = rowBegin - 1;
+        }
+        // We need to apply a default ORDER BY clause if one does not EXIST in the query
         if (!this.sqlQuery.toUpperCase().contains(" ORDER BY ")) {
             query.append(DEFAULT_ORDER_BY);
         }
-
-        ResultsPage resultList;
-        int pagesize = (rowEnd - rowBegin) + 1;
+        query.append(" LIMIT ? OFFSET ?");
 
         try (PreparedStatement ps = connection.prepareStatement(query.toString()); CachedRowSet crs = RowSetProvider.newFactory().createCachedRowSet()) {
-            log.debug("Get Rows query: " + query);
+            if (log.isDebugEnabled()) {
+                log.debug("Get Rows query: " + query + ", from: " + (bookmark == null ? null : bookmark.getValue().eventId) + ", offset: " + offset);
+            }
 
+            int index = 1;
+            if (bookmark != null) {
+                ps.setString(index++, bookmark.getValue().eventId);
+            }
+            ps.setInt(index++, pagesize);
+            ps.setInt(index, offset);
             ps.setFetchSize(pagesize);
             crs.setPageSize(pagesize);
 
+            ResultsPage resultList;
             try (ResultSet rs = ps.executeQuery()) {
-                crs.populate(rs, rowBegin);
-                resultList = convert(crs, rowBegin, rowEnd, pageByteTrigger);
+                crs.populate(rs);
+                resultList = convert(crs, 1, pagesize, pageByteTrigger);
             }
 
-            // Update the metric
-            long now = System.currentTimeMillis();
-            this.getMetric().addPageTime(resultList.getResults().size(), (now - pageStartTime), pageStartTime, now);
-            updateTimestamp();
+            if (keyset) {
+                addBookmark(crs, rowBegin, resultList.getResults().size());
+            }
             return resultList;
         }
     }
 
-    private boolean nextPageOfResults() {
+    /**
+     * @return true if the rows are ordered by _eventId_ only, so that a page can be found by seeking to an _eventId_
+     */
+    private boolean isKeysetOrdered() {
+        return StringUtils.isBlank(this.grouping) && !this.sqlQuery.toUpperCase().contains(" ORDER BY ") && this.sqlQuery.toUpperCase().contains(" WHERE ");
+    }
 
-        boolean hasRows = false;
-        if (this.totalRows > 0) {
-            if (currentRow == position.BEFORE_FIRST) {
-                // if we are at position.BEFORE_FIRST and rows exist, the the crs will already contain the first page
-                hasRows = true;
-            } else {
-                try {
-                    if (crs.nextPage()) {
-                        crs.last();
-                        hasRows = crs.getRow() > 0;
-                        crs.beforeFirst();
-                    }
-                } catch (SQLException e) {
-                    log.error(e.getMessage(), e);
-                }
-            }
+    private TreeMap<Integer,Bookmark> getBookmarks() {
+        // bookmarks are only valid for the query that they were taken from
+        if (this.bookmarks == null || !this.sqlQuery.equals(this.bookmarkedSql)) {
+            this.bookmarks = new TreeMap<>();
+            this.bookmarkedSql = this.sqlQuery;
         }
-        return hasRows;
+        return this.bookmarks;
     }
 
-    private boolean previousPageOfResults() {
-
-        boolean hasRows = false;
-        if (this.totalRows > 0) {
-            try {
-                if (crs.previousPage()) {
-                    crs.last();
-                    hasRows = crs.getRow() > 0;
-                    crs.beforeFirst();
+    /**
+     * Remember where the row after a page starts. Rows sharing the last _eventId_ of the page are counted so that they can be skipped when seeking to that
+     * _eventId_. If that run of rows reaches back to the start of the page it may have started on an earlier page, so no bookmark is taken.
+     *
+     * @param crs
+     *            the rows of the page
+     * @param rowBegin
+     *            the row number of the first row of the page
+     * @param numRows
+     *            the number of rows returned from the page
+     * @throws SQLException
+     *             for issues with sql
+     */
+    private void addBookmark(CachedRowSet crs, int rowBegin, int numRows) throws SQLException {
+        if (numRows == 0) {
+            return;
+        }
+        crs.absolute(numRows);
+        String lastEventId = crs.getString("_eventId_");
+        int ties = 1;
+        for (int row = numRows - 1; row > 0; row--) {
+            crs.absolute(row);
+            if (!lastEventId.equals(crs.getString("_eventId_"))) {
+                TreeMap<Integer,Bookmark> marks = getBookmarks();
+                marks.put(rowBegin + numRows, new Bookmark(lastEventId, ties));
+                if (marks.size() > MAX_BOOKMARKS) {
+                    marks.pollFirstEntry();
                 }
-            } catch (SQLException e) {
-                log.error(e.getMessage(), e);
+                return;
             }
+            ties++;
         }
-        return hasRows;
     }
 
     /**
@@ -750,19 +918,24 @@ public class CachedRunningQuery extends AbstractRunningQuery {
 
         if (currentRow == position.BEFORE_FIRST) {
             this.lastPageNumber = 0;
+            this.pageEnd = 0;
         }
 
         ResultsPage resultList = new ResultsPage();
-        if (nextPageOfResults()) {
-            resultList = convert(this.crs, pageByteTrigger);
+        if (this.totalRows > 0 && currentRow != position.AFTER_LAST) {
+            resultList = fetchRows(this.pageEnd + 1, this.pageEnd + this.pagesize, pageByteTrigger);
         }
 
         if (!resultList.getResults().isEmpty()) {
             currentRow = position.MIDDLE;
             this.lastPageNumber++;
+            this.pageBegin = this.pageEnd + 1;
+            this.pageEnd += resultList.getResults().size();
         } else {
             currentRow = position.AFTER_LAST;
             this.lastPageNumber = ((int) Math.ceil((float) this.totalRows / (float) this.pagesize)) + 1;
+            this.pageBegin = this.totalRows + 1;
+            this.pageEnd = this.totalRows;
         }
 
         // Update the metric
@@ -794,16 +967,21 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         }
 
         ResultsPage resultList = new ResultsPage();
-        if (previousPageOfResults()) {
-            resultList = convert(this.crs, pageByteTrigger);
+        int rowBegin = Math.max(1, this.pageBegin - this.pagesize);
+        if (this.totalRows > 0 && currentRow != position.BEFORE_FIRST && this.pageBegin > 1) {
+            resultList = fetchRows(rowBegin, this.pageBegin - 1, pageByteTrigger);
         }
 
         if (!resultList.getResults().isEmpty()) {
             currentRow = position.MIDDLE;
             this.lastPageNumber--;
+            this.pageBegin = rowBegin;
+            this.pageEnd = rowBegin + resultList.getResults().size() - 1;
         } else {
             currentRow = position.BEFORE_FIRST;
             this.lastPageNumber = 0;
+            this.pageBegin = 1;
+            this.pageEnd = 0;
         }
 
         // Update the metric
@@ -819,22 +997,14 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         return this.lastPageNumber;
     }
 
-    /**
-     * Convert the cached row set into a result list.
-     *
-     * @param cachedRowSet
-     *            the row set
-     * @param pageByteTrigger
-     *            the page byte
-     * @return ResultsPage
-     */
-    private ResultsPage convert(CachedRowSet cachedRowSet, long pageByteTrigger) {
+    private ResultsPage convert(CachedRowSet cachedRowSet, Integer rowBegin, Integer rowEnd, long pageByteTrigger) {
         boolean hitPageByteTrigger = false;
         List<Object> results = new ArrayList<>();
         try {
-            cachedRowSet.beforeFirst();
             long resultBytes = 0;
-            while (cachedRowSet.next() && !hitPageByteTrigger) {
+            while (cachedRowSet.next() && cachedRowSet.getRow() <= rowEnd && !hitPageByteTrigger) {
+                if (log.isTraceEnabled())
+                    log.trace("CRS.position: " + cachedRowSet.getRow() + ", size: " + cachedRowSet.size());
                 CacheableQueryRow row = CacheableQueryRowReader.createRow(cachedRowSet, this.fixedFieldsInEvent, this.responseObjectFactory,
                                 queryLogic.getMarkingFunctions());
                 results.add(this.cacheableLogic.readFromCache(row));
@@ -845,6 +1015,7 @@ public class CachedRunningQuery extends AbstractRunningQuery {
                     }
                 }
             }
+
         } catch (SQLException | RuntimeException e) {
             log.error(e.getMessage(), e);
         }
@@ -856,15 +1027,20 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         }
     }
 
-    private ResultsPage convert(CachedRowSet cachedRowSet, Integer rowBegin, Integer rowEnd, long pageByteTrigger) {
+    /**
+     * Convert rows read from the {@link CachedResultsStore}
+     */
+    private ResultsPage convert(List<Map<String,String>> rows, long pageByteTrigger) {
         boolean hitPageByteTrigger = false;
         List<Object> results = new ArrayList<>();
         try {
             long resultBytes = 0;
-            while (cachedRowSet.next() && cachedRowSet.getRow() <= rowEnd && !hitPageByteTrigger) {
-                if (log.isTraceEnabled())
-                    log.trace("CRS.position: " + cachedRowSet.getRow() + ", size: " + cachedRowSet.size());
-                CacheableQueryRow row = CacheableQueryRowReader.createRow(cachedRowSet, this.fixedFieldsInEvent, this.responseObjectFactory,
+            List<String> columns = this.table.getColumns();
+            for (Map<String,String> values : rows) {
+                if (hitPageByteTrigger) {
+                    break;
+                }
+                CacheableQueryRow row = CacheableQueryRowReader.createRow(values, columns, this.fixedFieldsInEvent, responseObjectFactory,
                                 queryLogic.getMarkingFunctions());
                 results.add(this.cacheableLogic.readFromCache(row));
                 if (pageByteTrigger != 0) {
@@ -874,8 +1050,7 @@ public class CachedRunningQuery extends AbstractRunningQuery {
                     }
                 }
             }
-
-        } catch (SQLException | RuntimeException e) {
+        } catch (RuntimeException e) {
             log.error(e.getMessage(), e);
         }
 
@@ -890,6 +1065,8 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         this.connection = null;
         this.statement = null;
         this.crs = null;
+        this.table = null;
+        this.storeQuery = null;
     }
 
     public Connection getConnection() {
@@ -1370,6 +1547,18 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         CachedRunningQuery.responseObjectFactory = responseObjectFactory;
     }
 
+    /**
+     * @param store
+     *            the store that cached results are loaded into, or null to load them into database tables
+     */
+    public static void setStore(CachedResultsStore store) {
+        CachedRunningQuery.store = store;
+    }
+
+    public static CachedResultsStore getStore() {
+        return store;
+    }
+
     public boolean getShouldAutoActivate() {
         return this.shouldAutoActivate;
     }
@@ -1383,8 +1572,28 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         Connection connection = getConnection();
         Statement statement = getStatement();
         CachedRowSet crs = getCrs();
+        CachedResultsTable table = this.table;
         resetConnection();
         DbUtils.closeQuietly(connection, statement, crs);
+        if (table != null) {
+            try {
+                table.close();
+            } catch (IOException e) {
+                log.warn("Unable to close " + getTableName(), e);
+            }
+        }
     }
 
+    /**
+     * The row after a page is the (ties + 1)th row with an _eventId_ of at least eventId
+     */
+    private static class Bookmark {
+        private final String eventId;
+        private final int ties;
+
+        Bookmark(String eventId, int ties) {
+            this.eventId = eventId;
+            this.ties = ties;
+        }
+    }
 }
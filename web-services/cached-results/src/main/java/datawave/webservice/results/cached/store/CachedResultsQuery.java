@@ -0,0 +1,237 @@
+package datawave.webservice.results.cached.store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringUtils;
+
+import datawave.webservice.results.cached.CachedRunningQuery;
+
+/**
+ * The fields, conditions, grouping and order of a query against a {@link CachedResultsTable}. This covers the subset of SQL that users send as the fields,
+ * conditions, grouping and order parameters of a cached results query: plain columns and the COUNT, MIN and MAX aggregates, optionally with an alias, and
+ * conditions that are a conjunction of comparisons between a column and a constant.
+ */
+public class CachedResultsQuery {
+
+    public enum Aggregate {
+        NONE, COUNT, MIN, MAX
+    }
+
+    private static final Pattern ALIAS = Pattern.compile("(?i)^(.+?)\\s+AS\\s+(\\S+)$");
+    private static final Pattern AGGREGATE = Pattern.compile("(?i)^(COUNT|MIN|MAX)\\s*\\(\\s*(\\*|[^()]+?)\\s*\\)$");
+    private static final Pattern COMPARISON = Pattern.compile("(?i)^([^\\s<>=!]+)\\s*(<=|>=|<>|!=|=|<|>|NOT\\s+LIKE\\s|LIKE\\s)\\s*(.+?)$");
+
+    private final List<Field> fields = new ArrayList<>();
+    private final List<Condition> conditions = new ArrayList<>();
+    private final List<String> grouping = new ArrayList<>();
+    private final List<Order> order = new ArrayList<>();
+
+    /**
+     * Parse the parameters of a cached results query
+     *
+     * @param fields
+     *            the comma separated fields, or null or * for all columns
+     * @param conditions
+     *            comparisons joined by AND, or null
+     * @param grouping
+     *            the comma separated grouping columns, or null
+     * @param order
+     *            the comma separated order columns, each optionally followed by ASC or DESC, or null
+     * @return the query
+     * @throws IllegalArgumentException
+     *             if a parameter uses SQL that is not supported
+     */
+    public static CachedResultsQuery parse(String fields, String conditions, String grouping, String order) {
+        CachedResultsQuery query = new CachedResultsQuery();
+        if (StringUtils.isNotBlank(fields)) {
+            for (String field : CachedRunningQuery.tokenizeOutsideParens(fields, ',')) {
+                field = unquote(field);
+                if (!field.equals("*")) {
+                    query.addField(Field.parse(field));
+                }
+            }
+        }
+        if (StringUtils.isNotBlank(conditions)) {
+            for (String comparison : splitConjunction(conditions)) {
+                Matcher matcher = COMPARISON.matcher(comparison.trim());
+                if (!matcher.matches()) {
+                    throw new IllegalArgumentException("Unsupported condition " + comparison);
+                }
+                query.addCondition(new Condition(unquote(matcher.group(1)), Condition.Operator.fromSymbol(matcher.group(2)), literal(matcher.group(3))));
+            }
+        }
+        if (StringUtils.isNotBlank(grouping)) {
+            for (String column : grouping.split(",")) {
+                query.addGrouping(unquote(column));
+            }
+        }
+        if (StringUtils.isNotBlank(order)) {
+            for (String column : CachedRunningQuery.tokenizeOutsideParens(order, ',')) {
+                column = unquote(column);
+                boolean ascending = true;
+                String upper = column.toUpperCase();
+                if (upper.endsWith(" DESC")) {
+                    ascending = false;
+                    column = column.substring(0, column.length() - 5).trim();
+                } else if (upper.endsWith(" ASC")) {
+                    column = column.substring(0, column.length() - 4).trim();
+                }
+                query.addOrder(new Order(column, ascending));
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Split conditions on the AND keyword outside of quoted strings
+     */
+    private static List<String> splitConjunction(String conditions) {
+        List<String> comparisons = new ArrayList<>();
+        int start = 0;
+        boolean quoted = false;
+        for (int i = 0; i < conditions.length(); i++) {
+            char c = conditions.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && (c == '(' || c == ')')) {
+                throw new IllegalArgumentException("Unsupported condition " + conditions);
+            } else if (!quoted && conditions.regionMatches(true, i, " AND ", 0, 5)) {
+                comparisons.add(conditions.substring(start, i));
+                start = i + 5;
+                i += 4;
+            } else if (!quoted && conditions.regionMatches(true, i, " OR ", 0, 4)) {
+                throw new IllegalArgumentException("Unsupported condition " + conditions);
+            }
+        }
+        comparisons.add(conditions.substring(start));
+        return comparisons;
+    }
+
+    private static String unquote(String column) {
+        return column.replace("`", "").trim();
+    }
+
+    private static String literal(String value) {
+        value = value.trim();
+        if (value.length() >= 2 && value.startsWith("'") && value.endsWith("'")) {
+            return value.substring(1, value.length() - 1).replace("''", "'");
+        }
+        return value;
+    }
+
+    public CachedResultsQuery addField(Field field) {
+        fields.add(field);
+        return this;
+    }
+
+    public CachedResultsQuery addCondition(Condition condition) {
+        conditions.add(condition);
+        return this;
+    }
+
+    public CachedResultsQuery addGrouping(String column) {
+        grouping.add(column);
+        return this;
+    }
+
+    public CachedResultsQuery addOrder(Order order) {
+        this.order.add(order);
+        return this;
+    }
+
+    /**
+     * @return the selected fields, empty to select all columns
+     */
+    public List<Field> getFields() {
+        return fields;
+    }
+
+    public List<Condition> getConditions() {
+        return conditions;
+    }
+
+    public List<String> getGrouping() {
+        return grouping;
+    }
+
+    public List<Order> getOrder() {
+        return order;
+    }
+
+    /**
+     * A selected column or aggregate of a column
+     */
+    public static class Field {
+        private final String label;
+        private final Aggregate aggregate;
+        private final String column;
+
+        /**
+         * @param label
+         *            the name of the field in the results
+         * @param aggregate
+         *            the aggregate, or NONE for a plain column
+         * @param column
+         *            the column, or null for COUNT(*)
+         */
+        public Field(String label, Aggregate aggregate, String column) {
+            this.label = label;
+            this.aggregate = aggregate;
+            this.column = column;
+        }
+
+        public static Field parse(String field) {
+            String label = null;
+            Matcher alias = ALIAS.matcher(field);
+            if (alias.matches()) {
+                field = alias.group(1).trim();
+                label = alias.group(2);
+            }
+            Matcher aggregate = AGGREGATE.matcher(field);
+            if (aggregate.matches()) {
+                String column = aggregate.group(2).equals("*") ? null : unquote(aggregate.group(2));
+                return new Field(label == null ? field : label, Aggregate.valueOf(aggregate.group(1).toUpperCase()), column);
+            }
+            if (field.indexOf('(') >= 0) {
+                throw new IllegalArgumentException("Unsupported field " + field);
+            }
+            return new Field(label == null ? field : label, Aggregate.NONE, field);
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public Aggregate getAggregate() {
+            return aggregate;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+    }
+
+    /**
+     * A column, or the label of a selected field, to order by
+     */
+    public static class Order {
+        private final String column;
+        private final boolean ascending;
+
+        public Order(String column, boolean ascending) {
+            this.column = column;
+            this.ascending = ascending;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public boolean isAscending() {
+            return ascending;
+        }
+    }
+}
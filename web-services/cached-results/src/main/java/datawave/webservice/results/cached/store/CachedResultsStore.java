@@ -0,0 +1,56 @@
+package datawave.webservice.results.cached.store;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Storage for the rows of cached results. The rows of a query are written once into a table and then read back a page at a time, filtered, grouped and
+ * ordered as requested by the user.
+ */
+public interface CachedResultsStore {
+
+    /**
+     * Create a table, replacing any existing table of the same name
+     *
+     * @param tableName
+     *            the table name
+     * @param columns
+     *            the column names
+     * @return a writer for the rows of the table, which must be closed before the table is opened
+     * @throws IOException
+     *             if the table can not be created
+     */
+    CachedResultsWriter create(String tableName, List<String> columns) throws IOException;
+
+    /**
+     * @param tableName
+     *            the table name
+     * @return the table
+     * @throws IOException
+     *             if the table does not exist or can not be read
+     */
+    CachedResultsTable open(String tableName) throws IOException;
+
+    boolean exists(String tableName);
+
+    /**
+     * Remove a table and all of its rows
+     *
+     * @param tableName
+     *            the table name
+     * @throws IOException
+     *             if the table can not be removed
+     */
+    void drop(String tableName) throws IOException;
+
+    /**
+     * Remove the tables created before a time, including any whose rows were never completely written
+     *
+     * @param time
+     *            the time in milliseconds since the epoch
+     * @return the names of the removed tables
+     * @throws IOException
+     *             if a table can not be removed
+     */
+    List<String> dropCreatedBefore(long time) throws IOException;
+}
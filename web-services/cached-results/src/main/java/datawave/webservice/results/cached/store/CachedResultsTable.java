@@ -0,0 +1,38 @@
+package datawave.webservice.results.cached.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cached results table that can be queried a page at a time
+ */
+public interface CachedResultsTable extends Closeable {
+
+    List<String> getColumns();
+
+    long getNumRows();
+
+    /**
+     * @param query
+     *            the query
+     * @return the number of rows, or groups when grouping, returned by the query
+     * @throws IOException
+     *             if the table can not be read
+     */
+    long count(CachedResultsQuery query) throws IOException;
+
+    /**
+     * @param query
+     *            the query
+     * @param offset
+     *            the number of rows to skip
+     * @param limit
+     *            the maximum number of rows to return
+     * @return the rows, each a map from the selected field name to its value
+     * @throws IOException
+     *             if the table can not be read
+     */
+    List<Map<String,String>> select(CachedResultsQuery query, long offset, int limit) throws IOException;
+}
@@ -0,0 +1,33 @@
+package datawave.webservice.results.cached.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Appends rows to a cached results table. The rows are not visible until the writer is closed.
+ */
+public interface CachedResultsWriter extends Closeable {
+
+    /**
+     * @param values
+     *            the value of each column, in the order of the columns of the table, null where a row has no value
+     * @throws IOException
+     *             if the row can not be written
+     */
+    void addRow(List<String> values) throws IOException;
+
+    /**
+     * Add a column after the existing columns. The rows already written have no value for it.
+     *
+     * @param column
+     *            the column name
+     * @throws IOException
+     *             if the column can not be added
+     */
+    void addColumn(String column) throws IOException;
+
+    List<String> getColumns();
+
+    long getNumRows();
+}
@@ -0,0 +1,110 @@
+package datawave.webservice.results.cached.store;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Where the columns of a chunk are stored and the zone map of each column: its smallest and largest values, which let a scan skip chunks that can not match.
+ * Columns whose values are too long to keep in the zone map are never skipped.
+ */
+class ChunkMeta {
+
+    // zone map states
+    private static final byte ALL_NULL = 0;
+    private static final byte MIN_MAX = 1;
+    private static final byte UNKNOWN = 2;
+
+    static final int MAX_ZONE_VALUE_LENGTH = 256;
+
+    final int numRows;
+    long[] offsets;
+    int[] lengths;
+    byte[] zones;
+    String[] min;
+    String[] max;
+
+    ChunkMeta(int numRows, int numColumns) {
+        this.numRows = numRows;
+        this.offsets = new long[numColumns];
+        this.lengths = new int[numColumns];
+        this.zones = new byte[numColumns];
+        this.min = new String[numColumns];
+        this.max = new String[numColumns];
+    }
+
+    void setColumn(int column, long offset, int length, ColumnChunk chunk) {
+        offsets[column] = offset;
+        lengths[column] = length;
+        String smallest = chunk.min();
+        String largest = chunk.max();
+        if (smallest == null) {
+            zones[column] = ALL_NULL;
+        } else if (smallest.length() <= MAX_ZONE_VALUE_LENGTH && largest.length() <= MAX_ZONE_VALUE_LENGTH) {
+            zones[column] = MIN_MAX;
+            min[column] = smallest;
+            max[column] = largest;
+        } else {
+            zones[column] = UNKNOWN;
+        }
+    }
+
+    /**
+     * Add a column after the existing columns of the chunk
+     */
+    void addColumn(long offset, int length, ColumnChunk chunk) {
+        int column = offsets.length;
+        offsets = Arrays.copyOf(offsets, column + 1);
+        lengths = Arrays.copyOf(lengths, column + 1);
+        zones = Arrays.copyOf(zones, column + 1);
+        min = Arrays.copyOf(min, column + 1);
+        max = Arrays.copyOf(max, column + 1);
+        setColumn(column, offset, length, chunk);
+    }
+
+    /**
+     * @param column
+     *            the column of the condition
+     * @param condition
+     *            the condition
+     * @return false if no row of this chunk can match the condition
+     */
+    boolean mayMatch(int column, Condition condition) {
+        switch (zones[column]) {
+            case ALL_NULL:
+                return false;
+            case MIN_MAX:
+                return condition.mayMatch(min[column], max[column]);
+            default:
+                return true;
+        }
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(numRows);
+        for (int i = 0; i < offsets.length; i++) {
+            out.writeLong(offsets[i]);
+            out.writeInt(lengths[i]);
+            out.writeByte(zones[i]);
+            if (zones[i] == MIN_MAX) {
+                out.writeUTF(min[i]);
+                out.writeUTF(max[i]);
+            }
+        }
+    }
+
+    static ChunkMeta read(DataInputStream in, int numColumns) throws IOException {
+        ChunkMeta meta = new ChunkMeta(in.readInt(), numColumns);
+        for (int i = 0; i < numColumns; i++) {
+            meta.offsets[i] = in.readLong();
+            meta.lengths[i] = in.readInt();
+            meta.zones[i] = in.readByte();
+            if (meta.zones[i] == MIN_MAX) {
+                meta.min[i] = in.readUTF();
+                meta.max[i] = in.readUTF();
+            }
+        }
+        return meta;
+    }
+}
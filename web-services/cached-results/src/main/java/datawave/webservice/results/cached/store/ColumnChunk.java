@@ -0,0 +1,127 @@
+package datawave.webservice.results.cached.store;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The values of one column for a run of rows, dictionary encoded. The dictionary holds the distinct values in {@link ValueComparator} order, so its first and
+ * last entries are the smallest and largest values of the chunk, and each row holds the index of its value in the dictionary. Serialized chunks are deflated
+ * and use the narrowest integer width that fits the dictionary.
+ */
+class ColumnChunk {
+
+    static final int NULL = -1;
+
+    final String[] dictionary;
+    final int[] codes;
+
+    ColumnChunk(String[] dictionary, int[] codes) {
+        this.dictionary = dictionary;
+        this.codes = codes;
+    }
+
+    static ColumnChunk encode(List<String> values) {
+        Map<String,Integer> ids = new HashMap<>();
+        for (String value : values) {
+            if (value != null) {
+                ids.put(value, NULL);
+            }
+        }
+        String[] dictionary = ids.keySet().toArray(new String[0]);
+        Arrays.sort(dictionary, ValueComparator.INSTANCE);
+        for (int i = 0; i < dictionary.length; i++) {
+            ids.put(dictionary[i], i);
+        }
+        int[] codes = new int[values.size()];
+        for (int i = 0; i < codes.length; i++) {
+            String value = values.get(i);
+            codes[i] = (value == null) ? NULL : ids.get(value);
+        }
+        return new ColumnChunk(dictionary, codes);
+    }
+
+    int size() {
+        return codes.length;
+    }
+
+    String get(int row) {
+        int code = codes[row];
+        return (code == NULL) ? null : dictionary[code];
+    }
+
+    String min() {
+        return (dictionary.length == 0) ? null : dictionary[0];
+    }
+
+    String max() {
+        return (dictionary.length == 0) ? null : dictionary[dictionary.length - 1];
+    }
+
+    byte[] toBytes() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeInt(dictionary.length);
+            for (String value : dictionary) {
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(utf8.length);
+                out.write(utf8);
+            }
+            out.writeInt(codes.length);
+            int width = width(dictionary.length);
+            for (int code : codes) {
+                // shift by one so that null is stored as zero
+                int stored = code + 1;
+                if (width == 1) {
+                    out.writeByte(stored);
+                } else if (width == 2) {
+                    out.writeShort(stored);
+                } else {
+                    out.writeInt(stored);
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    static ColumnChunk fromBytes(byte[] bytes) throws IOException {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes)))) {
+            String[] dictionary = new String[in.readInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                byte[] utf8 = new byte[in.readInt()];
+                in.readFully(utf8);
+                dictionary[i] = new String(utf8, StandardCharsets.UTF_8);
+            }
+            int[] codes = new int[in.readInt()];
+            int width = width(dictionary.length);
+            for (int i = 0; i < codes.length; i++) {
+                if (width == 1) {
+                    codes[i] = in.readUnsignedByte() - 1;
+                } else if (width == 2) {
+                    codes[i] = in.readUnsignedShort() - 1;
+                } else {
+                    codes[i] = in.readInt() - 1;
+                }
+            }
+            return new ColumnChunk(dictionary, codes);
+        }
+    }
+
+    private static int width(int dictionarySize) {
+        if (dictionarySize < 0xFF) {
+            return 1;
+        } else if (dictionarySize < 0xFFFF) {
+            return 2;
+        }
+        return 4;
+    }
+}
@@ -0,0 +1,97 @@
+package datawave.webservice.results.cached.store;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import datawave.core.query.cachedresults.CachedResultsQueryParameters;
+
+/**
+ * Keeps cached results in local columnar files rather than in a database table per query. Each table is a directory holding one file per column and a
+ * metadata file. Columns are split into chunks of rows, each dictionary encoded and compressed, with a zone map of the smallest and largest value of every
+ * column of every chunk. Queries only decode the columns they use, skip chunks whose zone maps rule out the conditions, and evaluate each condition once per
+ * distinct value of a chunk rather than once per row.
+ */
+public class ColumnarCachedResultsStore implements CachedResultsStore {
+    private static final Logger log = Logger.getLogger(ColumnarCachedResultsStore.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 65536;
+
+    private final File root;
+    private final int chunkSize;
+
+    public ColumnarCachedResultsStore(File root) {
+        this(root, DEFAULT_CHUNK_SIZE);
+    }
+
+    public ColumnarCachedResultsStore(File root, int chunkSize) {
+        this.root = root;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public CachedResultsWriter create(String tableName, List<String> columns) throws IOException {
+        drop(tableName);
+        File dir = getDirectory(tableName);
+        if (!dir.mkdirs()) {
+            throw new IOException("Unable to create " + dir);
+        }
+        return new ColumnarTableWriter(dir, columns, chunkSize);
+    }
+
+    @Override
+    public CachedResultsTable open(String tableName) throws IOException {
+        if (!exists(tableName)) {
+            throw new FileNotFoundException("No cached results table " + tableName);
+        }
+        return new ColumnarTable(getDirectory(tableName));
+    }
+
+    @Override
+    public boolean exists(String tableName) {
+        return ColumnarTable.metaFile(getDirectory(tableName)).isFile();
+    }
+
+    @Override
+    public void drop(String tableName) throws IOException {
+        File dir = getDirectory(tableName);
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    throw new IOException("Unable to delete " + file);
+                }
+            }
+        }
+        if (dir.exists() && !dir.delete()) {
+            throw new IOException("Unable to delete " + dir);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Dropped cached results table " + dir);
+        }
+    }
+
+    @Override
+    public List<String> dropCreatedBefore(long time) throws IOException {
+        List<String> dropped = new ArrayList<>();
+        File[] dirs = root.listFiles(File::isDirectory);
+        if (dirs != null) {
+            for (File dir : dirs) {
+                // the directory is last modified when the writer adds a column or the metadata
+                if (dir.lastModified() < time) {
+                    drop(dir.getName());
+                    dropped.add(dir.getName());
+                }
+            }
+        }
+        return dropped;
+    }
+
+    private File getDirectory(String tableName) {
+        return new File(root, CachedResultsQueryParameters.validate(tableName));
+    }
+}
@@ -0,0 +1,492 @@
+package datawave.webservice.results.cached.store;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import datawave.webservice.results.cached.store.CachedResultsQuery.Aggregate;
+import datawave.webservice.results.cached.store.CachedResultsQuery.Field;
+import datawave.webservice.results.cached.store.CachedResultsQuery.Order;
+
+/**
+ * Reads a table written by {@link ColumnarTableWriter}. Queries are evaluated a chunk at a time: the zone maps are checked first, then each condition is
+ * evaluated against the dictionary of its column and applied to the rows of the chunk through their dictionary codes. Only the columns needed by the
+ * conditions, grouping, order and selected fields are decoded.
+ */
+class ColumnarTable implements CachedResultsTable {
+
+    static final int VERSION = 1;
+
+    private static final String META = "meta";
+    private static final String COLUMN_PREFIX = "column-";
+
+    private final File dir;
+    private final List<String> columns = new ArrayList<>();
+    private final Map<String,Integer> columnIndex = new HashMap<>();
+    private final long numRows;
+    private final List<ChunkMeta> chunks = new ArrayList<>();
+    private final RandomAccessFile[] files;
+
+    static File metaFile(File dir) {
+        return new File(dir, META);
+    }
+
+    static File columnFile(File dir, int column) {
+        return new File(dir, COLUMN_PREFIX + column);
+    }
+
+    ColumnarTable(File dir) throws IOException {
+        this.dir = dir;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(metaFile(dir))))) {
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported cached results table version " + version + " in " + dir);
+            }
+            int numColumns = in.readInt();
+            for (int i = 0; i < numColumns; i++) {
+                String column = in.readUTF();
+                columns.add(column);
+                columnIndex.put(column, i);
+            }
+            this.numRows = in.readLong();
+            int numChunks = in.readInt();
+            for (int i = 0; i < numChunks; i++) {
+                chunks.add(ChunkMeta.read(in, numColumns));
+            }
+        }
+        this.files = new RandomAccessFile[columns.size()];
+    }
+
+    @Override
+    public List<String> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    @Override
+    public long getNumRows() {
+        return numRows;
+    }
+
+    @Override
+    public long count(CachedResultsQuery query) throws IOException {
+        if (isAggregate(query)) {
+            return aggregate(query).size();
+        }
+        long count = 0;
+        for (int chunk = 0; chunk < chunks.size(); chunk++) {
+            BitSet selected = filter(chunk, query.getConditions(), new HashMap<>());
+            if (selected != null) {
+                count += selected.cardinality();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public List<Map<String,String>> select(CachedResultsQuery query, long offset, int limit) throws IOException {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        if (isAggregate(query)) {
+            List<Map<String,String>> groups = aggregate(query);
+            int from = (int) Math.min(offset, groups.size());
+            int to = (int) Math.min(offset + limit, groups.size());
+            return new ArrayList<>(groups.subList(from, to));
+        }
+        List<Field> fields = query.getFields();
+        if (fields.isEmpty()) {
+            fields = new ArrayList<>();
+            for (String column : columns) {
+                fields.add(new Field(column, Aggregate.NONE, column));
+            }
+        }
+        if (query.getOrder().isEmpty()) {
+            return scan(query, fields, offset, limit);
+        }
+        return sort(query, fields, offset, limit);
+    }
+
+    private static boolean isAggregate(CachedResultsQuery query) {
+        if (!query.getGrouping().isEmpty()) {
+            return true;
+        }
+        for (Field field : query.getFields()) {
+            if (field.getAggregate() != Aggregate.NONE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return the matching rows in the order that they were written
+     */
+    private List<Map<String,String>> scan(CachedResultsQuery query, List<Field> fields, long offset, int limit) throws IOException {
+        List<Map<String,String>> rows = new ArrayList<>();
+        long skip = offset;
+        for (int chunk = 0; chunk < chunks.size(); chunk++) {
+            Map<Integer,ColumnChunk> loaded = new HashMap<>();
+            BitSet selected = filter(chunk, query.getConditions(), loaded);
+            if (selected == null) {
+                continue;
+            }
+            int matches = selected.cardinality();
+            if (skip >= matches) {
+                skip -= matches;
+                continue;
+            }
+            for (int row = selected.nextSetBit(0); row >= 0; row = selected.nextSetBit(row + 1)) {
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                rows.add(materialize(chunk, row, fields, loaded));
+                if (rows.size() >= limit) {
+                    return rows;
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Return the matching rows in the requested order, keeping only the first offset + limit rows while scanning
+     */
+    private List<Map<String,String>> sort(CachedResultsQuery query, List<Field> fields, long offset, int limit) throws IOException {
+        List<Order> order = query.getOrder();
+        int[] orderColumns = new int[order.size()];
+        boolean[] ascending = new boolean[order.size()];
+        for (int i = 0; i < orderColumns.length; i++) {
+            orderColumns[i] = column(resolve(order.get(i).getColumn(), fields));
+            ascending[i] = order.get(i).isAscending();
+        }
+        Comparator<Candidate> comparator = (a, b) -> {
+            for (int i = 0; i < ascending.length; i++) {
+                int comparison = ValueComparator.compareKeys(a.keys[i], b.keys[i]);
+                if (comparison != 0) {
+                    return ascending[i] ? comparison : -comparison;
+                }
+            }
+            return Long.compare(a.position, b.position);
+        };
+
+        long wanted = Math.min(offset + limit, Integer.MAX_VALUE);
+        PriorityQueue<Candidate> best = new PriorityQueue<>(11, comparator.reversed());
+        for (int chunk = 0; chunk < chunks.size(); chunk++) {
+            Map<Integer,ColumnChunk> loaded = new HashMap<>();
+            BitSet selected = filter(chunk, query.getConditions(), loaded);
+            if (selected == null) {
+                continue;
+            }
+            ColumnChunk[] values = new ColumnChunk[orderColumns.length];
+            Object[][] keys = new Object[orderColumns.length][];
+            for (int i = 0; i < orderColumns.length; i++) {
+                values[i] = load(chunk, orderColumns[i], loaded);
+                keys[i] = new Object[values[i].dictionary.length];
+                for (int code = 0; code < keys[i].length; code++) {
+                    keys[i][code] = ValueComparator.key(values[i].dictionary[code]);
+                }
+            }
+            for (int row = selected.nextSetBit(0); row >= 0; row = selected.nextSetBit(row + 1)) {
+                Object[] rowKeys = new Object[orderColumns.length];
+                for (int i = 0; i < orderColumns.length; i++) {
+                    int code = values[i].codes[row];
+                    rowKeys[i] = (code == ColumnChunk.NULL) ? null : keys[i][code];
+                }
+                Candidate candidate = new Candidate(((long) chunk << 32) | row, rowKeys);
+                if (best.size() < wanted) {
+                    best.add(candidate);
+                } else if (comparator.compare(candidate, best.peek()) < 0) {
+                    best.poll();
+                    best.add(candidate);
+                }
+            }
+        }
+
+        List<Candidate> sorted = new ArrayList<>(best);
+        sorted.sort(comparator);
+        List<Map<String,String>> rows = new ArrayList<>();
+        Map<Integer,Map<Integer,ColumnChunk>> loadedByChunk = new HashMap<>();
+        for (int i = (int) Math.min(offset, sorted.size()); i < sorted.size(); i++) {
+            int chunk = (int) (sorted.get(i).position >>> 32);
+            int row = (int) sorted.get(i).position;
+            rows.add(materialize(chunk, row, fields, loadedByChunk.computeIfAbsent(chunk, k -> new HashMap<>())));
+        }
+        return rows;
+    }
+
+    /**
+     * Group the matching rows and compute the aggregates of each group. Without grouping columns all of the matching rows form a single group.
+     */
+    private List<Map<String,String>> aggregate(CachedResultsQuery query) throws IOException {
+        List<Field> fields = query.getFields();
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("Grouped queries must list their fields");
+        }
+        List<String> grouping = query.getGrouping();
+        int[] groupColumns = new int[grouping.size()];
+        for (int i = 0; i < groupColumns.length; i++) {
+            groupColumns[i] = column(grouping.get(i));
+        }
+        int[] fieldColumns = new int[fields.size()];
+        for (int i = 0; i < fieldColumns.length; i++) {
+            Field field = fields.get(i);
+            if (field.getAggregate() == Aggregate.NONE) {
+                fieldColumns[i] = grouping.indexOf(field.getColumn());
+                if (fieldColumns[i] < 0) {
+                    throw new IllegalArgumentException(field.getColumn() + " must be a grouping column or aggregated");
+                }
+            } else {
+                fieldColumns[i] = (field.getColumn() == null) ? -1 : column(field.getColumn());
+            }
+        }
+
+        Map<List<String>,Group> groups = new LinkedHashMap<>();
+        for (int chunk = 0; chunk < chunks.size(); chunk++) {
+            Map<Integer,ColumnChunk> loaded = new HashMap<>();
+            BitSet selected = filter(chunk, query.getConditions(), loaded);
+            if (selected == null) {
+                continue;
+            }
+            ColumnChunk[] keyValues = new ColumnChunk[groupColumns.length];
+            for (int i = 0; i < groupColumns.length; i++) {
+                keyValues[i] = load(chunk, groupColumns[i], loaded);
+            }
+            ColumnChunk[] fieldValues = new ColumnChunk[fields.size()];
+            for (int i = 0; i < fieldValues.length; i++) {
+                if (fields.get(i).getAggregate() != Aggregate.NONE && fieldColumns[i] >= 0) {
+                    fieldValues[i] = load(chunk, fieldColumns[i], loaded);
+                }
+            }
+            for (int row = selected.nextSetBit(0); row >= 0; row = selected.nextSetBit(row + 1)) {
+                List<String> key = new ArrayList<>(keyValues.length);
+                for (ColumnChunk values : keyValues) {
+                    key.add(values.get(row));
+                }
+                Group group = groups.get(key);
+                if (group == null) {
+                    group = new Group(key, fields.size());
+                    groups.put(key, group);
+                }
+                for (int i = 0; i < fieldValues.length; i++) {
+                    group.add(i, fields.get(i).getAggregate(), fieldValues[i] == null ? null : fieldValues[i].get(row), fieldColumns[i] < 0);
+                }
+            }
+        }
+        if (groupColumns.length == 0 && groups.isEmpty()) {
+            groups.put(Collections.emptyList(), new Group(Collections.emptyList(), fields.size()));
+        }
+
+        List<Group> sorted = new ArrayList<>(groups.values());
+        List<Order> order = query.getOrder();
+        if (order.isEmpty()) {
+            // like a GROUP BY without an ORDER BY in MySQL, order by the grouping columns
+            order = new ArrayList<>();
+            for (String column : grouping) {
+                order.add(new Order(column, true));
+            }
+        }
+        final List<Order> groupOrder = order;
+        sorted.sort((a, b) -> {
+            for (Order o : groupOrder) {
+                int comparison = ValueComparator.INSTANCE.compare(value(a, o.getColumn(), fields, fieldColumns, grouping),
+                                value(b, o.getColumn(), fields, fieldColumns, grouping));
+                if (comparison != 0) {
+                    return o.isAscending() ? comparison : -comparison;
+                }
+            }
+            return 0;
+        });
+
+        List<Map<String,String>> rows = new ArrayList<>(sorted.size());
+        for (Group group : sorted) {
+            Map<String,String> row = new LinkedHashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                row.put(fields.get(i).getLabel(), group.value(i, fields.get(i).getAggregate(), fieldColumns[i]));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * The value of a selected field, by label, or of a grouping column for a group
+     */
+    private static String value(Group group, String name, List<Field> fields, int[] fieldColumns, List<String> grouping) {
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).getLabel().equals(name)) {
+                return group.value(i, fields.get(i).getAggregate(), fieldColumns[i]);
+            }
+        }
+        int index = grouping.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("Can not order grouped results by " + name);
+        }
+        return group.key.get(index);
+    }
+
+    /**
+     * @return the column of a field with the given label, or the name itself
+     */
+    private static String resolve(String name, List<Field> fields) {
+        for (Field field : fields) {
+            if (field.getLabel().equals(name) && field.getAggregate() == Aggregate.NONE) {
+                return field.getColumn();
+            }
+        }
+        return name;
+    }
+
+    private int column(String name) {
+        Integer index = columnIndex.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown column " + name);
+        }
+        return index;
+    }
+
+    /**
+     * Select the rows of a chunk that match all of the conditions
+     *
+     * @return the matching rows, or null if the zone maps show that no row can match
+     */
+    private BitSet filter(int chunk, List<Condition> conditions, Map<Integer,ColumnChunk> loaded) throws IOException {
+        ChunkMeta meta = chunks.get(chunk);
+        for (Condition condition : conditions) {
+            if (!meta.mayMatch(column(condition.getColumn()), condition)) {
+                return null;
+            }
+        }
+        BitSet selected = new BitSet(meta.numRows);
+        selected.set(0, meta.numRows);
+        for (Condition condition : conditions) {
+            ColumnChunk values = load(chunk, column(condition.getColumn()), loaded);
+            boolean[] matches = new boolean[values.dictionary.length];
+            for (int code = 0; code < matches.length; code++) {
+                matches[code] = condition.matches(values.dictionary[code]);
+            }
+            for (int row = selected.nextSetBit(0); row >= 0; row = selected.nextSetBit(row + 1)) {
+                int code = values.codes[row];
+                if (code == ColumnChunk.NULL || !matches[code]) {
+                    selected.clear(row);
+                }
+            }
+        }
+        return selected;
+    }
+
+    private Map<String,String> materialize(int chunk, int row, List<Field> fields, Map<Integer,ColumnChunk> loaded) throws IOException {
+        Map<String,String> values = new LinkedHashMap<>();
+        for (Field field : fields) {
+            values.put(field.getLabel(), load(chunk, column(field.getColumn()), loaded).get(row));
+        }
+        return values;
+    }
+
+    private ColumnChunk load(int chunk, int column, Map<Integer,ColumnChunk> loaded) throws IOException {
+        ColumnChunk values = loaded.get(column);
+        if (values == null) {
+            ChunkMeta meta = chunks.get(chunk);
+            if (files[column] == null) {
+                files[column] = new RandomAccessFile(columnFile(dir, column), "r");
+            }
+            byte[] bytes = new byte[meta.lengths[column]];
+            files[column].seek(meta.offsets[column]);
+            files[column].readFully(bytes);
+            values = ColumnChunk.fromBytes(bytes);
+            loaded.put(column, values);
+        }
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException error = null;
+        for (int i = 0; i < files.length; i++) {
+            if (files[i] != null) {
+                try {
+                    files[i].close();
+                } catch (IOException e) {
+                    error = e;
+                }
+                files[i] = null;
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * A matching row, by chunk and row within the chunk, and its order keys
+     */
+    private static class Candidate {
+        private final long position;
+        private final Object[] keys;
+
+        Candidate(long position, Object[] keys) {
+            this.position = position;
+            this.keys = keys;
+        }
+    }
+
+    /**
+     * The aggregates of one group
+     */
+    private static class Group {
+        private final List<String> key;
+        private final long[] counts;
+        private final String[] values;
+
+        Group(List<String> key, int numFields) {
+            this.key = key;
+            this.counts = new long[numFields];
+            this.values = new String[numFields];
+        }
+
+        void add(int field, Aggregate aggregate, String value, boolean countAll) {
+            switch (aggregate) {
+                case COUNT:
+                    if (countAll || value != null) {
+                        counts[field]++;
+                    }
+                    break;
+                case MIN:
+                    if (value != null && (values[field] == null || ValueComparator.INSTANCE.compare(value, values[field]) < 0)) {
+                        values[field] = value;
+                    }
+                    break;
+                case MAX:
+                    if (value != null && (values[field] == null || ValueComparator.INSTANCE.compare(value, values[field]) > 0)) {
+                        values[field] = value;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        String value(int field, Aggregate aggregate, int fieldColumn) {
+            switch (aggregate) {
+                case NONE:
+                    return key.get(fieldColumn);
+                case COUNT:
+                    return Long.toString(counts[field]);
+                default:
+                    return values[field];
+            }
+        }
+    }
+}
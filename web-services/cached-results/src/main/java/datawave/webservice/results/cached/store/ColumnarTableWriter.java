@@ -0,0 +1,133 @@
+package datawave.webservice.results.cached.store;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes a columnar table, one file per column. Rows are buffered until a chunk is full, then each column of the chunk is dictionary encoded, compressed and
+ * appended to its file. The table metadata, including the zone maps, is written last when the writer is closed, so a table without metadata is incomplete.
+ * A column added after rows have been written is filled with nulls for those rows, one chunk of nulls per chunk already written.
+ */
+class ColumnarTableWriter implements CachedResultsWriter {
+
+    private final File dir;
+    private final List<String> columns;
+    private final int chunkSize;
+
+    private final List<List<String>> buffer = new ArrayList<>();
+    private final List<DataOutputStream> files = new ArrayList<>();
+    private final List<Long> positions = new ArrayList<>();
+    private final List<ChunkMeta> chunks = new ArrayList<>();
+    private int bufferedRows = 0;
+    private long numRows = 0;
+    private boolean closed = false;
+
+    ColumnarTableWriter(File dir, List<String> columns, int chunkSize) throws IOException {
+        this.dir = dir;
+        this.columns = new ArrayList<>(columns.size());
+        this.chunkSize = chunkSize;
+        for (String column : columns) {
+            addColumn(column);
+        }
+    }
+
+    @Override
+    public void addRow(List<String> values) throws IOException {
+        if (values.size() != columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " values but got " + values.size());
+        }
+        for (int i = 0; i < values.size(); i++) {
+            buffer.get(i).add(values.get(i));
+        }
+        bufferedRows++;
+        numRows++;
+        if (bufferedRows >= chunkSize) {
+            flush();
+        }
+    }
+
+    @Override
+    public void addColumn(String column) throws IOException {
+        if (columns.contains(column)) {
+            throw new IllegalArgumentException("Duplicate column " + column);
+        }
+        int index = columns.size();
+        DataOutputStream file = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(ColumnarTable.columnFile(dir, index))));
+        columns.add(column);
+        files.add(file);
+
+        long position = 0;
+        for (ChunkMeta meta : chunks) {
+            ColumnChunk chunk = ColumnChunk.encode(Collections.nCopies(meta.numRows, null));
+            byte[] bytes = chunk.toBytes();
+            file.write(bytes);
+            meta.addColumn(position, bytes.length, chunk);
+            position += bytes.length;
+        }
+        positions.add(position);
+
+        List<String> values = new ArrayList<>(chunkSize);
+        values.addAll(Collections.nCopies(bufferedRows, null));
+        buffer.add(values);
+    }
+
+    @Override
+    public List<String> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    private void flush() throws IOException {
+        if (bufferedRows == 0) {
+            return;
+        }
+        ChunkMeta meta = new ChunkMeta(bufferedRows, columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnChunk chunk = ColumnChunk.encode(buffer.get(i));
+            byte[] bytes = chunk.toBytes();
+            files.get(i).write(bytes);
+            meta.setColumn(i, positions.get(i), bytes.length, chunk);
+            positions.set(i, positions.get(i) + bytes.length);
+            buffer.get(i).clear();
+        }
+        chunks.add(meta);
+        bufferedRows = 0;
+    }
+
+    @Override
+    public long getNumRows() {
+        return numRows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flush();
+        } finally {
+            for (DataOutputStream file : files) {
+                file.close();
+            }
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(ColumnarTable.metaFile(dir))))) {
+            out.writeInt(ColumnarTable.VERSION);
+            out.writeInt(columns.size());
+            for (String column : columns) {
+                out.writeUTF(column);
+            }
+            out.writeLong(numRows);
+            out.writeInt(chunks.size());
+            for (ChunkMeta chunk : chunks) {
+                chunk.write(out);
+            }
+        }
+    }
+}
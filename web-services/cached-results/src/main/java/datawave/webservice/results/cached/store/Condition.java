@@ -0,0 +1,154 @@
+package datawave.webservice.results.cached.store;
+
+import java.util.regex.Pattern;
+
+/**
+ * A comparison of a column with a constant. As in SQL, a null value never matches.
+ */
+public class Condition {
+
+    public enum Operator {
+        EQ("="), NE("!="), LT("<"), LE("<="), GT(">"), GE(">="), LIKE("LIKE"), NOT_LIKE("NOT LIKE");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        public static Operator fromSymbol(String symbol) {
+            String normalized = symbol.trim().toUpperCase().replaceAll("\\s+", " ");
+            if (normalized.equals("<>")) {
+                return NE;
+            }
+            for (Operator operator : values()) {
+                if (operator.symbol.equals(normalized)) {
+                    return operator;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported operator " + symbol);
+        }
+    }
+
+    private final String column;
+    private final Operator operator;
+    private final String value;
+    private final Object key;
+    private final Pattern pattern;
+
+    public Condition(String column, Operator operator, String value) {
+        this.column = column;
+        this.operator = operator;
+        this.value = value;
+        this.key = ValueComparator.key(value);
+        this.pattern = (operator == Operator.LIKE || operator == Operator.NOT_LIKE) ? toPattern(value) : null;
+    }
+
+    /**
+     * Convert a SQL LIKE pattern, where % matches any sequence of characters and _ matches any one character, to a case insensitive regular expression
+     */
+    private static Pattern toPattern(String like) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < like.length(); i++) {
+            char c = like.charAt(i);
+            if (c == '\\' && i + 1 < like.length()) {
+                literal.append(like.charAt(++i));
+            } else if (c == '%' || c == '_') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '%' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public boolean matches(String candidate) {
+        if (candidate == null) {
+            return false;
+        }
+        switch (operator) {
+            case LIKE:
+                return pattern.matcher(candidate).matches();
+            case NOT_LIKE:
+                return !pattern.matcher(candidate).matches();
+            default:
+                return matches(ValueComparator.compareKeys(ValueComparator.key(candidate), key));
+        }
+    }
+
+    private boolean matches(int comparison) {
+        switch (operator) {
+            case EQ:
+                return comparison == 0;
+            case NE:
+                return comparison != 0;
+            case LT:
+                return comparison < 0;
+            case LE:
+                return comparison <= 0;
+            case GT:
+                return comparison > 0;
+            case GE:
+                return comparison >= 0;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Whether any value between min and max, inclusive, could match
+     *
+     * @param min
+     *            the smallest value
+     * @param max
+     *            the largest value
+     * @return false if no value in the range can match
+     */
+    public boolean mayMatch(String min, String max) {
+        Object minKey = ValueComparator.key(min);
+        Object maxKey = ValueComparator.key(max);
+        switch (operator) {
+            case EQ:
+                return ValueComparator.compareKeys(minKey, key) <= 0 && ValueComparator.compareKeys(maxKey, key) >= 0;
+            case NE:
+                return ValueComparator.compareKeys(minKey, key) != 0 || ValueComparator.compareKeys(maxKey, key) != 0;
+            case LT:
+            case LE:
+                return matches(ValueComparator.compareKeys(minKey, key));
+            case GT:
+            case GE:
+                return matches(ValueComparator.compareKeys(maxKey, key));
+            default:
+                return true;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return column + " " + operator.getSymbol() + " '" + value + "'";
+    }
+}
@@ -0,0 +1,49 @@
+package datawave.webservice.results.cached.store;
+
+import java.util.Comparator;
+
+/**
+ * Orders cached result values, which are all stored as strings. Values that are numbers are compared numerically and sort before all other values, which
+ * are compared as strings. Nulls sort first.
+ */
+public class ValueComparator implements Comparator<String> {
+
+    public static final ValueComparator INSTANCE = new ValueComparator();
+
+    @Override
+    public int compare(String a, String b) {
+        return compareKeys(key(a), key(b));
+    }
+
+    /**
+     * Parse a value once so that it can be compared many times with {@link #compareKeys(Object, Object)}
+     *
+     * @param value
+     *            the value
+     * @return a Double for numbers, otherwise the value itself
+     */
+    public static Object key(String value) {
+        if (value == null || value.isEmpty()) {
+            return value;
+        }
+        char c = value.charAt(0);
+        if ((c < '0' || c > '9') && c != '-' && c != '.') {
+            return value;
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            return value;
+        }
+    }
+
+    public static int compareKeys(Object a, Object b) {
+        if (a == null || b == null) {
+            return (a == null) ? (b == null ? 0 : -1) : 1;
+        }
+        if (a instanceof Double) {
+            return (b instanceof Double) ? Double.compare((Double) a, (Double) b) : -1;
+        }
+        return (b instanceof Double) ? 1 : ((String) a).compareTo((String) b);
+    }
+}
@@ -0,0 +1,188 @@
+package datawave.webservice.results.cached;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import datawave.core.query.cache.ResultsPage;
+import datawave.core.query.cachedresults.CacheableLogic;
+import datawave.core.query.cachedresults.CacheableQueryRowImpl;
+import datawave.core.query.logic.QueryLogic;
+import datawave.core.query.logic.QueryLogicTransformer;
+import datawave.marking.MarkingFunctions;
+import datawave.microservice.query.QueryImpl;
+import datawave.microservice.querymetric.QueryMetricFactoryImpl;
+import datawave.webservice.query.cachedresults.CacheableQueryRow;
+import datawave.webservice.query.result.event.ResponseObjectFactory;
+import datawave.webservice.results.cached.store.CachedResultsWriter;
+import datawave.webservice.results.cached.store.ColumnarCachedResultsStore;
+
+/**
+ * Loads rows into a {@link ColumnarCachedResultsStore} the way that {@link CachedResultsBean} does, then pages through them with a {@link CachedRunningQuery}
+ */
+public class CachedRunningQueryStoreTest {
+
+    private static final Logger log = Logger.getLogger(CachedRunningQueryStoreTest.class);
+
+    private static final String COLUMN_VISIBILITY = "columnVisibility";
+    private static final String[] COLORS = {"red", "green", "blue"};
+
+    /**
+     * The transformer of a query logic that supports cached results
+     */
+    private interface CacheableTransformer extends QueryLogicTransformer, CacheableLogic {}
+
+    private final MarkingFunctions markingFunctions = new MarkingFunctions.Default();
+    private final Map<String,Integer> fieldMap = new HashMap<>();
+
+    private File root;
+    private ColumnarCachedResultsStore store;
+    private Connection connection;
+    private QueryLogic<?> logic;
+
+    @Before
+    public void setup() throws Exception {
+        root = Files.createTempDirectory("cachedResults").toFile();
+        // small chunks so that the columns added part way through the load span several chunks
+        store = new ColumnarCachedResultsStore(root, 2);
+        CachedRunningQuery.setStore(store);
+
+        ResponseObjectFactory responseObjectFactory = EasyMock.createMock(ResponseObjectFactory.class);
+        EasyMock.expect(responseObjectFactory.getCacheableQueryRow()).andAnswer(CacheableQueryRowImpl::new).anyTimes();
+        CachedRunningQuery.setResponseObjectFactory(responseObjectFactory);
+
+        CacheableTransformer transformer = EasyMock.createMock(CacheableTransformer.class);
+        EasyMock.expect(transformer.readFromCache(EasyMock.anyObject())).andAnswer(() -> EasyMock.getCurrentArguments()[0]).anyTimes();
+
+        QueryLogic queryLogic = EasyMock.createMock(QueryLogic.class);
+        EasyMock.expect(queryLogic.getLogicName()).andReturn("EventQuery").anyTimes();
+        EasyMock.expect(queryLogic.getEnrichedTransformer(EasyMock.anyObject())).andReturn(transformer).anyTimes();
+        EasyMock.expect(queryLogic.getMarkingFunctions()).andReturn(markingFunctions).anyTimes();
+        logic = queryLogic;
+
+        connection = EasyMock.createNiceMock(Connection.class);
+        EasyMock.replay(responseObjectFactory, transformer, queryLogic, connection);
+
+        CachedResultsBean bean = new CachedResultsBean();
+        try (CachedResultsWriter writer = store.create("t1", new ArrayList<>(CacheableQueryRow.getFixedColumnSet()))) {
+            for (int i = 0; i < 5; i++) {
+                bean.storeRow(writer, "me", "q1", "EventQuery", fieldMap, createRow(i));
+            }
+            bean.storeRow(writer, "you", "q1", "EventQuery", fieldMap, createRow(5));
+        }
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        CachedRunningQuery.setStore(null);
+        store.drop("t1");
+        Assert.assertTrue(root.delete());
+    }
+
+    private CacheableQueryRow createRow(int i) {
+        CacheableQueryRowImpl row = new CacheableQueryRowImpl();
+        row.setMarkingFunctions(markingFunctions);
+        row.setDataType("test");
+        row.setEventId("event" + i);
+        row.setRow("20240101_0");
+        row.setColFam("test\0uid" + i);
+        row.addColumn("COLOR", COLORS[i % 3], Collections.singletonMap(COLUMN_VISIBILITY, "A"), "A", 100L);
+        row.addColumn("SIZE", Integer.toString(i), Collections.singletonMap(COLUMN_VISIBILITY, "B"), "B", 200L);
+        if (i >= 2) {
+            row.addColumn("NOTE", "note " + i, Collections.singletonMap(COLUMN_VISIBILITY, "A"), "A", 100L);
+        }
+        return row;
+    }
+
+    private CachedRunningQuery createQuery(String fields, String conditions, String grouping, String order) throws SQLException {
+        return new CachedRunningQuery(connection, new QueryImpl(), logic, "q2", null, "me", "v1", "t1", fields, conditions, grouping, order, 2,
+                        fieldMap.keySet(), null, new QueryMetricFactoryImpl());
+    }
+
+    private static List<String> eventIds(ResultsPage page) {
+        List<String> eventIds = new ArrayList<>();
+        for (Object result : page.getResults()) {
+            eventIds.add(((CacheableQueryRow) result).getEventId());
+        }
+        return eventIds;
+    }
+
+    /**
+     * Verify that the rows of the user are paged in _eventId_ order, with the markings and timestamps of each field read back for the right column
+     */
+    @Test
+    public void testPaging() throws Exception {
+        CachedRunningQuery crq = createQuery(null, null, null, null);
+        Assert.assertTrue(crq.isStored());
+        Assert.assertTrue(crq.isActivated());
+        Assert.assertEquals(5, crq.getTotalRows());
+
+        Assert.assertEquals(Arrays.asList("event0", "event1"), eventIds(crq.next(0)));
+        ResultsPage page = crq.next(0);
+        Assert.assertEquals(Arrays.asList("event2", "event3"), eventIds(page));
+        Assert.assertEquals(Collections.singletonList("event4"), eventIds(crq.next(0)));
+        Assert.assertTrue(crq.next(0).getResults().isEmpty());
+        // paging back from the end returns the last full page
+        Assert.assertEquals(Arrays.asList("event3", "event4"), eventIds(crq.previous(0)));
+
+        CacheableQueryRowImpl row = (CacheableQueryRowImpl) page.getResults().get(0);
+        Assert.assertEquals("note 2", row.getColumnValues().get("NOTE"));
+        Assert.assertEquals("2", row.getColumnValues().get("SIZE"));
+        Assert.assertEquals("A", row.getColumnVisibility("COLOR"));
+        Assert.assertEquals("A", row.getColumnVisibility("NOTE"));
+        Assert.assertEquals("B", row.getColumnVisibility("SIZE"));
+        Assert.assertEquals(Long.valueOf(200L), row.getColumnTimestamp("SIZE"));
+
+        // the rows written before NOTE was seen have no value for it
+        row = (CacheableQueryRowImpl) crq.getRows(1, 1, 0).getResults().get(0);
+        Assert.assertEquals("event0", row.getEventId());
+        Assert.assertEquals("", row.getColumnValues().get("NOTE"));
+
+        crq.closeConnection(log);
+        Assert.assertFalse(crq.isActivated());
+    }
+
+    /**
+     * Verify that the fields, conditions and grouping of a query are applied to the stored rows, and again after they are updated
+     */
+    @Test
+    public void testGroupingAndUpdate() throws Exception {
+        CachedRunningQuery crq = createQuery("COLOR, COUNT(*) AS TOTAL", null, "COLOR", null);
+        Assert.assertEquals(3, crq.getTotalRows());
+        List<Object> results = crq.getRows(1, 3, 0).getResults();
+        Assert.assertEquals(3, results.size());
+        CacheableQueryRow row = (CacheableQueryRow) results.get(0);
+        Assert.assertEquals("blue", row.getColumnValues().get("COLOR"));
+        Assert.assertEquals("1", row.getColumnValues().get("TOTAL"));
+        Assert.assertEquals("2", ((CacheableQueryRow) results.get(2)).getColumnValues().get("TOTAL"));
+
+        crq.update(null, "SIZE >= 2 AND COLOR <> 'blue'", null, null, null);
+        crq.closeConnection(log);
+        crq.activate(connection, logic);
+        Assert.assertEquals(2, crq.getTotalRows());
+        Assert.assertEquals(Arrays.asList("event3", "event4"), eventIds(crq.next(0)));
+    }
+
+    /**
+     * Verify that a condition outside of the SQL that the store supports is rejected
+     */
+    @Test(expected = SQLException.class)
+    public void testUnsupportedCondition() throws Exception {
+        createQuery(null, "COLOR = 'red' OR SIZE = '1'", null, null);
+    }
+}
@@ -1,13 +1,20 @@
 package datawave.webservice.results.cached;
 
 import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
 
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+
 import org.apache.commons.lang.StringUtils;
 import org.junit.Assert;
 import org.junit.Before;
@@ -326,4 +333,50 @@ public class CachedRunningQueryTest {
             Assert.assertEquals(expected[i], got);
         }
     }
+
+    @Test
+    public void testKeysetOrdering() throws Exception {
+        PowerMock.field(CachedRunningQuery.class, "sqlQuery").set(crq, "SELECT * FROM v WHERE _user_ = 'me'");
+        Assert.assertTrue((Boolean) Whitebox.invokeMethod(crq, "isKeysetOrdered"));
+        PowerMock.field(CachedRunningQuery.class, "sqlQuery").set(crq, "SELECT * FROM v WHERE _user_ = 'me' ORDER BY `foo.bar`");
+        Assert.assertFalse((Boolean) Whitebox.invokeMethod(crq, "isKeysetOrdered"));
+    }
+
+    @Test
+    public void testBookmarks() throws Exception {
+        PowerMock.field(CachedRunningQuery.class, "sqlQuery").set(crq, "SELECT * FROM v WHERE _user_ = 'me'");
+
+        // the row after rows 11 through 13 is the second row with an _eventId_ of at least b
+        Whitebox.invokeMethod(crq, "addBookmark", eventIds("a", "b", "b"), 11, 3);
+        TreeMap<Integer,?> bookmarks = Whitebox.invokeMethod(crq, "getBookmarks");
+        Assert.assertEquals(Collections.singleton(14), bookmarks.keySet());
+        Assert.assertEquals("b", Whitebox.getInternalState(bookmarks.get(14), "eventId"));
+        Assert.assertEquals(2, (int) Whitebox.getInternalState(bookmarks.get(14), "ties"));
+
+        // the run of b may have started on an earlier page
+        Whitebox.invokeMethod(crq, "addBookmark", eventIds("b", "b"), 14, 2);
+        Assert.assertEquals(Collections.singleton(14), bookmarks.keySet());
+
+        // bookmarks are dropped when the query changes
+        PowerMock.field(CachedRunningQuery.class, "sqlQuery").set(crq, "SELECT * FROM v WHERE _user_ = 'you'");
+        bookmarks = Whitebox.invokeMethod(crq, "getBookmarks");
+        Assert.assertTrue(bookmarks.isEmpty());
+    }
+
+    private static CachedRowSet eventIds(String... eventIds) throws SQLException {
+        CachedRowSet crs = RowSetProvider.newFactory().createCachedRowSet();
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(1);
+        metaData.setColumnName(1, "_eventId_");
+        metaData.setColumnType(1, Types.VARCHAR);
+        crs.setMetaData(metaData);
+        // inserted rows go in front of the cursor, so insert them last to first
+        for (int i = eventIds.length - 1; i >= 0; i--) {
+            crs.moveToInsertRow();
+            crs.updateString(1, eventIds[i]);
+            crs.insertRow();
+            crs.moveToCurrentRow();
+        }
+        return crs;
+    }
 }
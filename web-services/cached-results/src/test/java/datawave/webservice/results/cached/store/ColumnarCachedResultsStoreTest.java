@@ -0,0 +1,167 @@
+package datawave.webservice.results.cached.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ColumnarCachedResultsStoreTest {
+
+    private static final List<String> COLUMNS = Arrays.asList("_eventId_", "COLOR", "SIZE", "NOTE");
+    private static final String[] COLORS = {"red", "green", "blue"};
+
+    private File root;
+    private ColumnarCachedResultsStore store;
+
+    @Before
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("cachedResults").toFile();
+        // small chunks so that the queries cross chunk boundaries and zone maps can skip chunks
+        store = new ColumnarCachedResultsStore(root, 100);
+        try (CachedResultsWriter writer = store.create("t1", COLUMNS)) {
+            for (int i = 0; i < 1000; i++) {
+                writer.addRow(Arrays.asList(String.format("event%04d", i), COLORS[i % 3], Integer.toString(i), (i % 10 == 0) ? null : "note " + i));
+            }
+            Assert.assertEquals(1000, writer.getNumRows());
+        }
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        store.drop("t1");
+        Assert.assertFalse(store.exists("t1"));
+        Assert.assertTrue(root.delete());
+    }
+
+    @Test
+    public void testPaging() throws IOException {
+        try (CachedResultsTable table = store.open("t1")) {
+            Assert.assertEquals(COLUMNS, table.getColumns());
+            Assert.assertEquals(1000, table.getNumRows());
+
+            CachedResultsQuery query = CachedResultsQuery.parse(null, null, null, null);
+            Assert.assertEquals(1000, table.count(query));
+            List<Map<String,String>> rows = table.select(query, 195, 10);
+            Assert.assertEquals(10, rows.size());
+            Assert.assertEquals("event0195", rows.get(0).get("_eventId_"));
+            Assert.assertEquals("event0204", rows.get(9).get("_eventId_"));
+            Assert.assertEquals(COLUMNS, new ArrayList<>(rows.get(0).keySet()));
+            Assert.assertNull(rows.get(5).get("NOTE"));
+
+            Assert.assertEquals(5, table.select(query, 995, 10).size());
+            Assert.assertTrue(table.select(query, 1000, 10).isEmpty());
+        }
+    }
+
+    @Test
+    public void testConditions() throws IOException {
+        try (CachedResultsTable table = store.open("t1")) {
+            // SIZE is compared as a number, so the zone maps skip every chunk but the last
+            CachedResultsQuery query = CachedResultsQuery.parse("_eventId_, `SIZE`", "COLOR = 'red' AND SIZE >= 950", null, null);
+            Assert.assertEquals(17, table.count(query));
+            List<Map<String,String>> rows = table.select(query, 0, 100);
+            Assert.assertEquals(17, rows.size());
+            Assert.assertEquals("951", rows.get(0).get("SIZE"));
+            Assert.assertEquals(Arrays.asList("_eventId_", "SIZE"), new ArrayList<>(rows.get(0).keySet()));
+
+            Assert.assertEquals(0, table.count(CachedResultsQuery.parse(null, "SIZE > 5000", null, null)));
+            // nulls never match
+            Assert.assertEquals(900, table.count(CachedResultsQuery.parse(null, "NOTE LIKE 'NOTE %'", null, null)));
+            Assert.assertEquals(10, table.count(CachedResultsQuery.parse(null, "NOTE like '%99'", null, null)));
+            Assert.assertEquals(666, table.count(CachedResultsQuery.parse(null, "COLOR <> 'red'", null, null)));
+        }
+    }
+
+    @Test
+    public void testOrder() throws IOException {
+        try (CachedResultsTable table = store.open("t1")) {
+            CachedResultsQuery query = CachedResultsQuery.parse("_eventId_, SIZE AS S", "COLOR = 'blue'", null, "S DESC");
+            List<Map<String,String>> rows = table.select(query, 0, 3);
+            Assert.assertEquals(Arrays.asList("998", "995", "992"), Arrays.asList(rows.get(0).get("S"), rows.get(1).get("S"), rows.get(2).get("S")));
+
+            rows = table.select(query, 330, 10);
+            Assert.assertEquals(3, rows.size());
+            Assert.assertEquals("2", rows.get(2).get("S"));
+
+            // ties are returned in the order the rows were written
+            rows = table.select(CachedResultsQuery.parse("_eventId_", null, null, "COLOR"), 0, 2);
+            Assert.assertEquals("event0002", rows.get(0).get("_eventId_"));
+            Assert.assertEquals("event0005", rows.get(1).get("_eventId_"));
+        }
+    }
+
+    @Test
+    public void testGrouping() throws IOException {
+        try (CachedResultsTable table = store.open("t1")) {
+            CachedResultsQuery query = CachedResultsQuery.parse("COLOR, COUNT(*) AS TOTAL, MIN(SIZE), MAX(`SIZE`), COUNT(NOTE)", "SIZE < 100", "COLOR", null);
+            Assert.assertEquals(3, table.count(query));
+            List<Map<String,String>> rows = table.select(query, 0, 10);
+            Assert.assertEquals(3, rows.size());
+            Assert.assertEquals("blue", rows.get(0).get("COLOR"));
+            Assert.assertEquals("33", rows.get(0).get("TOTAL"));
+            Assert.assertEquals("2", rows.get(0).get("MIN(SIZE)"));
+            Assert.assertEquals("98", rows.get(0).get("MAX(SIZE)"));
+            Assert.assertEquals("red", rows.get(2).get("COLOR"));
+            Assert.assertEquals("34", rows.get(2).get("TOTAL"));
+            Assert.assertEquals("30", rows.get(2).get("COUNT(NOTE)"));
+
+            rows = table.select(CachedResultsQuery.parse("COLOR, COUNT(*) AS TOTAL", null, "COLOR", "TOTAL DESC, COLOR"), 0, 1);
+            Assert.assertEquals("red", rows.get(0).get("COLOR"));
+
+            rows = table.select(CachedResultsQuery.parse("COUNT(*)", "SIZE > 5000", null, null), 0, 10);
+            Assert.assertEquals(1, rows.size());
+            Assert.assertEquals("0", rows.get(0).get("COUNT(*)"));
+        }
+    }
+
+    @Test
+    public void testAddColumn() throws IOException {
+        try (CachedResultsWriter writer = store.create("t2", Arrays.asList("_eventId_", "COLOR"))) {
+            for (int i = 0; i < 250; i++) {
+                if (i == 150) {
+                    // added part way through a chunk, after a chunk has been written
+                    writer.addColumn("SIZE");
+                }
+                List<String> values = new ArrayList<>(Arrays.asList(String.format("event%04d", i), COLORS[i % 3]));
+                if (i >= 150) {
+                    values.add(Integer.toString(i));
+                }
+                writer.addRow(values);
+            }
+            Assert.assertEquals(Arrays.asList("_eventId_", "COLOR", "SIZE"), writer.getColumns());
+        }
+        try (CachedResultsTable table = store.open("t2")) {
+            Assert.assertEquals(Arrays.asList("_eventId_", "COLOR", "SIZE"), table.getColumns());
+            Assert.assertEquals(250, table.getNumRows());
+            // the rows written before the column was added have no value for it
+            Assert.assertEquals(100, table.count(CachedResultsQuery.parse(null, "SIZE >= 0", null, null)));
+            List<Map<String,String>> rows = table.select(CachedResultsQuery.parse(null, null, null, null), 149, 2);
+            Assert.assertNull(rows.get(0).get("SIZE"));
+            Assert.assertEquals("150", rows.get(1).get("SIZE"));
+        } finally {
+            store.drop("t2");
+        }
+    }
+
+    @Test
+    public void testDropCreatedBefore() throws IOException {
+        Assert.assertTrue(store.dropCreatedBefore(System.currentTimeMillis() - 60000).isEmpty());
+        Assert.assertTrue(store.exists("t1"));
+        Assert.assertTrue(new File(root, "t1").setLastModified(System.currentTimeMillis() - 120000));
+        Assert.assertEquals(Arrays.asList("t1"), store.dropCreatedBefore(System.currentTimeMillis() - 60000));
+        Assert.assertFalse(store.exists("t1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedCondition() {
+        CachedResultsQuery.parse(null, "COLOR = 'red' OR SIZE > 3", null, null);
+    }
+}
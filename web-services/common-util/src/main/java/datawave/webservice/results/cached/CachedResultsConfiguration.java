@@ -45,4 +45,11 @@ public class CachedResultsConfiguration {
     public int getRowsPerBatch() {
         return Integer.parseInt(getParameters().get("ROWS_PER_BATCH"));
     }
+
+    /**
+     * @return the directory of the columnar store that cached results are loaded into, or blank to load them into database tables
+     */
+    public String getStoreDir() {
+        return getParameters().get("STORE_DIR");
+    }
 }
@@ -21,14 +21,18 @@ import datawave.security.websocket.WebsocketSecurityConfigurator;
 import datawave.security.websocket.WebsocketSecurityInterceptor;
 import datawave.webservice.query.exception.QueryException;
 import datawave.webservice.query.runner.AsyncQueryStatusObserver;
+import datawave.webservice.query.runner.CreditFlowControl;
 import datawave.webservice.query.runner.QueryExecutorBean;
 import datawave.webservice.result.BaseQueryResponse;
 import datawave.webservice.result.GenericResponse;
 import datawave.webservice.result.VoidResponse;
 import datawave.webservice.websocket.codec.JsonQueryMessageDecoder;
+import datawave.webservice.websocket.codec.QueryResponseMessageBinaryEncoder;
 import datawave.webservice.websocket.codec.QueryResponseMessageJsonEncoder;
+import datawave.webservice.websocket.messages.BinaryQueryResponseMessage;
 import datawave.webservice.websocket.messages.CancelMessage;
 import datawave.webservice.websocket.messages.CreateQueryMessage;
+import datawave.webservice.websocket.messages.CreditMessage;
 import datawave.webservice.websocket.messages.QueryMessage;
 import datawave.webservice.websocket.messages.QueryResponseMessage;
 import datawave.webservice.websocket.messages.QueryResponseMessage.ResponseType;
@@ -40,13 +44,19 @@ import datawave.webservice.websocket.messages.QueryResponseMessage.ResponseType;
  * {@link CancelMessage} while the query is in progress in order to cancel execution of the query. Note that if there is a problem creating the query, a
  * creation failure message is sent and the websocket is closed.
  * <p>
+ * A client that wants results streamed as they are produced, rather than in large pages, may request a small page size and enable flow control with
+ * {@link CreateQueryMessage#STREAM_CREDITS}. The server then only computes and sends the next page once the client has granted a credit for it with a
+ * {@link CreditMessage}, so a slow client applies backpressure all the way to the scanners instead of having pages pile up in memory. Responses may also be
+ * sent as binary protobuf messages, see {@link CreateQueryMessage#STREAM_ENCODING}.
+ * <p>
  * Per the JSR-356 specification (section 2.1.1), since we have not configured the endpoint otherwise, there shall be one instance of this class per endpoint,
  * per peer.
  * <p>
  * <strong>NOTE: </strong> This uses vendor-specific security extensions to work around a websocket specification hole. See
  * <a href="https://java.net/jira/browse/WEBSOCKET_SPEC-238">WEBSOCKET_SPEC-238</a> for more details.
  */
-@ServerEndpoint(value = "/{logic-name}", encoders = {QueryResponseMessageJsonEncoder.class}, decoders = {JsonQueryMessageDecoder.class},
+@ServerEndpoint(value = "/{logic-name}", encoders = {QueryResponseMessageJsonEncoder.class, QueryResponseMessageBinaryEncoder.class},
+                decoders = {JsonQueryMessageDecoder.class},
                 configurator = WebsocketSecurityConfigurator.class // required to propagate security along to individual websocket notification calls
 )
 @Interceptors({WebsocketSecurityInterceptor.class})
@@ -55,6 +65,7 @@ public class QueryWebsocket {
     private static final String LOGIC_NAME = "logicName";
     private static final String ACTIVE_QUERY_FUTURE = "activeQueryFuture";
     private static final String ACTIVE_QUERY_ID = "activeQueryId";
+    private static final String ACTIVE_QUERY_OBSERVER = "activeQueryObserver";
 
     private Logger log = LoggerFactory.getLogger(getClass());
 
@@ -81,7 +92,8 @@ public class QueryWebsocket {
                 } else {
                     CreateQueryMessage cqm = (CreateQueryMessage) message;
                     String logicName = (String) session.getUserProperties().get(LOGIC_NAME);
-                    QueryObserver observer = new QueryObserver(log, session);
+                    QueryObserver observer = new QueryObserver(log, session, cqm.getInitialCredits(), cqm.isBinary());
+                    session.getUserProperties().put(ACTIVE_QUERY_OBSERVER, observer);
 
                     Long startTime = System.nanoTime();
                     Long loginTime = null;
@@ -100,10 +112,22 @@ public class QueryWebsocket {
                 cancelActiveQuery(session);
             }
                 break;
+            case CREDIT: {
+                QueryObserver observer = (QueryObserver) session.getUserProperties().get(ACTIVE_QUERY_OBSERVER);
+                if (observer != null) {
+                    observer.addCredits(((CreditMessage) message).getCredits());
+                }
+            }
+                break;
         }
     }
 
     protected void cancelActiveQuery(Session session) {
+        // Release the async call if it is waiting for credits so that it stops before computing another page.
+        QueryObserver observer = (QueryObserver) session.getUserProperties().get(ACTIVE_QUERY_OBSERVER);
+        if (observer != null) {
+            observer.cancel();
+        }
         Future<?> activeQuery = (Future<?>) session.getUserProperties().get(ACTIVE_QUERY_FUTURE);
         if (activeQuery != null && !activeQuery.isDone()) {
             // Attempt to cancel the async query call. This will cause the async call to return when it is between next calls.
@@ -123,28 +147,67 @@ public class QueryWebsocket {
     private static class QueryObserver implements AsyncQueryStatusObserver {
         private Logger log;
         private Session session;
+        // the credits granted by the client, or null if the query is not flow controlled
+        private CreditFlowControl credits;
+        private boolean binary;
+        private volatile boolean cancelled = false;
 
-        public QueryObserver(Logger log, Session session) {
+        public QueryObserver(Logger log, Session session, Integer initialCredits, boolean binary) {
             this.log = log;
             this.session = session;
+            this.credits = initialCredits == null ? null : new CreditFlowControl(initialCredits, session::isOpen);
+            this.binary = binary;
+        }
+
+        @Override
+        public boolean awaitDemand() throws InterruptedException {
+            if (credits != null) {
+                return credits.awaitDemand();
+            }
+            return !cancelled && session.isOpen();
+        }
+
+        public void addCredits(int count) {
+            if (credits != null) {
+                credits.addCredits(count);
+            }
+        }
+
+        public void cancel() {
+            cancelled = true;
+            if (credits != null) {
+                credits.cancel();
+            }
+        }
+
+        private void send(QueryResponseMessage message) {
+            if (!session.isOpen()) {
+                // the client went away, possibly while the query was waiting for credits
+                return;
+            }
+            if (binary) {
+                session.getAsyncRemote().sendObject(new BinaryQueryResponseMessage(message));
+            } else {
+                session.getAsyncRemote().sendObject(message);
+            }
         }
 
         @Override
         public void queryCreated(GenericResponse<String> createQueryResponse) {
             session.getUserProperties().put(ACTIVE_QUERY_ID, createQueryResponse.getResult());
-            session.getAsyncRemote().sendObject(new QueryResponseMessage(ResponseType.CREATED, createQueryResponse.getResult()));
+            send(new QueryResponseMessage(ResponseType.CREATED, createQueryResponse.getResult()));
         }
 
         @Override
         public void queryResultsAvailable(BaseQueryResponse results) {
-            session.getAsyncRemote().sendObject(new QueryResponseMessage(ResponseType.RESULTS, results));
+            send(new QueryResponseMessage(ResponseType.RESULTS, results));
         }
 
         @Override
         public void queryCreateException(QueryException ex) {
             VoidResponse response = new VoidResponse();
             response.addException(ex);
-            session.getAsyncRemote().sendObject(new QueryResponseMessage(ResponseType.CREATION_FAILURE, "Query creation failed", response));
+            send(new QueryResponseMessage(ResponseType.CREATION_FAILURE, "Query creation failed", response));
             try {
                 session.close();
             } catch (IOException e) {
@@ -157,18 +220,20 @@ public class QueryWebsocket {
         public void queryException(QueryException ex) {
             session.getUserProperties().remove(ACTIVE_QUERY_ID);
             session.getUserProperties().remove(ACTIVE_QUERY_FUTURE);
+            session.getUserProperties().remove(ACTIVE_QUERY_OBSERVER);
 
             VoidResponse response = new VoidResponse();
             response.addException(ex);
-            session.getAsyncRemote().sendObject(new QueryResponseMessage(ResponseType.ERROR, response));
+            send(new QueryResponseMessage(ResponseType.ERROR, response));
         }
 
         @Override
         public void queryFinished(String queryId) {
             session.getUserProperties().remove(ACTIVE_QUERY_ID);
             session.getUserProperties().remove(ACTIVE_QUERY_FUTURE);
+            session.getUserProperties().remove(ACTIVE_QUERY_OBSERVER);
 
-            session.getAsyncRemote().sendObject(new QueryResponseMessage(ResponseType.COMPLETED));
+            send(new QueryResponseMessage(ResponseType.COMPLETED));
             try {
                 session.close();
             } catch (IOException e) {
@@ -15,6 +15,7 @@ import org.jboss.resteasy.specimpl.MultivaluedMapImpl;
 
 import datawave.webservice.websocket.messages.CancelMessage;
 import datawave.webservice.websocket.messages.CreateQueryMessage;
+import datawave.webservice.websocket.messages.CreditMessage;
 import datawave.webservice.websocket.messages.QueryMessage;
 
 /**
@@ -34,8 +35,26 @@ public class JsonQueryMessageDecoder implements Decoder.Text<QueryMessage> {
         }
         if (map.size() == 1 && map.containsKey("cancel"))
             return new CancelMessage();
+        else if (map.size() == 1 && map.containsKey("credits"))
+            return new CreditMessage(parseCredits(map.getFirst("credits")));
         else
+            return createQueryMessage(map, s);
+    }
+
+    private CreateQueryMessage createQueryMessage(MultivaluedMap<String,String> map, String s) throws DecodeException {
+        try {
             return new CreateQueryMessage(map);
+        } catch (NumberFormatException e) {
+            throw new DecodeException(s, CreateQueryMessage.STREAM_CREDITS + " must be an integer", e);
+        }
+    }
+
+    private int parseCredits(String credits) throws DecodeException {
+        try {
+            return Integer.parseInt(credits);
+        } catch (NumberFormatException e) {
+            throw new DecodeException(credits, "Credits must be an integer", e);
+        }
     }
 
     private void addValueToMap(String key, JsonParser parser, MultivaluedMap<String,String> map) {
@@ -0,0 +1,64 @@
+package datawave.webservice.websocket.codec;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.websocket.EncodeException;
+import javax.websocket.Encoder;
+import javax.websocket.EndpointConfig;
+
+import io.protostuff.LinkedBuffer;
+import io.protostuff.Message;
+import io.protostuff.ProtobufIOUtil;
+import io.protostuff.Schema;
+import io.protostuff.runtime.RuntimeSchema;
+
+import datawave.webservice.result.BaseResponse;
+import datawave.webservice.websocket.messages.BinaryQueryResponseMessage;
+import datawave.webservice.websocket.messages.QueryResponseMessage;
+
+/**
+ * Encodes a {@link QueryResponseMessage} into a compact binary frame, writing the results to the supplied stream. The frame holds the ordinal of the response
+ * type as a single byte, the optional message as a UTF string preceded by a boolean indicating whether it is present, and finally the optional
+ * {@link BaseResponse} encoded as protobuf, which takes up the remainder of the frame.
+ */
+public class QueryResponseMessageBinaryEncoder implements Encoder.BinaryStream<BinaryQueryResponseMessage> {
+    private LinkedBuffer buffer;
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void encode(BinaryQueryResponseMessage object, OutputStream os) throws EncodeException, IOException {
+        QueryResponseMessage message = object.getMessage();
+        DataOutputStream out = new DataOutputStream(os);
+        out.writeByte(message.getResponseType().ordinal());
+        out.writeBoolean(message.getMessage() != null);
+        if (message.getMessage() != null) {
+            out.writeUTF(message.getMessage());
+        }
+        out.flush();
+
+        BaseResponse response = message.getBaseResponse();
+        if (response != null) {
+            Schema<Object> schema;
+            if (response instanceof Message) {
+                schema = ((Message<Object>) response).cachedSchema();
+            } else {
+                schema = (Schema<Object>) RuntimeSchema.getSchema(response.getClass());
+            }
+            try {
+                ProtobufIOUtil.writeTo(os, response, schema, buffer);
+            } finally {
+                buffer.clear();
+            }
+        }
+    }
+
+    @Override
+    public void init(EndpointConfig config) {
+        buffer = LinkedBuffer.allocate(4096);
+    }
+
+    @Override
+    public void destroy() {}
+}
@@ -0,0 +1,17 @@
+package datawave.webservice.websocket.messages;
+
+/**
+ * Wraps a {@link QueryResponseMessage} that should be sent to the client as a binary websocket message rather than as JSON text. See
+ * {@link datawave.webservice.websocket.codec.QueryResponseMessageBinaryEncoder} for the format.
+ */
+public class BinaryQueryResponseMessage {
+    private QueryResponseMessage message;
+
+    public BinaryQueryResponseMessage(QueryResponseMessage message) {
+        this.message = message;
+    }
+
+    public QueryResponseMessage getMessage() {
+        return message;
+    }
+}
@@ -23,18 +23,47 @@ import javax.ws.rs.core.MultivaluedMap;
  * }
  * }
  * </pre>
+ *
+ * Two optional parameters control how results are streamed back and are not passed on to the query. {@value #STREAM_CREDITS} enables flow control: it is the
+ * number of pages the server may send before the client grants more with a {@link CreditMessage}. A small "pagesize" combined with flow control streams results
+ * in small batches as they are produced. {@value #STREAM_ENCODING} selects the encoding of the responses, either "json" (the default) or "binary", which sends
+ * each response as a binary message holding the protobuf encoded result page.
  */
 public class CreateQueryMessage implements QueryMessage {
+    public static final String STREAM_CREDITS = "stream.credits";
+    public static final String STREAM_ENCODING = "stream.encoding";
+    public static final String BINARY_ENCODING = "binary";
+
     private MultivaluedMap<String,String> parameters;
+    private Integer initialCredits;
+    private boolean binary;
 
     public CreateQueryMessage(MultivaluedMap parameters) {
         this.parameters = parameters;
+        String credits = this.parameters.getFirst(STREAM_CREDITS);
+        if (credits != null) {
+            this.initialCredits = Integer.valueOf(credits);
+        }
+        this.binary = BINARY_ENCODING.equalsIgnoreCase(this.parameters.getFirst(STREAM_ENCODING));
+        this.parameters.remove(STREAM_CREDITS);
+        this.parameters.remove(STREAM_ENCODING);
     }
 
     public MultivaluedMap<String,String> getParameters() {
         return parameters;
     }
 
+    /**
+     * @return the number of pages that may be sent before the client grants more, or null if the query is not flow controlled
+     */
+    public Integer getInitialCredits() {
+        return initialCredits;
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
     @Override
     public Type getType() {
         return Type.CREATE;
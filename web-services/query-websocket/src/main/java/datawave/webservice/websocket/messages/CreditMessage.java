@@ -0,0 +1,29 @@
+package datawave.webservice.websocket.messages;
+
+/**
+ * A query message for clients to send to indicate they are ready to receive more pages of results. Only used when the query was created with flow control, see
+ * {@link CreateQueryMessage#STREAM_CREDITS}. The client should send a JSON message with a single property "credits" set to the number of additional pages it
+ * will accept. For example,
+ *
+ * <pre>
+ * <code>
+ * { "credits": 5 }
+ * </code>
+ * </pre>
+ */
+public class CreditMessage implements QueryMessage {
+    private final int credits;
+
+    public CreditMessage(int credits) {
+        this.credits = credits;
+    }
+
+    public int getCredits() {
+        return credits;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.CREDIT;
+    }
+}
@@ -17,4 +17,15 @@ public interface AsyncQueryStatusObserver {
     void queryException(QueryException ex);
 
     void queryFinished(String queryId);
+
+    /**
+     * Called before each page of results is requested. An observer that applies flow control may block until its client is ready for more results.
+     *
+     * @return false if no more results should be requested
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     */
+    default boolean awaitDemand() throws InterruptedException {
+        return true;
+    }
 }
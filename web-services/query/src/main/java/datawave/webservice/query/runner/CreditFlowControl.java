@@ -0,0 +1,72 @@
+package datawave.webservice.query.runner;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Credit based flow control for an {@link AsyncQueryStatusObserver}. Each page of results consumes one credit, and {@link #awaitDemand()} blocks the query
+ * until the client grants another with {@link #addCredits(int)}, the query is cancelled, or the client goes away.
+ */
+public class CreditFlowControl {
+    // how often a waiting query checks whether the client is still open
+    private static final long POLL_MILLIS = 100;
+
+    private final Semaphore credits;
+    private final BooleanSupplier open;
+    private volatile boolean cancelled = false;
+
+    /**
+     * @param initialCredits
+     *            the number of pages the client will accept before granting more credits
+     * @param open
+     *            whether the client is still connected
+     */
+    public CreditFlowControl(int initialCredits, BooleanSupplier open) {
+        this.credits = new Semaphore(Math.max(0, initialCredits));
+        this.open = open;
+    }
+
+    /**
+     * Wait for a credit for the next page, consuming it
+     *
+     * @return false if the query was cancelled or the client went away, in which case no more pages should be requested
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     */
+    public boolean awaitDemand() throws InterruptedException {
+        while (!cancelled && open.getAsBoolean()) {
+            if (credits.tryAcquire(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                break;
+            }
+        }
+        return !cancelled && open.getAsBoolean();
+    }
+
+    /**
+     * Grant credits for more pages
+     *
+     * @param count
+     *            the number of pages, ignored unless positive
+     */
+    public void addCredits(int count) {
+        if (count > 0) {
+            credits.release(count);
+        }
+    }
+
+    /**
+     * Cancel the query, releasing a query waiting for credits
+     */
+    public void cancel() {
+        cancelled = true;
+        credits.release();
+    }
+
+    /**
+     * @return the number of credits not yet consumed
+     */
+    public int getAvailableCredits() {
+        return credits.availablePermits();
+    }
+}
@@ -3442,6 +3442,16 @@ public class QueryExecutorBean implements QueryExecutor {
             // Loop over each page of query results, and notify the observer about each page.
             // If we get any exception, then break out of the loop and notify the observer about the problem.
             do {
+                // wait until the observer is ready for another page
+                try {
+                    if (!observer.awaitDemand()) {
+                        break;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+
                 long callStart = System.nanoTime();
                 rq.setActiveCall(true);
                 try {
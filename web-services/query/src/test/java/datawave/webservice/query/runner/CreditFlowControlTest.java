@@ -0,0 +1,95 @@
+package datawave.webservice.query.runner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class CreditFlowControlTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean open = new AtomicBoolean(true);
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testInitialCreditsConsumed() throws InterruptedException {
+        CreditFlowControl credits = new CreditFlowControl(2, open::get);
+        assertTrue(credits.awaitDemand());
+        assertTrue(credits.awaitDemand());
+        assertEquals(0, credits.getAvailableCredits());
+    }
+
+    @Test
+    public void testBlocksUntilCreditsGranted() throws Exception {
+        CreditFlowControl credits = new CreditFlowControl(0, open::get);
+        Future<Boolean> demand = executor.submit(credits::awaitDemand);
+        assertBlocked(demand);
+
+        credits.addCredits(0);
+        assertBlocked(demand);
+
+        credits.addCredits(1);
+        assertTrue(demand.get(5, TimeUnit.SECONDS));
+        assertEquals(0, credits.getAvailableCredits());
+    }
+
+    @Test
+    public void testCancelReleasesWaitingQuery() throws Exception {
+        CreditFlowControl credits = new CreditFlowControl(0, open::get);
+        Future<Boolean> demand = executor.submit(credits::awaitDemand);
+        assertBlocked(demand);
+
+        credits.cancel();
+        assertFalse(demand.get(5, TimeUnit.SECONDS));
+        // no further pages once cancelled, even with credits
+        credits.addCredits(5);
+        assertFalse(credits.awaitDemand());
+    }
+
+    @Test
+    public void testClosedClientReleasesWaitingQuery() throws Exception {
+        CreditFlowControl credits = new CreditFlowControl(0, open::get);
+        Future<Boolean> demand = executor.submit(credits::awaitDemand);
+        assertBlocked(demand);
+
+        open.set(false);
+        assertFalse(demand.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = InterruptedException.class)
+    public void testInterruptedWhileWaiting() throws Throwable {
+        CreditFlowControl credits = new CreditFlowControl(0, open::get);
+        Future<Boolean> demand = executor.submit(credits::awaitDemand);
+        assertBlocked(demand);
+
+        executor.shutdownNow();
+        try {
+            demand.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void assertBlocked(Future<Boolean> demand) throws InterruptedException, ExecutionException {
+        try {
+            demand.get(300, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return;
+        }
+        throw new AssertionError("expected the query to wait for credits");
+    }
+}